@@ -17,7 +17,6 @@ import butterknife.ButterKnife;
 import butterknife.InjectView;
 import butterknife.OnClick;
 import dental.beam.openglsamplegame.sprites.TextSprite;
-import dental.beam.openglsamplegame.sprites.TextureSprite;
 import timber.log.Timber;
 
 public class GameActivity extends AppCompatActivity implements ViewTreeObserver.OnGlobalLayoutListener
@@ -63,7 +62,6 @@ public class GameActivity extends AppCompatActivity implements ViewTreeObserver.
 	@Override
 	protected void onDestroy ()
 	{
-		TextureSprite.clearTextureCache();
 		_gameGLSurfaceView.exitGame();
 		super.onDestroy();
 	}
@@ -1,6 +1,5 @@
 package dental.beam.openglsamplegame;
 
-import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
 import android.opengl.Matrix;
 
@@ -8,7 +7,7 @@ import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
 import dental.beam.openglsamplegame.engine.GameEngine;
-import dental.beam.openglsamplegame.sprites.TextureSprite;
+import dental.beam.openglsamplegame.render.GL;
 import timber.log.Timber;
 
 public class GameGLRenderer implements GLSurfaceView.Renderer
@@ -19,25 +18,32 @@ public class GameGLRenderer implements GLSurfaceView.Renderer
 	private final float[] _viewMatrix = new float[16];
 	// endregion
 
+	private final GL _gl;
 	private GameEngine _engine;
 
 	private long fpsTime = System.nanoTime();
 	private int frames;
 
+	/**
+	 * @param gl every gl call the renderer, the engine and the sprites make goes through this
+	 */
+	public GameGLRenderer (GL gl)
+	{
+		_gl = gl;
+	}
+
 	@Override
 	public void onSurfaceCreated (GL10 gl, EGLConfig config)
 	{
 		Timber.d("onSurface created");
 
-		GLES20.glClearColor(0.09019f, 0.10588f, 0.13333f, 0.0f);
-
-		GLES20.glEnable(GLES20.GL_BLEND);
-		GLES20.glBlendEquation(GLES20.GL_FUNC_ADD);
-		GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+		_gl.glClearColor(0.09019f, 0.10588f, 0.13333f, 0.0f);
 
-		GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+		_gl.glEnable(GL.GL_BLEND);
+		_gl.glBlendEquation(GL.GL_FUNC_ADD);
+		_gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
 
-		TextureSprite.initGlState();
+		_gl.glEnable(GL.GL_DEPTH_TEST);
 
 		_engine.initSprites();
 	}
@@ -56,7 +62,7 @@ public class GameGLRenderer implements GLSurfaceView.Renderer
 		Timber.d("surface changed");
 
 		// Adjust the viewport
-		GLES20.glViewport(0, 0, width, height);
+		_gl.glViewport(0, 0, width, height);
 
 		float ratio = (float) height / width;
 
@@ -78,13 +84,14 @@ public class GameGLRenderer implements GLSurfaceView.Renderer
 	public void onDrawFrame (GL10 unused)
 	{
 		// Draw background color
-		GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
+		_gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
 
 		_engine.drawFrame(_MVPMatrix);
 
 		if (System.nanoTime() - fpsTime >= 1000000000)
 		{
 			Timber.d("fps: %d", frames);
+			Timber.d("%s", _engine.getProfiler());
 			frames = 0;
 			fpsTime = System.nanoTime();
 		}
@@ -100,46 +107,22 @@ public class GameGLRenderer implements GLSurfaceView.Renderer
 		_engine = engine;
 	}
 
-	/**
-	 * Utility method for compiling a OpenGL shader.
-	 *
-	 * <p><strong>Note:</strong> When developing shaders, use the checkGlError()
-	 * method to debug shader coding errors.</p>
-	 *
-	 * @param type       - Vertex or fragment shader type.
-	 * @param shaderCode - String containing the shader code.
-	 * @return - Returns an id for the shader.
-	 */
-
-	public static int loadShader (int type, String shaderCode)
-	{
-		// create a vertex shader type (GLES20.GL_VERTEX_SHADER)
-		// or a fragment shader type (GLES20.GL_FRAGMENT_SHADER)
-		int shader = GLES20.glCreateShader(type);
-
-		// add the source code to the shader and compile it
-		GLES20.glShaderSource(shader, shaderCode);
-		GLES20.glCompileShader(shader);
-
-		return shader;
-	}
-
 	/**
 	 * Utility method for debugging OpenGL calls. Provide the name of the call
 	 * just after making it:
 	 *
 	 * <pre>
-	 * mColorHandle = GLES20.glGetUniformLocation(mProgram, "vColor");
-	 * GameGLRenderer.checkGlError("glGetUniformLocation");</pre>
+	 * mColorHandle = gl.glGetUniformLocation(mProgram, "vColor");
+	 * GameGLRenderer.checkGlError(gl, "glGetUniformLocation");</pre>
 	 *
 	 * If the operation is not successful, the check logs an error
 	 *
 	 * @param glOperation - Name of the OpenGL call to check.
 	 */
-	public static void checkGlError (String glOperation)
+	public static void checkGlError (GL gl, String glOperation)
 	{
 		int error;
-		while ((error = GLES20.glGetError()) != GLES20.GL_NO_ERROR)
+		while ((error = gl.glGetError()) != GL.GL_NO_ERROR)
 		{
 			Timber.e(glOperation + ": glError %d", error);
 		}
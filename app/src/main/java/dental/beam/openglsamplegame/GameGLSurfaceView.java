@@ -7,14 +7,20 @@ import android.opengl.GLSurfaceView;
 import android.util.AttributeSet;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import dental.beam.openglsamplegame.engine.GameEngine;
+import dental.beam.openglsamplegame.render.AndroidGL;
+import dental.beam.openglsamplegame.render.GL;
 import timber.log.Timber;
 
 public class GameGLSurfaceView extends GLSurfaceView
 {
 	private GameGLRenderer _renderer;
 	private GameEngine _engine;
+	private ExecutorService _prewarmExecutor;
 
 	public GameGLSurfaceView (Context context)
 	{
@@ -33,30 +39,61 @@ public class GameGLSurfaceView extends GLSurfaceView
 		Timber.d("init");
 
 		setEGLContextClientVersion(2);
+		// most devices can keep the context while paused, then resuming has nothing to recreate
+		setPreserveEGLContextOnPause(true);
 
 		setEGLConfigChooser(false);
 		getHolder().setFormat(PixelFormat.RGBA_8888);
 
+		GL gl = new AndroidGL();
 		if (!isInEditMode())
 		{
-			_renderer = new GameGLRenderer();
+			_renderer = new GameGLRenderer(gl);
 			setRenderer(_renderer);
 			setRenderMode(GLSurfaceView.RENDERMODE_CONTINUOUSLY);
 		}
 
-		_engine = new GameEngine(getContext());
+		_engine = new GameEngine(getContext(), gl);
 		_renderer.setGameEngine(_engine);
+
+		// sprites for the pools get built in the background and handed to the simulation thread between ticks
+		_prewarmExecutor = Executors.newSingleThreadExecutor();
+		_engine.setPrewarmExecutors(_prewarmExecutor, new Executor()
+		{
+			@Override
+			public void execute (Runnable command)
+			{
+				_engine.queueSimulationEvent(command);
+			}
+		});
+
+		_engine.startSimulation();
+	}
+
+	@Override
+	public void onPause ()
+	{
+		super.onPause();
+		_engine.pauseSimulation();
+	}
+
+	@Override
+	public void onResume ()
+	{
+		super.onResume();
+		_engine.resumeSimulation();
 	}
 
 	public void exitGame ()
 	{
-		// run this on the glthread
-		queueEvent(new Runnable()
+		// run this on the simulation thread, nothing gets prewarmed once it has stopped
+		_engine.queueSimulationEvent(new Runnable()
 		{
 			@Override
 			public void run ()
 			{
 				_engine.destroy();
+				_prewarmExecutor.shutdown();
 			}
 		});
 	}
@@ -76,8 +113,8 @@ public class GameGLSurfaceView extends GLSurfaceView
 
 	public void startGame ()
 	{
-		// run this on the glthread
-		queueEvent(new Runnable()
+		// run this on the simulation thread
+		_engine.queueSimulationEvent(new Runnable()
 		{
 			@Override
 			public void run ()
@@ -0,0 +1,173 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a loop over a range in fixed size chunks on a few threads, the calling thread working on them too
+ *
+ * Chunks are handed out in order to whichever thread is free, so a chunk's number and range never depend
+ * on how many threads there are or which one ran it. Anything a chunk produces should go in buffers for
+ * that chunk and be merged in chunk order afterwards, then the result is the same as running them one
+ * after another.
+ *
+ * {@link #run} blocks until every chunk is done and everything they wrote is visible to the caller.
+ * One run at a time, from one thread.
+ */
+public class ChunkRunner
+{
+	public interface Body
+	{
+		/** do the items from start up to but not including end, may be called from any of the threads */
+		void run (int chunk, int start, int end);
+	}
+
+	private final Executor _executor;
+	private final int _threadCount;
+
+	private final AtomicInteger _nextChunk = new AtomicInteger();
+	private final Runnable _helper = new Runnable()
+	{
+		@Override
+		public void run ()
+		{
+			try
+			{
+				work();
+			}
+			finally
+			{
+				synchronized (ChunkRunner.this)
+				{
+					if (--_helpersRunning == 0)
+					{
+						ChunkRunner.this.notifyAll();
+					}
+				}
+			}
+		}
+	};
+
+	//region current run, set before the helpers are started
+	private Body _body;
+	private int _count;
+	private int _chunkSize;
+	private int _chunkCount;
+	private int _helpersRunning;
+	private Throwable _failure;
+	//endregion
+
+	/**
+	 * @param executor    runs the helpers, needs threadCount - 1 threads free for them to run alongside
+	 * @param threadCount threads working on a run, the caller included
+	 */
+	public ChunkRunner (Executor executor, int threadCount)
+	{
+		if (threadCount < 1)
+		{
+			throw new IllegalArgumentException("need at least one thread, got " + threadCount);
+		}
+		_executor = executor;
+		_threadCount = threadCount;
+	}
+
+	public int getThreadCount ()
+	{
+		return _threadCount;
+	}
+
+	/** how many chunks a run over count items makes */
+	public static int chunkCount (int count, int chunkSize)
+	{
+		return (count + chunkSize - 1) / chunkSize;
+	}
+
+	/**
+	 * Run body over 0 up to count, chunkSize items a chunk
+	 *
+	 * @throws RuntimeException with the cause when a chunk throws, after the other chunks have stopped
+	 */
+	public void run (int count, int chunkSize, Body body)
+	{
+		int chunkCount = chunkCount(count, chunkSize);
+		int helperCount = Math.min(_threadCount, chunkCount) - 1;
+		if (helperCount <= 0)
+		{
+			// not worth waking anyone up
+			for (int chunk = 0; chunk < chunkCount; chunk++)
+			{
+				body.run(chunk, chunk * chunkSize, Math.min(count, (chunk + 1) * chunkSize));
+			}
+			return;
+		}
+
+		_body = body;
+		_count = count;
+		_chunkSize = chunkSize;
+		_chunkCount = chunkCount;
+		_nextChunk.set(0);
+		synchronized (this)
+		{
+			_failure = null;
+			_helpersRunning = helperCount;
+		}
+		for (int i = 0; i < helperCount; i++)
+		{
+			_executor.execute(_helper);
+		}
+
+		work();
+
+		boolean interrupted = false;
+		Throwable failure;
+		synchronized (this)
+		{
+			// the helpers are still writing to whatever the body writes to, so this can't give up early
+			while (_helpersRunning > 0)
+			{
+				try
+				{
+					wait();
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+				}
+			}
+			failure = _failure;
+		}
+		_body = null;
+		if (interrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null)
+		{
+			throw new RuntimeException("a chunk failed", failure);
+		}
+	}
+
+	/** take chunks until there are none left, or stop them all when one fails */
+	private void work ()
+	{
+		try
+		{
+			int chunk;
+			while ((chunk = _nextChunk.getAndIncrement()) < _chunkCount)
+			{
+				_body.run(chunk, chunk * _chunkSize, Math.min(_count, (chunk + 1) * _chunkSize));
+			}
+		}
+		catch (Throwable e)
+		{
+			_nextChunk.set(_chunkCount);
+			synchronized (this)
+			{
+				if (_failure == null)
+				{
+					_failure = e;
+				}
+			}
+		}
+	}
+}
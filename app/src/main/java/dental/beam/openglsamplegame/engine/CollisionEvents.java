@@ -0,0 +1,168 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.util.Arrays;
+
+/**
+ * The collisions found in a tick, as pairs of sprite slots and what type of sprite each one is
+ *
+ * Detection only adds events, it doesn't decide what a hit does, so it can be batched or split between
+ * threads however suits it. Afterwards {@link #dispatch()} hands each event to the handler registered for
+ * its pair of types, in the order they were added or were put in with {@link #sortByFirst}. Several hits
+ * in the same tick, like two asteroids on one chicken, always come out in that order, so a handler can check
+ * whether an earlier event already dealt with a sprite.
+ *
+ * The buffer is kept between ticks and only grows when a tick has more collisions than any before it.
+ */
+public class CollisionEvents
+{
+	public interface Handler
+	{
+		/** @param first slot of the sprite of the first type, second slot of the other one */
+		void onCollision (int first, int second);
+	}
+
+	private final int _typeCount;
+	/** by first type * type count + second type */
+	private final Handler _handlers[];
+
+	//region events
+	private int _pairs[];
+	private int _first[];
+	private int _second[];
+	private int _count;
+	//endregion
+
+	/**
+	 * @param typeCount types are 0 up to but not including this
+	 */
+	public CollisionEvents (int typeCount, int capacity)
+	{
+		_typeCount = typeCount;
+		_handlers = new Handler[typeCount * typeCount];
+		capacity = Math.max(capacity, 1);
+		_pairs = new int[capacity];
+		_first = new int[capacity];
+		_second = new int[capacity];
+	}
+
+	/** what to do when a sprite of firstType hits one of secondType, null to ignore those */
+	public void setHandler (int firstType, int secondType, Handler handler)
+	{
+		_handlers[pair(firstType, secondType)] = handler;
+	}
+
+	public void add (int firstType, int first, int secondType, int second)
+	{
+		if (_count == _pairs.length)
+		{
+			grow(_count * 2);
+		}
+		_pairs[_count] = pair(firstType, secondType);
+		_first[_count] = first;
+		_second[_count] = second;
+		_count++;
+	}
+
+	/** add every event from other after the ones already here, for merging buffers detection filled separately */
+	public void addAll (CollisionEvents other)
+	{
+		if (_count + other._count > _pairs.length)
+		{
+			grow(Math.max(_pairs.length * 2, _count + other._count));
+		}
+		System.arraycopy(other._pairs, 0, _pairs, _count, other._count);
+		System.arraycopy(other._first, 0, _first, _count, other._count);
+		System.arraycopy(other._second, 0, _second, _count, other._count);
+		_count += other._count;
+	}
+
+	/**
+	 * Put the events in order of rank[first], events with the same rank stay in the order they were added.
+	 * An insertion sort, there are only ever a few events and they're mostly in order already
+	 */
+	public void sortByFirst (int rank[])
+	{
+		for (int i = 1; i < _count; i++)
+		{
+			int pair = _pairs[i];
+			int first = _first[i];
+			int second = _second[i];
+			int j = i - 1;
+			while (j >= 0 && rank[_first[j]] > rank[first])
+			{
+				_pairs[j + 1] = _pairs[j];
+				_first[j + 1] = _first[j];
+				_second[j + 1] = _second[j];
+				j--;
+			}
+			_pairs[j + 1] = pair;
+			_first[j + 1] = first;
+			_second[j + 1] = second;
+		}
+	}
+
+	/** call every event's handler, oldest first, events for a pair without one are skipped */
+	public void dispatch ()
+	{
+		for (int i = 0; i < _count; i++)
+		{
+			Handler handler = _handlers[_pairs[i]];
+			if (handler != null)
+			{
+				handler.onCollision(_first[i], _second[i]);
+			}
+		}
+	}
+
+	public void clear ()
+	{
+		_count = 0;
+	}
+
+	public int size ()
+	{
+		return _count;
+	}
+
+	public int getFirstType (int event)
+	{
+		return _pairs[event] / _typeCount;
+	}
+
+	public int getSecondType (int event)
+	{
+		return _pairs[event] % _typeCount;
+	}
+
+	public int getFirst (int event)
+	{
+		return _first[event];
+	}
+
+	public int getSecond (int event)
+	{
+		return _second[event];
+	}
+
+	/** events the buffer holds before it has to grow */
+	public int getCapacity ()
+	{
+		return _pairs.length;
+	}
+
+	private int pair (int firstType, int secondType)
+	{
+		if (firstType < 0 || firstType >= _typeCount || secondType < 0 || secondType >= _typeCount)
+		{
+			throw new IllegalArgumentException("no collision type " + firstType + " or " + secondType);
+		}
+		return firstType * _typeCount + secondType;
+	}
+
+	private void grow (int capacity)
+	{
+		_pairs = Arrays.copyOf(_pairs, capacity);
+		_first = Arrays.copyOf(_first, capacity);
+		_second = Arrays.copyOf(_second, capacity);
+	}
+}
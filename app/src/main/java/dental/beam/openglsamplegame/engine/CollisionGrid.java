@@ -0,0 +1,171 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid broadphase over the opengl coordinate space
+ *
+ * Collision circles are inserted into every cell their bounding box touches, then a query returns
+ * the ids of everything sharing a cell with the query circle so only those pairs need the real
+ * (narrowphase) circle test. Positions outside the bounds are clamped into the edge cells so
+ * nothing is ever missed, it just ends up sharing a cell with more candidates.
+ *
+ * The grid is meant to be cleared and refilled every update, nothing is allocated unless
+ * more entries are inserted than ever before.
+ */
+public class CollisionGrid
+{
+	/** grow boxes a bit so float rounding in the narrowphase can never disagree with the grid */
+	private static final float PADDING = 0.001f;
+
+	private final float _cellSize;
+	private final float _inverseCellSize;
+
+	private float _minX;
+	private float _minY;
+	private int _columns;
+	private int _rows;
+
+	/** index of the first entry in each cell, -1 when the cell is empty */
+	private int _cellHeads[] = new int[0];
+
+	// entries are linked lists threaded through these arrays
+	private int _entryIds[];
+	private int _entryNext[];
+	private int _entryCount;
+
+	public CollisionGrid (float cellSize, int expectedEntries)
+	{
+		_cellSize = cellSize;
+		_inverseCellSize = 1 / cellSize;
+		_entryIds = new int[Math.max(expectedEntries, 1)];
+		_entryNext = new int[_entryIds.length];
+
+		setBounds(-1, -1, 1, 1);
+	}
+
+	/** set the area covered by the grid, this also clears it */
+	public void setBounds (float minX, float minY, float maxX, float maxY)
+	{
+		_minX = minX;
+		_minY = minY;
+		_columns = Math.max(1, (int) Math.ceil((maxX - minX) * _inverseCellSize));
+		_rows = Math.max(1, (int) Math.ceil((maxY - minY) * _inverseCellSize));
+
+		if (_cellHeads.length < _columns * _rows)
+		{
+			_cellHeads = new int[_columns * _rows];
+		}
+
+		clear();
+	}
+
+	public void clear ()
+	{
+		Arrays.fill(_cellHeads, 0, _columns * _rows, -1);
+		_entryCount = 0;
+	}
+
+	/**
+	 * Add a collision circle to every cell it overlaps
+	 *
+	 * @param id non-negative id reported back from {@link #query}
+	 */
+	public void insert (int id, float x, float y, float radius)
+	{
+		int minColumn = column(x - radius - PADDING);
+		int maxColumn = column(x + radius + PADDING);
+		int minRow = row(y - radius - PADDING);
+		int maxRow = row(y + radius + PADDING);
+
+		for (int r = minRow; r <= maxRow; r++)
+		{
+			for (int c = minColumn; c <= maxColumn; c++)
+			{
+				if (_entryCount == _entryIds.length)
+				{
+					_entryIds = Arrays.copyOf(_entryIds, _entryCount * 2);
+					_entryNext = Arrays.copyOf(_entryNext, _entryCount * 2);
+				}
+
+				int cell = r * _columns + c;
+				_entryIds[_entryCount] = id;
+				_entryNext[_entryCount] = _cellHeads[cell];
+				_cellHeads[cell] = _entryCount;
+				_entryCount++;
+			}
+		}
+	}
+
+	/**
+	 * Find everything that shares a cell with the given collision circle. Only reads the grid, so several
+	 * threads can query at once as long as nothing is inserted meanwhile
+	 *
+	 * @param out receives the candidate ids in ascending order, an id is collected once for every cell it
+	 *            shares with the query before they're sorted, so {@link #getEntryCount()} is always enough room
+	 * @return number of candidates written to out
+	 */
+	public int query (float x, float y, float radius, int out[])
+	{
+		int minColumn = column(x - radius - PADDING);
+		int maxColumn = column(x + radius + PADDING);
+		int minRow = row(y - radius - PADDING);
+		int maxRow = row(y + radius + PADDING);
+
+		int count = 0;
+		for (int r = minRow; r <= maxRow; r++)
+		{
+			for (int c = minColumn; c <= maxColumn; c++)
+			{
+				for (int e = _cellHeads[r * _columns + c]; e != -1; e = _entryNext[e])
+				{
+					out[count++] = _entryIds[e];
+				}
+			}
+		}
+
+		// sort, dropping the ids found in more than one cell
+		int unique = 0;
+		for (int i = 0; i < count; i++)
+		{
+			int id = out[i];
+			int j = unique - 1;
+			while (j >= 0 && out[j] > id)
+			{
+				j--;
+			}
+			if (j >= 0 && out[j] == id)
+			{
+				continue;
+			}
+			System.arraycopy(out, j + 1, out, j + 2, unique - j - 1);
+			out[j + 1] = id;
+			unique++;
+		}
+
+		return unique;
+	}
+
+	/** entries inserted since the last clear, one for every cell an id went into */
+	public int getEntryCount ()
+	{
+		return _entryCount;
+	}
+
+	public float getCellSize ()
+	{
+		return _cellSize;
+	}
+
+	private int column (float x)
+	{
+		int column = (int) ((x - _minX) * _inverseCellSize);
+		return column < 0 ? 0 : (column >= _columns ? _columns - 1 : column);
+	}
+
+	private int row (float y)
+	{
+		int row = (int) ((y - _minY) * _inverseCellSize);
+		return row < 0 ? 0 : (row >= _rows ? _rows - 1 : row);
+	}
+}
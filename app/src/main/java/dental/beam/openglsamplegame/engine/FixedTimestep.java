@@ -0,0 +1,107 @@
+package dental.beam.openglsamplegame.engine;
+
+/**
+ * Turns real time into a whole number of fixed length simulation steps
+ *
+ * Time since the last frame goes into an accumulator and every full step's worth comes back out as a step
+ * to simulate. Whatever is left over is how far we are into the next step, which is used to interpolate
+ * between the previous and current simulation state when drawing. If a frame took so long that more than
+ * maxStepsPerFrame are due the rest of the time is thrown away, so after a stall the game slows down for
+ * a moment instead of spending the next frames catching up.
+ */
+public class FixedTimestep
+{
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	private final GameClock _clock;
+	private final long _stepNanos;
+	private final int _maxStepsPerFrame;
+
+	private boolean _started;
+	private long _lastTime;
+	private long _accumulator;
+
+	private long _steps;
+	private long _droppedNanos;
+
+	public FixedTimestep (GameClock clock, int ticksPerSecond, int maxStepsPerFrame)
+	{
+		_clock = clock;
+		_stepNanos = NANOS_PER_SECOND / ticksPerSecond;
+		_maxStepsPerFrame = maxStepsPerFrame;
+	}
+
+	/**
+	 * Call once per frame
+	 *
+	 * @return number of simulation steps to run before drawing this frame
+	 */
+	public int advance ()
+	{
+		long now = _clock.nanoTime();
+		if (!_started)
+		{
+			_started = true;
+			_lastTime = now;
+			return 0;
+		}
+
+		_accumulator += now - _lastTime;
+		_lastTime = now;
+
+		int steps = (int) Math.min(_accumulator / _stepNanos, _maxStepsPerFrame);
+		_accumulator -= steps * _stepNanos;
+
+		if (_accumulator >= _stepNanos)
+		{
+			long remainder = _accumulator % _stepNanos;
+			_droppedNanos += _accumulator - remainder;
+			_accumulator = remainder;
+		}
+
+		_steps += steps;
+		return steps;
+	}
+
+	/** how far between the previous and the current step to draw, 0 to 1 */
+	public float getAlpha ()
+	{
+		return (float) _accumulator / _stepNanos;
+	}
+
+	/** clock time of the latest step as of the last advance, the current simulation state belongs to this time */
+	public long getStepTime ()
+	{
+		return _lastTime - _accumulator;
+	}
+
+	/** time from the last advance until the next step is due */
+	public long getNanosUntilNextStep ()
+	{
+		return _stepNanos - _accumulator;
+	}
+
+	/** start over on the next frame, e.g. after the game was paused */
+	public void reset ()
+	{
+		_started = false;
+		_accumulator = 0;
+	}
+
+	public long getStepNanos ()
+	{
+		return _stepNanos;
+	}
+
+	/** total steps handed out */
+	public long getSteps ()
+	{
+		return _steps;
+	}
+
+	/** total time thrown away because frames were too far behind */
+	public long getDroppedNanos ()
+	{
+		return _droppedNanos;
+	}
+}
@@ -0,0 +1,216 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Times the parts of a tick and of a drawn frame in nanoseconds
+ *
+ * A span can be begun and ended several times in one frame, the times add up until {@link #commit(int)}
+ * records them as that frame's sample. Every sample goes into a ring buffer of the most recent frames and
+ * a {@link LatencyHistogram} for percentiles, and a span with a budget counts the frames that went over it.
+ * Recording never allocates.
+ *
+ * Simulation spans are recorded on the simulation thread and render spans on the gl thread, a span must
+ * only ever be recorded from one thread. Reading the results from another thread is fine for logging,
+ * tests should stop recording first.
+ */
+public class FrameProfiler
+{
+	//region spans
+	/** a whole tick, collision and spawn included */
+	public static final int UPDATE = 0;
+	/** asteroids against the player and the chickens */
+	public static final int COLLISION = 1;
+	/** adding asteroids and prewarming the pools */
+	public static final int SPAWN = 2;
+	/** a whole drawn frame, text included */
+	public static final int DRAW_SUBMIT = 3;
+	/** updating and drawing the HUD text */
+	public static final int TEXT = 4;
+
+	public static final int SPAN_COUNT = 5;
+
+	private static final String SPAN_NAMES[] = { "update", "collision", "spawn", "draw submit", "text" };
+	//endregion
+
+	private static final long NO_BUDGET = Long.MAX_VALUE;
+
+	private final GameClock _clock;
+	private final int _ringSize;
+
+	private final long _starts[] = new long[SPAN_COUNT];
+	private final long _pending[] = new long[SPAN_COUNT];
+
+	//region results, per span
+	private final long _samples[][];
+	private final long _frames[] = new long[SPAN_COUNT];
+	private final LatencyHistogram _histograms[] = new LatencyHistogram[SPAN_COUNT];
+	private final long _budgets[] = new long[SPAN_COUNT];
+	private final long _overBudget[] = new long[SPAN_COUNT];
+	//endregion
+
+	/**
+	 * @param ringSize how many of the most recent frames to keep every sample of
+	 */
+	public FrameProfiler (GameClock clock, int ringSize)
+	{
+		_clock = clock;
+		_ringSize = ringSize;
+		_samples = new long[SPAN_COUNT][ringSize];
+		for (int span = 0; span < SPAN_COUNT; span++)
+		{
+			_histograms[span] = new LatencyHistogram();
+			_budgets[span] = NO_BUDGET;
+		}
+	}
+
+	/** frames where the span takes longer than this are counted by {@link #getOverBudgetCount(int)} */
+	public void setBudget (int span, long budgetNanos)
+	{
+		_budgets[span] = budgetNanos;
+	}
+
+	//region recording
+	public void begin (int span)
+	{
+		_starts[span] = _clock.nanoTime();
+	}
+
+	public void end (int span)
+	{
+		_pending[span] += _clock.nanoTime() - _starts[span];
+	}
+
+	/** record everything since the last commit as one frame of the span, a span that didn't run records 0 */
+	public void commit (int span)
+	{
+		long nanos = _pending[span];
+		_pending[span] = 0;
+
+		_samples[span][(int) (_frames[span] % _ringSize)] = nanos;
+		_frames[span]++;
+		_histograms[span].record(nanos);
+		if (nanos > _budgets[span])
+		{
+			_overBudget[span]++;
+		}
+	}
+	//endregion
+
+	//region results
+	public long getPercentile (int span, double percentile)
+	{
+		return _histograms[span].getValueAtPercentile(percentile);
+	}
+
+	public long getMax (int span)
+	{
+		return _histograms[span].getMax();
+	}
+
+	public long getFrameCount (int span)
+	{
+		return _frames[span];
+	}
+
+	public long getOverBudgetCount (int span)
+	{
+		return _overBudget[span];
+	}
+
+	/** how many frames are in the ring for the span, at most the ring size */
+	public int getRecentCount (int span)
+	{
+		return (int) Math.min(_frames[span], _ringSize);
+	}
+
+	/**
+	 * @param age 0 for the most recent frame, up to {@link #getRecentCount(int)} - 1
+	 */
+	public long getRecent (int span, int age)
+	{
+		if (age < 0 || age >= getRecentCount(span))
+		{
+			throw new IndexOutOfBoundsException("age " + age + " of " + getRecentCount(span));
+		}
+		return _samples[span][(int) ((_frames[span] - 1 - age) % _ringSize)];
+	}
+
+	public static String getName (int span)
+	{
+		return SPAN_NAMES[span];
+	}
+
+	public void reset ()
+	{
+		for (int span = 0; span < SPAN_COUNT; span++)
+		{
+			_pending[span] = 0;
+			_frames[span] = 0;
+			_overBudget[span] = 0;
+			_histograms[span].reset();
+		}
+	}
+
+	/** one line per span with its percentiles in microseconds */
+	@Override
+	public String toString ()
+	{
+		StringBuilder builder = new StringBuilder();
+		for (int span = 0; span < SPAN_COUNT; span++)
+		{
+			if (span > 0)
+			{
+				builder.append('\n');
+			}
+			builder.append(String.format(Locale.US, "%s: p50 %.1fus p95 %.1fus p99 %.1fus max %.1fus, %d of %d over budget",
+				getName(span), getPercentile(span, 50) / 1000f, getPercentile(span, 95) / 1000f,
+				getPercentile(span, 99) / 1000f, getMax(span) / 1000f, getOverBudgetCount(span), getFrameCount(span)));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Write a summary line per span, then every sample still in the ring oldest first, all as csv in nanoseconds
+	 */
+	public void dump (Writer writer) throws IOException
+	{
+		writer.write("span,frames,p50,p95,p99,max,budget,over_budget\n");
+		for (int span = 0; span < SPAN_COUNT; span++)
+		{
+			long budget = _budgets[span] == NO_BUDGET ? 0 : _budgets[span];
+			writer.write(getName(span) + "," + getFrameCount(span) + "," + getPercentile(span, 50) + ","
+				+ getPercentile(span, 95) + "," + getPercentile(span, 99) + "," + getMax(span) + ","
+				+ budget + "," + getOverBudgetCount(span) + "\n");
+		}
+
+		writer.write("\nspan,frame,nanos\n");
+		for (int span = 0; span < SPAN_COUNT; span++)
+		{
+			int count = getRecentCount(span);
+			for (int age = count - 1; age >= 0; age--)
+			{
+				writer.write(getName(span) + "," + (_frames[span] - 1 - age) + "," + getRecent(span, age) + "\n");
+			}
+		}
+		writer.flush();
+	}
+
+	public void dump (File file) throws IOException
+	{
+		Writer writer = new FileWriter(file);
+		try
+		{
+			dump(writer);
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+	//endregion
+}
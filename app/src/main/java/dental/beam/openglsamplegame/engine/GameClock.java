@@ -0,0 +1,18 @@
+package dental.beam.openglsamplegame.engine;
+
+/**
+ * Where the engine gets the time from, so tests can drive it with a fake clock
+ */
+public interface GameClock
+{
+	GameClock SYSTEM = new GameClock()
+	{
+		@Override
+		public long nanoTime ()
+		{
+			return System.nanoTime();
+		}
+	};
+
+	long nanoTime ();
+}
@@ -3,50 +3,85 @@ package dental.beam.openglsamplegame.engine;
 import android.content.Context;
 import android.graphics.Color;
 import android.graphics.Rect;
-import android.os.SystemClock;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import dental.beam.gltext.GLText;
 import dental.beam.openglsamplegame.R;
+import dental.beam.openglsamplegame.helpers.AssetPack;
+import dental.beam.openglsamplegame.helpers.OneEuroFilter;
 import dental.beam.openglsamplegame.helpers.TiltHelper;
+import dental.beam.openglsamplegame.helpers.TiltSource;
+import dental.beam.openglsamplegame.render.GL;
+import dental.beam.openglsamplegame.render.GLResources;
+import dental.beam.openglsamplegame.render.RenderQueue;
+import dental.beam.openglsamplegame.render.SpriteProgram;
+import dental.beam.openglsamplegame.render.TextureCache;
 import dental.beam.openglsamplegame.sprites.AsteroidSprite;
-import dental.beam.openglsamplegame.sprites.BrokenAsteroidSprite;
-import dental.beam.openglsamplegame.sprites.ChickenSprite;
-import dental.beam.openglsamplegame.sprites.PlayerSprite;
-import dental.beam.openglsamplegame.sprites.SpritePool;
+import dental.beam.openglsamplegame.sprites.AtlasRegion;
+import dental.beam.openglsamplegame.sprites.DebrisPattern;
+import dental.beam.openglsamplegame.sprites.FontCache;
 import dental.beam.openglsamplegame.sprites.TextSprite;
-import dental.beam.openglsamplegame.sprites.TextureSprite;
-import timber.log.Timber;
-
+import dental.beam.openglsamplegame.sprites.TextureAtlas;
+import dental.beam.openglsamplegame.sprites.TextureLoader;
+
+/**
+ * The game is split across two threads: a {@link SimulationThread} owns the {@link GameSimulation} and ticks it,
+ * the gl thread owns the textures and the HUD and draws whatever {@link RenderSnapshot} the simulation
+ * published last. Anything else that wants to change the game goes through {@link #queueSimulationEvent(Runnable)}.
+ */
 public class GameEngine
 {
-	Context _context;
+	/** sprite speeds are all per tick and were tuned at 60 frames a second */
+	public static final int DEFAULT_TICKS_PER_SECOND = GameSimulation.DEFAULT_TICKS_PER_SECOND;
+	/** after a stall, simulate at most this many ticks in one go and let the game fall behind for the rest */
+	private static final int MAX_TICKS_PER_FRAME = 5;
 
-	private TiltHelper _tiltHelper;
+	/** a drawn frame is over budget when it misses a 60Hz vsync */
+	private static final long FRAME_BUDGET_NANOS = 1000000000L / 60;
+	/** keep every sample of the last 10 seconds or so */
+	private static final int PROFILED_FRAMES = 600;
+
+	/** tilt in degrees, holding still is smoothed hard and a quick turn opens the filter up, see SensorInputTest */
+	private static final float TILT_MIN_CUTOFF_HZ = 1.0f;
+	private static final float TILT_BETA = 0.05f;
+	private static final float TILT_DERIVATIVE_CUTOFF_HZ = 1.0f;
 
-	//region opengl drawable objects
-	private PlayerSprite _player;
-	private SpritePool<AsteroidSprite> _asteroidPool;
-	private List<AsteroidSprite> _asteroids = new ArrayList<>(100);
-	private SpritePool<BrokenAsteroidSprite> _brokenAsteroidPool;
-	private List<BrokenAsteroidSprite> _brokenAsteroids = new ArrayList<>(20);
-	private SpritePool<ChickenSprite> _chickenPool;
-	private List<ChickenSprite> _chickens = new ArrayList<>(20);
+	Context _context;
+
+	private SimulationThread _simulation;
+	private FrameProfiler _profiler;
+
+	//region gl thread
+	/** one page holds every world sprite at the densest drawables there are */
+	private static final int ATLAS_PAGE_SIZE = 1024;
+	/** everything the build prepares for the game in one file, see app/build.gradle */
+	private static final String ASSET_PACK = "game.pack";
+	/** built by the atlas tool from the drawables in the order initSprites lists them */
+	private static final String WORLD_ATLAS = "world";
+	/** video memory for textures, a handful of atlas pages */
+	private static final long TEXTURE_BUDGET_BYTES = 16L * 1024 * 1024;
+
+	private AtlasRegion _asteroidRegion;
+	private AtlasRegion _chickenRegion;
+	private AtlasRegion _playerRegion;
+
+	private GLResources _resources;
+	private TextureCache _textureCache;
+	private SpriteProgram _spriteProgram;
+	private RenderQueue _renderQueue;
+
+	private FontCache<GLText> _fontCache;
 	private AsteroidSprite _asteroidIcon;
 	private TextSprite _asteroidCountText;
 	private TextSprite _gameOverText;
+	private RenderQueue.Item _profiledAsteroidCountText;
+	private RenderQueue.Item _profiledGameOverText;
+	private int _shownAsteroidCount;
 	//endregion
 
-	//region game state
-	private boolean _playing = false;
-	private int _asteroidCount;
-	private int _frames;
-	private int _framesBetweenAddingAsteroid = 64;
-	//endregion
-
-	//region opengl stuff
+	//region opengl stuff, gl thread only
 	private float _ratio;
 	private float _width;
 	private float _height;
@@ -54,305 +89,276 @@ public class GameEngine
 	Map<Integer, Rect> _viewLocations;
 	//endregion
 
-	public GameEngine (Context context)
+	public GameEngine (Context context, GL gl)
+	{
+		this(context, gl, GameClock.SYSTEM, DEFAULT_TICKS_PER_SECOND);
+	}
+
+	/**
+	 * @param ticksPerSecond every speed in the game is per tick, so this changes how fast the game plays
+	 *                       as well as how finely it is simulated
+	 */
+	public GameEngine (Context context, GL gl, GameClock clock, int ticksPerSecond)
 	{
 		_context = context;
-		_asteroidPool = new SpritePool<>(context, 100, AsteroidSprite.class);
-		_brokenAsteroidPool = new SpritePool<>(context, 100, BrokenAsteroidSprite.class);
-		_chickenPool = new SpritePool<>(context, 5, ChickenSprite.class);
+		_resources = new GLResources(gl);
+		_textureCache = new TextureCache(_resources, TEXTURE_BUDGET_BYTES);
+		_spriteProgram = new SpriteProgram(_resources, SpriteProgram.DEFAULT_MAX_QUADS_PER_DRAW);
+		_renderQueue = new RenderQueue(_spriteProgram, _spriteProgram.getMaxQuadsPerDraw(), 256);
+		_fontCache = new FontCache<>(new FontCache.Loader<GLText>()
+		{
+			@Override
+			public GLText load (String asset, int size, int padX, int padY)
+			{
+				GLText glText = new GLText(_context.getAssets());
+				glText.load(asset, size, padX, padY);
+				return glText;
+			}
 
-		startGame();
+			@Override
+			public float getCharWidth (GLText font, char c)
+			{
+				return font.getCharWidth(c);
+			}
+		});
+		_profiler = new FrameProfiler(clock, PROFILED_FRAMES);
+		_profiler.setBudget(FrameProfiler.UPDATE, 1000000000L / ticksPerSecond);
+		_profiler.setBudget(FrameProfiler.DRAW_SUBMIT, FRAME_BUDGET_NANOS);
+		_tiltHelper = TiltHelper.getInstance(context, clock,
+			new OneEuroFilter(TILT_MIN_CUTOFF_HZ, TILT_BETA, TILT_DERIVATIVE_CUTOFF_HZ));
+		// a new game every time, keep the seed from SessionRecording to play one again
+		_game = new GameSimulation(clock.nanoTime(), _tiltHelper != null ? _tiltHelper : TiltSource.LEVEL, _profiler);
+		_simulation = new SimulationThread(_game, clock, ticksPerSecond, MAX_TICKS_PER_FRAME);
 	}
 
+	/**
+	 * gl thread, call whenever there is a new gl context
+	 * the first time creates the program and the textures, after that each of them is made again once
+	 * from what the resources kept, sprites hold handles so none of them need touching
+	 */
 	public void initSprites ()
 	{
-		TextureSprite.clearTextureCache();
-
-		int asteroidCount = _asteroidPool.getSprites().size();
-		for (int i = 0; i < asteroidCount; i++)
-		{
-			AsteroidSprite asteroidSprite = _asteroidPool.getSprites().get(i);
-			asteroidSprite.reloadTexture();
-		}
-		int chickenCount = _chickenPool.getSprites().size();
-		for (int i = 0; i < chickenCount; i++)
+		if (_asteroidRegion == null)
 		{
-			ChickenSprite chickenSprite = _chickenPool.getSprites().get(i);
-			chickenSprite.reloadTexture();
-		}
-		if (_player == null)
-		{
-			_tiltHelper = TiltHelper.getInstance(_context);
-			_player = new PlayerSprite(_context, R.drawable.ship, _tiltHelper);
+			_spriteProgram.create();
+			// only the index is read here, the textures are read straight out of the mapping as they're uploaded
+			AssetPack pack = TextureLoader.openAssetPack(_context, ASSET_PACK, false);
+
+			// every world sprite shares a texture so they all go out in one draw call, broken asteroids use the asteroid image
+			TextureAtlas atlas = TextureLoader.loadGLAtlas(_context, _textureCache, pack, WORLD_ATLAS,
+				new int[] { R.drawable.asteroid, R.drawable.chicken, R.drawable.ship }, ATLAS_PAGE_SIZE);
+			_asteroidRegion = atlas.getRegion(R.drawable.asteroid);
+			_chickenRegion = atlas.getRegion(R.drawable.chicken);
+			_playerRegion = atlas.getRegion(R.drawable.ship);
 		}
 		else
 		{
-			_player.reloadTexture();
+			_resources.onContextCreated();
 		}
+		_fontCache.onContextCreated();
 
 		if (_asteroidIcon == null)
 		{
-			_asteroidIcon = spawnAsteroid();
-		}
-		else
-		{
-			_asteroidIcon.reloadTexture();
+			// the icon isn't part of the game so it doesn't come from the pool
+			_asteroidIcon = new AsteroidSprite();
+			_asteroidIcon.useOwnStore();
 		}
 
 		if (_asteroidCountText == null)
 		{
 			_asteroidCountText = new TextSprite();
-			_asteroidCountText.setContext(_context);
-		}
-		else
-		{
-			_asteroidCountText.reloadTexture();
+			_asteroidCountText.useOwnStore();
+			_asteroidCountText.setFontCache(_fontCache);
+			_profiledAsteroidCountText = new ProfiledItem(_asteroidCountText, _profiler);
 		}
 
 		if (_gameOverText == null)
 		{
 			_gameOverText = new TextSprite();
-			_gameOverText.setContext(_context);
+			_gameOverText.useOwnStore();
+			_gameOverText.setFontCache(_fontCache);
+			_profiledGameOverText = new ProfiledItem(_gameOverText, _profiler);
 			_gameOverText.setText("Game Over", TextSprite.TEXT_ALIGN_CENTER, 0, Color.WHITE);
 		}
-		else
-		{
-			_gameOverText.reloadTexture();
-		}
 	}
 
-	/** ratio is height/width of screen which affects where in Y coordinate to place sprites */
-	public void setRatio (float ratio, float width, float height)
+	/**
+	 * ratio is height/width of screen which affects where in Y coordinate to place sprites
+	 * gl thread, the simulation gets its copy through the command queue
+	 */
+	public void setRatio (final float ratio, float width, float height)
 	{
 		_ratio = ratio;
 		_width = width;
 		_height = height;
 
-		_player.setRatio(ratio);
-
-		int chickenCount = _chickenPool.getSprites().size();
-		for (int i = 0; i < chickenCount; i++)
+		queueSimulationEvent(new Runnable()
 		{
-			ChickenSprite chickenSprite = _chickenPool.getSprites().get(i);
-			chickenSprite.setRatio(ratio);
-		}
+			@Override
+			public void run ()
+			{
+				_game.setWorldRatio(ratio);
+			}
+		});
+
 		_gameOverText.init(ratio, _width, Math.round(_context.getResources().getDimension(R.dimen.game_over_text_size)));
-		_gameOverText.getPosition()[1] = 0;
+		_gameOverText.setY(0);
 
 		setViewLocations(_viewLocations);
 	}
 
+	/**
+	 * gl thread, draws the newest snapshot the simulation published
+	 * blended between its last two ticks so motion stays smooth whatever the frame rate
+	 */
 	public void drawFrame (float matrix[])
 	{
-		if (_chickens.isEmpty())
+		RenderSnapshot snapshot = _simulation.acquireSnapshot();
+		if (snapshot.sequence == 0)
 		{
-			gameOver();
-		}
-		else
-		{
-			update();
+			return;
 		}
+		_profiler.begin(FrameProfiler.DRAW_SUBMIT);
+		float alpha = snapshot.getAlpha(_simulation.getClock().nanoTime());
 
-		drawAsteroids(matrix);
-		drawChickens(matrix);
-
-		_player.draw(matrix);
-
-		_asteroidIcon.draw(matrix);
-		_asteroidCountText.draw(matrix);
-
-		if (!_playing)
+		if (snapshot.asteroidCount != _shownAsteroidCount)
 		{
-			_gameOverText.draw(matrix);
+			_profiler.begin(FrameProfiler.TEXT);
+			_shownAsteroidCount = snapshot.asteroidCount;
+			_asteroidCountText.setInt(_shownAsteroidCount);
+			_profiler.end(FrameProfiler.TEXT);
 		}
-	}
 
-	public void update()
-	{
-		updateAsteroids();
-		updateChickens();
+		_renderQueue.begin();
+		_renderQueue.addSprites(RenderQueue.LAYER_WORLD, _asteroidRegion, snapshot.asteroids, alpha);
+		_renderQueue.addSprites(RenderQueue.LAYER_WORLD, _asteroidRegion, snapshot.brokenAsteroids, alpha);
+		_renderQueue.addSprites(RenderQueue.LAYER_WORLD, _chickenRegion, snapshot.chickens, alpha);
+		_renderQueue.addSprites(RenderQueue.LAYER_WORLD, _playerRegion, snapshot.player, alpha);
 
-		if (_frames++ % _framesBetweenAddingAsteroid == 0)
-		{
-			AsteroidSprite asteroidSprite = spawnAsteroid();
-			asteroidSprite.initRandom();
-			addAsteroid(asteroidSprite);
-		}
+		// the icon comes from the same atlas page so it joins the world sprites' draw call
+		_renderQueue.addSprite(RenderQueue.LAYER_HUD, _asteroidRegion, _asteroidIcon);
+		_renderQueue.addItem(RenderQueue.LAYER_HUD, 0, _profiledAsteroidCountText);
 
-		if (_frames % 100 == 0 && _framesBetweenAddingAsteroid > 15)
+		if (!snapshot.playing)
 		{
-			_framesBetweenAddingAsteroid--;
+			_renderQueue.addItem(RenderQueue.LAYER_OVERLAY, 0, _profiledGameOverText);
 		}
 
-		_player.update();
+		_renderQueue.execute(matrix);
+
+		_profiler.end(FrameProfiler.DRAW_SUBMIT);
+		_profiler.commit(FrameProfiler.DRAW_SUBMIT);
+		_profiler.commit(FrameProfiler.TEXT);
 	}
 
-	public void startGame()
+	/** times how long text takes to draw */
+	private static class ProfiledItem implements RenderQueue.Item
 	{
-		if (_playing)
+		private final RenderQueue.Item _item;
+		private final FrameProfiler _profiler;
+
+		ProfiledItem (RenderQueue.Item item, FrameProfiler profiler)
 		{
-			return;
+			_item = item;
+			_profiler = profiler;
 		}
 
-		_playing = true;
-		_asteroidCount = 0;
-		_frames = 0;
-		_framesBetweenAddingAsteroid = 64;
-
-		for (int i = 0; i < 5; i++)
+		@Override
+		public void draw (float[] mvpMatrix)
 		{
-			ChickenSprite chicken = _chickenPool.spawn();
-			chicken.init();
-			chicken.setRatio(_ratio);
-			_chickens.add(chicken);
+			_profiler.begin(FrameProfiler.TEXT);
+			_item.draw(mvpMatrix);
+			_profiler.end(FrameProfiler.TEXT);
 		}
 	}
 
-	public void gameOver()
-	{
-		_playing = false;
-	}
-
-	public AsteroidSprite spawnAsteroid ()
+	/** timings of the last few hundred ticks and frames, see {@link FrameProfiler} */
+	public FrameProfiler getProfiler ()
 	{
-		return _asteroidPool.spawn();
+		return _profiler;
 	}
 
-	public void addAsteroid (AsteroidSprite asteroid)
+	/** start stepping the game on its own thread */
+	public void startSimulation ()
 	{
-		asteroid.setRatio(_ratio);
-		_asteroids.add(asteroid);
+		_simulation.start();
 	}
 
-	private void updateAsteroids()
+	public void pauseSimulation ()
 	{
-		for (int i = 0; i < _asteroids.size(); i++)
-		{
-			AsteroidSprite asteroid = _asteroids.get(i);
-			boolean collided = false;
-			if (asteroid.collidesWith(_player))
-			{
-				collided = true;
-				_asteroidCountText.setText(Integer.toString(++_asteroidCount));
-				breakAsteroid(asteroid);
-				_asteroidPool.kill(asteroid);
-				_asteroids.remove(i--);
-			}
-			else
-			{
-				for (int j = 0; j < _chickens.size(); j++)
-				{
-					ChickenSprite chicken = _chickens.get(j);
-					if (asteroid.collidesWith(chicken))
-					{
-						_chickenPool.kill(chicken);
-						_chickens.remove(j--);
-					}
-				}
-			}
-
-			if (!collided && !asteroid.update())
-			{
-				_asteroidPool.kill(asteroid);
-				_asteroids.remove(i--);
-			}
-		}
-
-		for (int i = 0; i < _brokenAsteroids.size(); i++)
+		_simulation.pause();
+		if (_tiltHelper != null)
 		{
-			BrokenAsteroidSprite brokenAsteroid = _brokenAsteroids.get(i);
-			if (!brokenAsteroid.update())
-			{
-				_brokenAsteroidPool.kill(brokenAsteroid);
-				_brokenAsteroids.remove(i--);
-			}
+			_tiltHelper.pause();
 		}
 	}
 
-	private void drawAsteroids (float matrix[])
+	public void resumeSimulation ()
 	{
-		if (_asteroids.size() > 0)
-		{
-			_asteroids.get(0).batchDraw(matrix, (List<TextureSprite>) ((Object) _asteroids));
-		}
-
-		if (_brokenAsteroids.size() > 0)
+		if (_tiltHelper != null)
 		{
-			_brokenAsteroids.get(0).batchDraw(matrix, (List<TextureSprite>) ((Object) _brokenAsteroids));
+			_tiltHelper.resume();
 		}
+		_simulation.resume();
 	}
 
-	private void breakAsteroid (AsteroidSprite asteroid)
+	/** run something on the simulation thread before its next tick, the game must only be changed from there */
+	public void queueSimulationEvent (Runnable event)
 	{
-		float origPosition[] = asteroid.getPosition();
-		float origVector[] = asteroid.getVector();
-		float origScale[] = asteroid.getScale();
-		float newScale = origScale[0] / 4;
-		float p[] = new float[] {
-			origScale[1] * 1 / 4,
-			origScale[1] * 1 / 2,
-			origScale[1],
-			origScale[1] * 1 / 2,
-			origScale[1] * 1 / 4
-		};
-		for (int i = 0; i < 5; i++)
-		{
-			float newPosition[] = new float[3];
-			float newVector[] = new float[3];
-			newPosition[1] = origPosition[1] + p[i]; //move it up a bit
-			newVector[1] = (float) (origVector[1] * (0.8f + 0.2f * Math.random())); //slow it's speed a bit
+		_simulation.execute(event);
+	}
 
-			if (i < 2)
-			{
-				newPosition[0] = origPosition[0] - (float) (0.06f * Math.random());
-				newVector[0] = -(float) (Math.random() * .01f);
-			}
-			else if (i == 2)
-			{
-				newPosition[0] = origPosition[0];
-				newVector[0] = 0;
-			}
-			else
-			{
-				newPosition[0] = origPosition[0] + (float) (0.06f * Math.random());
-				newVector[0] = (float) (Math.random() * .01f);
-			}
+	//region simulation thread
+	private TiltHelper _tiltHelper;
+	private GameSimulation _game;
+
+	/**
+	 * Pools that run out grow in the middle of a frame, so with these set the pools are kept
+	 * big enough for the current spawn rate instead
+	 *
+	 * @param builder where new sprites get built, should be a background thread
+	 * @param owner runs the hand over of the new sprites to the pools on the simulation thread between ticks
+	 */
+	public void setPrewarmExecutors (Executor builder, Executor owner)
+	{
+		_game.setPrewarmExecutors(builder, owner);
+	}
 
-			BrokenAsteroidSprite piece = _brokenAsteroidPool.spawn();
-			piece.init(_ratio, newPosition, newVector, newScale);
-			_brokenAsteroids.add(piece);
-		}
+	/**
+	 * Split the asteroid update between the simulation thread and threadCount - 1 threads from executor,
+	 * off by default as the game never has enough asteroids on screen to pay for it
+	 */
+	public void setParallelUpdate (Executor executor, int threadCount)
+	{
+		_game.setParallelUpdate(executor, threadCount);
 	}
 
-	private void updateChickens()
+	/** change how asteroids break apart when they hit the player */
+	public void setDebrisPattern (DebrisPattern debrisPattern)
 	{
-		for (int i = 0; i < _chickens.size(); i++)
-		{
-			ChickenSprite chicken = _chickens.get(i);
+		_game.setDebrisPattern(debrisPattern);
+	}
 
-			if (!chicken.update())
-			{
-				_chickenPool.kill(chicken);
-				_chickens.remove(i--);
-			}
-		}
+	public void startGame ()
+	{
+		_game.startGame();
 	}
+	//endregion
 
-	private void drawChickens (float matrix[])
+	/** keep this session's inputs to replay it later, see {@link SessionReplay}, call before {@link #startSimulation()} */
+	public SessionRecording startRecording ()
 	{
-		if (_chickens.size() > 0)
-		{
-			_chickens.get(0).batchDraw(matrix, (List<TextureSprite>) ((Object) _chickens));
-		}
+		return _game.startRecording();
 	}
 
+	//region hud, gl thread
 	public void setViewLocations (Map<Integer, Rect> viewLocations)
 	{
 		_viewLocations = viewLocations;
 		if (_ratio != 0)
 		{
 			initHUDIcon(_asteroidIcon, _ratio, R.id.asteroid_icon);
-			initHUDText(_asteroidCountText, Integer.toString(_asteroidCount),
+			initHUDText(_asteroidCountText, Integer.toString(_shownAsteroidCount),
 				TextSprite.TEXT_NO_ALIGN, _ratio, R.id.asteroid_count_text);
 		}
 	}
@@ -377,9 +383,9 @@ public class GameEngine
 		convertAndroidLocationToGL(coords, _viewLocations.get(id));
 		if (textAlign == TextSprite.TEXT_NO_ALIGN)
 		{
-			textSprite.getPosition()[0] = coords[0];
+			textSprite.setX(coords[0]);
 		}
-		textSprite.getPosition()[1] = coords[1];
+		textSprite.setY(coords[1]);
 	}
 
 	private void convertAndroidLocationToGLCentered (float glPos[], Rect androidLocation)
@@ -404,55 +410,18 @@ public class GameEngine
 		glScale[1] = androidLocation.height() / _width;
 	}
 
+	//endregion
+
+	/** simulation thread, stops it after the current command */
 	public void destroy ()
 	{
-		if (_tiltHelper != null)
-		{
-			_tiltHelper.destroy();
-		}
-	}
+		_simulation.quit();
 
-	//region timing debug
-	private long _now;
-	private long _lastUpdate;
-	private float _totalDiffs;
-	private float _totalLens;
-	private long _statFrames;
+		_game.setPrewarmExecutors(null, null);
 
-	private void timingDebugStart ()
-	{
-		_now = SystemClock.elapsedRealtime();
-
-		if (_lastUpdate != 0)
-		{
-			_statFrames++;
-			long timeDiff = _now - _lastUpdate;
-			_totalDiffs += timeDiff;
-			if (timeDiff > 20)
-			{
-				Timber.d("long frame %d, %d millis", _statFrames, timeDiff);
-			}
-			if (_statFrames % 128 == 0)
-			{
-				Timber.d("avg = %f %f %d", (_totalDiffs / _statFrames), _totalDiffs, _statFrames);
-			}
-		}
-
-		_lastUpdate = _now;
-	}
-
-	private void timingDebugEnd ()
-	{
-		long len = SystemClock.elapsedRealtime() - _now;
-		if (len > 20)
-		{
-			Timber.d("long len %d, %d millis", _statFrames, len);
-		}
-		_totalLens += len;
-		if (_statFrames % 128 == 0)
+		if (_tiltHelper != null)
 		{
-			Timber.d("avg len = %f %f %d", (_totalLens / _statFrames), _totalLens, _statFrames);
+			_tiltHelper.destroy();
 		}
 	}
-	//endregion
-}
\ No newline at end of file
+}
@@ -0,0 +1,711 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import dental.beam.openglsamplegame.helpers.GameRandom;
+import dental.beam.openglsamplegame.helpers.TiltSource;
+import dental.beam.openglsamplegame.sprites.AsteroidSprite;
+import dental.beam.openglsamplegame.sprites.BrokenAsteroidSprite;
+import dental.beam.openglsamplegame.sprites.ChickenSprite;
+import dental.beam.openglsamplegame.sprites.DebrisPattern;
+import dental.beam.openglsamplegame.sprites.PlayerSprite;
+import dental.beam.openglsamplegame.sprites.PoolableSprite;
+import dental.beam.openglsamplegame.sprites.SpritePool;
+import dental.beam.openglsamplegame.sprites.SpriteSnapshot;
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+
+/**
+ * The game itself: the sprites, how they move and hit each other and when new ones come in
+ *
+ * Nothing here needs android or gl. Every random number comes from one seeded {@link GameRandom} and the
+ * only other inputs are the tilt and the calls made between ticks, so the same seed and inputs always
+ * play out the same way. {@link #startRecording()} keeps those inputs in a {@link SessionRecording} for
+ * a {@link SessionReplay} to run again.
+ *
+ * A tick finds every collision first, then handles them, then moves everything, see {@link #updateAsteroids()}.
+ * {@link #setParallelUpdate} splits finding and moving between several threads and plays the same game.
+ *
+ * Only touch it from the thread that ticks it.
+ */
+public class GameSimulation implements Simulation
+{
+	/** sprite speeds are all per tick and were tuned at 60 frames a second */
+	public static final int DEFAULT_TICKS_PER_SECOND = 60;
+
+	/** the biggest asteroid is two cells across, a chicken is small enough to only ever be in 4 cells */
+	private static final float COLLISION_CELL_SIZE = AsteroidSprite.MAX_SCALE;
+
+	/** sprites in a chunk of the parallel update, a few chunks a thread once it's worth splitting at all */
+	public static final int DEFAULT_UPDATE_CHUNK_SIZE = 2048;
+
+	//region collision types
+	public static final int SPRITE_ASTEROID = 0;
+	public static final int SPRITE_PLAYER = 1;
+	public static final int SPRITE_CHICKEN = 2;
+	private static final int SPRITE_TYPE_COUNT = 3;
+	//endregion
+
+	private final GameRandom _random;
+	private final TiltSource _tiltSource;
+	private final FrameProfiler _profiler;
+	private SessionRecording _recording;
+	private int _tickCount;
+
+	private PlayerSprite _player;
+	private SpritePool<AsteroidSprite> _asteroidPool;
+	private SpritePool<BrokenAsteroidSprite> _brokenAsteroidPool;
+	private SpritePool<ChickenSprite> _chickenPool;
+
+	private float _worldRatio;
+
+	//region collision
+	private CollisionGrid _chickenGrid = new CollisionGrid(COLLISION_CELL_SIZE, 20);
+	private int _collisionCandidates[] = new int[20];
+	private final CollisionEvents _collisions = new CollisionEvents(SPRITE_TYPE_COUNT, 16);
+	// by asteroid slot, see rankAsteroids
+	private int _asteroidRanks[] = new int[0];
+	private int _asteroidWalk[] = new int[0];
+	private boolean _asteroidDies[] = new boolean[0];
+	//endregion
+
+	//region game state
+	private boolean _playing = false;
+	private int _asteroidCount;
+	private SpawnSchedule _spawnSchedule = new SpawnSchedule();
+	private DebrisPattern _debrisPattern = DebrisPattern.DEFAULT;
+	//endregion
+
+	//region pool prewarming
+	private Executor _prewarmBuilder;
+	private Executor _prewarmOwner;
+	//endregion
+
+	//region parallel update
+	private ChunkRunner _updateRunner;
+	private int _updateChunkSize = DEFAULT_UPDATE_CHUNK_SIZE;
+
+	// by chunk, each only touched by the thread running that chunk
+	private CollisionEvents _chunkCollisions[] = new CollisionEvents[0];
+	private int _chunkCandidates[][] = new int[0][];
+	private int _chunkSurvivorCounts[] = new int[0];
+
+	/** the pool being integrated and how much it shrinks, set before the chunks run */
+	private SpritePool<? extends PoolableSprite> _integrating;
+	private float _integratingShrink;
+
+	private final ChunkRunner.Body _detectChunk = new ChunkRunner.Body()
+	{
+		@Override
+		public void run (int chunk, int start, int end)
+		{
+			detectCollisions(start, end, _chunkCollisions[chunk], _chunkCandidates[chunk]);
+		}
+	};
+	private final ChunkRunner.Body _integrateChunk = new ChunkRunner.Body()
+	{
+		@Override
+		public void run (int chunk, int start, int end)
+		{
+			_chunkSurvivorCounts[chunk] = _integrating.getStore().integrate(_integrating.getLiveSlots(), start, end,
+				_integratingShrink, _survivors);
+		}
+	};
+	//endregion
+
+	/** live positions of the sprites still going after an integrate */
+	private int _survivors[] = new int[0];
+
+	/**
+	 * @param seed     the same seed and inputs play the same game
+	 * @param profiler update, collision and spawn times go in here
+	 */
+	public GameSimulation (long seed, TiltSource tiltSource, FrameProfiler profiler)
+	{
+		_random = new GameRandom(seed);
+		_tiltSource = tiltSource;
+		_profiler = profiler;
+
+		_player = new PlayerSprite();
+		_player.useOwnStore();
+		_asteroidPool = new SpritePool<>(100, new SpritePool.Factory<AsteroidSprite>()
+		{
+			@Override
+			public AsteroidSprite create ()
+			{
+				return new AsteroidSprite();
+			}
+		});
+		_brokenAsteroidPool = new SpritePool<>(100, new SpritePool.Factory<BrokenAsteroidSprite>()
+		{
+			@Override
+			public BrokenAsteroidSprite create ()
+			{
+				return new BrokenAsteroidSprite();
+			}
+		});
+		_chickenPool = new SpritePool<>(5, new SpritePool.Factory<ChickenSprite>()
+		{
+			@Override
+			public ChickenSprite create ()
+			{
+				return new ChickenSprite();
+			}
+		});
+
+		_collisions.setHandler(SPRITE_ASTEROID, SPRITE_PLAYER, new CollisionEvents.Handler()
+		{
+			@Override
+			public void onCollision (int asteroid, int player)
+			{
+				hitPlayer(_asteroidPool.getSprites().get(asteroid));
+			}
+		});
+		_collisions.setHandler(SPRITE_ASTEROID, SPRITE_CHICKEN, new CollisionEvents.Handler()
+		{
+			@Override
+			public void onCollision (int asteroid, int chicken)
+			{
+				// the first asteroid to get there kills it, any others hit nothing
+				ChickenSprite chickenSprite = _chickenPool.getSprites().get(chicken);
+				if (chickenSprite.isInUse())
+				{
+					_chickenPool.kill(chickenSprite);
+				}
+			}
+		});
+
+		startGame();
+	}
+
+	/**
+	 * Keep every input from here on so the session can be replayed, has to start before the first tick
+	 * or call, a replay starts from the seed like this simulation did
+	 */
+	public SessionRecording startRecording ()
+	{
+		if (_tickCount > 0)
+		{
+			throw new IllegalStateException("recording has to start before the first tick");
+		}
+		_recording = new SessionRecording(_random.getSeed());
+		return _recording;
+	}
+
+	/** ratio is height/width of the screen, which is how far up and down the world goes */
+	public void setWorldRatio (float ratio)
+	{
+		if (_recording != null)
+		{
+			_recording.addEvent(SessionRecording.EVENT_WORLD_RATIO, ratio);
+		}
+		_worldRatio = ratio;
+
+		_player.setRatio(ratio);
+		_chickenGrid.setBounds(-1, -ratio, 1, ratio);
+
+		int chickenCount = _chickenPool.getSprites().size();
+		for (int i = 0; i < chickenCount; i++)
+		{
+			ChickenSprite chickenSprite = _chickenPool.getSprites().get(i);
+			chickenSprite.setRatio(ratio);
+		}
+	}
+
+	@Override
+	public void tick (long timeNanos)
+	{
+		_profiler.begin(FrameProfiler.UPDATE);
+
+		_asteroidPool.getStore().savePrevious();
+		_brokenAsteroidPool.getStore().savePrevious();
+		_chickenPool.getStore().savePrevious();
+		_player.getStore().savePrevious();
+
+		float tilt = _tiltSource.getTilt(timeNanos);
+		if (_recording != null)
+		{
+			_recording.addTick(tilt);
+		}
+		_player.setTilt(tilt);
+
+		if (_chickenPool.getLiveCount() == 0)
+		{
+			gameOver();
+		}
+		else
+		{
+			update();
+		}
+		_tickCount++;
+
+		_profiler.end(FrameProfiler.UPDATE);
+		_profiler.commit(FrameProfiler.UPDATE);
+		_profiler.commit(FrameProfiler.COLLISION);
+		_profiler.commit(FrameProfiler.SPAWN);
+	}
+
+	@Override
+	public void writeSnapshot (RenderSnapshot snapshot)
+	{
+		snapshot.playing = _playing;
+		snapshot.asteroidCount = _asteroidCount;
+
+		copyLive(_asteroidPool, snapshot.asteroids);
+		copyLive(_brokenAsteroidPool, snapshot.brokenAsteroids);
+		copyLive(_chickenPool, snapshot.chickens);
+
+		snapshot.player.clear();
+		snapshot.player.add(_player.getStore(), _player.getSlot());
+	}
+
+	private static void copyLive (SpritePool<? extends PoolableSprite> pool, SpriteSnapshot out)
+	{
+		out.clear();
+		int count = pool.getLiveCount();
+		for (int i = 0; i < count; i++)
+		{
+			out.add(pool.getStore(), pool.getLive(i).getSlot());
+		}
+	}
+
+	public void update()
+	{
+		updateAsteroids();
+		updateChickens();
+
+		_profiler.begin(FrameProfiler.SPAWN);
+		for (int i = _spawnSchedule.tick(); i > 0; i--)
+		{
+			AsteroidSprite asteroidSprite = spawnAsteroid();
+			if (asteroidSprite == null)
+			{
+				break;
+			}
+			asteroidSprite.initRandom(_random);
+			asteroidSprite.setRatio(_worldRatio);
+		}
+
+		prewarmPools();
+		_profiler.end(FrameProfiler.SPAWN);
+
+		_player.update();
+	}
+
+	/**
+	 * Pools that run out grow in the middle of a frame, so with these set the pools are kept
+	 * big enough for the current spawn rate instead
+	 *
+	 * @param builder where new sprites get built, should be a background thread
+	 * @param owner runs the hand over of the new sprites to the pools on the simulation thread between ticks
+	 */
+	public void setPrewarmExecutors (Executor builder, Executor owner)
+	{
+		_prewarmBuilder = builder;
+		_prewarmOwner = owner;
+	}
+
+	private void prewarmPools ()
+	{
+		if (_prewarmBuilder == null)
+		{
+			return;
+		}
+
+		// slowest asteroid falling from above the top of the screen to below the bottom
+		int asteroidLifetime = (int) ((2 * _worldRatio + AsteroidSprite.MAX_SCALE) / AsteroidSprite.MIN_SPEED) + 1;
+		_asteroidPool.prewarm(_spawnSchedule.expectedLive(asteroidLifetime, 1), _prewarmBuilder, _prewarmOwner);
+
+		// biggest piece shrinking down to nothing
+		int pieceLifetime = (int) (AsteroidSprite.MAX_SCALE * DebrisPattern.PIECE_SCALE / BrokenAsteroidSprite.SCALE_DELTA) + 1;
+		_brokenAsteroidPool.prewarm(_spawnSchedule.expectedLive(pieceLifetime, _debrisPattern.getPieceCount()),
+			_prewarmBuilder, _prewarmOwner);
+	}
+
+	/**
+	 * Find collisions and move asteroids on several threads, the ticking thread being one of them. Plays exactly
+	 * the same game as the serial update, only worth it with thousands of asteroids on screen
+	 *
+	 * @param executor    runs the other threadCount - 1 threads' work, null to go back to the serial update
+	 * @param threadCount threads to split the sprites between, the ticking thread included
+	 */
+	public void setParallelUpdate (Executor executor, int threadCount)
+	{
+		setParallelUpdate(executor, threadCount, DEFAULT_UPDATE_CHUNK_SIZE);
+	}
+
+	/** smaller chunks so tests can split a handful of sprites */
+	void setParallelUpdate (Executor executor, int threadCount, int chunkSize)
+	{
+		_updateRunner = executor == null ? null : new ChunkRunner(executor, threadCount);
+		_updateChunkSize = chunkSize;
+	}
+
+	/**
+	 * Spawn asteroids faster than the game does, for soak tests. Takes over from the next game,
+	 * and like the debris pattern it isn't recorded
+	 */
+	public void setSpawnSchedule (SpawnSchedule spawnSchedule)
+	{
+		_spawnSchedule = spawnSchedule;
+	}
+
+	/** change how asteroids break apart when they hit the player, it isn't recorded so a replay needs the same one */
+	public void setDebrisPattern (DebrisPattern debrisPattern)
+	{
+		_debrisPattern = debrisPattern;
+	}
+
+	public void startGame()
+	{
+		if (_recording != null)
+		{
+			_recording.addEvent(SessionRecording.EVENT_START_GAME, 0);
+		}
+		if (_playing)
+		{
+			return;
+		}
+
+		_playing = true;
+		_asteroidCount = 0;
+		_spawnSchedule.reset();
+		// a schedule that starts fast needs the room before the first tick
+		prewarmPools();
+
+		for (int i = 0; i < 5; i++)
+		{
+			ChickenSprite chicken = _chickenPool.spawn();
+			if (chicken == null)
+			{
+				break;
+			}
+			chicken.init(_random);
+			chicken.setRatio(_worldRatio);
+		}
+	}
+
+	public void gameOver()
+	{
+		_playing = false;
+	}
+
+	/** @return null when the pool is full and not allowed to grow */
+	public AsteroidSprite spawnAsteroid ()
+	{
+		return _asteroidPool.spawn();
+	}
+
+	/**
+	 * The collisions are found for every asteroid where it is now before any are handled, then they're handled
+	 * in the order the one at a time loop used to get to the asteroids, see {@link #rankAsteroids}, an
+	 * asteroid's hit on the player before its hits on chickens, which are in slot order. After that the
+	 * asteroids that are left move in one pass, and debris moves last, including what broke off this tick.
+	 */
+	private void updateAsteroids()
+	{
+		_profiler.begin(FrameProfiler.COLLISION);
+		buildChickenGrid();
+		_collisions.clear();
+		int count = _asteroidPool.getLiveCount();
+		if (_updateRunner == null)
+		{
+			detectCollisions(0, count, _collisions, _collisionCandidates);
+		}
+		else
+		{
+			int chunkCount = ensureChunkBuffers(count);
+			_updateRunner.run(count, _updateChunkSize, _detectChunk);
+			for (int chunk = 0; chunk < chunkCount; chunk++)
+			{
+				_collisions.addAll(_chunkCollisions[chunk]);
+			}
+		}
+		rankAsteroids(count);
+		_collisions.dispatch();
+		_profiler.end(FrameProfiler.COLLISION);
+
+		int survivorCount = integrate(_asteroidPool, 0);
+		_asteroidPool.retain(_survivors, survivorCount);
+		survivorCount = integrate(_brokenAsteroidPool, BrokenAsteroidSprite.SCALE_DELTA);
+		_brokenAsteroidPool.retain(_survivors, survivorCount);
+	}
+
+	/**
+	 * Add the collisions of the asteroids from start up to but not including end in the live list. Only reads
+	 * the sprites and the chicken grid, so chunks of the list can be looked at on different threads
+	 *
+	 * @param candidates room for {@link CollisionGrid#query} to put the chickens an asteroid might hit
+	 */
+	private void detectCollisions (int start, int end, CollisionEvents collisions, int candidates[])
+	{
+		collisions.clear();
+		int playerSlot = _player.getSlot();
+		for (int i = start; i < end; i++)
+		{
+			AsteroidSprite asteroid = _asteroidPool.getLive(i);
+			if (asteroid.collidesWith(_player))
+			{
+				// it's broken up before it gets near a chicken
+				collisions.add(SPRITE_ASTEROID, asteroid.getSlot(), SPRITE_PLAYER, playerSlot);
+				continue;
+			}
+
+			// only chickens sharing a grid cell with the asteroid can possibly be hit
+			int candidateCount = _chickenGrid.query(asteroid.getCollisionX(), asteroid.getCollisionY(),
+				asteroid.getCollisionRadius(), candidates);
+			for (int c = 0; c < candidateCount; c++)
+			{
+				if (asteroid.collidesWith(_chickenPool.getSprites().get(candidates[c])))
+				{
+					collisions.add(SPRITE_ASTEROID, asteroid.getSlot(), SPRITE_CHICKEN, candidates[c]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sort the collisions by when a loop over the live list that killed asteroids as it went would have got
+	 * to their asteroid. A kill swaps the last live asteroid into the hole and that one is looked at next, so
+	 * whenever one dies the order isn't the live list's. Handling them in that order keeps the debris and
+	 * the chickens that are left in the same order, and the game the same, as when each asteroid was checked
+	 * and moved in turn
+	 */
+	private void rankAsteroids (int count)
+	{
+		int poolSize = _asteroidPool.size();
+		if (_asteroidRanks.length < poolSize)
+		{
+			_asteroidRanks = new int[poolSize];
+			_asteroidWalk = new int[poolSize];
+			_asteroidDies = new boolean[poolSize];
+		}
+
+		// the ones that die this tick hit the player or went off the bottom last tick
+		for (int event = 0; event < _collisions.size(); event++)
+		{
+			if (_collisions.getSecondType(event) == SPRITE_PLAYER)
+			{
+				_asteroidDies[_collisions.getFirst(event)] = true;
+			}
+		}
+
+		boolean alive[] = _asteroidPool.getStore().alive;
+		System.arraycopy(_asteroidPool.getLiveSlots(), 0, _asteroidWalk, 0, count);
+		int rank = 0;
+		int end = count;
+		for (int i = 0; i < end; )
+		{
+			int slot = _asteroidWalk[i];
+			_asteroidRanks[slot] = rank++;
+			if (_asteroidDies[slot] || !alive[slot])
+			{
+				_asteroidDies[slot] = false;
+				_asteroidWalk[i] = _asteroidWalk[--end];
+			}
+			else
+			{
+				i++;
+			}
+		}
+
+		_collisions.sortByFirst(_asteroidRanks);
+	}
+
+	/** the asteroid gets killed with the ones that went off the bottom once everything has moved */
+	private void hitPlayer (AsteroidSprite asteroid)
+	{
+		_asteroidCount++;
+		breakAsteroid(asteroid);
+		asteroid.setAlive(false);
+	}
+
+	/**
+	 * One {@link SpriteStore#integrate} pass over a pool's live sprites, split in chunks when the update
+	 * is parallel
+	 *
+	 * @return how many are still going, their live positions are at the front of _survivors
+	 */
+	private int integrate (SpritePool<? extends PoolableSprite> pool, float shrink)
+	{
+		int count = pool.getLiveCount();
+		if (_survivors.length < count)
+		{
+			_survivors = new int[pool.size()];
+		}
+		if (_updateRunner == null)
+		{
+			return pool.getStore().integrate(pool.getLiveSlots(), 0, count, shrink, _survivors);
+		}
+
+		int chunkCount = ensureChunkBuffers(count);
+		_integrating = pool;
+		_integratingShrink = shrink;
+		_updateRunner.run(count, _updateChunkSize, _integrateChunk);
+		_integrating = null;
+
+		// each chunk's survivors start where the chunk does, close up the gaps
+		int survivorCount = 0;
+		for (int chunk = 0; chunk < chunkCount; chunk++)
+		{
+			System.arraycopy(_survivors, chunk * _updateChunkSize, _survivors, survivorCount, _chunkSurvivorCounts[chunk]);
+			survivorCount += _chunkSurvivorCounts[chunk];
+		}
+		return survivorCount;
+	}
+
+	/**
+	 * Grow what the chunks write to before they run, after that they don't allocate
+	 *
+	 * @return how many chunks count sprites make
+	 */
+	private int ensureChunkBuffers (int count)
+	{
+		int chunkCount = ChunkRunner.chunkCount(count, _updateChunkSize);
+		if (_chunkCollisions.length < chunkCount)
+		{
+			int oldCount = _chunkCollisions.length;
+			_chunkCollisions = Arrays.copyOf(_chunkCollisions, chunkCount);
+			_chunkCandidates = Arrays.copyOf(_chunkCandidates, chunkCount);
+			_chunkSurvivorCounts = new int[chunkCount];
+			for (int chunk = oldCount; chunk < chunkCount; chunk++)
+			{
+				_chunkCollisions[chunk] = new CollisionEvents(SPRITE_TYPE_COUNT, 16);
+			}
+		}
+		for (int chunk = 0; chunk < chunkCount; chunk++)
+		{
+			if (_chunkCandidates[chunk] == null || _chunkCandidates[chunk].length < _collisionCandidates.length)
+			{
+				_chunkCandidates[chunk] = new int[_collisionCandidates.length];
+			}
+		}
+		return chunkCount;
+	}
+
+	/**
+	 * Chickens don't move while asteroids are being checked, so the grid only needs building once per update.
+	 * Grid ids are the chickens' pool indexes, which don't change when other chickens are killed
+	 */
+	private void buildChickenGrid ()
+	{
+		_chickenGrid.clear();
+		int chickenCount = _chickenPool.getLiveCount();
+		for (int i = 0; i < chickenCount; i++)
+		{
+			ChickenSprite chicken = _chickenPool.getLive(i);
+			_chickenGrid.insert(chicken.getSlot(), chicken.getCollisionX(), chicken.getCollisionTargetY(), chicken.getCollisionRadius());
+		}
+
+		// a query can't collect more than everything in the grid, whatever size the sprites are
+		int entryCount = _chickenGrid.getEntryCount();
+		if (_collisionCandidates.length < entryCount)
+		{
+			_collisionCandidates = new int[entryCount * 2];
+		}
+	}
+
+	private void breakAsteroid (AsteroidSprite asteroid)
+	{
+		_debrisPattern.shatter(asteroid, _worldRatio, _brokenAsteroidPool, _random);
+	}
+
+	private void updateChickens()
+	{
+		for (int i = 0; i < _chickenPool.getLiveCount(); i++)
+		{
+			ChickenSprite chicken = _chickenPool.getLive(i);
+
+			if (!chicken.update())
+			{
+				_chickenPool.kill(chicken);
+				i--;
+			}
+		}
+	}
+
+	/**
+	 * The last tick's collisions. Handlers can be added for other pairs, replacing the ones for asteroids
+	 * hitting the player or chickens changes the game and replays won't match
+	 */
+	public CollisionEvents getCollisions ()
+	{
+		return _collisions;
+	}
+
+	public int getTickCount ()
+	{
+		return _tickCount;
+	}
+
+	public boolean isPlaying ()
+	{
+		return _playing;
+	}
+
+	public int getAsteroidCount ()
+	{
+		return _asteroidCount;
+	}
+
+	/** sprites alive right now, the player included */
+	public int getLiveCount ()
+	{
+		return _asteroidPool.getLiveCount() + _brokenAsteroidPool.getLiveCount() + _chickenPool.getLiveCount() + 1;
+	}
+
+	public int getLiveChickenCount ()
+	{
+		return _chickenPool.getLiveCount();
+	}
+
+	/** times a pool ran out in the middle of a tick and grew right there */
+	public int getExpansionCount ()
+	{
+		return _asteroidPool.getExpansionCount() + _brokenAsteroidPool.getExpansionCount()
+			+ _chickenPool.getExpansionCount();
+	}
+
+	/**
+	 * A hash of every live sprite's state in live order, two runs that hash the same after every tick
+	 * played out bit for bit the same
+	 */
+	public long getStateHash ()
+	{
+		long hash = 0xcbf29ce484222325L;
+		hash = mix(hash, _playing ? 1 : 0);
+		hash = mix(hash, _asteroidCount);
+		hash = hashLive(hash, _asteroidPool);
+		hash = hashLive(hash, _brokenAsteroidPool);
+		hash = hashLive(hash, _chickenPool);
+		return hashSlot(hash, _player.getStore(), _player.getSlot());
+	}
+
+	private static long hashLive (long hash, SpritePool<? extends PoolableSprite> pool)
+	{
+		int count = pool.getLiveCount();
+		hash = mix(hash, count);
+		for (int i = 0; i < count; i++)
+		{
+			hash = hashSlot(hash, pool.getStore(), pool.getLive(i).getSlot());
+		}
+		return hash;
+	}
+
+	private static long hashSlot (long hash, SpriteStore store, int slot)
+	{
+		hash = mix(hash, Float.floatToIntBits(store.posX[slot]));
+		hash = mix(hash, Float.floatToIntBits(store.posY[slot]));
+		hash = mix(hash, Float.floatToIntBits(store.vectorX[slot]));
+		hash = mix(hash, Float.floatToIntBits(store.vectorY[slot]));
+		hash = mix(hash, Float.floatToIntBits(store.scaleX[slot]));
+		hash = mix(hash, Float.floatToIntBits(store.scaleY[slot]));
+		hash = mix(hash, Float.floatToIntBits(store.rotation[slot]));
+		return mix(hash, Float.floatToIntBits(store.rotationDelta[slot]));
+	}
+
+	private static long mix (long hash, int value)
+	{
+		return (hash ^ value) * 0x100000001b3L;
+	}
+}
@@ -0,0 +1,110 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.util.Arrays;
+
+/**
+ * Counts nanosecond durations in log-linear buckets the way HdrHistogram does, so percentiles come out
+ * within about 1.5% of the real value at any magnitude with a fixed amount of memory
+ *
+ * Values below {@link #SUB_BUCKETS} get a bucket each. Above that every power of two is split into
+ * {@link #SUB_BUCKETS}/2 buckets, so a 16ms frame is counted to the nearest 128us and a 50us span to the
+ * nearest 0.5us. Recording is a couple of shifts and an increment and never allocates.
+ */
+public class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 7;
+	/** linear buckets at the bottom, and twice the number of buckets in every power of two above them */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+	/** anything longer is counted as this, about 18 minutes */
+	public static final long MAX_VALUE = (1L << 40) - 1;
+
+	private final long _counts[] = new long[index(MAX_VALUE) + 1];
+	private long _totalCount;
+	private long _max;
+	private long _sum;
+
+	public void record (long value)
+	{
+		if (value < 0)
+		{
+			value = 0;
+		}
+		else if (value > MAX_VALUE)
+		{
+			value = MAX_VALUE;
+		}
+
+		_counts[index(value)]++;
+		_totalCount++;
+		_sum += value;
+		if (value > _max)
+		{
+			_max = value;
+		}
+	}
+
+	/** bucket a value goes in, buckets are in value order */
+	static int index (long value)
+	{
+		// how far the value has to be shifted to land in the top half of the sub buckets
+		int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+		return HALF_SUB_BUCKETS * shift + (int) (value >>> shift);
+	}
+
+	/** highest value that goes in the same bucket as index */
+	static long highestValue (int index)
+	{
+		int shift = Math.max(0, index / HALF_SUB_BUCKETS - 1);
+		long subBucket = index - HALF_SUB_BUCKETS * shift;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * @param percentile 0 to 100
+	 * @return the value that many percent of the recorded values are at or below, to the bucket's precision
+	 */
+	public long getValueAtPercentile (double percentile)
+	{
+		if (_totalCount == 0)
+		{
+			return 0;
+		}
+
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * _totalCount));
+		long seen = 0;
+		for (int i = 0; i < _counts.length; i++)
+		{
+			seen += _counts[i];
+			if (seen >= target)
+			{
+				return Math.min(highestValue(i), _max);
+			}
+		}
+		return _max;
+	}
+
+	public long getMax ()
+	{
+		return _max;
+	}
+
+	public double getMean ()
+	{
+		return _totalCount == 0 ? 0 : (double) _sum / _totalCount;
+	}
+
+	public long getTotalCount ()
+	{
+		return _totalCount;
+	}
+
+	public void reset ()
+	{
+		Arrays.fill(_counts, 0);
+		_totalCount = 0;
+		_max = 0;
+		_sum = 0;
+	}
+}
@@ -0,0 +1,34 @@
+package dental.beam.openglsamplegame.engine;
+
+import dental.beam.openglsamplegame.sprites.SpriteSnapshot;
+
+/**
+ * Everything the gl thread needs to draw one simulation step, filled in on the simulation thread
+ * and handed over through a {@link TripleBuffer}
+ */
+public class RenderSnapshot
+{
+	public final SpriteSnapshot asteroids = new SpriteSnapshot(100);
+	public final SpriteSnapshot brokenAsteroids = new SpriteSnapshot(100);
+	public final SpriteSnapshot chickens = new SpriteSnapshot(5);
+	public final SpriteSnapshot player = new SpriteSnapshot(1);
+
+	public boolean playing;
+	public int asteroidCount;
+
+	/** how many snapshots were published before this one, 0 means nothing has been simulated yet */
+	public long sequence;
+	/** clock time the current state in here belongs to */
+	public long stepTime;
+	public long stepNanos = 1;
+
+	/**
+	 * @param now time on the same clock the simulation runs on
+	 * @return how far between the previous and current state to draw, 0 to 1
+	 */
+	public float getAlpha (long now)
+	{
+		float alpha = (float) (now - stepTime) / stepNanos;
+		return alpha < 0 ? 0 : (alpha > 1 ? 1 : alpha);
+	}
+}
@@ -0,0 +1,158 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Everything that went into a {@link GameSimulation} from outside, enough to run the same session again
+ *
+ * That's the seed, the tilt the player got on every tick, and the commands that came in between ticks
+ * with the tick they came before. Everything else the simulation does follows from those, see
+ * {@link SessionReplay}. Recording only grows the arrays now and then, a tick costs a float.
+ */
+public class SessionRecording
+{
+	private static final int MAGIC = 0x47524543; // "GREC"
+	public static final int VERSION = 1;
+
+	/** the value is the new world ratio */
+	public static final int EVENT_WORLD_RATIO = 0;
+	/** no value */
+	public static final int EVENT_START_GAME = 1;
+
+	private final long _seed;
+
+	private float _tilts[] = new float[1024];
+	private int _tickCount;
+
+	//region events, in the order they happened
+	private int _eventTicks[] = new int[16];
+	private int _eventTypes[] = new int[16];
+	private float _eventValues[] = new float[16];
+	private int _eventCount;
+	//endregion
+
+	public SessionRecording (long seed)
+	{
+		_seed = seed;
+	}
+
+	/** a tick ran with the player at this tilt */
+	void addTick (float tilt)
+	{
+		if (_tickCount == _tilts.length)
+		{
+			_tilts = Arrays.copyOf(_tilts, _tickCount * 2);
+		}
+		_tilts[_tickCount++] = tilt;
+	}
+
+	/** something changed the game before the next tick */
+	void addEvent (int type, float value)
+	{
+		if (_eventCount == _eventTicks.length)
+		{
+			_eventTicks = Arrays.copyOf(_eventTicks, _eventCount * 2);
+			_eventTypes = Arrays.copyOf(_eventTypes, _eventCount * 2);
+			_eventValues = Arrays.copyOf(_eventValues, _eventCount * 2);
+		}
+		_eventTicks[_eventCount] = _tickCount;
+		_eventTypes[_eventCount] = type;
+		_eventValues[_eventCount] = value;
+		_eventCount++;
+	}
+
+	public long getSeed ()
+	{
+		return _seed;
+	}
+
+	public int getTickCount ()
+	{
+		return _tickCount;
+	}
+
+	public float getTilt (int tick)
+	{
+		return _tilts[tick];
+	}
+
+	public int getEventCount ()
+	{
+		return _eventCount;
+	}
+
+	/** how many ticks had run when the event happened */
+	public int getEventTick (int event)
+	{
+		return _eventTicks[event];
+	}
+
+	public int getEventType (int event)
+	{
+		return _eventTypes[event];
+	}
+
+	public float getEventValue (int event)
+	{
+		return _eventValues[event];
+	}
+
+	public void write (DataOutput output) throws IOException
+	{
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeLong(_seed);
+		output.writeInt(_tickCount);
+		for (int i = 0; i < _tickCount; i++)
+		{
+			output.writeFloat(_tilts[i]);
+		}
+		output.writeInt(_eventCount);
+		for (int i = 0; i < _eventCount; i++)
+		{
+			output.writeInt(_eventTicks[i]);
+			output.writeInt(_eventTypes[i]);
+			output.writeFloat(_eventValues[i]);
+		}
+	}
+
+	/**
+	 * @throws IOException when it isn't a recording this version can read
+	 */
+	public static SessionRecording read (DataInput input) throws IOException
+	{
+		if (input.readInt() != MAGIC)
+		{
+			throw new IOException("not a session recording");
+		}
+		int version = input.readInt();
+		if (version != VERSION)
+		{
+			throw new IOException("can't read session recording version " + version);
+		}
+
+		SessionRecording recording = new SessionRecording(input.readLong());
+		int tickCount = input.readInt();
+		for (int i = 0; i < tickCount; i++)
+		{
+			recording.addTick(input.readFloat());
+		}
+		int eventCount = input.readInt();
+		for (int i = 0; i < eventCount; i++)
+		{
+			int tick = input.readInt();
+			int type = input.readInt();
+			float value = input.readFloat();
+			if (tick < 0 || tick > tickCount || (i > 0 && tick < recording._eventTicks[i - 1]))
+			{
+				throw new IOException("event " + i + " is out of order");
+			}
+			recording.addEvent(type, value);
+			recording._eventTicks[i] = tick;
+		}
+		return recording;
+	}
+}
@@ -0,0 +1,92 @@
+package dental.beam.openglsamplegame.engine;
+
+import dental.beam.openglsamplegame.helpers.TiltSource;
+
+/**
+ * Runs a {@link SessionRecording} again on a fresh {@link GameSimulation}, as fast as it goes
+ *
+ * There's no clock, no sensor and no thread, each {@link #step()} hands the simulation the calls that came
+ * before the next recorded tick and then the tilt it had. The simulation ends up in the same state after
+ * every tick as the recorded one did, so a slow session can be run again and again under a profiler.
+ */
+public class SessionReplay implements TiltSource
+{
+	private static final long TICK_NANOS = 1000000000L / GameSimulation.DEFAULT_TICKS_PER_SECOND;
+
+	private final SessionRecording _recording;
+	private final GameSimulation _simulation;
+	private int _tick;
+	private int _event;
+
+	public SessionReplay (SessionRecording recording, FrameProfiler profiler)
+	{
+		_recording = recording;
+		_simulation = new GameSimulation(recording.getSeed(), this, profiler);
+	}
+
+	/**
+	 * Run the next recorded tick
+	 *
+	 * @return false once every tick has run
+	 */
+	public boolean step ()
+	{
+		if (_tick == _recording.getTickCount())
+		{
+			return false;
+		}
+		runEvents();
+		_simulation.tick(_tick * TICK_NANOS);
+		_tick++;
+		if (_tick == _recording.getTickCount())
+		{
+			// calls after the last tick
+			runEvents();
+		}
+		return true;
+	}
+
+	/** run every tick that's left */
+	public void run ()
+	{
+		while (step())
+		{
+		}
+	}
+
+	private void runEvents ()
+	{
+		while (_event < _recording.getEventCount() && _recording.getEventTick(_event) == _tick)
+		{
+			switch (_recording.getEventType(_event))
+			{
+				case SessionRecording.EVENT_WORLD_RATIO:
+					_simulation.setWorldRatio(_recording.getEventValue(_event));
+					break;
+				case SessionRecording.EVENT_START_GAME:
+					_simulation.startGame();
+					break;
+				default:
+					throw new IllegalStateException("unknown event " + _recording.getEventType(_event));
+			}
+			_event++;
+		}
+	}
+
+	@Override
+	public float getTilt (long timeNanos)
+	{
+		return _recording.getTilt(_tick);
+	}
+
+	public GameSimulation getSimulation ()
+	{
+		return _simulation;
+	}
+
+	/** ticks run so far */
+	public int getTick ()
+	{
+		return _tick;
+	}
+}
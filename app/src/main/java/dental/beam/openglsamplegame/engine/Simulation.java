@@ -0,0 +1,17 @@
+package dental.beam.openglsamplegame.engine;
+
+/**
+ * Game state that gets stepped on a {@link SimulationThread}
+ */
+public interface Simulation
+{
+	/**
+	 * one fixed length step of the simulation
+	 *
+	 * @param timeNanos clock time the step stands for, a batch of steps catching up each get their own
+	 */
+	void tick (long timeNanos);
+
+	/** copy everything needed to draw the current state, the snapshot still holds whatever was written last time */
+	void writeSnapshot (RenderSnapshot snapshot);
+}
@@ -0,0 +1,155 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps a {@link Simulation} on its own thread so simulation time doesn't add onto frame time on the gl thread
+ *
+ * Ticks run on a {@link FixedTimestep}, after each batch of ticks the state is copied into a {@link RenderSnapshot}
+ * and published through a {@link TripleBuffer} for the gl thread to pick up with {@link #acquireSnapshot()}.
+ * The simulation must only be touched on this thread, anything another thread wants done to it goes
+ * through {@link #execute(Runnable)} and runs before the next tick.
+ */
+public class SimulationThread implements Runnable, Executor
+{
+	private final Simulation _simulation;
+	private final GameClock _clock;
+	private final FixedTimestep _timestep;
+
+	private final TripleBuffer<RenderSnapshot> _snapshots =
+		new TripleBuffer<>(new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot());
+	private long _sequence;
+
+	private final ConcurrentLinkedQueue<Runnable> _commands = new ConcurrentLinkedQueue<>();
+
+	private volatile boolean _paused;
+	private volatile boolean _quit;
+	private volatile Thread _thread;
+
+	public SimulationThread (Simulation simulation, GameClock clock, int ticksPerSecond, int maxStepsPerFrame)
+	{
+		_simulation = simulation;
+		_clock = clock;
+		_timestep = new FixedTimestep(clock, ticksPerSecond, maxStepsPerFrame);
+	}
+
+	public void start ()
+	{
+		_thread = new Thread(this, "simulation");
+		_thread.start();
+	}
+
+	@Override
+	public void run ()
+	{
+		while (!_quit)
+		{
+			runCommands();
+
+			if (_paused)
+			{
+				waitWhilePaused();
+				// don't try to catch up on the time spent paused
+				_timestep.reset();
+				continue;
+			}
+
+			int steps = _timestep.advance();
+			for (int i = 0; i < steps; i++)
+			{
+				// a batch of ticks catches up to now, each one still stands for its own point in time
+				_simulation.tick(_timestep.getStepTime() - (steps - 1 - i) * _timestep.getStepNanos());
+			}
+
+			// publish once straight away so there is something to draw before the first tick
+			if (steps > 0 || _sequence == 0)
+			{
+				publish();
+			}
+
+			LockSupport.parkNanos(this, _timestep.getNanosUntilNextStep());
+		}
+	}
+
+	private void runCommands ()
+	{
+		Runnable command;
+		while ((command = _commands.poll()) != null)
+		{
+			command.run();
+		}
+	}
+
+	private void publish ()
+	{
+		RenderSnapshot snapshot = _snapshots.getBack();
+		_simulation.writeSnapshot(snapshot);
+		snapshot.sequence = ++_sequence;
+		snapshot.stepTime = _timestep.getStepTime();
+		snapshot.stepNanos = _timestep.getStepNanos();
+		_snapshots.publish();
+	}
+
+	/** commands still run while paused, execute, resume and quit all wake the thread up */
+	private void waitWhilePaused ()
+	{
+		while (_paused && !_quit)
+		{
+			LockSupport.park(this);
+			runCommands();
+		}
+	}
+
+	/** run a command on the simulation thread before the next tick, can be called from any thread */
+	@Override
+	public void execute (Runnable command)
+	{
+		_commands.add(command);
+		LockSupport.unpark(_thread);
+	}
+
+	/**
+	 * Only call this from the one thread that draws
+	 *
+	 * @return the newest published state, it isn't written to again until the next call
+	 */
+	public RenderSnapshot acquireSnapshot ()
+	{
+		return _snapshots.acquire();
+	}
+
+	public GameClock getClock ()
+	{
+		return _clock;
+	}
+
+	/** stop ticking until {@link #resume()}, commands still get run */
+	public void pause ()
+	{
+		_paused = true;
+	}
+
+	public void resume ()
+	{
+		_paused = false;
+		LockSupport.unpark(_thread);
+	}
+
+	/** stop the thread after the current tick, it can't be started again */
+	public void quit ()
+	{
+		_quit = true;
+		LockSupport.unpark(_thread);
+	}
+
+	/** wait for the thread to finish after {@link #quit()} */
+	public void join (long millis) throws InterruptedException
+	{
+		if (_thread != null)
+		{
+			_thread.join(millis);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package dental.beam.openglsamplegame.engine;
+
+/**
+ * How often asteroids get added, starts slow and speeds up as the game goes on
+ *
+ * The game's schedule bottoms out at an asteroid every 15 frames. Soak tests push it much further,
+ * down to every frame and then more than one asteroid at a time.
+ */
+public class SpawnSchedule
+{
+	public static final int START_FRAMES_BETWEEN_SPAWNS = 64;
+	public static final int MIN_FRAMES_BETWEEN_SPAWNS = 15;
+	private static final int FRAMES_PER_SPEED_UP = 100;
+
+	private final int _startFramesBetweenSpawns;
+	private final int _minFramesBetweenSpawns;
+	private final int _asteroidsPerSpawn;
+
+	private int _frames;
+	private int _framesBetweenSpawns;
+
+	/** the game's schedule */
+	public SpawnSchedule ()
+	{
+		this(START_FRAMES_BETWEEN_SPAWNS, MIN_FRAMES_BETWEEN_SPAWNS, 1);
+	}
+
+	/**
+	 * @param minFramesBetweenSpawns the fastest it gets, at least 1
+	 * @param asteroidsPerSpawn      how many asteroids come in together
+	 */
+	public SpawnSchedule (int startFramesBetweenSpawns, int minFramesBetweenSpawns, int asteroidsPerSpawn)
+	{
+		if (minFramesBetweenSpawns < 1 || startFramesBetweenSpawns < minFramesBetweenSpawns || asteroidsPerSpawn < 1)
+		{
+			throw new IllegalArgumentException("can't spawn " + asteroidsPerSpawn + " every " + startFramesBetweenSpawns
+				+ " frames down to " + minFramesBetweenSpawns);
+		}
+		_startFramesBetweenSpawns = startFramesBetweenSpawns;
+		_minFramesBetweenSpawns = minFramesBetweenSpawns;
+		_asteroidsPerSpawn = asteroidsPerSpawn;
+		_framesBetweenSpawns = startFramesBetweenSpawns;
+	}
+
+	public void reset ()
+	{
+		_frames = 0;
+		_framesBetweenSpawns = _startFramesBetweenSpawns;
+	}
+
+	/**
+	 * Move the schedule forward a frame
+	 *
+	 * @return how many asteroids should be added this frame
+	 */
+	public int tick ()
+	{
+		boolean spawn = _frames++ % _framesBetweenSpawns == 0;
+
+		if (_frames % FRAMES_PER_SPEED_UP == 0 && _framesBetweenSpawns > _minFramesBetweenSpawns)
+		{
+			_framesBetweenSpawns--;
+		}
+
+		return spawn ? _asteroidsPerSpawn : 0;
+	}
+
+	public int getFramesBetweenSpawns ()
+	{
+		return _framesBetweenSpawns;
+	}
+
+	/**
+	 * Upper bound on how many sprites will be alive at once
+	 * if every asteroid spawned adds spritesPerSpawn sprites that live for lifetimeFrames.
+	 * Looks far enough ahead to cover the schedule speeding up while they are alive
+	 */
+	public int expectedLive (int lifetimeFrames, int spritesPerSpawn)
+	{
+		int framesBetweenSpawns = Math.max(_minFramesBetweenSpawns,
+			_framesBetweenSpawns - 2 * lifetimeFrames / FRAMES_PER_SPEED_UP);
+		return (lifetimeFrames / framesBetweenSpawns + 2) * spritesPerSpawn * _asteroidsPerSpawn;
+	}
+}
@@ -0,0 +1,62 @@
+package dental.beam.openglsamplegame.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the latest copy of something from one writer thread to one reader thread without locks
+ *
+ * There are three buffers: the writer owns one it is filling, the reader owns one it is looking at and the
+ * third sits in the middle. Publishing swaps the writer's buffer into the middle and acquiring swaps the middle
+ * buffer out to the reader if something new was published since, so neither side ever waits for the other and
+ * neither ever sees a buffer the other one is still touching. The writer can publish as often as it likes,
+ * the reader just skips to the newest.
+ */
+public class TripleBuffer<T>
+{
+	private static final int INDEX_MASK = 3;
+	/** set on the middle index when it holds something the reader hasn't acquired yet */
+	private static final int FRESH = 4;
+
+	private final Object _buffers[];
+
+	/** index of the buffer in the middle, plus FRESH */
+	private final AtomicInteger _middle = new AtomicInteger(1);
+
+	/** only touched by the writer */
+	private int _back = 2;
+	/** only touched by the reader */
+	private int _front = 0;
+
+	public TripleBuffer (T first, T second, T third)
+	{
+		_buffers = new Object[] { first, second, third };
+	}
+
+	/** the buffer the writer should fill next, writer thread only */
+	@SuppressWarnings("unchecked")
+	public T getBack ()
+	{
+		return (T) _buffers[_back];
+	}
+
+	/** make the back buffer the newest one, the writer must not touch it afterwards. Writer thread only */
+	public void publish ()
+	{
+		_back = _middle.getAndSet(_back | FRESH) & INDEX_MASK;
+	}
+
+	/**
+	 * Reader thread only
+	 *
+	 * @return the newest published buffer, it stays the reader's until the next acquire
+	 */
+	@SuppressWarnings("unchecked")
+	public T acquire ()
+	{
+		if ((_middle.get() & FRESH) != 0)
+		{
+			_front = _middle.getAndSet(_front) & INDEX_MASK;
+		}
+		return (T) _buffers[_front];
+	}
+}
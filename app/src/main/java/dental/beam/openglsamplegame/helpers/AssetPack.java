@@ -0,0 +1,271 @@
+package dental.beam.openglsamplegame.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Many assets in one file, read by mapping it once and handing out slices of the mapping
+ *
+ * The file is little endian:
+ * <pre>
+ *   "APAK", version, entry count, index length in bytes                4 ints
+ *   for every entry: name length, utf-8 name padded to 4 bytes,
+ *                    offset, length (longs), crc32 (int)
+ *   the entries, each starting on a {@link #ENTRY_ALIGNMENT} byte boundary
+ * </pre>
+ * Opening a pack only reads the index, entries are views of the mapping so nothing is copied until it's
+ * used. Opening with verify on checks every entry's crc first, which reads the whole file.
+ * Nothing here needs android, the packer tool builds packs with the {@link Writer}.
+ */
+public class AssetPack
+{
+	/** "APAK" read as a little endian int */
+	private static final int MAGIC = 'A' | 'P' << 8 | 'A' << 16 | 'K' << 24;
+	public static final int VERSION = 1;
+
+	private static final int HEADER_BYTES = 4 * 4;
+	public static final int ENTRY_ALIGNMENT = 16;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final ByteBuffer _pack;
+	private final Map<String, ByteBuffer> _entries = new HashMap<>();
+	private final List<String> _names = new ArrayList<>();
+
+	private AssetPack (ByteBuffer pack)
+	{
+		_pack = pack;
+	}
+
+	//region reading
+	/**
+	 * @param verify check every entry against its crc, reading the whole pack
+	 * @throws IOException when it isn't a pack, is cut short or an entry fails its check
+	 */
+	public static AssetPack read (ByteBuffer pack, boolean verify) throws IOException
+	{
+		ByteBuffer index = pack.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		index.position(0);
+		if (index.remaining() < HEADER_BYTES || index.getInt() != MAGIC)
+		{
+			throw new IOException("not an asset pack");
+		}
+		int version = index.getInt();
+		if (version != VERSION)
+		{
+			throw new IOException("can't read asset pack version " + version);
+		}
+		int count = index.getInt();
+		int indexLength = index.getInt();
+		if (count < 0 || indexLength < 0 || HEADER_BYTES + (long) indexLength > index.limit())
+		{
+			throw new IOException("bad asset pack header");
+		}
+		index.limit(HEADER_BYTES + indexLength);
+
+		AssetPack assetPack = new AssetPack(pack);
+		try
+		{
+			for (int i = 0; i < count; i++)
+			{
+				byte name[] = new byte[index.getInt()];
+				index.get(name);
+				index.position(align(index.position(), 4));
+				long offset = index.getLong();
+				long length = index.getLong();
+				int crc = index.getInt();
+				if (offset < 0 || length < 0 || offset + length > pack.limit())
+				{
+					throw new IOException("entry " + i + " is out of the pack");
+				}
+
+				ByteBuffer entry = slice(pack, (int) offset, (int) length);
+				if (verify && crc(entry) != crc)
+				{
+					throw new IOException(new String(name, UTF_8) + " is corrupt");
+				}
+				assetPack.put(new String(name, UTF_8), entry);
+			}
+		}
+		catch (RuntimeException e)
+		{
+			// a bad name length or an index that ends early
+			throw new IOException("bad asset pack index", e);
+		}
+		return assetPack;
+	}
+
+	/** map part of a file, an uncompressed asset is a range of the apk */
+	public static AssetPack map (FileChannel channel, long offset, long length, boolean verify) throws IOException
+	{
+		return read(channel.map(FileChannel.MapMode.READ_ONLY, offset, length), verify);
+	}
+
+	public static AssetPack map (File file, boolean verify) throws IOException
+	{
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try
+		{
+			// the mapping stays valid after the file is closed
+			return map(input.getChannel(), 0, input.length(), verify);
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+
+	/**
+	 * @return the entry's bytes as a view of the pack, position 0, or null if there's no such entry
+	 */
+	public ByteBuffer get (String name)
+	{
+		ByteBuffer entry = _entries.get(name);
+		return entry == null ? null : entry.duplicate();
+	}
+
+	public boolean contains (String name)
+	{
+		return _entries.containsKey(name);
+	}
+
+	/** entry names in the order they were packed */
+	public List<String> getNames ()
+	{
+		return _names;
+	}
+
+	/** bytes of the whole pack */
+	public int getSize ()
+	{
+		return _pack.limit();
+	}
+	//endregion
+
+	/**
+	 * Builds a pack, entries keep the order they're added in
+	 */
+	public static class Writer
+	{
+		private final List<String> _names = new ArrayList<>();
+		private final List<ByteBuffer> _data = new ArrayList<>();
+
+		/**
+		 * @param data read from position to limit when the pack is written
+		 */
+		public Writer add (String name, ByteBuffer data)
+		{
+			if (_names.contains(name))
+			{
+				throw new IllegalArgumentException(name + " is already in the pack");
+			}
+			_names.add(name);
+			_data.add(data.slice());
+			return this;
+		}
+
+		/** the whole pack in one buffer, position 0 */
+		public ByteBuffer toByteBuffer ()
+		{
+			int count = _names.size();
+			byte names[][] = new byte[count][];
+			int indexLength = 0;
+			for (int i = 0; i < count; i++)
+			{
+				names[i] = _names.get(i).getBytes(UTF_8);
+				indexLength += 4 + align(names[i].length, 4) + 8 + 8 + 4;
+			}
+
+			long offsets[] = new long[count];
+			long end = align(HEADER_BYTES + indexLength, ENTRY_ALIGNMENT);
+			for (int i = 0; i < count; i++)
+			{
+				offsets[i] = end;
+				end = align(end + _data.get(i).remaining(), ENTRY_ALIGNMENT);
+			}
+			if (end > Integer.MAX_VALUE)
+			{
+				throw new IllegalStateException("asset packs are mapped in one go, so have to be under 2GB");
+			}
+
+			ByteBuffer pack = ByteBuffer.allocate((int) end).order(ByteOrder.LITTLE_ENDIAN);
+			pack.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(indexLength);
+			for (int i = 0; i < count; i++)
+			{
+				pack.putInt(names[i].length).put(names[i]);
+				pack.position(align(pack.position(), 4));
+				pack.putLong(offsets[i]).putLong(_data.get(i).remaining()).putInt(crc(_data.get(i)));
+			}
+			for (int i = 0; i < count; i++)
+			{
+				pack.position((int) offsets[i]);
+				pack.put(_data.get(i).duplicate());
+			}
+
+			pack.position(0);
+			return pack;
+		}
+
+		public void write (WritableByteChannel channel) throws IOException
+		{
+			ByteBuffer pack = toByteBuffer();
+			while (pack.hasRemaining())
+			{
+				channel.write(pack);
+			}
+		}
+	}
+
+	private void put (String name, ByteBuffer entry)
+	{
+		if (_entries.put(name, entry) != null)
+		{
+			throw new IllegalArgumentException(name + " is in the pack twice");
+		}
+		_names.add(name);
+	}
+
+	/** crc32 of the buffer from position to limit, without moving it */
+	private static int crc (ByteBuffer buffer)
+	{
+		// CRC32 only takes a ByteBuffer from api 26, so copy through an array a chunk at a time
+		CRC32 crc = new CRC32();
+		byte chunk[] = new byte[8192];
+		ByteBuffer source = buffer.duplicate();
+		while (source.hasRemaining())
+		{
+			int length = Math.min(chunk.length, source.remaining());
+			source.get(chunk, 0, length);
+			crc.update(chunk, 0, length);
+		}
+		return (int) crc.getValue();
+	}
+
+	private static long align (long offset, int alignment)
+	{
+		return (offset + alignment - 1) / alignment * alignment;
+	}
+
+	private static int align (int offset, int alignment)
+	{
+		return (offset + alignment - 1) / alignment * alignment;
+	}
+
+	private static ByteBuffer slice (ByteBuffer buffer, int offset, int length)
+	{
+		ByteBuffer slice = buffer.duplicate();
+		slice.limit(offset + length).position(offset);
+		return slice.slice();
+	}
+}
@@ -0,0 +1,74 @@
+package dental.beam.openglsamplegame.helpers;
+
+/**
+ * A small fast random number generator that gives the same numbers every time for the same seed
+ *
+ * xoroshiro128+ by Blackman and Vigna, with the seed spread over its 128 bits of state by SplitMix64 so
+ * seeds that are close together still start far apart. Unlike Math.random() it isn't shared or locked,
+ * each thread that needs random numbers gets its own, and nothing it does allocates.
+ */
+public class GameRandom
+{
+	private long _seed;
+	private long _s0;
+	private long _s1;
+
+	public GameRandom (long seed)
+	{
+		setSeed(seed);
+	}
+
+	/** start the sequence over from a seed */
+	public void setSeed (long seed)
+	{
+		_seed = seed;
+		long state = seed;
+		state += 0x9e3779b97f4a7c15L;
+		_s0 = splitMix(state);
+		state += 0x9e3779b97f4a7c15L;
+		_s1 = splitMix(state);
+	}
+
+	/** the seed this was made with */
+	public long getSeed ()
+	{
+		return _seed;
+	}
+
+	public long nextLong ()
+	{
+		long s0 = _s0;
+		long s1 = _s1;
+		long result = s0 + s1;
+
+		s1 ^= s0;
+		_s0 = Long.rotateLeft(s0, 24) ^ s1 ^ (s1 << 16);
+		_s1 = Long.rotateLeft(s1, 37);
+		return result;
+	}
+
+	/** 0 inclusive to 1 exclusive, from the top 24 bits which are the best ones of xoroshiro128+ */
+	public float nextFloat ()
+	{
+		return (nextLong() >>> 40) * 0x1.0p-24f;
+	}
+
+	/** anywhere between the two, in either order */
+	public float nextFloat (float lower, float upper)
+	{
+		if (lower > upper)
+		{
+			float tmp = lower;
+			lower = upper;
+			upper = tmp;
+		}
+		return lower + nextFloat() * (upper - lower);
+	}
+
+	private static long splitMix (long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
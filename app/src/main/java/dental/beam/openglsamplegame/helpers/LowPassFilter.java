@@ -0,0 +1,57 @@
+package dental.beam.openglsamplegame.helpers;
+
+/**
+ * First order low pass, an exponential moving average weighted by the time between samples
+ * so it smooths the same however unevenly the samples arrive
+ */
+public class LowPassFilter implements SampleFilter
+{
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private final float _cutoffHz;
+
+	private boolean _started;
+	private float _value;
+	private long _time;
+
+	/**
+	 * @param cutoffHz changes slower than this come through, faster ones are smoothed away
+	 */
+	public LowPassFilter (float cutoffHz)
+	{
+		_cutoffHz = cutoffHz;
+	}
+
+	@Override
+	public float filter (float value, long timeNanos)
+	{
+		if (_started)
+		{
+			_value += smoothing(_cutoffHz, (timeNanos - _time) / NANOS_PER_SECOND) * (value - _value);
+		}
+		else
+		{
+			_started = true;
+			_value = value;
+		}
+		_time = timeNanos;
+		return _value;
+	}
+
+	@Override
+	public void reset ()
+	{
+		_started = false;
+	}
+
+	/** how far to move towards a new sample that came seconds after the last one, 0 to 1 */
+	static float smoothing (float cutoffHz, double seconds)
+	{
+		if (seconds <= 0)
+		{
+			return 0;
+		}
+		double timeConstant = 1 / (2 * Math.PI * cutoffHz);
+		return (float) (1 / (1 + timeConstant / seconds));
+	}
+}
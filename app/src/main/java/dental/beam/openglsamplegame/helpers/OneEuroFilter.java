@@ -0,0 +1,62 @@
+package dental.beam.openglsamplegame.helpers;
+
+/**
+ * The one euro filter from Casiez, Roussel and Vogel, a low pass whose cutoff goes up with the speed of the signal
+ *
+ * Holding still the cutoff sits at minCutoffHz and jitter is smoothed away. Moving fast the cutoff goes up
+ * by beta for every unit per second, so there's little lag when it matters. The speed is itself low passed
+ * at derivativeCutoffHz so noise doesn't open the filter up.
+ */
+public class OneEuroFilter implements SampleFilter
+{
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private final float _minCutoffHz;
+	private final float _beta;
+	private final float _derivativeCutoffHz;
+
+	private boolean _started;
+	private float _value;
+	private float _speed;
+	private long _time;
+
+	public OneEuroFilter (float minCutoffHz, float beta, float derivativeCutoffHz)
+	{
+		_minCutoffHz = minCutoffHz;
+		_beta = beta;
+		_derivativeCutoffHz = derivativeCutoffHz;
+	}
+
+	@Override
+	public float filter (float value, long timeNanos)
+	{
+		if (!_started)
+		{
+			_started = true;
+			_value = value;
+			_speed = 0;
+			_time = timeNanos;
+			return _value;
+		}
+
+		double seconds = (timeNanos - _time) / NANOS_PER_SECOND;
+		_time = timeNanos;
+		if (seconds <= 0)
+		{
+			return _value;
+		}
+
+		float speed = (float) ((value - _value) / seconds);
+		_speed += LowPassFilter.smoothing(_derivativeCutoffHz, seconds) * (speed - _speed);
+
+		float cutoffHz = _minCutoffHz + _beta * Math.abs(_speed);
+		_value += LowPassFilter.smoothing(cutoffHz, seconds) * (value - _value);
+		return _value;
+	}
+
+	@Override
+	public void reset ()
+	{
+		_started = false;
+	}
+}
@@ -0,0 +1,28 @@
+package dental.beam.openglsamplegame.helpers;
+
+/**
+ * Smooths a stream of timestamped samples, one sample at a time in time order
+ */
+public interface SampleFilter
+{
+	/** passes every sample through untouched */
+	SampleFilter NONE = new SampleFilter()
+	{
+		@Override
+		public float filter (float value, long timeNanos)
+		{
+			return value;
+		}
+
+		@Override
+		public void reset ()
+		{
+		}
+	};
+
+	/** @return the smoothed value as of this sample */
+	float filter (float value, long timeNanos);
+
+	/** forget the history, the next sample passes straight through */
+	void reset ();
+}
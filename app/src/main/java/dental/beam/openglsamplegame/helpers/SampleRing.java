@@ -0,0 +1,112 @@
+package dental.beam.openglsamplegame.helpers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timestamped samples from one producer thread to one consumer thread without locks
+ *
+ * The producer copies each sample in and moves the tail, the consumer reads it out and moves the head, so
+ * neither ever waits for the other. Each side only writes its own counter and publishes it with a lazySet,
+ * which is enough for the other side to see the sample written before it. When the consumer falls a whole
+ * ring behind new samples are dropped and counted rather than overwriting ones it may be reading.
+ */
+public class SampleRing
+{
+	private final long _times[];
+	private final float _values[];
+	private final int _mask;
+
+	/** next sample to read, only written by the consumer */
+	private final AtomicLong _head = new AtomicLong();
+	/** next slot to write, only written by the producer */
+	private final AtomicLong _tail = new AtomicLong();
+
+	//region producer thread
+	/** the producer's last look at the head, so a full check doesn't read the consumer's counter every time */
+	private long _cachedHead;
+	private volatile int _droppedCount;
+	//endregion
+
+	//region consumer thread
+	private long _polledTime;
+	private float _polledValue;
+	//endregion
+
+	/**
+	 * @param capacity rounded up to a power of two
+	 */
+	public SampleRing (int capacity)
+	{
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+		_times = new long[size];
+		_values = new float[size];
+		_mask = size - 1;
+	}
+
+	/**
+	 * Producer thread only, copies the sample in
+	 *
+	 * @return false if the ring was full and the sample was dropped
+	 */
+	public boolean offer (long timeNanos, float value)
+	{
+		long tail = _tail.get();
+		if (tail - _cachedHead == _times.length)
+		{
+			_cachedHead = _head.get();
+			if (tail - _cachedHead == _times.length)
+			{
+				_droppedCount++;
+				return false;
+			}
+		}
+
+		int index = (int) tail & _mask;
+		_times[index] = timeNanos;
+		_values[index] = value;
+		_tail.lazySet(tail + 1);
+		return true;
+	}
+
+	/**
+	 * Consumer thread only, takes the oldest sample, see {@link #getPolledTime()} and {@link #getPolledValue()}
+	 *
+	 * @return false if there was nothing to take
+	 */
+	public boolean poll ()
+	{
+		long head = _head.get();
+		if (head == _tail.get())
+		{
+			return false;
+		}
+
+		int index = (int) head & _mask;
+		_polledTime = _times[index];
+		_polledValue = _values[index];
+		_head.lazySet(head + 1);
+		return true;
+	}
+
+	/** time of the sample the last {@link #poll()} took */
+	public long getPolledTime ()
+	{
+		return _polledTime;
+	}
+
+	public float getPolledValue ()
+	{
+		return _polledValue;
+	}
+
+	public int getCapacity ()
+	{
+		return _times.length;
+	}
+
+	/** samples dropped because the ring was full */
+	public int getDroppedCount ()
+	{
+		return _droppedCount;
+	}
+}
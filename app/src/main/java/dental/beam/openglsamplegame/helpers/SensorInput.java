@@ -0,0 +1,109 @@
+package dental.beam.openglsamplegame.helpers;
+
+/**
+ * One sensor value handed from the sensor thread to the simulation, smoothed and resampled to the tick's time
+ *
+ * The sensor thread {@link #offer}s samples into a {@link SampleRing}. Reading with {@link #sample(long)}
+ * runs everything new through the filter and gives the value at the time asked for, interpolated between
+ * the two filtered samples either side of it. Sensors report at their own rate, so to always have a sample
+ * either side the value is read interpolationDelay in the past. Later than the newest sample it holds the
+ * newest rather than guessing ahead.
+ */
+public class SensorInput
+{
+	private final SampleRing _ring;
+	private final SampleFilter _filter;
+	private final long _interpolationDelayNanos;
+
+	//region consumer thread
+	private int _sampleCount;
+	private long _previousTime;
+	private float _previous;
+	private long _latestTime;
+	private float _latest;
+	//endregion
+
+	/**
+	 * @param capacity samples that can wait between two reads
+	 * @param interpolationDelayNanos how far behind to read, around the time between two samples
+	 *                                is smooth, 0 has the least lag but steps at the sensor's rate
+	 */
+	public SensorInput (int capacity, SampleFilter filter, long interpolationDelayNanos)
+	{
+		_ring = new SampleRing(capacity);
+		_filter = filter;
+		_interpolationDelayNanos = interpolationDelayNanos;
+	}
+
+	/**
+	 * Sensor thread only
+	 *
+	 * @return false if the reader is so far behind the sample was dropped
+	 */
+	public boolean offer (long timeNanos, float value)
+	{
+		return _ring.offer(timeNanos, value);
+	}
+
+	/**
+	 * Reading thread only, never allocates
+	 *
+	 * @return the filtered value at timeNanos, 0 until the first sample arrives
+	 */
+	public float sample (long timeNanos)
+	{
+		while (_ring.poll())
+		{
+			_previousTime = _latestTime;
+			_previous = _latest;
+			_latestTime = _ring.getPolledTime();
+			_latest = _filter.filter(_ring.getPolledValue(), _latestTime);
+			_sampleCount++;
+		}
+
+		long time = timeNanos - _interpolationDelayNanos;
+		if (_sampleCount < 2 || time >= _latestTime || _latestTime <= _previousTime)
+		{
+			return _latest;
+		}
+		if (time <= _previousTime)
+		{
+			return _previous;
+		}
+		float t = (float) (time - _previousTime) / (_latestTime - _previousTime);
+		return _previous + (_latest - _previous) * t;
+	}
+
+	/**
+	 * Reading thread only, throw away whatever is waiting and forget everything read so far, for when the
+	 * samples stopped for a while and the old ones would only drag the value back to how it was
+	 */
+	public void clear ()
+	{
+		while (_ring.poll())
+		{
+			// the values aren't wanted, only the ring emptied
+		}
+		_filter.reset();
+		_sampleCount = 0;
+		_previousTime = _latestTime = 0;
+		_previous = _latest = 0;
+	}
+
+	/** time of the newest sample read so far */
+	public long getLatestSampleTime ()
+	{
+		return _latestTime;
+	}
+
+	/** samples read so far */
+	public int getSampleCount ()
+	{
+		return _sampleCount;
+	}
+
+	public int getDroppedCount ()
+	{
+		return _ring.getDroppedCount();
+	}
+}
@@ -4,16 +4,22 @@ import android.content.Context;
 import android.hardware.Sensor;
 import android.hardware.SensorManager;
 
-public abstract class TiltHelper
+import dental.beam.openglsamplegame.engine.GameClock;
+
+public abstract class TiltHelper implements TiltSource
 {
-	public static TiltHelper getInstance (Context context)
+	/**
+	 * @param clock  samples are timed on this clock, the same one {@link #getTilt(long)} is asked with
+	 * @param filter smooths the tilt, see {@link LowPassFilter} and {@link OneEuroFilter}
+	 */
+	public static TiltHelper getInstance (Context context, GameClock clock, SampleFilter filter)
 	{
 		SensorManager manager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
 		Sensor accelerometer = manager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
 
 		if (accelerometer != null)
 		{
-			return new TiltHelperAccel(manager, accelerometer);
+			return new TiltHelperAccel(manager, accelerometer, clock, filter);
 		}
 		else
 		{
@@ -27,6 +33,12 @@ public abstract class TiltHelper
 	 * | / - \ |
 	 * -90  0  +90
 	 */
-	public abstract float getTilt ();
+	@Override
+	public abstract float getTilt (long timeNanos);
+
+	/** stop listening to the sensor while the game is paused */
+	public abstract void pause ();
+	/** listen again, nothing from before the pause is used */
+	public abstract void resume ();
 	public abstract void destroy ();
 }
@@ -5,22 +5,83 @@ import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 
+import dental.beam.openglsamplegame.engine.GameClock;
 import timber.log.Timber;
 
+/**
+ * Tilt from the accelerometer
+ *
+ * Android reuses event.values, so each event is turned into a tilt on the sensor thread and copied into a
+ * {@link SensorInput}, which hands it to the simulation thread without locks and smooths it there.
+ *
+ * The listener is only registered while the game runs, paused there's no one reading the samples. Samples
+ * dropped because the simulation fell a whole ring behind are counted, and logged once when it pauses.
+ */
 public class TiltHelperAccel extends TiltHelper implements SensorEventListener
 {
 	private static final float TILT_MAX = 90.0f;
+	/** SENSOR_DELAY_GAME is 50 a second, so this is over a second of samples */
+	private static final int SAMPLE_CAPACITY = 64;
+	/** about the time between two SENSOR_DELAY_GAME samples, so there's one either side of the tick */
+	public static final long INTERPOLATION_DELAY_NANOS = 20000000L;
 
 	private final SensorManager _sensorManager;
 	private final Sensor _accelerometer;
-	private float[] _accel;
+	private final GameClock _clock;
+	private final SensorInput _input;
 
-	protected TiltHelperAccel (SensorManager sensorManager, Sensor accelerometer)
+	//region ui thread
+	private boolean _listening;
+	private int _loggedDroppedCount;
+	//endregion
+
+	/** set on resume, the simulation thread clears out the samples from before the pause when it sees it */
+	private volatile boolean _stale;
+
+	protected TiltHelperAccel (SensorManager sensorManager, Sensor accelerometer, GameClock clock, SampleFilter filter)
 	{
 		_sensorManager = sensorManager;
 		_accelerometer = accelerometer;
+		_clock = clock;
+		_input = new SensorInput(SAMPLE_CAPACITY, filter, INTERPOLATION_DELAY_NANOS);
+
+		resume();
+	}
+
+	@Override
+	public void pause ()
+	{
+		if (!_listening)
+		{
+			return;
+		}
+		_sensorManager.unregisterListener(this);
+		_listening = false;
 
+		int droppedCount = _input.getDroppedCount();
+		if (droppedCount != _loggedDroppedCount)
+		{
+			Timber.w("dropped %d samples, %d so far", droppedCount - _loggedDroppedCount, droppedCount);
+			_loggedDroppedCount = droppedCount;
+		}
+	}
+
+	@Override
+	public void resume ()
+	{
+		if (_listening)
+		{
+			return;
+		}
+		_stale = true;
 		_sensorManager.registerListener(this, _accelerometer, SensorManager.SENSOR_DELAY_GAME);
+		_listening = true;
+	}
+
+	/** samples the simulation never got to, they're only logged when the game pauses */
+	public int getDroppedCount ()
+	{
+		return _input.getDroppedCount();
 	}
 
 	@Override
@@ -36,7 +97,8 @@ public class TiltHelperAccel extends TiltHelper implements SensorEventListener
 		switch (sensorType)
 		{
 			case Sensor.TYPE_ACCELEROMETER:
-				_accel = event.values;
+				// timed on arrival, event.timestamp isn't on the same clock as System.nanoTime on every device
+				_input.offer(_clock.nanoTime(), tilt(event.values[0], event.values[1]));
 				break;
 			default:
 				Timber.w("Unknown sensor type %d", sensorType);
@@ -50,25 +112,32 @@ public class TiltHelperAccel extends TiltHelper implements SensorEventListener
 		// Not really sure what we should be doing here, so for the sake of efficiency, we'll do nothing!
 	}
 
-	public float getTilt ()
+	@Override
+	public float getTilt (long timeNanos)
 	{
-		if (_accel == null)
+		if (_stale)
 		{
-			Timber.w("_accel is null");
-			return 0;
+			// a few new samples may go with the old ones, there's plenty more coming
+			_stale = false;
+			_input.clear();
 		}
+		return _input.sample(timeNanos);
+	}
 
+	private float tilt (float x, float y)
+	{
 		// We're going to assume that the user isn't waving their phone around like a maniac so the
 		// only force acting on it should be gravity. This means that the sum of the absolute values
 		// of all axes should be roughly equal to 9.8 so we should be able to see how much fo that
 		// is taken up by the y axis. What ever is left is available for the x/z tilt we're interested in.
 		// Then it just becomes a simple ratio to see how much of the space we have left is taken up
 		// by the pull of gravity on the x axis.
-		float availableRange = _accel[1] - _accelerometer.getMaximumRange();
-		float amountOfTile = _accel[0] / availableRange;
+		float availableRange = y - _accelerometer.getMaximumRange();
+		float amountOfTile = x / availableRange;
 		return amountOfTile * TILT_MAX;
 	}
 
+	@Override
 	public void destroy ()
 	{
 		_sensorManager.unregisterListener(this);
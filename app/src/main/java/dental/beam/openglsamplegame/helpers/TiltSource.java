@@ -0,0 +1,23 @@
+package dental.beam.openglsamplegame.helpers;
+
+/**
+ * Where the player's tilt comes from, the sensor on a device and a recording or a script anywhere else
+ */
+public interface TiltSource
+{
+	/** the phone held level, for running without a sensor */
+	TiltSource LEVEL = new TiltSource()
+	{
+		@Override
+		public float getTilt (long timeNanos)
+		{
+			return 0;
+		}
+	};
+
+	/**
+	 * @param timeNanos clock time the tilt is wanted for, e.g. the tick being simulated
+	 * @return rotation of the device around the Y-axis in degrees
+	 */
+	float getTilt (long timeNanos);
+}
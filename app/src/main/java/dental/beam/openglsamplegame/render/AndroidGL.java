@@ -0,0 +1,188 @@
+package dental.beam.openglsamplegame.render;
+
+import android.opengl.GLES20;
+
+import java.nio.Buffer;
+
+/**
+ * {@link GL} on the device, every call goes straight to {@link GLES20}
+ */
+public class AndroidGL implements GL
+{
+	//region frame state
+	@Override
+	public void glClearColor (float red, float green, float blue, float alpha)
+	{
+		GLES20.glClearColor(red, green, blue, alpha);
+	}
+
+	@Override
+	public void glClear (int mask)
+	{
+		GLES20.glClear(mask);
+	}
+
+	@Override
+	public void glViewport (int x, int y, int width, int height)
+	{
+		GLES20.glViewport(x, y, width, height);
+	}
+
+	@Override
+	public void glEnable (int capability)
+	{
+		GLES20.glEnable(capability);
+	}
+
+	@Override
+	public void glBlendEquation (int mode)
+	{
+		GLES20.glBlendEquation(mode);
+	}
+
+	@Override
+	public void glBlendFunc (int sourceFactor, int destinationFactor)
+	{
+		GLES20.glBlendFunc(sourceFactor, destinationFactor);
+	}
+
+	@Override
+	public int glGetError ()
+	{
+		return GLES20.glGetError();
+	}
+	//endregion
+
+	//region shaders
+	@Override
+	public int glCreateShader (int type)
+	{
+		return GLES20.glCreateShader(type);
+	}
+
+	@Override
+	public void glShaderSource (int shader, String source)
+	{
+		GLES20.glShaderSource(shader, source);
+	}
+
+	@Override
+	public void glCompileShader (int shader)
+	{
+		GLES20.glCompileShader(shader);
+	}
+
+	@Override
+	public int glCreateProgram ()
+	{
+		return GLES20.glCreateProgram();
+	}
+
+	@Override
+	public void glAttachShader (int program, int shader)
+	{
+		GLES20.glAttachShader(program, shader);
+	}
+
+	@Override
+	public void glBindAttribLocation (int program, int index, String name)
+	{
+		GLES20.glBindAttribLocation(program, index, name);
+	}
+
+	@Override
+	public void glLinkProgram (int program)
+	{
+		GLES20.glLinkProgram(program);
+	}
+
+	@Override
+	public int glGetAttribLocation (int program, String name)
+	{
+		return GLES20.glGetAttribLocation(program, name);
+	}
+
+	@Override
+	public int glGetUniformLocation (int program, String name)
+	{
+		return GLES20.glGetUniformLocation(program, name);
+	}
+
+	@Override
+	public void glUseProgram (int program)
+	{
+		GLES20.glUseProgram(program);
+	}
+
+	@Override
+	public void glUniformMatrix4fv (int location, int count, boolean transpose, float[] value, int offset)
+	{
+		GLES20.glUniformMatrix4fv(location, count, transpose, value, offset);
+	}
+	//endregion
+
+	//region textures
+	@Override
+	public void glGenTextures (int count, int[] textures, int offset)
+	{
+		GLES20.glGenTextures(count, textures, offset);
+	}
+
+	@Override
+	public void glDeleteTextures (int count, int[] textures, int offset)
+	{
+		GLES20.glDeleteTextures(count, textures, offset);
+	}
+
+	@Override
+	public void glActiveTexture (int texture)
+	{
+		GLES20.glActiveTexture(texture);
+	}
+
+	@Override
+	public void glBindTexture (int target, int texture)
+	{
+		GLES20.glBindTexture(target, texture);
+	}
+
+	@Override
+	public void glTexParameterf (int target, int name, float value)
+	{
+		GLES20.glTexParameterf(target, name, value);
+	}
+
+	@Override
+	public void glTexImage2D (int target, int level, int internalFormat, int width, int height, int border, int format,
+	                          int type, Buffer pixels)
+	{
+		GLES20.glTexImage2D(target, level, internalFormat, width, height, border, format, type, pixels);
+	}
+	//endregion
+
+	//region drawing
+	@Override
+	public void glEnableVertexAttribArray (int index)
+	{
+		GLES20.glEnableVertexAttribArray(index);
+	}
+
+	@Override
+	public void glDisableVertexAttribArray (int index)
+	{
+		GLES20.glDisableVertexAttribArray(index);
+	}
+
+	@Override
+	public void glVertexAttribPointer (int index, int size, int type, boolean normalized, int stride, Buffer pointer)
+	{
+		GLES20.glVertexAttribPointer(index, size, type, normalized, stride, pointer);
+	}
+
+	@Override
+	public void glDrawElements (int mode, int count, int type, Buffer indices)
+	{
+		GLES20.glDrawElements(mode, count, type, indices);
+	}
+	//endregion
+}
@@ -0,0 +1,103 @@
+package dental.beam.openglsamplegame.render;
+
+import java.nio.Buffer;
+
+/**
+ * The gl calls the render path makes, so it can run against something other than the device
+ *
+ * {@link AndroidGL} is the real thing, {@link NoOpGL} lets everything above it run on a plain jvm and
+ * {@link RecordingGL} counts what goes through it. Methods and constants are named after their GLES20
+ * counterparts and take the same arguments.
+ */
+public interface GL
+{
+	//region constants, same values as GLES20
+	int GL_NO_ERROR = 0;
+	int GL_TRIANGLES = 0x0004;
+	int GL_SRC_ALPHA = 0x0302;
+	int GL_ONE_MINUS_SRC_ALPHA = 0x0303;
+	int GL_DEPTH_TEST = 0x0B71;
+	int GL_BLEND = 0x0BE2;
+	int GL_TEXTURE_2D = 0x0DE1;
+	int GL_UNSIGNED_BYTE = 0x1401;
+	int GL_UNSIGNED_SHORT = 0x1403;
+	int GL_FLOAT = 0x1406;
+	int GL_RGBA = 0x1908;
+	int GL_NEAREST = 0x2600;
+	int GL_LINEAR = 0x2601;
+	int GL_LINEAR_MIPMAP_LINEAR = 0x2703;
+	int GL_TEXTURE_MAG_FILTER = 0x2800;
+	int GL_TEXTURE_MIN_FILTER = 0x2801;
+	int GL_FUNC_ADD = 0x8006;
+	int GL_TEXTURE0 = 0x84C0;
+	int GL_FRAGMENT_SHADER = 0x8B30;
+	int GL_VERTEX_SHADER = 0x8B31;
+	int GL_DEPTH_BUFFER_BIT = 0x0100;
+	int GL_COLOR_BUFFER_BIT = 0x4000;
+	//endregion
+
+	//region frame state
+	void glClearColor (float red, float green, float blue, float alpha);
+
+	void glClear (int mask);
+
+	void glViewport (int x, int y, int width, int height);
+
+	void glEnable (int capability);
+
+	void glBlendEquation (int mode);
+
+	void glBlendFunc (int sourceFactor, int destinationFactor);
+
+	int glGetError ();
+	//endregion
+
+	//region shaders
+	int glCreateShader (int type);
+
+	void glShaderSource (int shader, String source);
+
+	void glCompileShader (int shader);
+
+	int glCreateProgram ();
+
+	void glAttachShader (int program, int shader);
+
+	void glBindAttribLocation (int program, int index, String name);
+
+	void glLinkProgram (int program);
+
+	int glGetAttribLocation (int program, String name);
+
+	int glGetUniformLocation (int program, String name);
+
+	void glUseProgram (int program);
+
+	void glUniformMatrix4fv (int location, int count, boolean transpose, float value[], int offset);
+	//endregion
+
+	//region textures
+	void glGenTextures (int count, int textures[], int offset);
+
+	void glDeleteTextures (int count, int textures[], int offset);
+
+	void glActiveTexture (int texture);
+
+	void glBindTexture (int target, int texture);
+
+	void glTexParameterf (int target, int name, float value);
+
+	void glTexImage2D (int target, int level, int internalFormat, int width, int height, int border, int format,
+	                   int type, Buffer pixels);
+	//endregion
+
+	//region drawing
+	void glEnableVertexAttribArray (int index);
+
+	void glDisableVertexAttribArray (int index);
+
+	void glVertexAttribPointer (int index, int size, int type, boolean normalized, int stride, Buffer pointer);
+
+	void glDrawElements (int mode, int count, int type, Buffer indices);
+	//endregion
+}
@@ -0,0 +1,182 @@
+package dental.beam.openglsamplegame.render;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every texture and program the game creates, under a logical handle that stays the same across gl contexts
+ *
+ * Sprites and draw commands hold the handle, the gl name behind it is looked up with {@link #getName(int)}
+ * when something is bound. Resources are registered once by key with a {@link Creator} that knows how to
+ * make them, and when the context is lost {@link #onContextCreated()} runs each creator once, so the work
+ * depends on how many distinct resources there are and not on how many sprites use them.
+ *
+ * gl thread only.
+ */
+public class GLResources
+{
+	public static final int TYPE_TEXTURE = 0;
+	public static final int TYPE_PROGRAM = 1;
+
+	/** no resource, handles start after it like gl names do */
+	public static final int NO_HANDLE = 0;
+
+	/** makes the resource in the current context, keeping whatever it needs to do it again */
+	public interface Creator
+	{
+		/** @return the gl name of the new resource */
+		int create (GL gl);
+	}
+
+	private final GL _gl;
+
+	private final Map<String, Integer> _handles = new HashMap<>();
+	//region per resource, by handle
+	private String _keys[] = new String[8];
+	private int _types[] = new int[8];
+	private Creator _creators[] = new Creator[8];
+	private int _names[] = new int[8];
+	private int _count;
+	private int _deletedCount;
+	//endregion
+
+	private final int _deleting[] = new int[1];
+
+	//region debug
+	private int _createCount;
+	//endregion
+
+	public GLResources (GL gl)
+	{
+		_gl = gl;
+	}
+
+	public GL getGL ()
+	{
+		return _gl;
+	}
+
+	/**
+	 * Create a resource in the current context, or find the one already registered under key
+	 *
+	 * @param type {@link #TYPE_TEXTURE} or {@link #TYPE_PROGRAM}
+	 * @return the handle to draw with, valid for as long as this lives
+	 */
+	public int register (String key, int type, Creator creator)
+	{
+		Integer existing = _handles.get(key);
+		if (existing != null)
+		{
+			return existing;
+		}
+
+		int handle = _count + 1;
+		if (handle == _names.length)
+		{
+			grow();
+		}
+		_keys[handle] = key;
+		_types[handle] = type;
+		_creators[handle] = creator;
+		_count++;
+		_handles.put(key, handle);
+
+		create(handle);
+		return handle;
+	}
+
+	/** @return the handle registered under key, {@link #NO_HANDLE} if there isn't one */
+	public int getHandle (String key)
+	{
+		Integer handle = _handles.get(key);
+		return handle == null ? NO_HANDLE : handle;
+	}
+
+	/** gl name of the resource in the current context */
+	public int getName (int handle)
+	{
+		return _names[handle];
+	}
+
+	/** the key the resource was registered under, null once it's deleted */
+	public String getKey (int handle)
+	{
+		return _keys[handle];
+	}
+
+	public int getType (int handle)
+	{
+		return _types[handle];
+	}
+
+	/**
+	 * Delete a texture and forget it, the handle isn't used again
+	 * and registering the same key afterwards makes a new one
+	 */
+	public void delete (int handle)
+	{
+		if (_types[handle] != TYPE_TEXTURE)
+		{
+			throw new IllegalArgumentException("only textures can be deleted, " + _keys[handle] + " is a program");
+		}
+		if (_creators[handle] == null)
+		{
+			return;
+		}
+
+		_deleting[0] = _names[handle];
+		_gl.glDeleteTextures(1, _deleting, 0);
+		_handles.remove(_keys[handle]);
+		_keys[handle] = null;
+		_creators[handle] = null;
+		_names[handle] = 0;
+		_deletedCount++;
+	}
+
+	/** the old names went with the old context, make every resource again in the new one */
+	public void onContextCreated ()
+	{
+		for (int handle = 1; handle <= _count; handle++)
+		{
+			if (_creators[handle] != null)
+			{
+				create(handle);
+			}
+		}
+	}
+
+	/** resources that exist now, deleted ones don't count */
+	public int getResourceCount ()
+	{
+		return _count - _deletedCount;
+	}
+
+	/** how many times a creator has run, to check recreating doesn't repeat work */
+	public int getCreateCount ()
+	{
+		return _createCount;
+	}
+
+	private void create (int handle)
+	{
+		_names[handle] = _creators[handle].create(_gl);
+		_createCount++;
+	}
+
+	private void grow ()
+	{
+		int capacity = _names.length * 2;
+		String keys[] = new String[capacity];
+		int types[] = new int[capacity];
+		Creator creators[] = new Creator[capacity];
+		int names[] = new int[capacity];
+		System.arraycopy(_keys, 0, keys, 0, _keys.length);
+		System.arraycopy(_types, 0, types, 0, _types.length);
+		System.arraycopy(_creators, 0, creators, 0, _creators.length);
+		System.arraycopy(_names, 0, names, 0, _names.length);
+		_keys = keys;
+		_types = types;
+		_creators = creators;
+		_names = names;
+	}
+}
@@ -0,0 +1,342 @@
+package dental.beam.openglsamplegame.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * A texture with its mip levels already made, in a container that can be memory mapped and uploaded as is
+ *
+ * The container is little endian:
+ * <pre>
+ *   "MTEX", version, format, width, height, level count, region count       7 ints
+ *   offset and length in bytes of every level                                2 ints each
+ *   key, x, y, width, height of every atlas region on the texture            5 ints each
+ *   the levels, largest first, each starting on a {@link #LEVEL_ALIGNMENT} byte boundary
+ * </pre>
+ * The atlas tool writes these at build time so nothing is decoded or downsampled on the device, and
+ * {@link #encode} makes the same thing at runtime when there is no prebuilt file. Nothing here needs
+ * android, reading a mapped file gives level buffers that point straight into the mapping.
+ *
+ * GLES 2 only mipmaps power of two textures, so only those get more than one level.
+ */
+public class MipTexture implements GLResources.Creator
+{
+	/** "MTEX" read as a little endian int */
+	private static final int MAGIC = 'M' | 'T' << 8 | 'E' << 16 | 'X' << 24;
+	public static final int VERSION = 1;
+
+	/** 4 bytes a pixel, r g b a */
+	public static final int FORMAT_RGBA8888 = 0;
+	private static final int BYTES_PER_PIXEL = 4;
+
+	private static final int HEADER_INTS = 7;
+	private static final int LEVEL_INTS = 2;
+	/** ints per atlas region, key, x, y, width, height */
+	public static final int REGION_INTS = 5;
+
+	public static final int LEVEL_ALIGNMENT = 16;
+
+	private final int _width;
+	private final int _height;
+	private final ByteBuffer _levels[];
+	private final int _regions[];
+
+	private MipTexture (int width, int height, ByteBuffer levels[], int regions[])
+	{
+		_width = width;
+		_height = height;
+		_levels = levels;
+		_regions = regions;
+	}
+
+	//region encoding
+	/** every level down to 1x1 for a power of two size, otherwise just the one */
+	public static int fullLevelCount (int width, int height)
+	{
+		if (!isPowerOfTwo(width) || !isPowerOfTwo(height))
+		{
+			return 1;
+		}
+		return 32 - Integer.numberOfLeadingZeros(Math.max(width, height));
+	}
+
+	/**
+	 * Build the mip levels and put them in a container
+	 *
+	 * @param pixels     rgba, rows top to bottom, read from position 0 and left where it was
+	 * @param levelCount at most {@link #fullLevelCount(int, int)}
+	 * @param regions    {@link #REGION_INTS} ints for each atlas region on the texture, may be empty
+	 * @return the container in a direct buffer, position 0
+	 */
+	public static ByteBuffer encode (int width, int height, ByteBuffer pixels, int levelCount, int regions[])
+	{
+		if (levelCount < 1 || levelCount > fullLevelCount(width, height))
+		{
+			throw new IllegalArgumentException(levelCount + " levels for " + width + "x" + height);
+		}
+		if (regions.length % REGION_INTS != 0)
+		{
+			throw new IllegalArgumentException("regions need " + REGION_INTS + " ints each");
+		}
+
+		int regionCount = regions.length / REGION_INTS;
+		int offsets[] = new int[levelCount];
+		int lengths[] = new int[levelCount];
+		int offset = align((HEADER_INTS + levelCount * LEVEL_INTS + regions.length) * 4);
+		for (int level = 0; level < levelCount; level++)
+		{
+			offsets[level] = offset;
+			lengths[level] = levelWidth(width, level) * levelHeight(height, level) * BYTES_PER_PIXEL;
+			offset = align(offset + lengths[level]);
+		}
+
+		ByteBuffer container = ByteBuffer.allocateDirect(offset).order(ByteOrder.LITTLE_ENDIAN);
+		container.putInt(MAGIC).putInt(VERSION).putInt(FORMAT_RGBA8888).putInt(width).putInt(height)
+			.putInt(levelCount).putInt(regionCount);
+		for (int level = 0; level < levelCount; level++)
+		{
+			container.putInt(offsets[level]).putInt(lengths[level]);
+		}
+		for (int region : regions)
+		{
+			container.putInt(region);
+		}
+
+		ByteBuffer source = pixels.duplicate();
+		source.position(0).limit(lengths[0]);
+		container.position(offsets[0]);
+		container.put(source);
+		for (int level = 1; level < levelCount; level++)
+		{
+			downsample(slice(container, offsets[level - 1], lengths[level - 1]),
+				levelWidth(width, level - 1), levelHeight(height, level - 1), slice(container, offsets[level], lengths[level]));
+		}
+
+		container.position(0);
+		return container;
+	}
+
+	/**
+	 * Halve an image, averaging each 2x2 block weighted by alpha so transparent pixels don't darken the edges.
+	 * A side that is already 1 stays 1.
+	 */
+	static void downsample (ByteBuffer source, int sourceWidth, int sourceHeight, ByteBuffer target)
+	{
+		int width = Math.max(1, sourceWidth / 2);
+		int height = Math.max(1, sourceHeight / 2);
+		int stepX = sourceWidth > 1 ? 1 : 0;
+		int stepY = sourceHeight > 1 ? 1 : 0;
+
+		for (int y = 0; y < height; y++)
+		{
+			int row = y * 2 * sourceWidth;
+			for (int x = 0; x < width; x++)
+			{
+				int topLeft = (row + x * 2) * BYTES_PER_PIXEL;
+				int topRight = topLeft + stepX * BYTES_PER_PIXEL;
+				int bottomLeft = topLeft + stepY * sourceWidth * BYTES_PER_PIXEL;
+				int bottomRight = bottomLeft + stepX * BYTES_PER_PIXEL;
+
+				int a0 = source.get(topLeft + 3) & 0xff;
+				int a1 = source.get(topRight + 3) & 0xff;
+				int a2 = source.get(bottomLeft + 3) & 0xff;
+				int a3 = source.get(bottomRight + 3) & 0xff;
+				int alpha = a0 + a1 + a2 + a3;
+
+				int out = (y * width + x) * BYTES_PER_PIXEL;
+				for (int channel = 0; channel < 3; channel++)
+				{
+					int value;
+					if (alpha == 0)
+					{
+						value = ((source.get(topLeft + channel) & 0xff) + (source.get(topRight + channel) & 0xff)
+							+ (source.get(bottomLeft + channel) & 0xff) + (source.get(bottomRight + channel) & 0xff) + 2) / 4;
+					}
+					else
+					{
+						value = ((source.get(topLeft + channel) & 0xff) * a0 + (source.get(topRight + channel) & 0xff) * a1
+							+ (source.get(bottomLeft + channel) & 0xff) * a2 + (source.get(bottomRight + channel) & 0xff) * a3
+							+ alpha / 2) / alpha;
+					}
+					target.put(out + channel, (byte) value);
+				}
+				target.put(out + 3, (byte) ((alpha + 2) / 4));
+			}
+		}
+	}
+	//endregion
+
+	//region decoding
+	/**
+	 * Read a container, the levels are views of it so nothing is copied
+	 *
+	 * @throws IOException when it isn't a container this version can read or it's cut short
+	 */
+	public static MipTexture read (ByteBuffer container) throws IOException
+	{
+		ByteBuffer header = container.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		header.position(0);
+		if (header.remaining() < HEADER_INTS * 4 || header.getInt() != MAGIC)
+		{
+			throw new IOException("not a texture container");
+		}
+		int version = header.getInt();
+		int format = header.getInt();
+		if (version != VERSION || format != FORMAT_RGBA8888)
+		{
+			throw new IOException("can't read version " + version + " format " + format);
+		}
+
+		int width = header.getInt();
+		int height = header.getInt();
+		int levelCount = header.getInt();
+		int regionCount = header.getInt();
+		if (width < 1 || height < 1 || levelCount < 1 || levelCount > fullLevelCount(width, height) || regionCount < 0
+			|| header.remaining() < (levelCount * LEVEL_INTS + regionCount * REGION_INTS) * 4L)
+		{
+			throw new IOException("bad texture container header");
+		}
+
+		ByteBuffer levels[] = new ByteBuffer[levelCount];
+		for (int level = 0; level < levelCount; level++)
+		{
+			int offset = header.getInt();
+			int length = header.getInt();
+			if (length != levelWidth(width, level) * levelHeight(height, level) * BYTES_PER_PIXEL
+				|| offset < 0 || (long) offset + length > container.limit())
+			{
+				throw new IOException("level " + level + " is out of the container");
+			}
+			levels[level] = slice(container, offset, length);
+		}
+
+		int regions[] = new int[regionCount * REGION_INTS];
+		for (int i = 0; i < regions.length; i++)
+		{
+			regions[i] = header.getInt();
+		}
+		return new MipTexture(width, height, levels, regions);
+	}
+
+	/** map part of a file, an uncompressed asset is a range of the apk */
+	public static MipTexture map (FileChannel channel, long offset, long length) throws IOException
+	{
+		return read(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+	}
+
+	public static MipTexture map (File file) throws IOException
+	{
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try
+		{
+			// the mapping stays valid after the file is closed
+			return map(input.getChannel(), 0, input.length());
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+	//endregion
+
+	@Override
+	public int create (GL gl)
+	{
+		int[] textureHandle = new int[1];
+		gl.glGenTextures(1, textureHandle, 0);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, textureHandle[0]);
+
+		// small sprites sample the smaller levels instead of shimmering between texels of the big one
+		gl.glTexParameterf(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER,
+			_levels.length > 1 ? GL.GL_LINEAR_MIPMAP_LINEAR : GL.GL_LINEAR);
+		gl.glTexParameterf(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+
+		for (int level = 0; level < _levels.length; level++)
+		{
+			_levels[level].position(0);
+			gl.glTexImage2D(GL.GL_TEXTURE_2D, level, GL.GL_RGBA, getLevelWidth(level), getLevelHeight(level), 0,
+				GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, _levels[level]);
+		}
+		return textureHandle[0];
+	}
+
+	public int getWidth ()
+	{
+		return _width;
+	}
+
+	public int getHeight ()
+	{
+		return _height;
+	}
+
+	public int getLevelCount ()
+	{
+		return _levels.length;
+	}
+
+	public int getLevelWidth (int level)
+	{
+		return levelWidth(_width, level);
+	}
+
+	public int getLevelHeight (int level)
+	{
+		return levelHeight(_height, level);
+	}
+
+	/** rgba pixels of a level, position 0 */
+	public ByteBuffer getLevel (int level)
+	{
+		_levels[level].position(0);
+		return _levels[level];
+	}
+
+	/** {@link #REGION_INTS} ints per atlas region */
+	public int[] getRegions ()
+	{
+		return _regions;
+	}
+
+	/** video memory of every level, about a third more than the top one alone */
+	public long getGpuBytes ()
+	{
+		long bytes = 0;
+		for (ByteBuffer level : _levels)
+		{
+			bytes += level.capacity();
+		}
+		return bytes;
+	}
+
+	private static int levelWidth (int width, int level)
+	{
+		return Math.max(1, width >> level);
+	}
+
+	private static int levelHeight (int height, int level)
+	{
+		return Math.max(1, height >> level);
+	}
+
+	private static boolean isPowerOfTwo (int value)
+	{
+		return value > 0 && (value & (value - 1)) == 0;
+	}
+
+	private static int align (int offset)
+	{
+		return (offset + LEVEL_ALIGNMENT - 1) / LEVEL_ALIGNMENT * LEVEL_ALIGNMENT;
+	}
+
+	private static ByteBuffer slice (ByteBuffer buffer, int offset, int length)
+	{
+		ByteBuffer slice = buffer.duplicate();
+		slice.limit(offset + length).position(offset);
+		return slice.slice();
+	}
+}
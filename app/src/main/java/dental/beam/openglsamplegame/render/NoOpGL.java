@@ -0,0 +1,186 @@
+package dental.beam.openglsamplegame.render;
+
+import java.nio.Buffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link GL} that does nothing, for running the render path without a device or a context
+ *
+ * Shaders, programs and textures still get distinct nonzero names, and every attribute name its own
+ * location, so code that caches them behaves the same as it would on a device.
+ */
+public class NoOpGL implements GL
+{
+	private int _lastName;
+	private Map<String, Integer> _attributeLocations = new HashMap<>();
+
+	private int nextName ()
+	{
+		return ++_lastName;
+	}
+
+	//region frame state
+	@Override
+	public void glClearColor (float red, float green, float blue, float alpha)
+	{
+	}
+
+	@Override
+	public void glClear (int mask)
+	{
+	}
+
+	@Override
+	public void glViewport (int x, int y, int width, int height)
+	{
+	}
+
+	@Override
+	public void glEnable (int capability)
+	{
+	}
+
+	@Override
+	public void glBlendEquation (int mode)
+	{
+	}
+
+	@Override
+	public void glBlendFunc (int sourceFactor, int destinationFactor)
+	{
+	}
+
+	@Override
+	public int glGetError ()
+	{
+		return GL_NO_ERROR;
+	}
+	//endregion
+
+	//region shaders
+	@Override
+	public int glCreateShader (int type)
+	{
+		return nextName();
+	}
+
+	@Override
+	public void glShaderSource (int shader, String source)
+	{
+	}
+
+	@Override
+	public void glCompileShader (int shader)
+	{
+	}
+
+	@Override
+	public int glCreateProgram ()
+	{
+		return nextName();
+	}
+
+	@Override
+	public void glAttachShader (int program, int shader)
+	{
+	}
+
+	@Override
+	public void glBindAttribLocation (int program, int index, String name)
+	{
+	}
+
+	@Override
+	public void glLinkProgram (int program)
+	{
+	}
+
+	@Override
+	public int glGetAttribLocation (int program, String name)
+	{
+		Integer location = _attributeLocations.get(name);
+		if (location == null)
+		{
+			location = _attributeLocations.size();
+			_attributeLocations.put(name, location);
+		}
+		return location;
+	}
+
+	@Override
+	public int glGetUniformLocation (int program, String name)
+	{
+		return 0;
+	}
+
+	@Override
+	public void glUseProgram (int program)
+	{
+	}
+
+	@Override
+	public void glUniformMatrix4fv (int location, int count, boolean transpose, float[] value, int offset)
+	{
+	}
+	//endregion
+
+	//region textures
+	@Override
+	public void glGenTextures (int count, int[] textures, int offset)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			textures[offset + i] = nextName();
+		}
+	}
+
+	@Override
+	public void glDeleteTextures (int count, int[] textures, int offset)
+	{
+	}
+
+	@Override
+	public void glActiveTexture (int texture)
+	{
+	}
+
+	@Override
+	public void glBindTexture (int target, int texture)
+	{
+	}
+
+	@Override
+	public void glTexParameterf (int target, int name, float value)
+	{
+	}
+
+	@Override
+	public void glTexImage2D (int target, int level, int internalFormat, int width, int height, int border, int format,
+	                          int type, Buffer pixels)
+	{
+	}
+	//endregion
+
+	//region drawing
+	@Override
+	public void glEnableVertexAttribArray (int index)
+	{
+	}
+
+	@Override
+	public void glDisableVertexAttribArray (int index)
+	{
+	}
+
+	@Override
+	public void glVertexAttribPointer (int index, int size, int type, boolean normalized, int stride, Buffer pointer)
+	{
+	}
+
+	@Override
+	public void glDrawElements (int mode, int count, int type, Buffer indices)
+	{
+	}
+	//endregion
+}
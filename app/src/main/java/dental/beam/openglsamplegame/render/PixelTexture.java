@@ -0,0 +1,75 @@
+package dental.beam.openglsamplegame.render;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A texture made from rgba pixels that are kept after the upload
+ *
+ * Keeping the decoded pixels costs width * height * 4 bytes of memory, and in return a new gl context
+ * gets its texture back with one upload instead of decoding and packing the images again.
+ */
+public class PixelTexture implements GLResources.Creator
+{
+	/** rgba, a byte each */
+	public static final int BYTES_PER_PIXEL = 4;
+
+	private final int _width;
+	private final int _height;
+	private final ByteBuffer _pixels;
+
+	/**
+	 * @param pixels rgba, a byte each, rows top to bottom
+	 */
+	public PixelTexture (int width, int height, ByteBuffer pixels)
+	{
+		_width = width;
+		_height = height;
+		_pixels = pixels;
+	}
+
+	@Override
+	public int create (GL gl)
+	{
+		// generate one texture pointer and bind it to our handle
+		int[] textureHandle = new int[1];
+		gl.glGenTextures(1, textureHandle, 0);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, textureHandle[0]);
+
+		// create nearest filtered texture
+		gl.glTexParameterf(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_NEAREST);
+		gl.glTexParameterf(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+
+		_pixels.position(0);
+		gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_RGBA, _width, _height, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, _pixels);
+		return textureHandle[0];
+	}
+
+	public int getWidth ()
+	{
+		return _width;
+	}
+
+	public int getHeight ()
+	{
+		return _height;
+	}
+
+	/** bytes of memory the kept pixels take */
+	public int getByteCount ()
+	{
+		return _pixels.capacity();
+	}
+
+	/** bytes of video memory the uploaded texture takes */
+	public long getGpuBytes ()
+	{
+		return (long) _width * _height * BYTES_PER_PIXEL;
+	}
+
+	/** the kept pixels, position 0 */
+	public ByteBuffer getPixels ()
+	{
+		_pixels.position(0);
+		return _pixels;
+	}
+}
@@ -0,0 +1,430 @@
+package dental.beam.openglsamplegame.render;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * {@link GL} that counts every call and how many bytes they hand to gl, then passes them on
+ *
+ * Wrap a {@link NoOpGL} to measure what the render path costs on the cpu without a device, or wrap
+ * {@link AndroidGL} to see what a real frame sends. Counts build up until {@link #reset()}.
+ *
+ * Vertex bytes are what a draw reads out of the enabled attribute arrays: every vertex up to the
+ * highest index drawn, times the size of one element of each enabled array. Interleaved arrays
+ * are only counted for the bytes each attribute actually uses, not for the stride.
+ */
+public class RecordingGL implements GL
+{
+	/** one per {@link GL} method */
+	public enum Call
+	{
+		CLEAR_COLOR, CLEAR, VIEWPORT, ENABLE, BLEND_EQUATION, BLEND_FUNC, GET_ERROR,
+		CREATE_SHADER, SHADER_SOURCE, COMPILE_SHADER, CREATE_PROGRAM, ATTACH_SHADER, BIND_ATTRIB_LOCATION,
+		LINK_PROGRAM, GET_ATTRIB_LOCATION, GET_UNIFORM_LOCATION, USE_PROGRAM, UNIFORM_MATRIX_4FV,
+		GEN_TEXTURES, DELETE_TEXTURES, ACTIVE_TEXTURE, BIND_TEXTURE, TEX_PARAMETERF, TEX_IMAGE_2D,
+		ENABLE_VERTEX_ATTRIB_ARRAY, DISABLE_VERTEX_ATTRIB_ARRAY, VERTEX_ATTRIB_POINTER, DRAW_ELEMENTS
+	}
+
+	private static final Call CALLS[] = Call.values();
+
+	/** attribute indexes above this aren't tracked for vertex bytes, GLES20 only promises 8 */
+	private static final int MAX_ATTRIBUTES = 16;
+
+	private final GL _gl;
+
+	private final int _counts[] = new int[CALLS.length];
+	private int _totalCalls;
+
+	//region bytes
+	private long _vertexBytes;
+	private long _indexBytes;
+	private long _uniformBytes;
+	private long _textureBytes;
+	//endregion
+
+	//region attribute arrays, to work out vertex bytes
+	private final boolean _attributeEnabled[] = new boolean[MAX_ATTRIBUTES];
+	private final int _attributeBytes[] = new int[MAX_ATTRIBUTES];
+	//endregion
+
+	public RecordingGL (GL gl)
+	{
+		_gl = gl;
+	}
+
+	private void record (Call call)
+	{
+		_counts[call.ordinal()]++;
+		_totalCalls++;
+	}
+
+	//region results
+	public int getCount (Call call)
+	{
+		return _counts[call.ordinal()];
+	}
+
+	public int getTotalCalls ()
+	{
+		return _totalCalls;
+	}
+
+	public long getVertexBytes ()
+	{
+		return _vertexBytes;
+	}
+
+	public long getIndexBytes ()
+	{
+		return _indexBytes;
+	}
+
+	public long getUniformBytes ()
+	{
+		return _uniformBytes;
+	}
+
+	public long getTextureBytes ()
+	{
+		return _textureBytes;
+	}
+
+	public long getTotalBytes ()
+	{
+		return _vertexBytes + _indexBytes + _uniformBytes + _textureBytes;
+	}
+
+	/** start counting from zero, which attribute arrays are enabled is gl state so that is kept */
+	public void reset ()
+	{
+		for (int i = 0; i < _counts.length; i++)
+		{
+			_counts[i] = 0;
+		}
+		_totalCalls = 0;
+		_vertexBytes = 0;
+		_indexBytes = 0;
+		_uniformBytes = 0;
+		_textureBytes = 0;
+	}
+
+	/** every call made at least once, one per line */
+	@Override
+	public String toString ()
+	{
+		StringBuilder builder = new StringBuilder();
+		for (Call call : CALLS)
+		{
+			if (_counts[call.ordinal()] > 0)
+			{
+				builder.append(call).append(": ").append(_counts[call.ordinal()]).append('\n');
+			}
+		}
+		builder.append("vertex bytes: ").append(_vertexBytes).append('\n');
+		builder.append("index bytes: ").append(_indexBytes).append('\n');
+		builder.append("uniform bytes: ").append(_uniformBytes).append('\n');
+		builder.append("texture bytes: ").append(_textureBytes);
+		return builder.toString();
+	}
+	//endregion
+
+	//region frame state
+	@Override
+	public void glClearColor (float red, float green, float blue, float alpha)
+	{
+		record(Call.CLEAR_COLOR);
+		_gl.glClearColor(red, green, blue, alpha);
+	}
+
+	@Override
+	public void glClear (int mask)
+	{
+		record(Call.CLEAR);
+		_gl.glClear(mask);
+	}
+
+	@Override
+	public void glViewport (int x, int y, int width, int height)
+	{
+		record(Call.VIEWPORT);
+		_gl.glViewport(x, y, width, height);
+	}
+
+	@Override
+	public void glEnable (int capability)
+	{
+		record(Call.ENABLE);
+		_gl.glEnable(capability);
+	}
+
+	@Override
+	public void glBlendEquation (int mode)
+	{
+		record(Call.BLEND_EQUATION);
+		_gl.glBlendEquation(mode);
+	}
+
+	@Override
+	public void glBlendFunc (int sourceFactor, int destinationFactor)
+	{
+		record(Call.BLEND_FUNC);
+		_gl.glBlendFunc(sourceFactor, destinationFactor);
+	}
+
+	@Override
+	public int glGetError ()
+	{
+		record(Call.GET_ERROR);
+		return _gl.glGetError();
+	}
+	//endregion
+
+	//region shaders
+	@Override
+	public int glCreateShader (int type)
+	{
+		record(Call.CREATE_SHADER);
+		return _gl.glCreateShader(type);
+	}
+
+	@Override
+	public void glShaderSource (int shader, String source)
+	{
+		record(Call.SHADER_SOURCE);
+		_gl.glShaderSource(shader, source);
+	}
+
+	@Override
+	public void glCompileShader (int shader)
+	{
+		record(Call.COMPILE_SHADER);
+		_gl.glCompileShader(shader);
+	}
+
+	@Override
+	public int glCreateProgram ()
+	{
+		record(Call.CREATE_PROGRAM);
+		return _gl.glCreateProgram();
+	}
+
+	@Override
+	public void glAttachShader (int program, int shader)
+	{
+		record(Call.ATTACH_SHADER);
+		_gl.glAttachShader(program, shader);
+	}
+
+	@Override
+	public void glBindAttribLocation (int program, int index, String name)
+	{
+		record(Call.BIND_ATTRIB_LOCATION);
+		_gl.glBindAttribLocation(program, index, name);
+	}
+
+	@Override
+	public void glLinkProgram (int program)
+	{
+		record(Call.LINK_PROGRAM);
+		_gl.glLinkProgram(program);
+	}
+
+	@Override
+	public int glGetAttribLocation (int program, String name)
+	{
+		record(Call.GET_ATTRIB_LOCATION);
+		return _gl.glGetAttribLocation(program, name);
+	}
+
+	@Override
+	public int glGetUniformLocation (int program, String name)
+	{
+		record(Call.GET_UNIFORM_LOCATION);
+		return _gl.glGetUniformLocation(program, name);
+	}
+
+	@Override
+	public void glUseProgram (int program)
+	{
+		record(Call.USE_PROGRAM);
+		_gl.glUseProgram(program);
+	}
+
+	@Override
+	public void glUniformMatrix4fv (int location, int count, boolean transpose, float[] value, int offset)
+	{
+		record(Call.UNIFORM_MATRIX_4FV);
+		_uniformBytes += count * 16 * 4;
+		_gl.glUniformMatrix4fv(location, count, transpose, value, offset);
+	}
+	//endregion
+
+	//region textures
+	@Override
+	public void glGenTextures (int count, int[] textures, int offset)
+	{
+		record(Call.GEN_TEXTURES);
+		_gl.glGenTextures(count, textures, offset);
+	}
+
+	@Override
+	public void glDeleteTextures (int count, int[] textures, int offset)
+	{
+		record(Call.DELETE_TEXTURES);
+		_gl.glDeleteTextures(count, textures, offset);
+	}
+
+	@Override
+	public void glActiveTexture (int texture)
+	{
+		record(Call.ACTIVE_TEXTURE);
+		_gl.glActiveTexture(texture);
+	}
+
+	@Override
+	public void glBindTexture (int target, int texture)
+	{
+		record(Call.BIND_TEXTURE);
+		_gl.glBindTexture(target, texture);
+	}
+
+	@Override
+	public void glTexParameterf (int target, int name, float value)
+	{
+		record(Call.TEX_PARAMETERF);
+		_gl.glTexParameterf(target, name, value);
+	}
+
+	@Override
+	public void glTexImage2D (int target, int level, int internalFormat, int width, int height, int border, int format,
+	                          int type, Buffer pixels)
+	{
+		record(Call.TEX_IMAGE_2D);
+		if (pixels != null)
+		{
+			_textureBytes += (long) pixels.remaining() * elementBytes(pixels);
+		}
+		_gl.glTexImage2D(target, level, internalFormat, width, height, border, format, type, pixels);
+	}
+	//endregion
+
+	//region drawing
+	@Override
+	public void glEnableVertexAttribArray (int index)
+	{
+		record(Call.ENABLE_VERTEX_ATTRIB_ARRAY);
+		if (index >= 0 && index < MAX_ATTRIBUTES)
+		{
+			_attributeEnabled[index] = true;
+		}
+		_gl.glEnableVertexAttribArray(index);
+	}
+
+	@Override
+	public void glDisableVertexAttribArray (int index)
+	{
+		record(Call.DISABLE_VERTEX_ATTRIB_ARRAY);
+		if (index >= 0 && index < MAX_ATTRIBUTES)
+		{
+			_attributeEnabled[index] = false;
+		}
+		_gl.glDisableVertexAttribArray(index);
+	}
+
+	@Override
+	public void glVertexAttribPointer (int index, int size, int type, boolean normalized, int stride, Buffer pointer)
+	{
+		record(Call.VERTEX_ATTRIB_POINTER);
+		if (index >= 0 && index < MAX_ATTRIBUTES)
+		{
+			_attributeBytes[index] = size * typeBytes(type);
+		}
+		_gl.glVertexAttribPointer(index, size, type, normalized, stride, pointer);
+	}
+
+	@Override
+	public void glDrawElements (int mode, int count, int type, Buffer indices)
+	{
+		record(Call.DRAW_ELEMENTS);
+		_indexBytes += (long) count * typeBytes(type);
+
+		int vertexBytes = 0;
+		for (int i = 0; i < MAX_ATTRIBUTES; i++)
+		{
+			if (_attributeEnabled[i])
+			{
+				vertexBytes += _attributeBytes[i];
+			}
+		}
+		_vertexBytes += (long) (maxIndex(indices, count) + 1) * vertexBytes;
+
+		_gl.glDrawElements(mode, count, type, indices);
+	}
+	//endregion
+
+	/** highest of the first count indices, reading from the buffer's position without moving it */
+	private static int maxIndex (Buffer indices, int count)
+	{
+		int max = -1;
+		if (indices instanceof ShortBuffer)
+		{
+			ShortBuffer shorts = (ShortBuffer) indices;
+			int start = shorts.position();
+			for (int i = 0; i < count; i++)
+			{
+				max = Math.max(max, shorts.get(start + i) & 0xffff);
+			}
+		}
+		else if (indices instanceof ByteBuffer)
+		{
+			ByteBuffer bytes = (ByteBuffer) indices;
+			int start = bytes.position();
+			for (int i = 0; i < count; i++)
+			{
+				max = Math.max(max, bytes.get(start + i) & 0xff);
+			}
+		}
+		return max;
+	}
+
+	private static int typeBytes (int type)
+	{
+		switch (type)
+		{
+			case GL_UNSIGNED_BYTE:
+				return 1;
+			case GL_UNSIGNED_SHORT:
+				return 2;
+			default:
+				// float and int
+				return 4;
+		}
+	}
+
+	private static int elementBytes (Buffer buffer)
+	{
+		if (buffer instanceof ByteBuffer)
+		{
+			return 1;
+		}
+		if (buffer instanceof ShortBuffer)
+		{
+			return 2;
+		}
+		if (buffer instanceof FloatBuffer || buffer instanceof IntBuffer)
+		{
+			return 4;
+		}
+		if (buffer instanceof LongBuffer || buffer instanceof DoubleBuffer)
+		{
+			return 8;
+		}
+		// char buffers
+		return 2;
+	}
+}
@@ -0,0 +1,373 @@
+package dental.beam.openglsamplegame.render;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import dental.beam.openglsamplegame.sprites.AtlasRegion;
+import dental.beam.openglsamplegame.sprites.QuadBatch;
+import dental.beam.openglsamplegame.sprites.SpriteSnapshot;
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+import dental.beam.openglsamplegame.sprites.TextureSprite;
+
+/**
+ * Collects everything to draw in a frame, sorts it and sends it to gl with as few state changes as possible
+ *
+ * Every command gets a 64 bit sort key of layer, program, texture and depth, most significant first, and the
+ * keys are radix sorted once per frame. Walking the sorted commands the queue only switches program, texture
+ * or vertex attributes when they actually differ from the last command, and sprites that end up next to each
+ * other with the same state are merged into one draw call by a {@link QuadBatch}.
+ *
+ * Things that do their own gl work, like text, go in as {@link Item}s. They sort after the sprites of their
+ * layer and the queue forgets what state gl is in after each one.
+ *
+ * Nothing is allocated unless a frame has more commands than any frame before it.
+ */
+public class RenderQueue
+{
+	/** where gl calls actually go */
+	public interface Backend
+	{
+		/** program sprites are drawn with, the same for the life of the backend */
+		int getSpriteProgram ();
+
+		void useProgram (int program, float mvpMatrix[]);
+
+		void bindTexture (int textureHandle);
+
+		/** turn the position and texture coordinate arrays for sprites on or off */
+		void setSpriteAttributesEnabled (boolean enabled);
+
+		/** one draw call for interleaved quads from a {@link QuadBatch} */
+		void drawQuads (FloatBuffer vertices, int quadCount);
+	}
+
+	/** something that sets up and draws itself */
+	public interface Item
+	{
+		void draw (float mvpMatrix[]);
+	}
+
+	//region layers, drawn in this order
+	public static final int LAYER_WORLD = 0;
+	public static final int LAYER_HUD = 1;
+	public static final int LAYER_OVERLAY = 2;
+	//endregion
+
+	//region sort key
+	private static final int LAYER_SHIFT = 56;
+	private static final int PROGRAM_SHIFT = 48;
+	private static final int TEXTURE_SHIFT = 32;
+	/** items sort after every program in their layer */
+	private static final int ITEM_PROGRAM = 0xff;
+	//endregion
+
+	private static final int TYPE_SNAPSHOT_SPRITE = 0;
+	private static final int TYPE_SPRITE = 1;
+	private static final int TYPE_ITEM = 2;
+
+	private static final int NO_STATE = -1;
+
+	private final Backend _backend;
+	private final QuadBatch _quadBatch;
+
+	//region commands, one slot per command
+	private long _keys[];
+	private int _order[];
+	private int _types[];
+	private Object _targets[];
+	private AtlasRegion _regions[];
+	private int _indexes[];
+	private float _alphas[];
+	private int _count;
+
+	private long _scratchKeys[];
+	private int _scratchOrder[];
+	private int _digitCounts[] = new int[256];
+	//endregion
+
+	//region gl state as last set through the backend
+	private int _program;
+	private int _textureHandle;
+	private boolean _attributesEnabled;
+	private int _spriteProgram;
+	//endregion
+
+	//region per frame stats
+	private int _drawCalls;
+	private int _stateChanges;
+	private int _sortedCommands;
+	//endregion
+
+	public RenderQueue (Backend backend, int maxQuadsPerDraw, int expectedCommands)
+	{
+		_backend = backend;
+		_quadBatch = new QuadBatch(maxQuadsPerDraw, new QuadBatch.Target()
+		{
+			@Override
+			public void drawQuads (FloatBuffer vertices, int quadCount, int textureHandle)
+			{
+				// the queue binds the texture before adding anything with it, so it is already current
+				_backend.drawQuads(vertices, quadCount);
+				_drawCalls++;
+			}
+		});
+
+		int capacity = Math.max(expectedCommands, 1);
+		_keys = new long[capacity];
+		_order = new int[capacity];
+		_types = new int[capacity];
+		_targets = new Object[capacity];
+		_regions = new AtlasRegion[capacity];
+		_indexes = new int[capacity];
+		_alphas = new float[capacity];
+		_scratchKeys = new long[capacity];
+		_scratchOrder = new int[capacity];
+	}
+
+	/** start a new frame, whatever was added for the last one is dropped */
+	public void begin ()
+	{
+		// don't keep sprites alive from one frame to the next
+		Arrays.fill(_targets, 0, _count, null);
+		_count = 0;
+		_spriteProgram = _backend.getSpriteProgram();
+	}
+
+	/** add every sprite in a snapshot, each one is sorted on its own depth */
+	public void addSprites (int layer, AtlasRegion region, SpriteSnapshot sprites, float alpha)
+	{
+		int size = sprites.size();
+		for (int i = 0; i < size; i++)
+		{
+			int command = addCommand(key(layer, _spriteProgram, region.textureHandle, sprites.z[i]), TYPE_SNAPSHOT_SPRITE, sprites);
+			_regions[command] = region;
+			_indexes[command] = i;
+			_alphas[command] = alpha;
+		}
+	}
+
+	/** add a single sprite drawn where it is right now */
+	public void addSprite (int layer, AtlasRegion region, TextureSprite sprite)
+	{
+		float z = sprite.getStore().posZ[sprite.getSlot()];
+		int command = addCommand(key(layer, _spriteProgram, region.textureHandle, z), TYPE_SPRITE, sprite);
+		_regions[command] = region;
+	}
+
+	public void addItem (int layer, float depth, Item item)
+	{
+		addCommand(key(layer, ITEM_PROGRAM, 0, depth), TYPE_ITEM, item);
+	}
+
+	private int addCommand (long key, int type, Object target)
+	{
+		if (_count == _keys.length)
+		{
+			grow(_count * 2);
+		}
+
+		int command = _count++;
+		_keys[command] = key;
+		_order[command] = command;
+		_types[command] = type;
+		_targets[command] = target;
+		return command;
+	}
+
+	/** sort everything that was added and draw it */
+	public void execute (float mvpMatrix[])
+	{
+		_drawCalls = 0;
+		_stateChanges = 0;
+		_sortedCommands = _count;
+
+		// whatever drew last frame may have left gl in any state
+		_program = NO_STATE;
+		_textureHandle = NO_STATE;
+		_attributesEnabled = false;
+
+		sort(_keys, _order, _scratchKeys, _scratchOrder, _count, _digitCounts);
+
+		for (int i = 0; i < _count; i++)
+		{
+			int command = _order[i];
+			if (_types[command] == TYPE_ITEM)
+			{
+				drawItem((Item) _targets[command], mvpMatrix);
+			}
+			else
+			{
+				drawSprite(command, mvpMatrix);
+			}
+		}
+
+		_quadBatch.flush();
+		setAttributesEnabled(false);
+	}
+
+	private void drawSprite (int command, float mvpMatrix[])
+	{
+		AtlasRegion region = _regions[command];
+
+		if (_program != _spriteProgram)
+		{
+			_quadBatch.flush();
+			_backend.useProgram(_spriteProgram, mvpMatrix);
+			_program = _spriteProgram;
+			_stateChanges++;
+		}
+		setAttributesEnabled(true);
+		if (_textureHandle != region.textureHandle)
+		{
+			_quadBatch.flush();
+			_backend.bindTexture(region.textureHandle);
+			_textureHandle = region.textureHandle;
+			_stateChanges++;
+		}
+
+		if (_types[command] == TYPE_SNAPSHOT_SPRITE)
+		{
+			SpriteSnapshot sprites = (SpriteSnapshot) _targets[command];
+			int i = _indexes[command];
+			float alpha = _alphas[command];
+			_quadBatch.add(region.textureHandle, sprites.drawX(i, alpha), sprites.drawY(i, alpha), sprites.z[i],
+				sprites.drawRotation(i, alpha), sprites.drawScaleX(i, alpha), sprites.drawScaleY(i, alpha),
+				region.u0, region.v0, region.u1, region.v1);
+		}
+		else
+		{
+			TextureSprite sprite = (TextureSprite) _targets[command];
+			SpriteStore store = sprite.getStore();
+			int slot = sprite.getSlot();
+			_quadBatch.add(region.textureHandle, store.posX[slot], store.posY[slot], store.posZ[slot],
+				store.rotation[slot], store.scaleX[slot], store.scaleY[slot],
+				region.u0, region.v0, region.u1, region.v1);
+		}
+	}
+
+	private void drawItem (Item item, float mvpMatrix[])
+	{
+		_quadBatch.flush();
+		setAttributesEnabled(false);
+
+		item.draw(mvpMatrix);
+		_drawCalls++;
+
+		// no telling what it changed
+		_program = NO_STATE;
+		_textureHandle = NO_STATE;
+	}
+
+	private void setAttributesEnabled (boolean enabled)
+	{
+		if (_attributesEnabled != enabled)
+		{
+			_quadBatch.flush();
+			_backend.setSpriteAttributesEnabled(enabled);
+			_attributesEnabled = enabled;
+			_stateChanges++;
+		}
+	}
+
+	private void grow (int capacity)
+	{
+		_keys = Arrays.copyOf(_keys, capacity);
+		_order = Arrays.copyOf(_order, capacity);
+		_types = Arrays.copyOf(_types, capacity);
+		_targets = Arrays.copyOf(_targets, capacity);
+		_regions = Arrays.copyOf(_regions, capacity);
+		_indexes = Arrays.copyOf(_indexes, capacity);
+		_alphas = Arrays.copyOf(_alphas, capacity);
+		_scratchKeys = new long[capacity];
+		_scratchOrder = new int[capacity];
+	}
+
+	/**
+	 * Pack the things commands are sorted on into one key, comparing keys as unsigned longs
+	 * sorts by layer, then program, then texture, then depth
+	 */
+	static long key (int layer, int program, int textureHandle, float depth)
+	{
+		// flip the bits of a float so it orders correctly as an unsigned int, negative numbers included
+		int bits = Float.floatToIntBits(depth);
+		long depthKey = (bits ^ ((bits >> 31) | 0x80000000)) & 0xffffffffL;
+
+		return ((long) (layer & 0xff) << LAYER_SHIFT)
+			| ((long) (program & 0xff) << PROGRAM_SHIFT)
+			| ((long) (textureHandle & 0xffff) << TEXTURE_SHIFT)
+			| depthKey;
+	}
+
+	/**
+	 * Least significant digit first radix sort on 8 bit digits, sorts values along with the keys.
+	 * It is stable, so commands with equal keys stay in the order they were added. Digits every
+	 * key has the same value for are skipped, which for a game frame is most of them
+	 */
+	static void sort (long keys[], int values[], long scratchKeys[], int scratchValues[], int count, int digitCounts[])
+	{
+		long fromKeys[] = keys;
+		int fromValues[] = values;
+		long toKeys[] = scratchKeys;
+		int toValues[] = scratchValues;
+
+		for (int shift = 0; shift < 64; shift += 8)
+		{
+			Arrays.fill(digitCounts, 0);
+			for (int i = 0; i < count; i++)
+			{
+				digitCounts[(int) (fromKeys[i] >>> shift) & 0xff]++;
+			}
+			if (count == 0 || digitCounts[(int) (fromKeys[0] >>> shift) & 0xff] == count)
+			{
+				continue;
+			}
+
+			int offset = 0;
+			for (int digit = 0; digit < 256; digit++)
+			{
+				int digitCount = digitCounts[digit];
+				digitCounts[digit] = offset;
+				offset += digitCount;
+			}
+
+			for (int i = 0; i < count; i++)
+			{
+				int position = digitCounts[(int) (fromKeys[i] >>> shift) & 0xff]++;
+				toKeys[position] = fromKeys[i];
+				toValues[position] = fromValues[i];
+			}
+
+			long swapKeys[] = fromKeys;
+			fromKeys = toKeys;
+			toKeys = swapKeys;
+			int swapValues[] = fromValues;
+			fromValues = toValues;
+			toValues = swapValues;
+		}
+
+		if (fromKeys != keys)
+		{
+			System.arraycopy(fromKeys, 0, keys, 0, count);
+			System.arraycopy(fromValues, 0, values, 0, count);
+		}
+	}
+
+	//region per frame stats
+	/** draw calls in the last executed frame, text and other items count as one each */
+	public int getDrawCalls ()
+	{
+		return _drawCalls;
+	}
+
+	/** program, texture and attribute changes in the last executed frame */
+	public int getStateChanges ()
+	{
+		return _stateChanges;
+	}
+
+	public int getSortedCommands ()
+	{
+		return _sortedCommands;
+	}
+	//endregion
+}
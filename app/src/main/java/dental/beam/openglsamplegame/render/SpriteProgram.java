@@ -0,0 +1,169 @@
+package dental.beam.openglsamplegame.render;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import dental.beam.openglsamplegame.sprites.QuadBatch;
+
+/**
+ * The shader program every sprite is drawn with, and the {@link RenderQueue.Backend} that draws through it
+ *
+ * Nothing here needs android, so with a {@link NoOpGL} or {@link RecordingGL} the whole sprite draw path
+ * runs on a plain jvm. The program and the textures are {@link GLResources} handles, so a draw command
+ * made before the gl context was lost still binds the right things after.
+ */
+public class SpriteProgram implements RenderQueue.Backend
+{
+	private static final String MVPMATRIX_PARAM = "uMVPMatrix";
+	private static final String POSITION_PARAM = "vPosition";
+	private static final String TEXTURE_COORDINATE_PARAM = "aTextureCoordinate";
+
+	private static final String VERTEX_SHADER_CODE =
+		"uniform mat4 " + MVPMATRIX_PARAM + ";" +
+			"attribute vec4 " + POSITION_PARAM + ";" +
+			"attribute vec2 " + TEXTURE_COORDINATE_PARAM + ";" +
+			"varying vec2 vTexCoordinate;" +
+			"void main() {" +
+			"  gl_Position = " + MVPMATRIX_PARAM + " * " + POSITION_PARAM + ";" +
+			"  vTexCoordinate = " + TEXTURE_COORDINATE_PARAM + ";" +
+			"}";
+
+	private static final String FRAGMENT_SHADER_CODE =
+		"precision mediump float;" +
+			"uniform sampler2D uTexture;" +
+			"varying vec2 vTexCoordinate;" +
+			"void main() {" +
+			"  gl_FragColor = texture2D(uTexture, vTexCoordinate); " +
+			"}";
+
+	/** most sprites sent in one draw call */
+	public static final int DEFAULT_MAX_QUADS_PER_DRAW = 512;
+
+	private static final String PROGRAM_KEY = "program/sprite";
+
+	private final GLResources _resources;
+	private final GL _gl;
+	private final int _maxQuadsPerDraw;
+	private final ShortBuffer _quadIndices;
+
+	private int _programHandle;
+	private int _positionHandle = -1;
+	private int _textureCoordinateHandle = -1;
+	private int _mvpMatrixHandle = -1;
+
+	public SpriteProgram (GLResources resources, int maxQuadsPerDraw)
+	{
+		_resources = resources;
+		_gl = resources.getGL();
+		_maxQuadsPerDraw = maxQuadsPerDraw;
+		_quadIndices = QuadBatch.buildIndices(maxQuadsPerDraw);
+	}
+
+	/** compile and link the program, the resources do it again whenever the gl context is recreated */
+	public void create ()
+	{
+		_programHandle = _resources.register(PROGRAM_KEY, GLResources.TYPE_PROGRAM, new GLResources.Creator()
+		{
+			@Override
+			public int create (GL gl)
+			{
+				return link(gl);
+			}
+		});
+	}
+
+	private int link (GL gl)
+	{
+		int vertexShader = loadShader(gl, GL.GL_VERTEX_SHADER, VERTEX_SHADER_CODE);
+		int fragmentShader = loadShader(gl, GL.GL_FRAGMENT_SHADER, FRAGMENT_SHADER_CODE);
+		int program = gl.glCreateProgram();             // create empty OpenGL Program
+		gl.glAttachShader(program, vertexShader);   // add the vertex shader to program
+		gl.glAttachShader(program, fragmentShader); // add the fragment shader to program
+
+		gl.glBindAttribLocation(program, 0, TEXTURE_COORDINATE_PARAM);
+		gl.glLinkProgram(program);
+
+		_positionHandle = gl.glGetAttribLocation(program, POSITION_PARAM);
+		_textureCoordinateHandle = gl.glGetAttribLocation(program, TEXTURE_COORDINATE_PARAM);
+		_mvpMatrixHandle = gl.glGetUniformLocation(program, MVPMATRIX_PARAM);
+		return program;
+	}
+
+	/** the index buffer only goes this far, a {@link RenderQueue} must not batch more than this */
+	public int getMaxQuadsPerDraw ()
+	{
+		return _maxQuadsPerDraw;
+	}
+
+	/** the program's {@link GLResources} handle */
+	@Override
+	public int getSpriteProgram ()
+	{
+		return _programHandle;
+	}
+
+	@Override
+	public void useProgram (int program, float[] mvpMatrix)
+	{
+		_gl.glUseProgram(_resources.getName(program));
+		// vertices are already in world space, only the projection and view are left
+		_gl.glUniformMatrix4fv(_mvpMatrixHandle, 1, false, mvpMatrix, 0);
+	}
+
+	@Override
+	public void bindTexture (int textureHandle)
+	{
+		_gl.glActiveTexture(GL.GL_TEXTURE0);
+		_gl.glBindTexture(GL.GL_TEXTURE_2D, _resources.getName(textureHandle));
+	}
+
+	@Override
+	public void setSpriteAttributesEnabled (boolean enabled)
+	{
+		if (enabled)
+		{
+			_gl.glEnableVertexAttribArray(_positionHandle);
+			_gl.glEnableVertexAttribArray(_textureCoordinateHandle);
+		}
+		else
+		{
+			_gl.glDisableVertexAttribArray(_positionHandle);
+			_gl.glDisableVertexAttribArray(_textureCoordinateHandle);
+		}
+	}
+
+	@Override
+	public void drawQuads (FloatBuffer vertices, int quadCount)
+	{
+		// positions and texture coordinates are interleaved in the one buffer
+		vertices.position(0);
+		_gl.glVertexAttribPointer(_positionHandle, QuadBatch.POSITION_SIZE, GL.GL_FLOAT, false,
+			QuadBatch.VERTEX_STRIDE, vertices);
+		vertices.position(QuadBatch.POSITION_SIZE);
+		_gl.glVertexAttribPointer(_textureCoordinateHandle, QuadBatch.TEXTURE_COORDINATE_SIZE, GL.GL_FLOAT, false,
+			QuadBatch.VERTEX_STRIDE, vertices);
+
+		_quadIndices.position(0);
+		_gl.glDrawElements(GL.GL_TRIANGLES, quadCount * QuadBatch.INDICES_PER_QUAD, GL.GL_UNSIGNED_SHORT, _quadIndices);
+	}
+
+	/**
+	 * Utility method for compiling a OpenGL shader.
+	 *
+	 * @param type       - Vertex or fragment shader type.
+	 * @param shaderCode - String containing the shader code.
+	 * @return - Returns an id for the shader.
+	 */
+	public static int loadShader (GL gl, int type, String shaderCode)
+	{
+		// create a vertex shader type (GL_VERTEX_SHADER)
+		// or a fragment shader type (GL_FRAGMENT_SHADER)
+		int shader = gl.glCreateShader(type);
+
+		// add the source code to the shader and compile it
+		gl.glShaderSource(shader, shaderCode);
+		gl.glCompileShader(shader);
+
+		return shader;
+	}
+}
@@ -0,0 +1,232 @@
+package dental.beam.openglsamplegame.render;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Textures by what's in them, with a budget for the video memory they take
+ *
+ * A texture's key is either where it came from, like a drawable's resource id, or a digest of its pixels
+ * from {@link #digestKey(PixelTexture)}, so the same image loaded twice is one texture and two different
+ * images never share one. Textures are reference counted, and once the textures in the cache take more
+ * than the budget the least recently used ones nobody holds are deleted until it fits again. Textures
+ * still in use are never evicted, so the cache can go over budget if they alone don't fit.
+ *
+ * gl thread only.
+ */
+public class TextureCache
+{
+	private static class Entry
+	{
+		final int handle;
+		final long bytes;
+		int references;
+
+		Entry (int handle, long bytes)
+		{
+			this.handle = handle;
+			this.bytes = bytes;
+		}
+	}
+
+	private static final char HEX[] = "0123456789abcdef".toCharArray();
+
+	private final GLResources _resources;
+	private final long _budgetBytes;
+
+	/** least recently acquired first */
+	private final LinkedHashMap<String, Entry> _entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long _bytes;
+
+	//region debug
+	private int _evictionCount;
+	//endregion
+
+	/**
+	 * @param budgetBytes video memory the cache tries to stay under, width * height * bytes per pixel of every texture
+	 */
+	public TextureCache (GLResources resources, long budgetBytes)
+	{
+		_resources = resources;
+		_budgetBytes = budgetBytes;
+	}
+
+	/**
+	 * The texture already cached under key, held until {@link #release(String)}
+	 *
+	 * @return its handle, {@link GLResources#NO_HANDLE} if it isn't cached and has to be added
+	 */
+	public int acquire (String key)
+	{
+		Entry entry = _entries.get(key);
+		if (entry == null)
+		{
+			return GLResources.NO_HANDLE;
+		}
+		entry.references++;
+		return entry.handle;
+	}
+
+	/**
+	 * Upload a texture and hold it, or hold the one already cached under key
+	 *
+	 * @return its handle
+	 */
+	public int add (String key, PixelTexture texture)
+	{
+		return add(key, texture, texture.getGpuBytes());
+	}
+
+	public int add (String key, MipTexture texture)
+	{
+		return add(key, texture, texture.getGpuBytes());
+	}
+
+	/**
+	 * @param gpuBytes video memory the texture takes once it's uploaded, every level of it
+	 */
+	public int add (String key, GLResources.Creator texture, long gpuBytes)
+	{
+		int handle = acquire(key);
+		if (handle != GLResources.NO_HANDLE)
+		{
+			return handle;
+		}
+
+		Entry entry = new Entry(_resources.register(key, GLResources.TYPE_TEXTURE, texture), gpuBytes);
+		entry.references = 1;
+		_entries.put(key, entry);
+		_bytes += entry.bytes;
+		trimToBudget();
+		return entry.handle;
+	}
+
+	/** stop holding a texture, it stays cached until the budget needs the room */
+	public void release (String key)
+	{
+		Entry entry = _entries.get(key);
+		if (entry == null || entry.references == 0)
+		{
+			throw new IllegalStateException(key + " released more times than it was acquired");
+		}
+		entry.references--;
+		trimToBudget();
+	}
+
+	/** release by handle, for textures added under a digest key */
+	public void release (int handle)
+	{
+		release(_resources.getKey(handle));
+	}
+
+	/**
+	 * Delete a texture now whatever the budget, one that's still held stays
+	 *
+	 * @return whether it was deleted
+	 */
+	public boolean evict (String key)
+	{
+		Entry entry = _entries.get(key);
+		if (entry == null || entry.references > 0)
+		{
+			return false;
+		}
+		_entries.remove(key);
+		delete(entry);
+		return true;
+	}
+
+	/** delete every texture nobody holds, when memory is short */
+	public void evictUnused ()
+	{
+		trimTo(0);
+	}
+
+	public boolean contains (String key)
+	{
+		return _entries.containsKey(key);
+	}
+
+	/** video memory the cached textures take */
+	public long getBytes ()
+	{
+		return _bytes;
+	}
+
+	public long getBudgetBytes ()
+	{
+		return _budgetBytes;
+	}
+
+	public int getTextureCount ()
+	{
+		return _entries.size();
+	}
+
+	public int getEvictionCount ()
+	{
+		return _evictionCount;
+	}
+
+	/** a key for the texture's pixels and size, the same for any texture with the same image */
+	public static String digestKey (PixelTexture texture)
+	{
+		MessageDigest digest;
+		try
+		{
+			digest = MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			// every java and android has sha-1
+			throw new IllegalStateException(e);
+		}
+
+		ByteBuffer pixels = texture.getPixels();
+		digest.update(pixels);
+		pixels.position(0);
+		byte hash[] = digest.digest();
+
+		StringBuilder key = new StringBuilder("pixels/").append(texture.getWidth()).append('x')
+			.append(texture.getHeight()).append('/');
+		for (byte b : hash)
+		{
+			key.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+		}
+		return key.toString();
+	}
+
+	private void trimToBudget ()
+	{
+		if (_bytes > _budgetBytes)
+		{
+			trimTo(_budgetBytes);
+		}
+	}
+
+	/** evict unheld textures, least recently used first, until the cache takes at most bytes */
+	private void trimTo (long bytes)
+	{
+		Iterator<Map.Entry<String, Entry>> entries = _entries.entrySet().iterator();
+		while (_bytes > bytes && entries.hasNext())
+		{
+			Entry entry = entries.next().getValue();
+			if (entry.references == 0)
+			{
+				entries.remove();
+				delete(entry);
+			}
+		}
+	}
+
+	private void delete (Entry entry)
+	{
+		_resources.delete(entry.handle);
+		_bytes -= entry.bytes;
+		_evictionCount++;
+	}
+}
@@ -1,49 +1,42 @@
 package dental.beam.openglsamplegame.sprites;
 
-import dental.beam.openglsamplegame.R;
-import dental.beam.openglsamplegame.helpers.RandomHelper;
+import dental.beam.openglsamplegame.helpers.GameRandom;
 
 public class AsteroidSprite extends MovingSprite
 {
 	public static final float MAX_SCALE = 0.25f;
 	public static final float MIN_SCALE = 0.04f;
+	public static final float MIN_SPEED = 0.02f;
+	public static final float MAX_SPEED = 0.03f;
 	protected static final float IMAGE_RATIO = 408f / 384f;
 
-	public float _rotationDelta;
-
-	public AsteroidSprite ()
-	{
-		_drawableResourceId = R.drawable.asteroid;
-	}
-
-	public void initRandom ()
+	/** runs on the simulation thread so it mustn't touch gl, the gl thread draws every asteroid with the same texture */
+	public void initRandom (GameRandom random)
 	{
-		_textureDataHandle = loadGLTexture(_drawableResourceId);
-		_currentScale[0] = RandomHelper.randomFloatBetween(MIN_SCALE, MAX_SCALE);
-		_currentScale[1] = _currentScale[0] / IMAGE_RATIO;
-		_currentPos[0] = RandomHelper.randomFloatBetween(-1, 1);
-		_currentPos[1] = 0;
-		_currentPos[2] = 0.1f;
-
-		_vector[0] = RandomHelper.randomFloatBetween(-0.002f, 0.002f);
-		_vector[1] = RandomHelper.randomFloatBetween(-0.03f, -0.02f);
-		_rotationZ = RandomHelper.randomFloatBetween(-90, 90);
-		_rotationDelta = RandomHelper.randomFloatBetween(-2, 2);
-		_alive = true;
+		_store.scaleX[_slot] = random.nextFloat(MIN_SCALE, MAX_SCALE);
+		_store.scaleY[_slot] = _store.scaleX[_slot] / IMAGE_RATIO;
+		_store.posX[_slot] = random.nextFloat(-1, 1);
+		_store.posY[_slot] = 0;
+		_store.posZ[_slot] = 0.1f;
+
+		_store.vectorX[_slot] = random.nextFloat(-0.002f, 0.002f);
+		_store.vectorY[_slot] = random.nextFloat(-MAX_SPEED, -MIN_SPEED);
+		_store.rotation[_slot] = random.nextFloat(-90, 90);
+		_store.rotationDelta[_slot] = random.nextFloat(-2, 2);
+		_store.alive[_slot] = true;
 	}
 
 	public void initIcon (float posX, float posY, float scaleX, float scaleY)
 	{
-		_textureDataHandle = loadGLTexture(_drawableResourceId);
-		_currentScale[0] = scaleX;
-		_currentScale[1] = scaleY;
-		_currentPos[0] = posX;
-		_currentPos[1] = posY;
-		_currentPos[2] = 0.2f;
-
-		_vector[0] = _vector[1] = _vector[2] = 0;
-		_rotationZ = 0;
-		_alive = true;
+		_store.scaleX[_slot] = scaleX;
+		_store.scaleY[_slot] = scaleY;
+		_store.posX[_slot] = posX;
+		_store.posY[_slot] = posY;
+		_store.posZ[_slot] = 0.2f;
+
+		_store.vectorX[_slot] = _store.vectorY[_slot] = 0;
+		_store.rotation[_slot] = _store.rotationDelta[_slot] = 0;
+		_store.alive[_slot] = true;
 	}
 
 	public void setRatio (float ratio)
@@ -51,13 +44,13 @@ public class AsteroidSprite extends MovingSprite
 		super.setRatio(ratio);
 
 		// start asteroid at top of screen
-		_currentPos[1] = _ratio + _currentScale[1];
+		_store.posY[_slot] = _ratio + _store.scaleY[_slot];
 	}
 
 	@Override
 	public boolean update ()
 	{
-		_rotationZ += _rotationDelta;
+		_store.rotation[_slot] += _store.rotationDelta[_slot];
 
 		return super.update();
 	}
@@ -0,0 +1,44 @@
+package dental.beam.openglsamplegame.sprites;
+
+/**
+ * Where one image ended up in a {@link TextureAtlas}
+ */
+public class AtlasRegion
+{
+	public final int page;
+
+	// pixels on the page, top left corner
+	public final int x;
+	public final int y;
+	public final int width;
+	public final int height;
+
+	// texture coordinates, v goes down the page like y does
+	public final float u0;
+	public final float v0;
+	public final float u1;
+	public final float v1;
+
+	/** {@link dental.beam.openglsamplegame.render.GLResources} handle of the page, set once the page has been uploaded */
+	public int textureHandle;
+
+	public AtlasRegion (int page, int x, int y, int width, int height, int pageWidth, int pageHeight)
+	{
+		this.page = page;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+
+		u0 = (float) x / pageWidth;
+		v0 = (float) y / pageHeight;
+		u1 = (float) (x + width) / pageWidth;
+		v1 = (float) (y + height) / pageHeight;
+	}
+
+	/** width over height of the image, the same ratio the sprites' IMAGE_RATIO constants hold */
+	public float getImageRatio ()
+	{
+		return (float) width / height;
+	}
+}
@@ -1,32 +1,35 @@
 package dental.beam.openglsamplegame.sprites;
 
-import dental.beam.openglsamplegame.R;
-import dental.beam.openglsamplegame.helpers.RandomHelper;
+import dental.beam.openglsamplegame.helpers.GameRandom;
 
 public class BrokenAsteroidSprite extends AsteroidSprite
 {
-	private static final float SCALE_DELTA = 0.0005f;
+	public static final float SCALE_DELTA = 0.0005f;
 
-	public void init (float ratio, float position[], float vector[], float scale)
+	/** copies everything into this sprite's slot, nothing is allocated or kept */
+	public void init (float ratio, float x, float y, float vectorX, float vectorY, float scale, GameRandom random)
 	{
-		_textureDataHandle = loadGLTexture(R.drawable.asteroid);
 		_ratio = ratio;
-		_currentScale[0] = scale;
-		_currentScale[1] = _currentScale[0] / IMAGE_RATIO;
-		_currentPos = position;
-		_vector = vector;
-		_rotationZ = RandomHelper.randomFloatBetween(-90, 90);
-		_rotationDelta = RandomHelper.randomFloatBetween(-2, 2);
-		_alive = true;
+		_store.bottom[_slot] = -ratio;
+		_store.scaleX[_slot] = scale;
+		_store.scaleY[_slot] = _store.scaleX[_slot] / IMAGE_RATIO;
+		_store.posX[_slot] = x;
+		_store.posY[_slot] = y;
+		_store.posZ[_slot] = 0;
+		_store.vectorX[_slot] = vectorX;
+		_store.vectorY[_slot] = vectorY;
+		_store.rotation[_slot] = random.nextFloat(-90, 90);
+		_store.rotationDelta[_slot] = random.nextFloat(-2, 2);
+		_store.alive[_slot] = true;
 	}
 
 	@Override
 	public boolean update ()
 	{
 		// broken asteroids move down and scale down to 0 to make them look like they are moving away
-		_currentScale[0] -= SCALE_DELTA;
-		_currentScale[1] -= SCALE_DELTA;
-		if (_currentScale[0] <= 0 || _currentScale[1] <= 0)
+		_store.scaleX[_slot] -= SCALE_DELTA;
+		_store.scaleY[_slot] -= SCALE_DELTA;
+		if (_store.scaleX[_slot] <= 0 || _store.scaleY[_slot] <= 0)
 		{
 			return false;
 		}
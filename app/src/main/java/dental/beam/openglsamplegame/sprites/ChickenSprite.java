@@ -1,29 +1,22 @@
 package dental.beam.openglsamplegame.sprites;
 
-import dental.beam.openglsamplegame.R;
-import dental.beam.openglsamplegame.helpers.RandomHelper;
+import dental.beam.openglsamplegame.helpers.GameRandom;
 
 public class ChickenSprite extends MovingSprite
 {
 	protected static final float IMAGE_RATIO = 204f / 328f;
 	private static float SCALE = 0.07f;
 
-	public ChickenSprite ()
+	public void init (GameRandom random)
 	{
-		_drawableResourceId = R.drawable.chicken;
-	}
-
-	public void init ()
-	{
-		_textureDataHandle = loadGLTexture(_drawableResourceId);
-		_currentScale[0] = SCALE;
-		_currentScale[1] = _currentScale[0] / IMAGE_RATIO;
-		_currentPos[0] = RandomHelper.randomFloatBetween(-1, 1);
-		_currentPos[1] = 0;
-		_currentPos[2] = 0.2f;
-
-		_vector[0] = RandomHelper.randomFloatBetween(-0.05f, 0.05f);
-		_alive = true;
+		_store.scaleX[_slot] = SCALE;
+		_store.scaleY[_slot] = _store.scaleX[_slot] / IMAGE_RATIO;
+		_store.posX[_slot] = random.nextFloat(-1, 1);
+		_store.posY[_slot] = 0;
+		_store.posZ[_slot] = 0.2f;
+
+		_store.vectorX[_slot] = random.nextFloat(-0.05f, 0.05f);
+		_store.alive[_slot] = true;
 	}
 
 	public void setRatio (float ratio)
@@ -31,7 +24,7 @@ public class ChickenSprite extends MovingSprite
 		super.setRatio(ratio);
 
 		// position at bottom of screen
-		_currentPos[1] = -_ratio + 2 * _currentScale[1];
+		_store.posY[_slot] = -_ratio + 2 * _store.scaleY[_slot];
 	}
 
 	@Override
@@ -40,13 +33,13 @@ public class ChickenSprite extends MovingSprite
 		super.update();
 
 		// if hit wall move back opposite direction
-		if (_currentPos[0] < -1)
+		if (_store.posX[_slot] < -1)
 		{
-			_vector[0] = -_vector[0];
+			_store.vectorX[_slot] = -_store.vectorX[_slot];
 		}
-		else if (_currentPos[0] > 1)
+		else if (_store.posX[_slot] > 1)
 		{
-			_vector[0] = -_vector[0];
+			_store.vectorX[_slot] = -_store.vectorX[_slot];
 		}
 
 		return true;
@@ -0,0 +1,73 @@
+package dental.beam.openglsamplegame.sprites;
+
+import dental.beam.openglsamplegame.helpers.GameRandom;
+
+/**
+ * Table describing how an asteroid breaks apart, one row per piece
+ *
+ * Each row says how far above the asteroid the piece starts (as a fraction of the asteroid's height)
+ * and which way it drifts: -1 left, 0 straight down, 1 right. The table is built up front
+ * so breaking an asteroid doesn't allocate anything.
+ */
+public class DebrisPattern
+{
+	/** five pieces in an arch, the way asteroids have always broken */
+	public static final DebrisPattern DEFAULT = new DebrisPattern(
+		new float[] { 0.25f, 0.5f, 1f, 0.5f, 0.25f },
+		new int[] { -1, -1, 0, 1, 1 });
+
+	private static final float MAX_SPREAD = 0.06f;
+	private static final float MAX_SIDE_SPEED = 0.01f;
+	public static final float PIECE_SCALE = 0.25f;
+
+	private final float _offsetY[];
+	private final int _directionX[];
+
+	public DebrisPattern (float offsetY[], int directionX[])
+	{
+		if (offsetY.length != directionX.length)
+		{
+			throw new IllegalArgumentException("need a direction for every piece");
+		}
+		_offsetY = offsetY.clone();
+		_directionX = directionX.clone();
+	}
+
+	public int getPieceCount ()
+	{
+		return _offsetY.length;
+	}
+
+	/** spawn a piece from the pool for every row of the table, or as many as there's room for in a pool that can't grow */
+	public void shatter (AsteroidSprite asteroid, float ratio, SpritePool<BrokenAsteroidSprite> pool, GameRandom random)
+	{
+		float x = asteroid.getX();
+		float y = asteroid.getY();
+		float vectorY = asteroid.getVectorY();
+		float height = asteroid.getScaleY();
+		float scale = asteroid.getScaleX() * PIECE_SCALE;
+
+		for (int i = 0; i < _offsetY.length; i++)
+		{
+			BrokenAsteroidSprite piece = pool.spawn();
+			if (piece == null)
+			{
+				return;
+			}
+
+			float pieceY = y + height * _offsetY[i]; //move it up a bit
+			float pieceVectorY = vectorY * (0.8f + 0.2f * random.nextFloat()); //slow it's speed a bit
+
+			float pieceX = x;
+			float pieceVectorX = 0;
+			int direction = _directionX[i];
+			if (direction != 0)
+			{
+				pieceX = x + direction * MAX_SPREAD * random.nextFloat();
+				pieceVectorX = direction * random.nextFloat() * MAX_SIDE_SPEED;
+			}
+
+			piece.init(ratio, pieceX, pieceY, pieceVectorX, pieceVectorY, scale, random);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package dental.beam.openglsamplegame.sprites;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fonts shared by everything that draws text with the same asset, size and padding
+ *
+ * A font is loaded the first time it's acquired and dropped when the last user releases it. Its texture
+ * goes with the gl context, so {@link #onContextCreated()} loads each font in use once more however many
+ * sprites share it. Glyph widths are read when a font is first loaded and kept, the new context gets
+ * the same font so layouts measured with them stay right.
+ *
+ * gl thread only.
+ *
+ * @param <F> the font, GLText in the game
+ */
+public class FontCache<F>
+{
+	public interface Loader<F>
+	{
+		/** rasterize the font and upload its texture */
+		F load (String asset, int size, int padX, int padY);
+
+		float getCharWidth (F font, char c);
+	}
+
+	/** glyph widths are kept for characters below this, anything past it asks the font */
+	private static final int MEASURED_CHARS = 256;
+
+	/** one font, acquired from the cache and handed back with {@link #release(Font)} */
+	public static class Font<F> implements TextLayout.Metrics
+	{
+		private final Key _key;
+		private final float _widths[] = new float[MEASURED_CHARS];
+		private final Loader<F> _loader;
+		private F _font;
+		private int _references;
+
+		private Font (Key key, Loader<F> loader)
+		{
+			_key = key;
+			_loader = loader;
+		}
+
+		public F get ()
+		{
+			return _font;
+		}
+
+		@Override
+		public float getCharWidth (char c)
+		{
+			return c < MEASURED_CHARS ? _widths[c] : _loader.getCharWidth(_font, c);
+		}
+
+		public int getSize ()
+		{
+			return _key.size;
+		}
+	}
+
+	private static class Key
+	{
+		final String asset;
+		final int size;
+		final int padX;
+		final int padY;
+
+		Key (String asset, int size, int padX, int padY)
+		{
+			this.asset = asset;
+			this.size = size;
+			this.padX = padX;
+			this.padY = padY;
+		}
+
+		@Override
+		public boolean equals (Object o)
+		{
+			if (!(o instanceof Key))
+			{
+				return false;
+			}
+			Key other = (Key) o;
+			return asset.equals(other.asset) && size == other.size && padX == other.padX && padY == other.padY;
+		}
+
+		@Override
+		public int hashCode ()
+		{
+			return ((asset.hashCode() * 31 + size) * 31 + padX) * 31 + padY;
+		}
+	}
+
+	private final Loader<F> _loader;
+	private final Map<Key, Font<F>> _fonts = new HashMap<>();
+	private final List<Font<F>> _reloading = new ArrayList<>();
+
+	//region debug
+	private int _loadCount;
+	//endregion
+
+	public FontCache (Loader<F> loader)
+	{
+		_loader = loader;
+	}
+
+	/** the font for these settings, loading it if nothing is using it yet */
+	public Font<F> acquire (String asset, int size, int padX, int padY)
+	{
+		Key key = new Key(asset, size, padX, padY);
+		Font<F> font = _fonts.get(key);
+		if (font == null)
+		{
+			font = new Font<>(key, _loader);
+			load(font);
+			for (char c = 0; c < MEASURED_CHARS; c++)
+			{
+				font._widths[c] = _loader.getCharWidth(font._font, c);
+			}
+			_fonts.put(key, font);
+		}
+		font._references++;
+		return font;
+	}
+
+	/** the last release drops the font, acquiring it again loads it again */
+	public void release (Font<F> font)
+	{
+		if (font._references == 0)
+		{
+			throw new IllegalStateException("font released more times than it was acquired");
+		}
+
+		font._references--;
+		if (font._references == 0)
+		{
+			_fonts.remove(font._key);
+			font._font = null;
+		}
+	}
+
+	/** the old context took the font textures with it, load every font in use into the new one */
+	public void onContextCreated ()
+	{
+		// copied out so a loader that acquires fonts itself can't break the iteration
+		_reloading.addAll(_fonts.values());
+		for (int i = 0; i < _reloading.size(); i++)
+		{
+			load(_reloading.get(i));
+		}
+		_reloading.clear();
+	}
+
+	private void load (Font<F> font)
+	{
+		font._font = _loader.load(font._key.asset, font._key.size, font._key.padX, font._key.padY);
+		_loadCount++;
+	}
+
+	public int getFontCount ()
+	{
+		return _fonts.size();
+	}
+
+	/** how many times a font has been rasterized, to check sprites share them */
+	public int getLoadCount ()
+	{
+		return _loadCount;
+	}
+}
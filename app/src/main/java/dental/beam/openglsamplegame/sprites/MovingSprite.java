@@ -10,23 +10,24 @@ public abstract class MovingSprite extends TextureSprite
 	public void setRatio (float ratio)
 	{
 		_ratio = ratio;
+		_store.bottom[_slot] = -ratio;
 	}
 
 	public boolean update ()
 	{
-		if (!_alive)
+		if (!_store.alive[_slot])
 		{
 			return false;
 		}
 
 		// move sprite
-		_currentPos[0] = _currentPos[0] + _vector[0];
-		_currentPos[1] = _currentPos[1] + _vector[1];
+		_store.posX[_slot] = _store.posX[_slot] + _store.vectorX[_slot];
+		_store.posY[_slot] = _store.posY[_slot] + _store.vectorY[_slot];
 
 		// if sprite moved off bottom of screen we can remove sprite
-		if (_currentPos[1] < -_ratio)
+		if (_store.posY[_slot] < _store.bottom[_slot])
 		{
-			_alive = false;
+			_store.alive[_slot] = false;
 		}
 
 		return true;
@@ -1,72 +1,48 @@
 package dental.beam.openglsamplegame.sprites;
 
-import android.content.Context;
-
-import dental.beam.openglsamplegame.helpers.TiltHelper;
-
 public class PlayerSprite extends TextureSprite
 {
 	private static final float TILT_MIN = -25;
 	private static final float TILT_MAX = 25;
 	private static final float TILT_SCALE = 2.0f;
-	private static float TILT_SLOP = 1f;
 	private static float SCALE = 0.15f;
+	protected static final float IMAGE_RATIO = 384f / 384f;
 
-	private TiltHelper _tiltHelper;
-
-	private float _tilt;
 	private float _ratio;
+	private float _tilt;
 
-	public PlayerSprite (Context context, int drawableResourceId, TiltHelper tiltHelper)
+	public void setRatio (float ratio)
 	{
-		super();
-		setContext(context);
-		setDrawable(drawableResourceId);
-
-		_tiltHelper = tiltHelper;
+		_ratio = ratio;
+		_store.scaleX[_slot] = SCALE;
+		_store.scaleY[_slot] = SCALE / IMAGE_RATIO;
+		_store.posX[_slot] = 0;
+		_store.posY[_slot] = -_ratio + _store.scaleY[_slot] * 3;
+		_store.posZ[_slot] = 0.1f;
+		_store.vectorX[_slot] = _store.vectorY[_slot] = 0;
+		_store.alive[_slot] = true;
 	}
 
-	public void setRatio (float ratio)
+	/** tilt of the phone in degrees for the next update, already smoothed, see TiltHelperAccel */
+	public void setTilt (float tilt)
 	{
-		_ratio = ratio;
-		_currentScale[0] = SCALE;
-		_currentScale[1] = SCALE / _imageRatio;
-		_currentPos[0] = 0;
-		_currentPos[1] = -_ratio + _currentScale[1] * 3;
-		_currentPos[2] = 0.1f;
-		_vector[0] = _vector[1] = _vector[2] = 0;
-		_alive = true;
+		_tilt = tilt;
 	}
 
+	@Override
 	public boolean update ()
 	{
-		float tilt = _tiltHelper.getTilt() * TILT_SCALE;
+		float tilt = _tilt * TILT_SCALE;
 		if (tilt < TILT_MIN) { tilt = TILT_MIN; }
 		if (tilt > TILT_MAX) { tilt = TILT_MAX; }
 
-		float tiltDiff = Math.abs(tilt - _tilt);
-
-		// ignore small player movements
-		if (tiltDiff > TILT_SLOP)
+		if (tilt < 0)
 		{
-			// slow down player movement a bit
-			if (tilt < _tilt)
-			{
-				_tilt -= (tiltDiff / 5f);
-			}
-			else
-			{
-				_tilt += (tiltDiff / 5f);
-			}
-
-			if (tilt < 0)
-			{
-				_currentPos[0] = -_tilt / TILT_MIN;
-			}
-			else
-			{
-				_currentPos[0] = _tilt / TILT_MAX;
-			}
+			_store.posX[_slot] = -tilt / TILT_MIN;
+		}
+		else
+		{
+			_store.posX[_slot] = tilt / TILT_MAX;
 		}
 
 		return true;
@@ -1,10 +1,9 @@
 package dental.beam.openglsamplegame.sprites;
 
-import android.content.Context;
-
 public interface PoolableSprite
 {
-	public void setContext(Context context);
+	public void setSlot(SpriteStore store, int slot);
+	public int getSlot();
 
 	public boolean isInUse ();
 	public void setInUse (boolean inUse);
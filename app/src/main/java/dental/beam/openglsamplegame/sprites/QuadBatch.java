@@ -0,0 +1,194 @@
+package dental.beam.openglsamplegame.sprites;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Collects sprites as quads already transformed into world space so a whole group can go out in one draw call
+ *
+ * Each quad is the sprite square translated, rotated and scaled on the cpu, written as 4 vertices of
+ * x, y, z, u, v into one direct FloatBuffer. Quads pile up until the texture changes, the batch is full
+ * or {@link #flush()} is called, then they are handed to the {@link Target} in one go. Nothing in here
+ * touches gl, the target is what turns a flush into a draw call.
+ */
+public class QuadBatch
+{
+	public interface Target
+	{
+		/**
+		 * Draw the quads in vertices as indexed triangles, see {@link #buildIndices(int)}
+		 *
+		 * @param vertices position 0, limit at the end of the last quad
+		 */
+		void drawQuads (FloatBuffer vertices, int quadCount, int textureHandle);
+	}
+
+	public static final int POSITION_SIZE = 3;
+	public static final int TEXTURE_COORDINATE_SIZE = 2;
+	public static final int FLOATS_PER_VERTEX = POSITION_SIZE + TEXTURE_COORDINATE_SIZE;
+	/** bytes between the start of one vertex and the next */
+	public static final int VERTEX_STRIDE = FLOATS_PER_VERTEX * 4;
+	public static final int VERTICES_PER_QUAD = 4;
+	public static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * VERTICES_PER_QUAD;
+	public static final int INDICES_PER_QUAD = 6;
+
+	/** indices are shorts, so this many quads is as far as they reach */
+	public static final int MAX_QUADS = 65536 / VERTICES_PER_QUAD;
+
+	/** corners of the sprite square in the same order as TextureSprite draws it */
+	private static final float CORNER_X[] = { -1, 1, 1, -1 };
+	private static final float CORNER_Y[] = { -1, -1, 1, 1 };
+
+	private static final float DEGREES_TO_RADIANS = (float) (Math.PI / 180);
+
+	private final Target _target;
+	private final int _maxQuads;
+
+	/** quads are built here and copied into the direct buffer in one put per flush */
+	private final float _staging[];
+	private final FloatBuffer _vertices;
+
+	private int _quadCount;
+	private int _textureHandle;
+
+	//region stats
+	private int _flushCount;
+	private int _totalQuads;
+	//endregion
+
+	/**
+	 * @param maxQuads most quads in one draw call, at most {@link #MAX_QUADS}
+	 */
+	public QuadBatch (int maxQuads, Target target)
+	{
+		if (maxQuads < 1 || maxQuads > MAX_QUADS)
+		{
+			throw new IllegalArgumentException("maxQuads must be between 1 and " + MAX_QUADS + ", was " + maxQuads);
+		}
+
+		_target = target;
+		_maxQuads = maxQuads;
+		_staging = new float[maxQuads * FLOATS_PER_QUAD];
+		_vertices = ByteBuffer.allocateDirect(_staging.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+	}
+
+	/** add a sprite that uses the whole of its texture */
+	public void add (int textureHandle, float x, float y, float z, float rotation, float scaleX, float scaleY)
+	{
+		add(textureHandle, x, y, z, rotation, scaleX, scaleY, 0, 0, 1, 1);
+	}
+
+	/**
+	 * Add a sprite drawn with part of a texture
+	 *
+	 * @param rotation degrees counterclockwise, same as Matrix.rotateM
+	 * @param u0 left edge of the texture area
+	 * @param v0 top edge of the texture area
+	 * @param u1 right edge of the texture area
+	 * @param v1 bottom edge of the texture area
+	 */
+	public void add (int textureHandle, float x, float y, float z, float rotation, float scaleX, float scaleY,
+		float u0, float v0, float u1, float v1)
+	{
+		if (_quadCount == _maxQuads || (_quadCount > 0 && textureHandle != _textureHandle))
+		{
+			flush();
+		}
+		_textureHandle = textureHandle;
+
+		float radians = rotation * DEGREES_TO_RADIANS;
+		float cos = (float) Math.cos(radians);
+		float sin = (float) Math.sin(radians);
+
+		// the columns of translate * rotate * scale
+		float xx = cos * scaleX;
+		float xy = sin * scaleX;
+		float yx = -sin * scaleY;
+		float yy = cos * scaleY;
+
+		int offset = _quadCount * FLOATS_PER_QUAD;
+		for (int corner = 0; corner < VERTICES_PER_QUAD; corner++)
+		{
+			float cornerX = CORNER_X[corner];
+			float cornerY = CORNER_Y[corner];
+			_staging[offset++] = x + xx * cornerX + yx * cornerY;
+			_staging[offset++] = y + xy * cornerX + yy * cornerY;
+			_staging[offset++] = z;
+			// textures are stored top down, so the bottom of the square gets the bottom of the texture area
+			_staging[offset++] = cornerX < 0 ? u0 : u1;
+			_staging[offset++] = cornerY < 0 ? v1 : v0;
+		}
+
+		_quadCount++;
+	}
+
+	/** send everything added so far to the target */
+	public void flush ()
+	{
+		if (_quadCount == 0)
+		{
+			return;
+		}
+
+		_vertices.clear();
+		_vertices.put(_staging, 0, _quadCount * FLOATS_PER_QUAD);
+		_vertices.flip();
+		_target.drawQuads(_vertices, _quadCount, _textureHandle);
+
+		_flushCount++;
+		_totalQuads += _quadCount;
+		_quadCount = 0;
+	}
+
+	/** quads added since the last flush */
+	public int getPendingQuads ()
+	{
+		return _quadCount;
+	}
+
+	public int getMaxQuads ()
+	{
+		return _maxQuads;
+	}
+
+	//region stats
+	/** draw calls handed to the target since the last reset */
+	public int getFlushCount ()
+	{
+		return _flushCount;
+	}
+
+	/** quads handed to the target since the last reset */
+	public int getTotalQuads ()
+	{
+		return _totalQuads;
+	}
+
+	public void resetStats ()
+	{
+		_flushCount = 0;
+		_totalQuads = 0;
+	}
+	//endregion
+
+	/** two triangles per quad, the same for every batch so build it once */
+	public static ShortBuffer buildIndices (int maxQuads)
+	{
+		ShortBuffer indices = ByteBuffer.allocateDirect(maxQuads * INDICES_PER_QUAD * 2)
+			.order(ByteOrder.nativeOrder()).asShortBuffer();
+		for (int quad = 0; quad < maxQuads; quad++)
+		{
+			short first = (short) (quad * VERTICES_PER_QUAD);
+			indices.put(first);
+			indices.put((short) (first + 1));
+			indices.put((short) (first + 2));
+			indices.put(first);
+			indices.put((short) (first + 2));
+			indices.put((short) (first + 3));
+		}
+		indices.position(0);
+		return indices;
+	}
+}
@@ -0,0 +1,196 @@
+package dental.beam.openglsamplegame.sprites;
+
+import java.util.Arrays;
+
+/**
+ * Packs rectangles into a fixed size page, used to lay out texture atlases
+ *
+ * The packer keeps the skyline: the top edge of everything packed so far, as a row of flat segments from
+ * left to right. A new rectangle goes wherever it can sit on the skyline lowest, leftmost on a tie, and
+ * raises the skyline underneath it. Packing tallest first wastes the least space.
+ */
+public class SkylinePacker
+{
+	private final int _width;
+	private final int _height;
+
+	// the skyline segments from left to right, each one starts where the last one ends
+	private int _segmentX[] = new int[16];
+	private int _segmentY[] = new int[16];
+	private int _segmentWidth[] = new int[16];
+	private int _segmentCount;
+
+	private long _packedArea;
+	private int _usedHeight;
+
+	public SkylinePacker (int width, int height)
+	{
+		_width = width;
+		_height = height;
+		clear();
+	}
+
+	public void clear ()
+	{
+		_segmentX[0] = 0;
+		_segmentY[0] = 0;
+		_segmentWidth[0] = _width;
+		_segmentCount = 1;
+		_packedArea = 0;
+		_usedHeight = 0;
+	}
+
+	/**
+	 * Find a spot for a rectangle and mark it as used
+	 *
+	 * @param out receives the x and y of the rectangle's top left corner
+	 * @return false if there is no room left for it
+	 */
+	public boolean pack (int width, int height, int out[])
+	{
+		if (width <= 0 || height <= 0 || width > _width || height > _height)
+		{
+			return false;
+		}
+
+		int bestSegment = -1;
+		int bestX = 0;
+		int bestY = Integer.MAX_VALUE;
+		for (int i = 0; i < _segmentCount; i++)
+		{
+			int x = _segmentX[i];
+			if (x + width > _width)
+			{
+				break;
+			}
+
+			int y = fitHeight(i, width);
+			if (y + height <= _height && y < bestY)
+			{
+				bestSegment = i;
+				bestX = x;
+				bestY = y;
+			}
+		}
+
+		if (bestSegment == -1)
+		{
+			return false;
+		}
+
+		raise(bestSegment, bestX, bestY + height, width);
+
+		_packedArea += (long) width * height;
+		_usedHeight = Math.max(_usedHeight, bestY + height);
+		out[0] = bestX;
+		out[1] = bestY;
+		return true;
+	}
+
+	/** how high a rectangle starting at a segment has to sit to clear every segment under it */
+	private int fitHeight (int segment, int width)
+	{
+		int y = 0;
+		int right = _segmentX[segment] + width;
+		for (int i = segment; i < _segmentCount && _segmentX[i] < right; i++)
+		{
+			y = Math.max(y, _segmentY[i]);
+		}
+		return y;
+	}
+
+	/** put a new segment at the given segment's start and cut back the ones it now covers */
+	private void raise (int segment, int x, int y, int width)
+	{
+		int right = x + width;
+
+		// find the first segment that reaches past the new one
+		int end = segment;
+		while (end < _segmentCount && _segmentX[end] + _segmentWidth[end] <= right)
+		{
+			end++;
+		}
+
+		// the new segment replaces segment .. end-1 and trims the front off end
+		int removed = end - segment;
+		int shift = 1 - removed;
+		ensureCapacity(_segmentCount + shift);
+		if (shift != 0)
+		{
+			System.arraycopy(_segmentX, end, _segmentX, end + shift, _segmentCount - end);
+			System.arraycopy(_segmentY, end, _segmentY, end + shift, _segmentCount - end);
+			System.arraycopy(_segmentWidth, end, _segmentWidth, end + shift, _segmentCount - end);
+			_segmentCount += shift;
+		}
+
+		_segmentX[segment] = x;
+		_segmentY[segment] = y;
+		_segmentWidth[segment] = width;
+
+		int next = segment + 1;
+		if (next < _segmentCount && _segmentX[next] < right)
+		{
+			_segmentWidth[next] -= right - _segmentX[next];
+			_segmentX[next] = right;
+		}
+
+		mergeLevel(segment);
+	}
+
+	/** join neighbours at the same height with the given segment, the fewer segments the faster the search */
+	private void mergeLevel (int segment)
+	{
+		if (segment + 1 < _segmentCount && _segmentY[segment + 1] == _segmentY[segment])
+		{
+			_segmentWidth[segment] += _segmentWidth[segment + 1];
+			removeSegment(segment + 1);
+		}
+		if (segment > 0 && _segmentY[segment - 1] == _segmentY[segment])
+		{
+			_segmentWidth[segment - 1] += _segmentWidth[segment];
+			removeSegment(segment);
+		}
+	}
+
+	private void removeSegment (int segment)
+	{
+		int after = _segmentCount - segment - 1;
+		System.arraycopy(_segmentX, segment + 1, _segmentX, segment, after);
+		System.arraycopy(_segmentY, segment + 1, _segmentY, segment, after);
+		System.arraycopy(_segmentWidth, segment + 1, _segmentWidth, segment, after);
+		_segmentCount--;
+	}
+
+	private void ensureCapacity (int count)
+	{
+		if (count > _segmentX.length)
+		{
+			int capacity = Math.max(count, _segmentX.length * 2);
+			_segmentX = Arrays.copyOf(_segmentX, capacity);
+			_segmentY = Arrays.copyOf(_segmentY, capacity);
+			_segmentWidth = Arrays.copyOf(_segmentWidth, capacity);
+		}
+	}
+
+	public int getWidth ()
+	{
+		return _width;
+	}
+
+	public int getHeight ()
+	{
+		return _height;
+	}
+
+	/** lowest point of the page everything packed so far fits above */
+	public int getUsedHeight ()
+	{
+		return _usedHeight;
+	}
+
+	/** packed area over the area of the page down to {@link #getUsedHeight()}, 1 means no wasted space */
+	public float getOccupancy ()
+	{
+		return _usedHeight == 0 ? 0 : (float) _packedArea / ((long) _width * _usedHeight);
+	}
+}
@@ -1,98 +1,373 @@
 package dental.beam.openglsamplegame.sprites;
 
-import android.content.Context;
-
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
-import timber.log.Timber;
-
+/**
+ * Fixed set of reusable sprites so nothing is allocated while the game is running
+ *
+ * Free sprites are kept on a stack of pool indexes and the sprites in use are packed at the front of
+ * a live list, so spawn and kill are both O(1). Killing swaps the last live sprite into the hole,
+ * which means a loop over the live sprites that kills the current one needs to look at the same
+ * index again:
+ *
+ * <pre>
+ * for (int i = 0; i &lt; pool.getLiveCount(); i++)
+ * {
+ *     if (!pool.getLive(i).update())
+ *     {
+ *         pool.kill(pool.getLive(i--));
+ *     }
+ * }</pre>
+ *
+ * A sprite's pool index is also its slot in the pool's {@link SpriteStore}.
+ *
+ * A pool that runs out grows right there inside spawn, use {@link #prewarm} to have it grow ahead of time instead.
+ */
 public class SpritePool<T extends PoolableSprite>
 {
-	private Class<T> _clazz;
+	public interface Factory<T>
+	{
+		/** build a new sprite, may be called from a background thread when prewarming */
+		T create ();
+	}
+
+	/** what to do when every sprite is in use and another one is spawned */
+	public enum Growth
+	{
+		/** never grow, spawn returns null */
+		FIXED,
+		/** double the size of the pool */
+		DOUBLING,
+		/** double the size of the pool up to its max size, then spawn returns null */
+		CAPPED
+	}
+
+	private Factory<T> _factory;
 	private List<T> _pool;
-	private Context _context;
-	private int _lastSpawnedIndex = 0;
-	private int _maxSprites = 0;
+	private SpriteStore _store;
+	private Growth _growth;
+	private int _maxSprites;
+
+	/** indexes of the sprites that aren't in use, used as a stack */
+	private int _free[];
+	private int _freeCount;
+
+	/** sprites in use, _livePositions maps a pool index to its position in here */
+	private ArrayList<T> _live;
+	private int _livePositions[];
+	/** the slots of the sprites in _live, in the same order */
+	private int _liveSlots[];
+	/** marks for {@link #retain}, by pool index, all false between calls */
+	private boolean _retained[];
+
+	/** only touched on the thread that owns the pool */
+	private boolean _prewarming;
+
+	//region stats
+	private int _spawnCount;
+	private int _killCount;
+	private int _expansionCount;
+	private int _prewarmCount;
+	private int _highWaterMark;
+	//endregion
 
-	public SpritePool (Context context, int maxSprites, Class<T> clazz)
+	public SpritePool (int initialSprites, Factory<T> factory)
 	{
-		_context = context;
-		_clazz = clazz;
+		this(initialSprites, factory, Growth.DOUBLING, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxSprites only used by {@link Growth#CAPPED}
+	 */
+	public SpritePool (int initialSprites, Factory<T> factory, Growth growth, int maxSprites)
+	{
+		_factory = factory;
+		_growth = growth;
 		_maxSprites = maxSprites;
-		_pool = new ArrayList<T>(maxSprites);
+		_pool = new ArrayList<T>(initialSprites);
+		_live = new ArrayList<T>(initialSprites);
+		_store = new SpriteStore(initialSprites);
+		_free = new int[initialSprites];
+		_livePositions = new int[initialSprites];
+		_liveSlots = new int[initialSprites];
+		_retained = new boolean[initialSprites];
 
-		for (int i = 0; i < maxSprites; i++)
+		List<T> sprites = new ArrayList<T>(initialSprites);
+		for (int i = 0; i < initialSprites; i++)
 		{
-			_pool.add(createSprite(context));
+			sprites.add(_factory.create());
 		}
+		addSprites(sprites);
 	}
 
-	private T createSprite (Context context)
+	private void addSprites (List<T> sprites)
 	{
-		try
+		int size = _pool.size();
+		int newSize = size + sprites.size();
+		if (_free.length < newSize)
 		{
-			T t = _clazz.cast(_clazz.newInstance());
-			t.setContext(context);
-			return t;
+			_free = Arrays.copyOf(_free, newSize);
+			_livePositions = Arrays.copyOf(_livePositions, newSize);
+			_liveSlots = Arrays.copyOf(_liveSlots, newSize);
+			_retained = Arrays.copyOf(_retained, newSize);
 		}
-		catch (InstantiationException e)
+
+		for (int i = 0; i < sprites.size(); i++)
 		{
-			Timber.e("instantiation", e);
+			T sprite = sprites.get(i);
+			sprite.setSlot(_store, _store.allocate());
+			_pool.add(sprite);
 		}
-		catch (IllegalAccessException e)
+
+		// push in reverse so the lowest indexes get spawned first
+		for (int i = newSize - 1; i >= size; i--)
 		{
-			Timber.e("illegal", e);
+			_free[_freeCount++] = i;
 		}
-		return null;
 	}
 
-	public T spawn ()
+	private boolean expand ()
 	{
-		for (int i = _lastSpawnedIndex + 1; i < _maxSprites; i++)
+		int size = _pool.size();
+		int newSize = Math.max(1, size * 2);
+		switch (_growth)
 		{
-			T sprite = _pool.get(i);
-			if (!sprite.isInUse())
-			{
-				sprite.setInUse(true);
-				_lastSpawnedIndex = i;
-				return sprite;
-			}
+			case FIXED:
+				return false;
+			case CAPPED:
+				newSize = Math.min(newSize, _maxSprites);
+				if (newSize <= size)
+				{
+					return false;
+				}
+				break;
+			default:
+				break;
+		}
+
+		List<T> sprites = new ArrayList<T>(newSize - size);
+		for (int i = size; i < newSize; i++)
+		{
+			sprites.add(_factory.create());
+		}
+		addSprites(sprites);
+		_expansionCount++;
+		return true;
+	}
+
+	/**
+	 * Grow the pool to the given size without stalling the thread that owns it
+	 *
+	 * The sprites are built on the builder executor, then handed to the owner executor to be added to the pool,
+	 * for the game that is the simulation thread between ticks. If the pool grew by itself in the meantime only
+	 * the sprites still needed to reach the size are added. Does nothing while a previous prewarm is still in
+	 * flight. Must be called from the thread that owns the pool.
+	 */
+	public void prewarm (int size, Executor builder, final Executor owner)
+	{
+		if (_growth == Growth.FIXED || _prewarming)
+		{
+			return;
+		}
+		if (_growth == Growth.CAPPED)
+		{
+			size = Math.min(size, _maxSprites);
 		}
-		for (int i = 0; i < _lastSpawnedIndex; i++)
+
+		final int target = size;
+		final int count = target - _pool.size();
+		if (count <= 0)
+		{
+			return;
+		}
+
+		_prewarming = true;
+		builder.execute(new Runnable()
 		{
-			T sprite = _pool.get(i);
-			if (!sprite.isInUse())
+			@Override
+			public void run ()
 			{
-				sprite.setInUse(true);
-				_lastSpawnedIndex = i;
-				return sprite;
+				final List<T> sprites = new ArrayList<T>(count);
+				for (int i = 0; i < count; i++)
+				{
+					sprites.add(_factory.create());
+				}
+
+				owner.execute(new Runnable()
+				{
+					@Override
+					public void run ()
+					{
+						// spawn may have run out and grown the pool while these were being built
+						int needed = Math.max(0, target - _pool.size());
+						addSprites(needed < sprites.size() ? sprites.subList(0, needed) : sprites);
+						_prewarmCount++;
+						_prewarming = false;
+					}
+				});
 			}
+		});
+	}
+
+	/**
+	 * @return a sprite that is now in use, or null if the pool is full and not allowed to grow
+	 */
+	public T spawn ()
+	{
+		if (_freeCount == 0 && !expand())
+		{
+			return null;
 		}
 
-		//expand pool
-		T t = createSprite(_context);
-		t.setInUse(true);
-		_lastSpawnedIndex = _pool.size();
-		_pool.add(t);
-		return t;
+		int index = _free[--_freeCount];
+		T sprite = _pool.get(index);
+		sprite.setInUse(true);
+		// whatever it was doing in its last life shouldn't get blended into its first frame
+		_store.interpolate[index] = false;
+
+		_livePositions[index] = _live.size();
+		_liveSlots[_live.size()] = index;
+		_live.add(sprite);
+
+		_spawnCount++;
+		if (_live.size() > _highWaterMark)
+		{
+			_highWaterMark = _live.size();
+		}
+		return sprite;
 	}
 
+	/** put a sprite back in the pool, the last live sprite takes its place in the live list */
 	public void kill (PoolableSprite sprite)
 	{
+		if (!sprite.isInUse())
+		{
+			return;
+		}
 		sprite.setInUse(false);
+
+		int index = sprite.getSlot();
+		int position = _livePositions[index];
+		int last = _live.size() - 1;
+		T moved = _live.remove(last);
+		if (position != last)
+		{
+			_live.set(position, moved);
+			_livePositions[moved.getSlot()] = position;
+			_liveSlots[position] = moved.getSlot();
+		}
+
+		_free[_freeCount++] = index;
+		_killCount++;
 	}
 
+	/** every sprite in the pool, in use or not, indexed by pool index */
 	public List<T> getSprites ()
 	{
 		return _pool;
 	}
 
+	/** sprites currently in use, don't modify it directly */
+	public List<T> getLive ()
+	{
+		return _live;
+	}
+
+	public T getLive (int position)
+	{
+		return _live.get(position);
+	}
+
+	/** slots of the sprites in use in the same order as {@link #getLive()}, for the bulk updates in the store */
+	public int[] getLiveSlots ()
+	{
+		return _liveSlots;
+	}
+
+	/**
+	 * Kill every sprite in use except the ones at the given live positions, as if a loop over the live list
+	 * killed them one at a time, so the live list ends up in the same order it would have then
+	 *
+	 * @param positions live positions from before the call, in any order
+	 */
+	public void retain (int positions[], int count)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			_retained[_liveSlots[positions[i]]] = true;
+		}
+
+		// killing swaps the last live sprite into the current spot, so that spot gets looked at again
+		for (int i = 0; i < _live.size(); i++)
+		{
+			int slot = _liveSlots[i];
+			if (_retained[slot])
+			{
+				_retained[slot] = false;
+			}
+			else
+			{
+				kill(_live.get(i));
+				i--;
+			}
+		}
+	}
+
+	public int getLiveCount ()
+	{
+		return _live.size();
+	}
+
+	/** number of sprites in the pool, in use or not */
+	public int size ()
+	{
+		return _pool.size();
+	}
+
+	/** state of every sprite in the pool, indexed by {@link PoolableSprite#getSlot()} */
+	public SpriteStore getStore ()
+	{
+		return _store;
+	}
+
 	public void clear ()
 	{
-		for (int i = 0; i < _pool.size(); i++)
+		for (int i = _live.size() - 1; i >= 0; i--)
 		{
-			_pool.get(i).setInUse(false);
+			kill(_live.get(i));
 		}
 	}
+
+	//region stats
+	public int getSpawnCount ()
+	{
+		return _spawnCount;
+	}
+
+	public int getKillCount ()
+	{
+		return _killCount;
+	}
+
+	/** times spawn ran out of sprites and had to grow the pool itself */
+	public int getExpansionCount ()
+	{
+		return _expansionCount;
+	}
+
+	/** times a {@link #prewarm} finished growing the pool */
+	public int getPrewarmCount ()
+	{
+		return _prewarmCount;
+	}
+
+	/** most sprites that have been in use at the same time */
+	public int getHighWaterMark ()
+	{
+		return _highWaterMark;
+	}
+	//endregion
 }
@@ -0,0 +1,130 @@
+package dental.beam.openglsamplegame.sprites;
+
+import java.util.Arrays;
+
+/**
+ * Copy of what it takes to draw a group of sprites, taken from a SpriteStore at the end of a simulation step
+ *
+ * The simulation keeps changing its store while the gl thread draws, so the gl thread only ever draws from one
+ * of these. Each sprite keeps the state of the previous step as well so drawing can still blend between steps.
+ * Nothing is allocated unless more sprites are added than ever before.
+ */
+public class SpriteSnapshot
+{
+	public float x[];
+	public float y[];
+	public float z[];
+	public float rotation[];
+	public float scaleX[];
+	public float scaleY[];
+
+	public float prevX[];
+	public float prevY[];
+	public float prevRotation[];
+	public float prevScaleX[];
+	public float prevScaleY[];
+
+	private int _count;
+
+	public SpriteSnapshot (int capacity)
+	{
+		capacity = Math.max(capacity, 1);
+		x = new float[capacity];
+		y = new float[capacity];
+		z = new float[capacity];
+		rotation = new float[capacity];
+		scaleX = new float[capacity];
+		scaleY = new float[capacity];
+		prevX = new float[capacity];
+		prevY = new float[capacity];
+		prevRotation = new float[capacity];
+		prevScaleX = new float[capacity];
+		prevScaleY = new float[capacity];
+	}
+
+	public void clear ()
+	{
+		_count = 0;
+	}
+
+	/** copy one sprite out of a store, a sprite with nothing to blend from gets its current state as the previous one */
+	public void add (SpriteStore store, int slot)
+	{
+		if (_count == x.length)
+		{
+			grow(_count * 2);
+		}
+
+		int i = _count++;
+		x[i] = store.posX[slot];
+		y[i] = store.posY[slot];
+		z[i] = store.posZ[slot];
+		rotation[i] = store.rotation[slot];
+		scaleX[i] = store.scaleX[slot];
+		scaleY[i] = store.scaleY[slot];
+
+		if (store.interpolate[slot])
+		{
+			prevX[i] = store.prevX[slot];
+			prevY[i] = store.prevY[slot];
+			prevRotation[i] = store.prevRotation[slot];
+			prevScaleX[i] = store.prevScaleX[slot];
+			prevScaleY[i] = store.prevScaleY[slot];
+		}
+		else
+		{
+			prevX[i] = x[i];
+			prevY[i] = y[i];
+			prevRotation[i] = rotation[i];
+			prevScaleX[i] = scaleX[i];
+			prevScaleY[i] = scaleY[i];
+		}
+	}
+
+	public int size ()
+	{
+		return _count;
+	}
+
+	private void grow (int capacity)
+	{
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		z = Arrays.copyOf(z, capacity);
+		rotation = Arrays.copyOf(rotation, capacity);
+		scaleX = Arrays.copyOf(scaleX, capacity);
+		scaleY = Arrays.copyOf(scaleY, capacity);
+		prevX = Arrays.copyOf(prevX, capacity);
+		prevY = Arrays.copyOf(prevY, capacity);
+		prevRotation = Arrays.copyOf(prevRotation, capacity);
+		prevScaleX = Arrays.copyOf(prevScaleX, capacity);
+		prevScaleY = Arrays.copyOf(prevScaleY, capacity);
+	}
+
+	//region interpolation
+	public float drawX (int i, float alpha)
+	{
+		return prevX[i] + (x[i] - prevX[i]) * alpha;
+	}
+
+	public float drawY (int i, float alpha)
+	{
+		return prevY[i] + (y[i] - prevY[i]) * alpha;
+	}
+
+	public float drawRotation (int i, float alpha)
+	{
+		return prevRotation[i] + (rotation[i] - prevRotation[i]) * alpha;
+	}
+
+	public float drawScaleX (int i, float alpha)
+	{
+		return prevScaleX[i] + (scaleX[i] - prevScaleX[i]) * alpha;
+	}
+
+	public float drawScaleY (int i, float alpha)
+	{
+		return prevScaleY[i] + (scaleY[i] - prevScaleY[i]) * alpha;
+	}
+	//endregion
+}
@@ -0,0 +1,258 @@
+package dental.beam.openglsamplegame.sprites;
+
+import java.util.Arrays;
+
+/**
+ * Packed sprite state, one primitive array per attribute indexed by sprite slot
+ *
+ * Sprites are thin views onto a slot, so a pass over lots of sprites walks a handful of flat arrays
+ * instead of chasing several float[] per sprite around the heap. A SpritePool keeps all of its sprites
+ * in one store so the bulk methods at the bottom can run over a whole population in one loop.
+ */
+public class SpriteStore
+{
+	public float posX[];
+	public float posY[];
+	public float posZ[];
+
+	public float vectorX[];
+	public float vectorY[];
+
+	public float scaleX[];
+	public float scaleY[];
+
+	public float rotation[];
+	public float rotationDelta[];
+
+	/**
+	 * the center of a sprite can be adjusted for collision detection
+	 * values should be between -1 and 1
+	 */
+	public float centerX[];
+	public float centerY[];
+	/**
+	 * the radius of a sprite can be adjusted for collision detection
+	 * values should be between 0 and 1
+	 */
+	public float radius[];
+
+	public boolean alive[];
+	/** a moving sprite that goes below this is dead, -ratio of the world it was spawned in */
+	public float bottom[];
+
+	//region interpolation
+	// position, rotation and scale as of the previous simulation step, drawing blends between these and the current ones
+	public float prevX[];
+	public float prevY[];
+	public float prevRotation[];
+	public float prevScaleX[];
+	public float prevScaleY[];
+
+	/** false for sprites that appeared since the last step, they have nothing to blend from */
+	public boolean interpolate[];
+	//endregion
+
+	private int _size;
+
+	public SpriteStore (int capacity)
+	{
+		capacity = Math.max(capacity, 1);
+		posX = new float[capacity];
+		posY = new float[capacity];
+		posZ = new float[capacity];
+		vectorX = new float[capacity];
+		vectorY = new float[capacity];
+		scaleX = new float[capacity];
+		scaleY = new float[capacity];
+		rotation = new float[capacity];
+		rotationDelta = new float[capacity];
+		centerX = new float[capacity];
+		centerY = new float[capacity];
+		radius = new float[capacity];
+		alive = new boolean[capacity];
+		bottom = new float[capacity];
+		prevX = new float[capacity];
+		prevY = new float[capacity];
+		prevRotation = new float[capacity];
+		prevScaleX = new float[capacity];
+		prevScaleY = new float[capacity];
+		interpolate = new boolean[capacity];
+	}
+
+	/** claim the next unused slot, growing the arrays if they are full */
+	public int allocate ()
+	{
+		if (_size == posX.length)
+		{
+			grow(_size * 2);
+		}
+
+		int slot = _size++;
+		reset(slot);
+		return slot;
+	}
+
+	/** put a slot back to the state of a freshly constructed sprite */
+	public void reset (int slot)
+	{
+		posX[slot] = posY[slot] = posZ[slot] = 0;
+		vectorX[slot] = vectorY[slot] = 0;
+		scaleX[slot] = scaleY[slot] = 1;
+		rotation[slot] = rotationDelta[slot] = 0;
+		centerX[slot] = centerY[slot] = 0;
+		radius[slot] = 1;
+		alive[slot] = true;
+		bottom[slot] = 0;
+		interpolate[slot] = false;
+	}
+
+	public void copy (int slot, SpriteStore from, int fromSlot)
+	{
+		posX[slot] = from.posX[fromSlot];
+		posY[slot] = from.posY[fromSlot];
+		posZ[slot] = from.posZ[fromSlot];
+		vectorX[slot] = from.vectorX[fromSlot];
+		vectorY[slot] = from.vectorY[fromSlot];
+		scaleX[slot] = from.scaleX[fromSlot];
+		scaleY[slot] = from.scaleY[fromSlot];
+		rotation[slot] = from.rotation[fromSlot];
+		rotationDelta[slot] = from.rotationDelta[fromSlot];
+		centerX[slot] = from.centerX[fromSlot];
+		centerY[slot] = from.centerY[fromSlot];
+		radius[slot] = from.radius[fromSlot];
+		alive[slot] = from.alive[fromSlot];
+		bottom[slot] = from.bottom[fromSlot];
+		prevX[slot] = from.prevX[fromSlot];
+		prevY[slot] = from.prevY[fromSlot];
+		prevRotation[slot] = from.prevRotation[fromSlot];
+		prevScaleX[slot] = from.prevScaleX[fromSlot];
+		prevScaleY[slot] = from.prevScaleY[fromSlot];
+		interpolate[slot] = from.interpolate[fromSlot];
+	}
+
+	/** number of slots handed out */
+	public int size ()
+	{
+		return _size;
+	}
+
+	public int capacity ()
+	{
+		return posX.length;
+	}
+
+	private void grow (int capacity)
+	{
+		posX = Arrays.copyOf(posX, capacity);
+		posY = Arrays.copyOf(posY, capacity);
+		posZ = Arrays.copyOf(posZ, capacity);
+		vectorX = Arrays.copyOf(vectorX, capacity);
+		vectorY = Arrays.copyOf(vectorY, capacity);
+		scaleX = Arrays.copyOf(scaleX, capacity);
+		scaleY = Arrays.copyOf(scaleY, capacity);
+		rotation = Arrays.copyOf(rotation, capacity);
+		rotationDelta = Arrays.copyOf(rotationDelta, capacity);
+		centerX = Arrays.copyOf(centerX, capacity);
+		centerY = Arrays.copyOf(centerY, capacity);
+		radius = Arrays.copyOf(radius, capacity);
+		alive = Arrays.copyOf(alive, capacity);
+		bottom = Arrays.copyOf(bottom, capacity);
+		prevX = Arrays.copyOf(prevX, capacity);
+		prevY = Arrays.copyOf(prevY, capacity);
+		prevRotation = Arrays.copyOf(prevRotation, capacity);
+		prevScaleX = Arrays.copyOf(prevScaleX, capacity);
+		prevScaleY = Arrays.copyOf(prevScaleY, capacity);
+		interpolate = Arrays.copyOf(interpolate, capacity);
+	}
+
+	//region interpolation
+	/** remember the current state of every slot as the previous step, call before each simulation step */
+	public void savePrevious ()
+	{
+		System.arraycopy(posX, 0, prevX, 0, _size);
+		System.arraycopy(posY, 0, prevY, 0, _size);
+		System.arraycopy(rotation, 0, prevRotation, 0, _size);
+		System.arraycopy(scaleX, 0, prevScaleX, 0, _size);
+		System.arraycopy(scaleY, 0, prevScaleY, 0, _size);
+		Arrays.fill(interpolate, 0, _size, true);
+	}
+
+	public float drawX (int slot, float alpha)
+	{
+		return interpolate[slot] ? prevX[slot] + (posX[slot] - prevX[slot]) * alpha : posX[slot];
+	}
+
+	public float drawY (int slot, float alpha)
+	{
+		return interpolate[slot] ? prevY[slot] + (posY[slot] - prevY[slot]) * alpha : posY[slot];
+	}
+
+	public float drawRotation (int slot, float alpha)
+	{
+		return interpolate[slot] ? prevRotation[slot] + (rotation[slot] - prevRotation[slot]) * alpha : rotation[slot];
+	}
+
+	public float drawScaleX (int slot, float alpha)
+	{
+		return interpolate[slot] ? prevScaleX[slot] + (scaleX[slot] - prevScaleX[slot]) * alpha : scaleX[slot];
+	}
+
+	public float drawScaleY (int slot, float alpha)
+	{
+		return interpolate[slot] ? prevScaleY[slot] + (scaleY[slot] - prevScaleY[slot]) * alpha : scaleY[slot];
+	}
+	//endregion
+
+	//region bulk updates
+	/**
+	 * Everything AsteroidSprite and BrokenAsteroidSprite update do, for a run of sprites in one pass
+	 *
+	 * Each sprite shrinks, spins and moves, and is marked dead once it's below its bottom. A sprite that was
+	 * already dead or has shrunk to nothing is done, the rest are still going, the same as update returning
+	 * false or true. Sprites that are done still get moved, they're on their way back to the pool anyway.
+	 * The loop has no calls and no branches on the sprite's state, so it's about the arrays and not the
+	 * sprites, and the sprites still going get written out without a branch too.
+	 *
+	 * @param slots     the sprites' slots, integrates from start up to but not including end
+	 * @param shrink    taken off both scales, 0 for asteroids which keep their size
+	 * @param survivors gets the positions in slots of the sprites still going, in order, from survivors[start]
+	 *                  on so chunks of the same pass can share it. Needs room up to end
+	 * @return how many are still going
+	 */
+	public int integrate (int slots[], int start, int end, float shrink, int survivors[])
+	{
+		// locals so the loop doesn't reload the fields after every store
+		float posX[] = this.posX;
+		float posY[] = this.posY;
+		float vectorX[] = this.vectorX;
+		float vectorY[] = this.vectorY;
+		float scaleX[] = this.scaleX;
+		float scaleY[] = this.scaleY;
+		float rotation[] = this.rotation;
+		float rotationDelta[] = this.rotationDelta;
+		boolean alive[] = this.alive;
+		float bottom[] = this.bottom;
+
+		int count = 0;
+		for (int i = start; i < end; i++)
+		{
+			int slot = slots[i];
+			float x = scaleX[slot] - shrink;
+			float y = scaleY[slot] - shrink;
+			scaleX[slot] = x;
+			scaleY[slot] = y;
+			rotation[slot] += rotationDelta[slot];
+			posX[slot] += vectorX[slot];
+			float newY = posY[slot] + vectorY[slot];
+			posY[slot] = newY;
+
+			boolean wasAlive = alive[slot];
+			alive[slot] = wasAlive & !(newY < bottom[slot]);
+
+			survivors[start + count] = i;
+			count += wasAlive & x > 0 & y > 0 ? 1 : 0;
+		}
+		return count;
+	}
+	//endregion
+}
@@ -0,0 +1,240 @@
+package dental.beam.openglsamplegame.sprites;
+
+/**
+ * The characters of a line of text with each one's x offset and the total width, kept until the text changes
+ *
+ * Setting the same text again costs a compare per character, and when it does change only the characters
+ * that differ are measured again. Integers are formatted straight into a reusable buffer, so a counter on
+ * the HUD never makes a String. Nothing allocates unless the text grows past what it has held before or
+ * has a character outside ascii in it.
+ */
+public class TextLayout
+{
+	/** how wide a character is drawn, in the font's units */
+	public interface Metrics
+	{
+		float getCharWidth (char c);
+	}
+
+	/** one String per ascii character so drawing a glyph doesn't have to make one */
+	private static final String ASCII_GLYPHS[] = new String[128];
+
+	static
+	{
+		for (char c = 0; c < ASCII_GLYPHS.length; c++)
+		{
+			ASCII_GLYPHS[c] = String.valueOf(c);
+		}
+	}
+
+	/** enough for "-2147483648" */
+	private static final int MAX_INT_CHARS = 11;
+
+	private final Metrics _metrics;
+
+	private char _chars[];
+	private String _glyphs[];
+	private float _advances[];
+	private float _offsets[];
+	private int _length;
+	private float _width;
+
+	private final char _digits[] = new char[MAX_INT_CHARS];
+
+	//region debug
+	private int _measureCount;
+	//endregion
+
+	public TextLayout (int capacity, Metrics metrics)
+	{
+		_metrics = metrics;
+		allocate(Math.max(capacity, 1));
+	}
+
+	//region setting text
+	/**
+	 * @return whether the text changed
+	 */
+	public boolean setText (CharSequence text)
+	{
+		int length = text.length();
+		ensureCapacity(length);
+
+		int firstChanged = Math.min(length, _length);
+		for (int i = 0; i < length; i++)
+		{
+			if (setChar(i, text.charAt(i)) && i < firstChanged)
+			{
+				firstChanged = i;
+			}
+		}
+		return layout(firstChanged, length);
+	}
+
+	/**
+	 * Same as setText(Integer.toString(value)) without making the String
+	 * @return whether the text changed
+	 */
+	public boolean setInt (int value)
+	{
+		// long so the minimum int can be negated
+		long remaining = value;
+		boolean negative = remaining < 0;
+		if (negative)
+		{
+			remaining = -remaining;
+		}
+
+		int start = MAX_INT_CHARS;
+		do
+		{
+			_digits[--start] = (char) ('0' + remaining % 10);
+			remaining /= 10;
+		}
+		while (remaining > 0);
+		if (negative)
+		{
+			_digits[--start] = '-';
+		}
+
+		return setChars(_digits, start, MAX_INT_CHARS - start);
+	}
+
+	/**
+	 * @return whether the text changed
+	 */
+	public boolean setChars (char chars[], int offset, int length)
+	{
+		ensureCapacity(length);
+
+		int firstChanged = Math.min(length, _length);
+		for (int i = 0; i < length; i++)
+		{
+			if (setChar(i, chars[offset + i]) && i < firstChanged)
+			{
+				firstChanged = i;
+			}
+		}
+		return layout(firstChanged, length);
+	}
+
+	/** measure every character again, when the font has changed */
+	public void remeasure ()
+	{
+		for (int i = 0; i < _length; i++)
+		{
+			measure(i);
+		}
+		layout(0, _length);
+	}
+	//endregion
+
+	//region layout
+	public int getLength ()
+	{
+		return _length;
+	}
+
+	public char charAt (int index)
+	{
+		return _chars[index];
+	}
+
+	/** the character at index as a String, for text renderers that only draw Strings */
+	public String getGlyph (int index)
+	{
+		return _glyphs[index];
+	}
+
+	/** x of the character at index from the start of the text */
+	public float getOffset (int index)
+	{
+		return _offsets[index];
+	}
+
+	public float getWidth ()
+	{
+		return _width;
+	}
+
+	/** how many characters have been measured since this was made, to check that unchanged ones aren't */
+	int getMeasureCount ()
+	{
+		return _measureCount;
+	}
+
+	@Override
+	public String toString ()
+	{
+		return new String(_chars, 0, _length);
+	}
+	//endregion
+
+	/**
+	 * @return whether the character was different
+	 */
+	private boolean setChar (int index, char c)
+	{
+		if (index < _length && _chars[index] == c)
+		{
+			return false;
+		}
+
+		_chars[index] = c;
+		_glyphs[index] = c < ASCII_GLYPHS.length ? ASCII_GLYPHS[c] : String.valueOf(c);
+		measure(index);
+		return true;
+	}
+
+	private void measure (int index)
+	{
+		_advances[index] = _metrics.getCharWidth(_chars[index]);
+		_measureCount++;
+	}
+
+	/** work out the offsets from firstChanged on, the ones before it haven't moved */
+	private boolean layout (int firstChanged, int length)
+	{
+		boolean changed = firstChanged < length || length != _length;
+		_length = length;
+		if (!changed)
+		{
+			return false;
+		}
+
+		float x = firstChanged == 0 ? 0 : _offsets[firstChanged - 1] + _advances[firstChanged - 1];
+		for (int i = firstChanged; i < length; i++)
+		{
+			_offsets[i] = x;
+			x += _advances[i];
+		}
+		_width = x;
+		return true;
+	}
+
+	private void ensureCapacity (int length)
+	{
+		if (length <= _chars.length)
+		{
+			return;
+		}
+
+		char chars[] = _chars;
+		String glyphs[] = _glyphs;
+		float advances[] = _advances;
+		float offsets[] = _offsets;
+		allocate(Math.max(length, _chars.length * 2));
+		System.arraycopy(chars, 0, _chars, 0, _length);
+		System.arraycopy(glyphs, 0, _glyphs, 0, _length);
+		System.arraycopy(advances, 0, _advances, 0, _length);
+		System.arraycopy(offsets, 0, _offsets, 0, _length);
+	}
+
+	private void allocate (int capacity)
+	{
+		_chars = new char[capacity];
+		_glyphs = new String[capacity];
+		_advances = new float[capacity];
+		_offsets = new float[capacity];
+	}
+}
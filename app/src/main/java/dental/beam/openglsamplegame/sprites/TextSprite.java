@@ -4,27 +4,38 @@ import android.graphics.Color;
 import android.opengl.Matrix;
 
 import dental.beam.gltext.GLText;
+import dental.beam.openglsamplegame.render.RenderQueue;
 
-public class TextSprite extends TextureSprite
+public class TextSprite extends TextureSprite implements RenderQueue.Item
 {
 	public static final int TEXT_ALIGN_LEFT = 1;
 	public static final int TEXT_ALIGN_CENTER = 2;
 	public static final int TEXT_ALIGN_RIGHT = 3;
 	public static final int TEXT_NO_ALIGN = 4;
 
-	private String _text;
+	private static final String FONT_ASSET = "OpenSans-Light.ttf";
+	private static final int FONT_PADDING = 2;
+
+	private final TextLayout _layout = new TextLayout(16, new TextLayout.Metrics()
+	{
+		@Override
+		public float getCharWidth (char c)
+		{
+			return _font == null ? 0 : _font.getCharWidth(c);
+		}
+	});
 	private int _textAlign;
-	private int _textSize;
-	private GLText _glText;
+	private FontCache<GLText> _fontCache;
+	private FontCache.Font<GLText> _font;
 	private float _width;
 	private float _margin;
 	private float _color[];
 
 	public void setText (String text, int textAlign, float yOffset, int color)
 	{
-		_text = text;
+		_layout.setText(text);
 		setTextAlign(textAlign);
-		_currentPos[1] += yOffset;
+		_store.posY[_slot] += yOffset;
 		_color = new float[4];
 		_color[0] = Color.red(color) / 255f;
 		_color[1] = Color.green(color) / 255f;
@@ -32,26 +43,36 @@ public class TextSprite extends TextureSprite
 		_color[3] = Color.alpha(color) / 255f;
 	}
 
-	public void setText(String text)
+	public void setText (String text)
+	{
+		_layout.setText(text);
+	}
+
+	/** show a number, without making a String for it */
+	public void setInt (int value)
 	{
-		_text = text;
+		_layout.setInt(value);
 	}
 
 	public void init (float ratio, float width, int textSize)
 	{
 		_width = width;
 		_margin = width / 30f;
-		_currentPos[0] = 0;
-		_currentPos[1] = ratio;
-		_currentPos[2] = 0.1f;
+		_store.posX[_slot] = 0;
+		_store.posY[_slot] = ratio;
+		_store.posZ[_slot] = 0.1f;
 
-		_alive = false;
+		_store.alive[_slot] = false;
 
-		_textSize = textSize;
-		if (_glText == null)
+		if (_font == null || _font.getSize() != textSize)
 		{
-			_glText = new GLText(_context.getAssets());
-			_glText.load("OpenSans-Light.ttf", textSize, 2, 2);
+			FontCache.Font<GLText> font = _fontCache.acquire(FONT_ASSET, textSize, FONT_PADDING, FONT_PADDING);
+			if (_font != null)
+			{
+				_fontCache.release(_font);
+			}
+			_font = font;
+			_layout.remeasure();
 		}
 	}
 
@@ -68,7 +89,7 @@ public class TextSprite extends TextureSprite
 	{
 		System.arraycopy(mvpMatrix, 0, textMatrix, 0, 16);
 
-		Matrix.translateM(textMatrix, 0, _currentPos[0], _currentPos[1], _currentPos[2]);
+		Matrix.translateM(textMatrix, 0, _store.posX[_slot], _store.posY[_slot], _store.posZ[_slot]);
 		//TODO see if can use gltext.setscale instead of this
 		Matrix.scaleM(textMatrix, 0, 1 / _width * 2, 1 / _width * 2, 1); // the text code we're using assumes a view scaled by phone width/height, so scale it down
 
@@ -83,26 +104,27 @@ public class TextSprite extends TextureSprite
 		}
 		else if (_textAlign == TEXT_ALIGN_RIGHT)
 		{
-			x = _width / 2 - _glText.getLength(_text) - _margin;
+			x = _width / 2 - _layout.getWidth() - _margin;
 		}
 		else if (_textAlign == TEXT_ALIGN_CENTER)
 		{
-			x = -_glText.getLength(_text) / 2;
+			x = -_layout.getWidth() / 2;
 		}
 
-		_glText.begin(_color[0], _color[1], _color[2], 1.0f, textMatrix);
-		_glText.draw(_text, x, 0, 0, 0);
-		_glText.end();
+		// a glyph at a time from the layout, the same places GLText would put them for the whole string
+		GLText glText = _font.get();
+		glText.begin(_color[0], _color[1], _color[2], 1.0f, textMatrix);
+		for (int i = 0; i < _layout.getLength(); i++)
+		{
+			glText.draw(_layout.getGlyph(i), x + _layout.getOffset(i), 0, 0, 0);
+		}
+		glText.end();
 	}
 
-	@Override
-	public void reloadTexture ()
+	/** where {@link #init(float, float, int)} gets its font, the cache reloads it for a new gl context */
+	public void setFontCache (FontCache<GLText> fontCache)
 	{
-		if (_textSize > 0)
-		{
-			_glText = new GLText(_context.getAssets());
-			_glText.load("OpenSans-Light.ttf", _textSize, 2, 2);
-		}
+		_fontCache = fontCache;
 	}
 
 	public void setTextAlign (int textAlign)
@@ -110,7 +132,7 @@ public class TextSprite extends TextureSprite
 		_textAlign = textAlign;
 		if (_textAlign != TEXT_NO_ALIGN)
 		{
-			_currentPos[0] = 0;
+			_store.posX[_slot] = 0;
 		}
 	}
 }
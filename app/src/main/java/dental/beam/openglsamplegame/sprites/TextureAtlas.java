@@ -0,0 +1,146 @@
+package dental.beam.openglsamplegame.sprites;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lays out a set of images on as few texture pages as possible so sprites using different images
+ * can still be drawn with one texture bound
+ *
+ * This only works out where everything goes, {@link TextureLoader#loadGLAtlas} draws the images
+ * onto the pages and uploads them.
+ */
+public class TextureAtlas
+{
+	/** empty pixels between images, enough that the first few mip levels don't bleed one into the next */
+	public static final int DEFAULT_PADDING = 8;
+
+	private final int _pageSize;
+	private final int _padding;
+
+	private List<SkylinePacker> _pages = new ArrayList<>();
+	private Map<Integer, AtlasRegion> _regions = new HashMap<>();
+	private int _pageCount;
+
+	private int _position[] = new int[2];
+
+	/**
+	 * @param pageSize width and height of every page
+	 * @param padding empty pixels kept between images so filtering doesn't bleed one into the next
+	 */
+	public TextureAtlas (int pageSize, int padding)
+	{
+		_pageSize = pageSize;
+		_padding = padding;
+	}
+
+	/**
+	 * Lay out a set of images tallest first, which packs tightest
+	 *
+	 * @param keys what each region can be looked up by, widths and heights are in the same order
+	 */
+	public static TextureAtlas pack (int pageSize, int padding, int keys[], final int widths[], final int heights[])
+	{
+		int count = keys.length;
+		Integer order[] = new Integer[count];
+		for (int i = 0; i < count; i++)
+		{
+			order[i] = i;
+		}
+		// stable, so images of the same height keep the order they came in and the layout is repeatable
+		Arrays.sort(order, new Comparator<Integer>()
+		{
+			@Override
+			public int compare (Integer a, Integer b)
+			{
+				return heights[b] - heights[a];
+			}
+		});
+
+		TextureAtlas atlas = new TextureAtlas(pageSize, padding);
+		for (int i : order)
+		{
+			atlas.add(keys[i], widths[i], heights[i]);
+		}
+		return atlas;
+	}
+
+	/**
+	 * Find room for an image, images go in best when they are added tallest first
+	 *
+	 * @param key what the region can be looked up by afterwards, e.g. the drawable resource id
+	 */
+	public AtlasRegion add (int key, int width, int height)
+	{
+		int paddedWidth = width + _padding;
+		int paddedHeight = height + _padding;
+		if (paddedWidth > _pageSize || paddedHeight > _pageSize)
+		{
+			throw new IllegalArgumentException(width + "x" + height + " doesn't fit on a " + _pageSize + " page");
+		}
+
+		// earlier pages may still have a gap that fits
+		int page = 0;
+		while (page < _pages.size() && !_pages.get(page).pack(paddedWidth, paddedHeight, _position))
+		{
+			page++;
+		}
+		if (page == _pages.size())
+		{
+			SkylinePacker packer = new SkylinePacker(_pageSize, _pageSize);
+			packer.pack(paddedWidth, paddedHeight, _position);
+			_pages.add(packer);
+		}
+
+		AtlasRegion region = new AtlasRegion(page, _position[0], _position[1], width, height, _pageSize, _pageSize);
+		put(key, region);
+		return region;
+	}
+
+	/**
+	 * Record a region that was laid out somewhere else, like by the atlas tool at build time,
+	 * an atlas should be filled either with this or with {@link #add(int, int, int)} and not both
+	 */
+	public void put (int key, AtlasRegion region)
+	{
+		_regions.put(key, region);
+		_pageCount = Math.max(_pageCount, region.page + 1);
+	}
+
+	public AtlasRegion getRegion (int key)
+	{
+		return _regions.get(key);
+	}
+
+	public int getPageCount ()
+	{
+		return _pageCount;
+	}
+
+	public int getPageSize ()
+	{
+		return _pageSize;
+	}
+
+	/** set once a page has been uploaded, every region on it gets the handle */
+	public void setPageTexture (int page, int textureHandle)
+	{
+		for (AtlasRegion region : _regions.values())
+		{
+			if (region.page == page)
+			{
+				region.textureHandle = textureHandle;
+			}
+		}
+	}
+
+	/** packed area over used area of one page, see {@link SkylinePacker#getOccupancy()} */
+	public float getOccupancy (int page)
+	{
+		return _pages.get(page).getOccupancy();
+	}
+}
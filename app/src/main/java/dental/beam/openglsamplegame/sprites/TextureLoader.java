@@ -0,0 +1,255 @@
+package dental.beam.openglsamplegame.sprites;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import dental.beam.openglsamplegame.helpers.AssetPack;
+import dental.beam.openglsamplegame.render.GLResources;
+import dental.beam.openglsamplegame.render.MipTexture;
+import dental.beam.openglsamplegame.render.PixelTexture;
+import dental.beam.openglsamplegame.render.TextureCache;
+
+/**
+ * Decodes drawables and adds them to a {@link TextureCache}, everything in here must be called on the gl thread
+ *
+ * The decoded pixels stay with the texture, so after the gl context is lost the textures are uploaded
+ * again without decoding a png.
+ */
+public class TextureLoader
+{
+	/** where the atlas tool's pages go in the asset pack */
+	private static final String ASSET_DIRECTORY = "textures/";
+
+	/**
+	 * Load a texture from an android drawable, every caller asking for the same drawable gets the same texture.
+	 * Must be called on the gl thread
+	 *
+	 * @return the texture's {@link GLResources} handle, held until it's released from the cache
+	 */
+	public static int loadGLTexture (Context context, TextureCache cache, int drawableResourceId)
+	{
+		String key = "drawable/" + drawableResourceId;
+		int handle = cache.acquire(key);
+		if (handle != GLResources.NO_HANDLE)
+		{
+			return handle;
+		}
+
+		// loading texture
+		Bitmap bitmap = BitmapFactory.decodeResource(context.getResources(), drawableResourceId);
+		handle = cache.add(key, toPixelTexture(bitmap));
+
+		// Clean up
+		bitmap.recycle();
+
+		return handle;
+	}
+
+	/**
+	 * Load a bitmap that has no resource id, keyed by its pixels so the same image is only ever one texture
+	 *
+	 * @return the texture's {@link GLResources} handle, held until it's released from the cache
+	 */
+	public static int loadGLTexture (TextureCache cache, Bitmap bitmap)
+	{
+		PixelTexture texture = toPixelTexture(bitmap);
+		return cache.add(TextureCache.digestKey(texture), texture);
+	}
+
+	/**
+	 * Put several drawables together on as few mipmapped textures as possible, must be called on the gl thread
+	 *
+	 * The atlas tool lays the pages out and makes their mip levels at build time, and when its pages are in
+	 * the asset pack they are uploaded straight from the mapping without decoding anything. Without them the
+	 * drawables are decoded, packed and downsampled here.
+	 *
+	 * @param pack the game's asset pack, null if there isn't one
+	 * @param name the atlas' pages are textures/name-page.mtex in the pack, made from the drawables in the same order
+	 * @return the atlas with a region for every drawable, keyed by drawable resource id
+	 */
+	public static TextureAtlas loadGLAtlas (Context context, TextureCache cache, AssetPack pack, String name,
+	                                        int drawableResourceIds[], int pageSize)
+	{
+		TextureAtlas atlas = new TextureAtlas(pageSize, TextureAtlas.DEFAULT_PADDING);
+		int page = 0;
+		ByteBuffer container;
+		while (pack != null && (container = pack.get(ASSET_DIRECTORY + name + "-" + page + ".mtex")) != null)
+		{
+			MipTexture texture;
+			try
+			{
+				texture = MipTexture.read(container);
+			}
+			catch (IOException e)
+			{
+				throw new IllegalStateException("couldn't read " + name + " page " + page, e);
+			}
+			if (texture.getWidth() != pageSize || texture.getHeight() != pageSize)
+			{
+				throw new IllegalStateException(name + " was built with " + texture.getWidth() + " pages, not " + pageSize);
+			}
+
+			int regions[] = texture.getRegions();
+			for (int i = 0; i < regions.length; i += MipTexture.REGION_INTS)
+			{
+				atlas.put(drawableResourceIds[regions[i]], new AtlasRegion(page, regions[i + 1], regions[i + 2],
+					regions[i + 3], regions[i + 4], pageSize, pageSize));
+			}
+			atlas.setPageTexture(page, cache.add(ASSET_DIRECTORY + name + "-" + page, texture));
+			page++;
+		}
+
+		if (page > 0)
+		{
+			for (int drawableResourceId : drawableResourceIds)
+			{
+				if (atlas.getRegion(drawableResourceId) == null)
+				{
+					throw new IllegalStateException(name + " is out of date, rebuild it with the atlas tool");
+				}
+			}
+			return atlas;
+		}
+		return packGLAtlas(context, cache, name, drawableResourceIds, pageSize);
+	}
+
+	/** decode, pack and downsample the drawables, for when the atlas tool's files aren't there */
+	private static TextureAtlas packGLAtlas (Context context, TextureCache cache, String name, int drawableResourceIds[],
+	                                         int pageSize)
+	{
+		int count = drawableResourceIds.length;
+		Bitmap bitmaps[] = new Bitmap[count];
+		int widths[] = new int[count];
+		int heights[] = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			bitmaps[i] = BitmapFactory.decodeResource(context.getResources(), drawableResourceIds[i]);
+			widths[i] = bitmaps[i].getWidth();
+			heights[i] = bitmaps[i].getHeight();
+		}
+
+		TextureAtlas atlas = TextureAtlas.pack(pageSize, TextureAtlas.DEFAULT_PADDING, drawableResourceIds, widths, heights);
+
+		for (int page = 0; page < atlas.getPageCount(); page++)
+		{
+			Bitmap pageBitmap = Bitmap.createBitmap(pageSize, pageSize, Bitmap.Config.ARGB_8888);
+			Canvas canvas = new Canvas(pageBitmap);
+			for (int i = 0; i < count; i++)
+			{
+				AtlasRegion region = atlas.getRegion(drawableResourceIds[i]);
+				if (region.page == page)
+				{
+					canvas.drawBitmap(bitmaps[i], region.x, region.y, null);
+				}
+			}
+
+			PixelTexture pixels = toPixelTexture(pageBitmap);
+			pageBitmap.recycle();
+			MipTexture texture;
+			try
+			{
+				texture = MipTexture.read(MipTexture.encode(pageSize, pageSize, pixels.getPixels(),
+					MipTexture.fullLevelCount(pageSize, pageSize), new int[0]));
+			}
+			catch (IOException e)
+			{
+				// it was just made
+				throw new IllegalStateException(e);
+			}
+			atlas.setPageTexture(page, cache.add(ASSET_DIRECTORY + name + "-" + page, texture));
+		}
+
+		for (Bitmap bitmap : bitmaps)
+		{
+			bitmap.recycle();
+		}
+		return atlas;
+	}
+
+	/**
+	 * Map an asset pack, it has to be stored uncompressed in the apk
+	 *
+	 * @param verify check every entry's crc, which reads the whole pack
+	 * @return the pack, null if there's no such asset
+	 */
+	public static AssetPack openAssetPack (Context context, String path, boolean verify)
+	{
+		AssetFileDescriptor descriptor;
+		try
+		{
+			descriptor = context.getAssets().openFd(path);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+
+		try
+		{
+			FileInputStream input = descriptor.createInputStream();
+			try
+			{
+				return AssetPack.map(input.getChannel(), descriptor.getStartOffset(), descriptor.getLength(), verify);
+			}
+			finally
+			{
+				input.close();
+			}
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("couldn't read " + path, e);
+		}
+		finally
+		{
+			descriptor.close();
+		}
+	}
+
+	/** a copy of the bitmap's pixels, so the bitmap can be recycled */
+	private static PixelTexture toPixelTexture (Bitmap bitmap)
+	{
+		// ARGB_8888 pixels are laid out as rgba bytes, which is what gl wants
+		Bitmap pixelBitmap = bitmap.getConfig() == Bitmap.Config.ARGB_8888 ? bitmap : bitmap.copy(Bitmap.Config.ARGB_8888, false);
+		ByteBuffer pixels = ByteBuffer.allocateDirect(pixelBitmap.getByteCount()).order(ByteOrder.nativeOrder());
+		pixelBitmap.copyPixelsToBuffer(pixels);
+		if (pixelBitmap.hasAlpha())
+		{
+			unpremultiply(pixels);
+		}
+		PixelTexture texture = new PixelTexture(pixelBitmap.getWidth(), pixelBitmap.getHeight(), pixels);
+		if (pixelBitmap != bitmap)
+		{
+			pixelBitmap.recycle();
+		}
+		return texture;
+	}
+
+	/**
+	 * Bitmaps hand their pixels out with the colour already multiplied by alpha, the blend function and the
+	 * mip levels want it straight
+	 */
+	private static void unpremultiply (ByteBuffer pixels)
+	{
+		for (int offset = 0; offset < pixels.capacity(); offset += 4)
+		{
+			int alpha = pixels.get(offset + 3) & 0xff;
+			if (alpha != 0 && alpha != 255)
+			{
+				for (int channel = 0; channel < 3; channel++)
+				{
+					int value = (pixels.get(offset + channel) & 0xff) * 255 / alpha;
+					pixels.put(offset + channel, (byte) Math.min(255, value));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CollisionEventsTest
+{
+	/** writes down every event it gets as "first>second" */
+	private static class Log implements CollisionEvents.Handler
+	{
+		final List<String> events = new ArrayList<>();
+
+		@Override
+		public void onCollision (int first, int second)
+		{
+			events.add(first + ">" + second);
+		}
+	}
+
+	@Test
+	public void dispatchesInOrderToTheHandlerForThePair ()
+	{
+		CollisionEvents events = new CollisionEvents(3, 2);
+		Log zeroOne = new Log();
+		Log zeroTwo = new Log();
+		events.setHandler(0, 1, zeroOne);
+		events.setHandler(0, 2, zeroTwo);
+
+		events.add(0, 5, 2, 1);
+		events.add(0, 3, 1, 0);
+		events.add(1, 0, 2, 4); // nothing handles it
+		events.add(0, 3, 2, 1);
+		events.add(0, 7, 1, 0);
+		events.dispatch();
+
+		assertEquals(Arrays.asList("3>0", "7>0"), zeroOne.events);
+		assertEquals(Arrays.asList("5>1", "3>1"), zeroTwo.events);
+		assertEquals(5, events.size());
+		assertEquals(1, events.getFirstType(2));
+		assertEquals(2, events.getSecondType(2));
+		assertEquals(4, events.getSecond(2));
+
+		events.clear();
+		events.dispatch();
+		assertEquals(2, zeroOne.events.size());
+	}
+
+	@Test
+	public void addAllAppendsInOrder ()
+	{
+		CollisionEvents merged = new CollisionEvents(2, 1);
+		CollisionEvents first = new CollisionEvents(2, 1);
+		CollisionEvents second = new CollisionEvents(2, 1);
+		Log log = new Log();
+		merged.setHandler(0, 1, log);
+
+		first.add(0, 1, 1, 10);
+		first.add(0, 2, 1, 20);
+		second.add(0, 3, 1, 30);
+		merged.add(0, 0, 1, 0);
+		merged.addAll(first);
+		merged.addAll(second);
+		merged.addAll(new CollisionEvents(2, 1));
+		merged.dispatch();
+
+		assertEquals(Arrays.asList("0>0", "1>10", "2>20", "3>30"), log.events);
+	}
+
+	@Test
+	public void sortKeepsEventsWithTheSameRankInOrder ()
+	{
+		CollisionEvents events = new CollisionEvents(2, 4);
+		Log log = new Log();
+		events.setHandler(0, 1, log);
+		int rank[] = { 2, 0, 1 };
+
+		events.add(0, 0, 1, 1);
+		events.add(0, 2, 1, 2);
+		events.add(0, 0, 1, 3);
+		events.add(0, 1, 1, 4);
+		events.add(0, 2, 1, 5);
+		events.sortByFirst(rank);
+		events.dispatch();
+
+		assertEquals(Arrays.asList("1>4", "2>2", "2>5", "0>1", "0>3"), log.events);
+	}
+
+	@Test
+	public void onlyGrowsPastTheBiggestTick ()
+	{
+		CollisionEvents events = new CollisionEvents(2, 4);
+		for (int tick = 0; tick < 100; tick++)
+		{
+			events.clear();
+			for (int i = 0; i < tick % 10; i++)
+			{
+				events.add(0, i, 1, i);
+			}
+		}
+		assertEquals(16, events.getCapacity());
+	}
+
+	@Test
+	public void unknownTypesAreRejected ()
+	{
+		CollisionEvents events = new CollisionEvents(2, 4);
+		try
+		{
+			events.add(0, 0, 2, 0);
+			fail();
+		}
+		catch (IllegalArgumentException expected)
+		{
+		}
+		try
+		{
+			events.setHandler(-1, 0, new Log());
+			fail();
+		}
+		catch (IllegalArgumentException expected)
+		{
+		}
+	}
+
+	@Test
+	public void twoAsteroidsOnOneChickenKillItOnce ()
+	{
+		final boolean alive[] = { true, true };
+		final List<String> kills = new ArrayList<>();
+		CollisionEvents events = new CollisionEvents(GameSimulation.SPRITE_CHICKEN + 1, 4);
+		events.setHandler(GameSimulation.SPRITE_ASTEROID, GameSimulation.SPRITE_CHICKEN, new CollisionEvents.Handler()
+		{
+			@Override
+			public void onCollision (int asteroid, int chicken)
+			{
+				if (alive[chicken])
+				{
+					alive[chicken] = false;
+					kills.add(asteroid + ">" + chicken);
+				}
+			}
+		});
+
+		events.add(GameSimulation.SPRITE_ASTEROID, 8, GameSimulation.SPRITE_CHICKEN, 1);
+		events.add(GameSimulation.SPRITE_ASTEROID, 3, GameSimulation.SPRITE_CHICKEN, 1);
+		events.dispatch();
+
+		assertEquals(Arrays.asList("8>1"), kills);
+	}
+
+	@Test
+	public void everyChickenHitInATickDiesOnce ()
+	{
+		GameSimulation simulation = SimulationSessions.newSimulation(2015);
+		SimulationSessions.start(simulation, new SpawnSchedule(1, 1, 4));
+
+		int ticksWithHits = 0;
+		int mostEvents = 0;
+		for (int tick = 0; tick < 1500; tick++)
+		{
+			SimulationSessions.keepPlaying(simulation);
+			int chickensBefore = simulation.getLiveChickenCount();
+			SimulationSessions.tick(simulation, tick);
+			if (chickensBefore == 0)
+			{
+				continue;
+			}
+
+			CollisionEvents events = simulation.getCollisions();
+			boolean hit[] = new boolean[256];
+			int chickensHit = 0;
+			for (int i = 0; i < events.size(); i++)
+			{
+				if (events.getSecondType(i) == GameSimulation.SPRITE_CHICKEN && !hit[events.getSecond(i)])
+				{
+					hit[events.getSecond(i)] = true;
+					chickensHit++;
+				}
+			}
+			assertEquals("tick " + tick, chickensBefore - chickensHit, simulation.getLiveChickenCount());
+			ticksWithHits += chickensHit > 0 ? 1 : 0;
+			mostEvents = Math.max(mostEvents, events.size());
+		}
+
+		assertTrue("chickens should get hit", ticksWithHits > 10);
+		assertTrue("the buffer should only grow when a tick needs it",
+			simulation.getCollisions().getCapacity() <= Math.max(16, 2 * mostEvents));
+	}
+}
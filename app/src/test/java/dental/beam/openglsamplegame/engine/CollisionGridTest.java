@@ -0,0 +1,140 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import dental.beam.openglsamplegame.sprites.AsteroidSprite;
+import dental.beam.openglsamplegame.sprites.ChickenSprite;
+import dental.beam.openglsamplegame.sprites.TextureSprite;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CollisionGridTest
+{
+	private static final float RATIO = 1.7f;
+
+	@Test
+	public void gridMatchesBruteForceOnRandomWorlds ()
+	{
+		Random random = new Random(1234);
+		for (int world = 0; world < 20; world++)
+		{
+			int asteroidCount = 500 + random.nextInt(3000);
+			int chickenCount = 500 + random.nextInt(3000);
+			List<AsteroidSprite> asteroids = new ArrayList<>();
+			List<ChickenSprite> chickens = new ArrayList<>();
+			for (int i = 0; i < asteroidCount; i++)
+			{
+				asteroids.add(randomSprite(new AsteroidSprite(), random, AsteroidSprite.MIN_SCALE, AsteroidSprite.MAX_SCALE));
+			}
+			for (int i = 0; i < chickenCount; i++)
+			{
+				chickens.add(randomSprite(new ChickenSprite(), random, 0.01f, 0.1f));
+			}
+
+			assertArrayEquals("world " + world, bruteForceHits(asteroids, chickens), gridHits(asteroids, chickens));
+		}
+	}
+
+	@Test
+	public void spritesOutsideBoundsAreStillFound ()
+	{
+		CollisionGrid grid = new CollisionGrid(0.25f, 4);
+		grid.setBounds(-1, -RATIO, 1, RATIO);
+		grid.insert(0, -5, 0, 0.1f);
+		grid.insert(1, 0, RATIO + 3, 0.1f);
+		grid.insert(2, 0.9f, -RATIO, 0.1f);
+
+		int out[] = new int[grid.getEntryCount()];
+		assertEquals(1, grid.query(-4.9f, 0, 0.1f, out));
+		assertEquals(0, out[0]);
+		assertEquals(1, grid.query(0, RATIO + 2.9f, 0.1f, out));
+		assertEquals(1, out[0]);
+		assertEquals(1, grid.query(1.5f, -RATIO - 1, 0.1f, out));
+		assertEquals(2, out[0]);
+	}
+
+	@Test
+	public void queryReportsEachIdOnceInAscendingOrder ()
+	{
+		CollisionGrid grid = new CollisionGrid(0.1f, 1);
+		grid.insert(7, 0, 0, 0.5f);
+		grid.insert(3, 0.05f, 0.05f, 0.5f);
+		grid.insert(5, -0.05f, 0, 0.3f);
+
+		// every id is in every cell the query touches, the grid's entry count is always room enough
+		int out[] = new int[grid.getEntryCount()];
+		assertEquals(3, grid.query(0, 0, 0.2f, out));
+		assertArrayEquals(new int[] { 3, 5, 7 }, Arrays.copyOf(out, 3));
+
+		grid.clear();
+		assertEquals(0, grid.query(0, 0, 0.2f, out));
+	}
+
+	private static <T extends TextureSprite> T randomSprite (T sprite, Random random, float minScale, float maxScale)
+	{
+		sprite.useOwnStore();
+		// spread a little past the screen edges since sprites enter from the top and leave at the bottom
+		sprite.setX(-1.2f + random.nextFloat() * 2.4f);
+		sprite.setY(-RATIO - 0.3f + random.nextFloat() * (2 * RATIO + 0.6f));
+		float scale = minScale + random.nextFloat() * (maxScale - minScale);
+		sprite.setScale(scale, scale * (0.5f + random.nextFloat()));
+		return sprite;
+	}
+
+	/** hit count per chicken, counting every asteroid that collides with it */
+	private static int[] bruteForceHits (List<AsteroidSprite> asteroids, List<ChickenSprite> chickens)
+	{
+		int hits[] = new int[chickens.size()];
+		for (AsteroidSprite asteroid : asteroids)
+		{
+			for (int j = 0; j < chickens.size(); j++)
+			{
+				if (asteroid.collidesWith(chickens.get(j)))
+				{
+					hits[j]++;
+				}
+			}
+		}
+		return hits;
+	}
+
+	private static int[] gridHits (List<AsteroidSprite> asteroids, List<ChickenSprite> chickens)
+	{
+		CollisionGrid grid = new CollisionGrid(AsteroidSprite.MAX_SCALE, 16);
+		grid.setBounds(-1, -RATIO, 1, RATIO);
+		for (int i = 0; i < chickens.size(); i++)
+		{
+			ChickenSprite chicken = chickens.get(i);
+			grid.insert(i, chicken.getCollisionX(), chicken.getCollisionTargetY(), chicken.getCollisionRadius());
+		}
+
+		int hits[] = new int[chickens.size()];
+		int candidates[] = new int[grid.getEntryCount()];
+		long candidateTotal = 0;
+		for (AsteroidSprite asteroid : asteroids)
+		{
+			int count = grid.query(asteroid.getCollisionX(), asteroid.getCollisionY(), asteroid.getCollisionRadius(), candidates);
+			candidateTotal += count;
+			for (int c = 0; c < count; c++)
+			{
+				// ascending, so each chicken at most once
+				assertTrue(c == 0 || candidates[c - 1] < candidates[c]);
+				if (asteroid.collidesWith(chickens.get(candidates[c])))
+				{
+					hits[candidates[c]]++;
+				}
+			}
+		}
+
+		// the whole point of the grid, most pairs never reach the narrowphase
+		assertTrue(candidateTotal < (long) asteroids.size() * chickens.size() / 4);
+		return hits;
+	}
+}
@@ -0,0 +1,100 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.Test;
+
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixedTimestepTest
+{
+	private static final long MILLIS = 1000000L;
+
+	private static class FakeClock implements GameClock
+	{
+		long _now = 12345 * MILLIS;
+
+		@Override
+		public long nanoTime ()
+		{
+			return _now;
+		}
+	}
+
+	@Test
+	public void stepsFollowTheClockNotTheFrameRate ()
+	{
+		FakeClock clock = new FakeClock();
+		FixedTimestep timestep = new FixedTimestep(clock, 100, 5);
+		assertEquals(0, timestep.advance());
+
+		// 10ms ticks: a 30fps device and a 120fps device both get 100 ticks a second
+		int ticks = 0;
+		for (int frame = 0; frame < 30; frame++)
+		{
+			clock._now += 1000 * MILLIS / 30;
+			ticks += timestep.advance();
+		}
+		assertEquals(100, ticks, 1);
+
+		ticks = 0;
+		for (int frame = 0; frame < 120; frame++)
+		{
+			clock._now += 1000 * MILLIS / 120;
+			ticks += timestep.advance();
+		}
+		assertEquals(100, ticks, 1);
+	}
+
+	@Test
+	public void leftoverTimeBecomesInterpolation ()
+	{
+		FakeClock clock = new FakeClock();
+		FixedTimestep timestep = new FixedTimestep(clock, 100, 5);
+		timestep.advance();
+
+		clock._now += 25 * MILLIS;
+		assertEquals(2, timestep.advance());
+		assertEquals(0.5f, timestep.getAlpha(), 1e-6f);
+
+		clock._now += 5 * MILLIS;
+		assertEquals(1, timestep.advance());
+		assertEquals(0f, timestep.getAlpha(), 1e-6f);
+	}
+
+	@Test
+	public void catchUpIsCappedAfterAStall ()
+	{
+		FakeClock clock = new FakeClock();
+		FixedTimestep timestep = new FixedTimestep(clock, 100, 5);
+		timestep.advance();
+
+		clock._now += 1003 * MILLIS;
+		assertEquals(5, timestep.advance());
+		assertEquals(0.3f, timestep.getAlpha(), 1e-4f);
+		assertEquals(950 * MILLIS, timestep.getDroppedNanos());
+
+		// and back to normal on the next frame
+		clock._now += 10 * MILLIS;
+		assertEquals(1, timestep.advance());
+	}
+
+	@Test
+	public void spritesAreDrawnBetweenTheLastTwoSteps ()
+	{
+		SpriteStore store = new SpriteStore(2);
+		int moving = store.allocate();
+		store.posX[moving] = 1;
+		store.vectorX[moving] = 0.5f;
+		store.savePrevious();
+		store.integrate(new int[] { moving }, 0, 1, 0, new int[1]);
+
+		int spawned = store.allocate();
+		store.posX[spawned] = 3;
+
+		assertEquals(1.25f, store.drawX(moving, 0.5f), 0);
+		assertEquals(1.5f, store.drawX(moving, 1), 0);
+		// nothing to blend from yet
+		assertEquals(3f, store.drawX(spawned, 0.5f), 0);
+	}
+}
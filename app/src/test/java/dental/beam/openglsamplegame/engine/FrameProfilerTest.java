@@ -0,0 +1,163 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameProfilerTest
+{
+	private static class FakeClock implements GameClock
+	{
+		long _now;
+
+		@Override
+		public long nanoTime ()
+		{
+			return _now;
+		}
+	}
+
+	/** a span that takes the given time */
+	private static void run (FrameProfiler profiler, FakeClock clock, int span, long nanos)
+	{
+		profiler.begin(span);
+		clock._now += nanos;
+		profiler.end(span);
+	}
+
+	@Test
+	public void spansAddUpUntilCommitted ()
+	{
+		FakeClock clock = new FakeClock();
+		FrameProfiler profiler = new FrameProfiler(clock, 8);
+
+		profiler.begin(FrameProfiler.UPDATE);
+		run(profiler, clock, FrameProfiler.COLLISION, 30);
+		clock._now += 5;
+		run(profiler, clock, FrameProfiler.COLLISION, 20);
+		profiler.end(FrameProfiler.UPDATE);
+		profiler.commit(FrameProfiler.UPDATE);
+		profiler.commit(FrameProfiler.COLLISION);
+		profiler.commit(FrameProfiler.SPAWN);
+
+		assertEquals(55, profiler.getRecent(FrameProfiler.UPDATE, 0));
+		assertEquals(50, profiler.getRecent(FrameProfiler.COLLISION, 0));
+		// didn't run, still a frame
+		assertEquals(0, profiler.getRecent(FrameProfiler.SPAWN, 0));
+		assertEquals(1, profiler.getFrameCount(FrameProfiler.SPAWN));
+		assertEquals(0, profiler.getFrameCount(FrameProfiler.DRAW_SUBMIT));
+	}
+
+	@Test
+	public void percentilesAndBudget ()
+	{
+		FakeClock clock = new FakeClock();
+		FrameProfiler profiler = new FrameProfiler(clock, 16);
+		profiler.setBudget(FrameProfiler.DRAW_SUBMIT, 95);
+
+		// 1 to 100 nanoseconds, small enough to be counted exactly
+		for (int frame = 1; frame <= 100; frame++)
+		{
+			run(profiler, clock, FrameProfiler.DRAW_SUBMIT, frame);
+			profiler.commit(FrameProfiler.DRAW_SUBMIT);
+		}
+
+		assertEquals(50, profiler.getPercentile(FrameProfiler.DRAW_SUBMIT, 50));
+		assertEquals(95, profiler.getPercentile(FrameProfiler.DRAW_SUBMIT, 95));
+		assertEquals(99, profiler.getPercentile(FrameProfiler.DRAW_SUBMIT, 99));
+		assertEquals(100, profiler.getMax(FrameProfiler.DRAW_SUBMIT));
+		assertEquals(5, profiler.getOverBudgetCount(FrameProfiler.DRAW_SUBMIT));
+		// no budget set
+		assertEquals(0, profiler.getOverBudgetCount(FrameProfiler.UPDATE));
+	}
+
+	@Test
+	public void ringKeepsTheMostRecentFrames ()
+	{
+		FakeClock clock = new FakeClock();
+		FrameProfiler profiler = new FrameProfiler(clock, 4);
+		for (int frame = 1; frame <= 10; frame++)
+		{
+			run(profiler, clock, FrameProfiler.TEXT, frame * 1000);
+			profiler.commit(FrameProfiler.TEXT);
+		}
+
+		assertEquals(4, profiler.getRecentCount(FrameProfiler.TEXT));
+		assertEquals(10000, profiler.getRecent(FrameProfiler.TEXT, 0));
+		assertEquals(7000, profiler.getRecent(FrameProfiler.TEXT, 3));
+		// the histogram still has every frame
+		assertEquals(10, profiler.getFrameCount(FrameProfiler.TEXT));
+		// to the histogram's precision
+		assertTrue(profiler.getPercentile(FrameProfiler.TEXT, 10) <= 1000 * 1.016);
+	}
+
+	@Test
+	public void recordingDoesNotAllocate ()
+	{
+		FrameProfiler profiler = new FrameProfiler(GameClock.SYSTEM, 64);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		// warm up so nothing is allocated by class loading or the jit
+		for (int frame = 0; frame < 20000; frame++)
+		{
+			profiler.begin(FrameProfiler.UPDATE);
+			profiler.end(FrameProfiler.UPDATE);
+			profiler.commit(FrameProfiler.UPDATE);
+		}
+
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int frame = 0; frame < 20000; frame++)
+		{
+			profiler.begin(FrameProfiler.UPDATE);
+			profiler.end(FrameProfiler.UPDATE);
+			profiler.commit(FrameProfiler.UPDATE);
+		}
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		// allow for the call to measure it
+		assertTrue(allocated + " bytes", allocated < 1024);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void framesOlderThanTheRingAreGone ()
+	{
+		FakeClock clock = new FakeClock();
+		FrameProfiler profiler = new FrameProfiler(clock, 4);
+		for (int frame = 0; frame < 10; frame++)
+		{
+			profiler.commit(FrameProfiler.TEXT);
+		}
+		profiler.getRecent(FrameProfiler.TEXT, 4);
+	}
+
+	@Test
+	public void dumpWritesSummaryThenSamples () throws Exception
+	{
+		FakeClock clock = new FakeClock();
+		FrameProfiler profiler = new FrameProfiler(clock, 2);
+		profiler.setBudget(FrameProfiler.UPDATE, 15);
+		for (int frame = 1; frame <= 3; frame++)
+		{
+			run(profiler, clock, FrameProfiler.UPDATE, frame * 10);
+			profiler.commit(FrameProfiler.UPDATE);
+		}
+
+		StringWriter writer = new StringWriter();
+		profiler.dump(writer);
+		String lines[] = writer.toString().split("\n");
+
+		assertEquals("span,frames,p50,p95,p99,max,budget,over_budget", lines[0]);
+		assertEquals("update,3,20,30,30,30,15,2", lines[1]);
+		assertEquals("collision,0,0,0,0,0,0,0", lines[2]);
+		assertEquals("span,frame,nanos", lines[1 + FrameProfiler.SPAN_COUNT + 1]);
+		// only the last two frames are still in the ring
+		assertEquals("update,1,20", lines[1 + FrameProfiler.SPAN_COUNT + 2]);
+		assertEquals("update,2,30", lines[1 + FrameProfiler.SPAN_COUNT + 3]);
+		assertEquals(1 + FrameProfiler.SPAN_COUNT + 4, lines.length);
+	}
+}
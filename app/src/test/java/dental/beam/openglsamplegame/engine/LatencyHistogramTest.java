@@ -0,0 +1,78 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest
+{
+	@Test
+	public void smallValuesAreExact ()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++)
+		{
+			histogram.record(i);
+		}
+
+		assertEquals(50, histogram.getValueAtPercentile(50));
+		assertEquals(99, histogram.getValueAtPercentile(99));
+		assertEquals(100, histogram.getValueAtPercentile(100));
+		assertEquals(100, histogram.getMax());
+		assertEquals(50.5, histogram.getMean(), 0.0001);
+	}
+
+	@Test
+	public void bucketsAreContiguous ()
+	{
+		for (long value = 0; value < 1 << 20; value += 7)
+		{
+			int index = LatencyHistogram.index(value);
+			assertTrue(value + " above its bucket", value <= LatencyHistogram.highestValue(index));
+			assertTrue(value + " below its bucket", index == 0 || value > LatencyHistogram.highestValue(index - 1));
+		}
+	}
+
+	@Test
+	public void percentilesAreWithinPrecisionAtAnyScale ()
+	{
+		Random random = new Random(5);
+		LatencyHistogram histogram = new LatencyHistogram();
+		long values[] = new long[10000];
+		for (int i = 0; i < values.length; i++)
+		{
+			// 1us to about 100ms, log uniform
+			values[i] = (long) Math.pow(10, 3 + random.nextDouble() * 5);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		for (double percentile : new double[] { 50, 90, 95, 99, 99.9 })
+		{
+			long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+			long actual = histogram.getValueAtPercentile(percentile);
+			assertTrue(percentile + ": " + actual + " vs " + expected, actual >= expected);
+			assertTrue(percentile + ": " + actual + " vs " + expected, actual <= expected * 1.016);
+		}
+		assertEquals(values[values.length - 1], histogram.getMax());
+	}
+
+	@Test
+	public void outOfRangeValuesAreClamped ()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+
+		histogram.reset();
+		assertEquals(0, histogram.getTotalCount());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+	}
+}
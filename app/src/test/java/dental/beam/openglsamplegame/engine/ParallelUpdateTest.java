@@ -0,0 +1,118 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelUpdateTest
+{
+	private static final int TICKS = 1500;
+
+	/** spawning a lot faster than the game does */
+	private static long[] play (GameSimulation simulation)
+	{
+		return SimulationSessions.play(simulation, TICKS, new SpawnSchedule(1, 1, 4));
+	}
+
+	@Test
+	public void playsTheSameAsSerial ()
+	{
+		GameSimulation serial = SimulationSessions.newSimulation(2015);
+		long expected[] = play(serial);
+		assertTrue("the session should be busy", serial.getLiveCount() > 200);
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try
+		{
+			// small chunks so a few hundred asteroids get split many ways
+			GameSimulation parallel = SimulationSessions.newSimulation(2015);
+			parallel.setParallelUpdate(executor, 4, 16);
+			long hashes[] = play(parallel);
+			for (int tick = 0; tick < TICKS; tick++)
+			{
+				assertEquals("tick " + tick, expected[tick], hashes[tick]);
+			}
+			assertEquals(serial.getAsteroidCount(), parallel.getAsteroidCount());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void runsEveryItemOnce ()
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try
+		{
+			ChunkRunner runner = new ChunkRunner(executor, 4);
+			final int counts[] = new int[1000];
+			final int chunks[] = new int[1000];
+			ChunkRunner.Body body = new ChunkRunner.Body()
+			{
+				@Override
+				public void run (int chunk, int start, int end)
+				{
+					for (int i = start; i < end; i++)
+					{
+						counts[i]++;
+						chunks[i] = chunk;
+					}
+				}
+			};
+
+			for (int run = 0; run < 50; run++)
+			{
+				runner.run(counts.length, 7, body);
+			}
+			for (int i = 0; i < counts.length; i++)
+			{
+				assertEquals(50, counts[i]);
+				assertEquals(i / 7, chunks[i]);
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void failuresReachTheCaller ()
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try
+		{
+			ChunkRunner runner = new ChunkRunner(executor, 4);
+			try
+			{
+				runner.run(100, 1, new ChunkRunner.Body()
+				{
+					@Override
+					public void run (int chunk, int start, int end)
+					{
+						if (chunk == 60)
+						{
+							throw new IllegalStateException("chunk 60");
+						}
+					}
+				});
+				fail();
+			}
+			catch (RuntimeException e)
+			{
+				assertEquals("chunk 60", e.getCause().getMessage());
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import dental.beam.openglsamplegame.helpers.TiltSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SessionReplayTest
+{
+	private static final int TICKS = 3000;
+
+	private static long[] play (GameSimulation simulation)
+	{
+		return SimulationSessions.play(simulation, TICKS, null);
+	}
+
+	@Test
+	public void replaysBitForBit ()
+	{
+		GameSimulation simulation = SimulationSessions.newSimulation(2015);
+		SessionRecording recording = simulation.startRecording();
+		long hashes[] = play(simulation);
+		assertTrue("the session should have something in it", simulation.getAsteroidCount() > 0);
+
+		SessionReplay replay = new SessionReplay(recording, SimulationSessions.newProfiler());
+		for (int tick = 0; tick < TICKS; tick++)
+		{
+			assertTrue(replay.step());
+			assertEquals("tick " + tick, hashes[tick], replay.getSimulation().getStateHash());
+		}
+		assertFalse(replay.step());
+		assertEquals(simulation.getAsteroidCount(), replay.getSimulation().getAsteroidCount());
+	}
+
+	@Test
+	public void seedsPlayDifferently ()
+	{
+		long first[] = play(SimulationSessions.newSimulation(1));
+		long second[] = play(SimulationSessions.newSimulation(2));
+		assertNotEquals(first[TICKS - 1], second[TICKS - 1]);
+	}
+
+	@Test
+	public void recordingsSurviveBeingSaved () throws IOException
+	{
+		GameSimulation simulation = SimulationSessions.newSimulation(77);
+		SessionRecording recording = simulation.startRecording();
+		long hashes[] = play(simulation);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		recording.write(new DataOutputStream(bytes));
+		SessionRecording read = SessionRecording.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertEquals(77, read.getSeed());
+		assertEquals(TICKS, read.getTickCount());
+		assertEquals(recording.getEventCount(), read.getEventCount());
+		SessionReplay replay = new SessionReplay(read, SimulationSessions.newProfiler());
+		replay.run();
+		assertEquals(hashes[TICKS - 1], replay.getSimulation().getStateHash());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void recordingStartsBeforeTheFirstTick ()
+	{
+		GameSimulation simulation = new GameSimulation(1, TiltSource.LEVEL, SimulationSessions.newProfiler());
+		simulation.tick(0);
+		simulation.startRecording();
+	}
+}
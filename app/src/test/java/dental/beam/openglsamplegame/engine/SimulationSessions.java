@@ -0,0 +1,84 @@
+package dental.beam.openglsamplegame.engine;
+
+import dental.beam.openglsamplegame.helpers.TiltSource;
+
+/**
+ * The busy session the engine tests play: the phone swinging side to side, a new game whenever the chickens
+ * are gone, and the screen turning half way through
+ */
+final class SimulationSessions
+{
+	static final long TICK_NANOS = 1000000000L / GameSimulation.DEFAULT_TICKS_PER_SECOND;
+
+	/** swinging the phone from side to side about once every two seconds */
+	static final TiltSource SWINGING = new TiltSource()
+	{
+		@Override
+		public float getTilt (long timeNanos)
+		{
+			return 20 * (float) Math.sin(timeNanos / 1e9 * Math.PI);
+		}
+	};
+
+	private SimulationSessions ()
+	{
+	}
+
+	static FrameProfiler newProfiler ()
+	{
+		return new FrameProfiler(GameClock.SYSTEM, 1);
+	}
+
+	static GameSimulation newSimulation (long seed)
+	{
+		return new GameSimulation(seed, SWINGING, newProfiler());
+	}
+
+	/**
+	 * Set a simulation up for a session, before its first tick
+	 *
+	 * @param schedule null keeps the game's own, only the game's own replays as the schedule isn't recorded
+	 */
+	static void start (GameSimulation simulation, SpawnSchedule schedule)
+	{
+		simulation.setWorldRatio(1.7f);
+		if (schedule != null)
+		{
+			simulation.setSpawnSchedule(schedule);
+		}
+	}
+
+	/** start a new game if the last one is over */
+	static void keepPlaying (GameSimulation simulation)
+	{
+		if (!simulation.isPlaying())
+		{
+			simulation.startGame();
+		}
+	}
+
+	/** one tick of the session, starting a new game first if the last one is over */
+	static void tick (GameSimulation simulation, int tick)
+	{
+		keepPlaying(simulation);
+		simulation.tick(tick * TICK_NANOS);
+	}
+
+	/** @return the state hash after every tick */
+	static long[] play (GameSimulation simulation, int ticks, SpawnSchedule schedule)
+	{
+		long hashes[] = new long[ticks];
+		start(simulation, schedule);
+		for (int tick = 0; tick < ticks; tick++)
+		{
+			if (tick == ticks / 2)
+			{
+				// the screen turned part way through
+				simulation.setWorldRatio(1.4f);
+			}
+			tick(simulation, tick);
+			hashes[tick] = simulation.getStateHash();
+		}
+		return hashes;
+	}
+}
@@ -0,0 +1,193 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dental.beam.openglsamplegame.sprites.SpriteSnapshot;
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SimulationThreadTest
+{
+	private static final int SPRITES = 2000;
+
+	/** every sprite sits at the tick count, so a snapshot with mixed values was torn */
+	private static class CountingSimulation implements Simulation
+	{
+		final SpriteStore _store = new SpriteStore(SPRITES);
+		final AtomicInteger _ticks = new AtomicInteger();
+		volatile Thread _thread;
+		volatile boolean _wrongThread;
+
+		CountingSimulation ()
+		{
+			for (int i = 0; i < SPRITES; i++)
+			{
+				_store.allocate();
+			}
+		}
+
+		@Override
+		public void tick (long timeNanos)
+		{
+			checkThread();
+			_store.savePrevious();
+			int ticks = _ticks.incrementAndGet();
+			for (int i = 0; i < SPRITES; i++)
+			{
+				_store.posX[i] = ticks;
+				_store.posY[i] = ticks;
+			}
+		}
+
+		@Override
+		public void writeSnapshot (RenderSnapshot snapshot)
+		{
+			checkThread();
+			snapshot.asteroidCount = _ticks.get();
+			snapshot.asteroids.clear();
+			for (int i = 0; i < SPRITES; i++)
+			{
+				snapshot.asteroids.add(_store, i);
+			}
+		}
+
+		private void checkThread ()
+		{
+			if (_thread == null)
+			{
+				_thread = Thread.currentThread();
+			}
+			else if (_thread != Thread.currentThread())
+			{
+				_wrongThread = true;
+			}
+		}
+	}
+
+	private SimulationThread _simulationThread;
+
+	@After
+	public void tearDown () throws Exception
+	{
+		if (_simulationThread != null)
+		{
+			_simulationThread.quit();
+			_simulationThread.join(1000);
+		}
+	}
+
+	@Test
+	public void snapshotsAreNeverTorn () throws Exception
+	{
+		CountingSimulation simulation = new CountingSimulation();
+		_simulationThread = new SimulationThread(simulation, GameClock.SYSTEM, 2000, 5);
+		_simulationThread.start();
+
+		// this thread plays the part of the gl thread
+		long end = System.nanoTime() + 500 * 1000000L;
+		long lastSequence = 0;
+		int distinct = 0;
+		while (System.nanoTime() < end)
+		{
+			RenderSnapshot snapshot = _simulationThread.acquireSnapshot();
+			assertTrue("went backwards", snapshot.sequence >= lastSequence);
+			if (snapshot.sequence == 0)
+			{
+				continue;
+			}
+
+			SpriteSnapshot sprites = snapshot.asteroids;
+			int ticks = snapshot.asteroidCount;
+			assertEquals(SPRITES, sprites.size());
+			for (int i = 0; i < SPRITES; i++)
+			{
+				assertEquals("torn snapshot", ticks, sprites.x[i], 0);
+				assertEquals("torn snapshot", ticks, sprites.y[i], 0);
+				// the first snapshot has nothing to blend from
+				assertEquals("torn snapshot", Math.max(ticks - 1, 0), sprites.prevX[i], 0);
+			}
+
+			if (snapshot.sequence != lastSequence)
+			{
+				distinct++;
+				lastSequence = snapshot.sequence;
+			}
+		}
+
+		assertFalse(simulation._wrongThread);
+		assertTrue(distinct > 10);
+	}
+
+	@Test
+	public void commandsRunInOrderOnTheSimulationThread () throws Exception
+	{
+		final CountingSimulation simulation = new CountingSimulation();
+		_simulationThread = new SimulationThread(simulation, GameClock.SYSTEM, 1000, 5);
+		_simulationThread.start();
+
+		final List<Integer> order = new ArrayList<>();
+		final CountDownLatch ran = new CountDownLatch(100);
+		for (int i = 0; i < 100; i++)
+		{
+			final int command = i;
+			_simulationThread.execute(new Runnable()
+			{
+				@Override
+				public void run ()
+				{
+					simulation.checkThread();
+					order.add(command);
+					ran.countDown();
+				}
+			});
+		}
+
+		assertTrue(ran.await(1, TimeUnit.SECONDS));
+		for (int i = 0; i < 100; i++)
+		{
+			assertEquals(i, (int) order.get(i));
+		}
+		assertFalse(simulation._wrongThread);
+	}
+
+	@Test
+	public void pausedSimulationStillRunsCommands () throws Exception
+	{
+		CountingSimulation simulation = new CountingSimulation();
+		_simulationThread = new SimulationThread(simulation, GameClock.SYSTEM, 1000, 5);
+		_simulationThread.pause();
+		_simulationThread.start();
+
+		final CountDownLatch ran = new CountDownLatch(1);
+		_simulationThread.execute(new Runnable()
+		{
+			@Override
+			public void run ()
+			{
+				ran.countDown();
+			}
+		});
+		assertTrue(ran.await(1, TimeUnit.SECONDS));
+
+		Thread.sleep(50);
+		assertEquals(0, simulation._ticks.get());
+
+		_simulationThread.resume();
+		long end = System.nanoTime() + 1000 * 1000000L;
+		while (simulation._ticks.get() == 0 && System.nanoTime() < end)
+		{
+			Thread.sleep(1);
+		}
+		assertTrue(simulation._ticks.get() > 0);
+	}
+}
@@ -0,0 +1,87 @@
+package dental.beam.openglsamplegame.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TripleBufferTest
+{
+	@Test
+	public void readerOnlySeesNewBuffersAfterPublish ()
+	{
+		TripleBuffer<int[]> buffer = new TripleBuffer<>(new int[1], new int[1], new int[1]);
+		int reading[] = buffer.acquire();
+		assertSame(reading, buffer.acquire());
+
+		int writing[] = buffer.getBack();
+		writing[0] = 1;
+		buffer.publish();
+		assertSame(writing, buffer.acquire());
+		assertSame(writing, buffer.acquire());
+
+		// the writer skips ahead twice, the reader gets the newest one
+		buffer.getBack()[0] = 2;
+		buffer.publish();
+		buffer.getBack()[0] = 3;
+		buffer.publish();
+		assertEquals(3, buffer.acquire()[0]);
+	}
+
+	@Test
+	public void buffersAreNeverSharedUnderContention () throws Exception
+	{
+		final int size = 4096;
+		final TripleBuffer<int[]> buffer = new TripleBuffer<>(new int[size], new int[size], new int[size]);
+		final AtomicBoolean done = new AtomicBoolean();
+
+		// a writer that never waits, every buffer it publishes is filled with one number
+		Thread writer = new Thread(new Runnable()
+		{
+			@Override
+			public void run ()
+			{
+				int value = 0;
+				while (!done.get())
+				{
+					Arrays.fill(buffer.getBack(), ++value);
+					buffer.publish();
+				}
+			}
+		});
+		writer.start();
+
+		long end = System.nanoTime() + 500 * 1000000L;
+		int last = 0;
+		int distinct = 0;
+		try
+		{
+			while (System.nanoTime() < end)
+			{
+				int reading[] = buffer.acquire();
+				int value = reading[0];
+				for (int i = 1; i < size; i++)
+				{
+					assertEquals("torn buffer", value, reading[i]);
+				}
+				assertTrue("went backwards", value >= last);
+				if (value != last)
+				{
+					distinct++;
+					last = value;
+				}
+			}
+		}
+		finally
+		{
+			done.set(true);
+			writer.join();
+		}
+
+		assertTrue(distinct > 10);
+	}
+}
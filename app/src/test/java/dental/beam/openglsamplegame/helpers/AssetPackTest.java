@@ -0,0 +1,155 @@
+package dental.beam.openglsamplegame.helpers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AssetPackTest
+{
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	private static ByteBuffer bytes (int length, int seed)
+	{
+		byte bytes[] = new byte[length];
+		new Random(seed).nextBytes(bytes);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	private static ByteBuffer pack ()
+	{
+		return new AssetPack.Writer()
+			.add("textures/world-0.mtex", bytes(1000, 1))
+			.add("fonts/OpenSans-Light.ttf", bytes(37, 2))
+			.add("empty", bytes(0, 3))
+			.toByteBuffer();
+	}
+
+	@Test
+	public void entriesReadBack () throws IOException
+	{
+		AssetPack pack = AssetPack.read(pack(), true);
+
+		assertEquals(Arrays.asList("textures/world-0.mtex", "fonts/OpenSans-Light.ttf", "empty"), pack.getNames());
+		assertEquals(bytes(1000, 1), pack.get("textures/world-0.mtex"));
+		assertEquals(bytes(37, 2), pack.get("fonts/OpenSans-Light.ttf"));
+		assertEquals(0, pack.get("empty").remaining());
+		assertTrue(pack.contains("empty"));
+		assertFalse(pack.contains("missing"));
+		assertNull(pack.get("missing"));
+	}
+
+	@Test
+	public void entriesAreAlignedViewsOfThePack () throws IOException
+	{
+		ByteBuffer bytes = pack();
+		AssetPack pack = AssetPack.read(bytes, false);
+
+		ByteBuffer entry = pack.get("fonts/OpenSans-Light.ttf");
+		int offset = findEntry(bytes, entry);
+		assertEquals(0, offset % AssetPack.ENTRY_ALIGNMENT);
+		bytes.put(offset, (byte) 99);
+		assertEquals(99, entry.get(0));
+		assertEquals(0, findEntry(bytes, pack.get("textures/world-0.mtex")) % AssetPack.ENTRY_ALIGNMENT);
+	}
+
+	/** where the entry starts in the pack, found by its contents */
+	private static int findEntry (ByteBuffer pack, ByteBuffer entry)
+	{
+		for (int offset = 0; offset + entry.remaining() <= pack.limit(); offset++)
+		{
+			ByteBuffer candidate = pack.duplicate();
+			candidate.position(offset).limit(offset + entry.remaining());
+			if (candidate.equals(entry))
+			{
+				return offset;
+			}
+		}
+		return -1;
+	}
+
+	@Test
+	public void handsOutFreshPositions () throws IOException
+	{
+		AssetPack pack = AssetPack.read(pack(), false);
+		pack.get("textures/world-0.mtex").position(500);
+
+		assertEquals(1000, pack.get("textures/world-0.mtex").remaining());
+	}
+
+	@Test
+	public void verifyingFindsCorruptEntries () throws IOException
+	{
+		ByteBuffer bytes = pack();
+		bytes.put(findEntry(bytes, bytes(37, 2)) + 5, (byte) 0);
+
+		// without verifying only the index is read
+		AssetPack.read(bytes, false);
+		try
+		{
+			AssetPack.read(bytes, true);
+		}
+		catch (IOException e)
+		{
+			assertTrue(e.getMessage().contains("fonts/OpenSans-Light.ttf"));
+			return;
+		}
+		throw new AssertionError("the corrupt entry wasn't found");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsDuplicateNames ()
+	{
+		new AssetPack.Writer().add("a", bytes(1, 0)).add("a", bytes(2, 0));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsOtherFiles () throws IOException
+	{
+		AssetPack.read(ByteBuffer.wrap("MTEX and the rest of a texture".getBytes("ISO-8859-1")), false);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTruncatedPacks () throws IOException
+	{
+		ByteBuffer bytes = pack();
+		bytes.limit(bytes.limit() - 100);
+		AssetPack.read(bytes, false);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTruncatedIndexes () throws IOException
+	{
+		ByteBuffer bytes = pack();
+		bytes.limit(30);
+		AssetPack.read(bytes, false);
+	}
+
+	@Test
+	public void mappedFromAFile () throws IOException
+	{
+		File file = _folder.newFile("game.pack");
+		FileChannel channel = new FileOutputStream(file).getChannel();
+		new AssetPack.Writer().add("textures/world-0.mtex", bytes(5000, 4)).write(channel);
+		channel.close();
+
+		AssetPack pack = AssetPack.map(file, true);
+
+		assertTrue(pack.get("textures/world-0.mtex").isDirect());
+		assertEquals(bytes(5000, 4), pack.get("textures/world-0.mtex"));
+		assertEquals(file.length(), pack.getSize());
+	}
+}
@@ -0,0 +1,51 @@
+package dental.beam.openglsamplegame.helpers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameRandomTest
+{
+	@Test
+	public void sameSeedSameNumbers ()
+	{
+		GameRandom a = new GameRandom(1234);
+		GameRandom b = new GameRandom(1234);
+		for (int i = 0; i < 1000; i++)
+		{
+			assertEquals(a.nextLong(), b.nextLong());
+		}
+
+		a.setSeed(99);
+		GameRandom c = new GameRandom(99);
+		assertEquals(99, a.getSeed());
+		assertEquals(c.nextLong(), a.nextLong());
+	}
+
+	@Test
+	public void nearbySeedsDiffer ()
+	{
+		assertNotEquals(new GameRandom(1).nextLong(), new GameRandom(2).nextLong());
+		assertNotEquals(new GameRandom(0).nextLong(), 0);
+	}
+
+	@Test
+	public void floatsStayInRange ()
+	{
+		GameRandom random = new GameRandom(7);
+		float sum = 0;
+		for (int i = 0; i < 100000; i++)
+		{
+			float value = random.nextFloat();
+			assertTrue(value >= 0 && value < 1);
+			sum += value;
+
+			float between = random.nextFloat(2, -3);
+			assertTrue(between >= -3 && between < 2);
+		}
+		// evenly spread
+		assertEquals(0.5f, sum / 100000, 0.01f);
+	}
+}
@@ -0,0 +1,79 @@
+package dental.beam.openglsamplegame.helpers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SampleRingTest
+{
+	@Test
+	public void samplesComeOutInOrder ()
+	{
+		SampleRing ring = new SampleRing(4);
+		ring.offer(10, 1.5f);
+		ring.offer(20, 2.5f);
+
+		assertTrue(ring.poll());
+		assertEquals(10, ring.getPolledTime());
+		assertEquals(1.5f, ring.getPolledValue(), 0);
+		assertTrue(ring.poll());
+		assertEquals(20, ring.getPolledTime());
+		assertFalse(ring.poll());
+	}
+
+	@Test
+	public void aFullRingDropsNewSamples ()
+	{
+		SampleRing ring = new SampleRing(5);
+		assertEquals(8, ring.getCapacity());
+		for (int i = 0; i < 8; i++)
+		{
+			assertTrue(ring.offer(i, i));
+		}
+		assertFalse(ring.offer(8, 8));
+		assertEquals(1, ring.getDroppedCount());
+
+		// the oldest are still there, and taking one makes room
+		assertTrue(ring.poll());
+		assertEquals(0, ring.getPolledTime());
+		assertTrue(ring.offer(9, 9));
+	}
+
+	@Test
+	public void handsOffBetweenThreads () throws InterruptedException
+	{
+		final SampleRing ring = new SampleRing(64);
+		final int count = 1000000;
+		Thread producer = new Thread(new Runnable()
+		{
+			@Override
+			public void run ()
+			{
+				for (int i = 1; i <= count; i++)
+				{
+					while (!ring.offer(i, i * 0.5f))
+					{
+						Thread.yield();
+					}
+				}
+			}
+		});
+		producer.start();
+
+		// every sample arrives once, in order and whole
+		long expected = 1;
+		while (expected <= count)
+		{
+			if (ring.poll())
+			{
+				assertEquals(expected, ring.getPolledTime());
+				assertEquals(expected * 0.5f, ring.getPolledValue(), 0);
+				expected++;
+			}
+		}
+		producer.join();
+		assertFalse(ring.poll());
+	}
+}
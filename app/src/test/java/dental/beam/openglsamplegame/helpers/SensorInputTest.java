@@ -0,0 +1,160 @@
+package dental.beam.openglsamplegame.helpers;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays a tilt recording through the input pipeline the way the simulation reads it, a tick at a time,
+ * and measures how long the player takes to follow a turn of the phone and how much it shakes holding still
+ */
+public class SensorInputTest
+{
+	private static final long MILLIS = 1000000L;
+	private static final long TICK_NANOS = 1000000000L / 60;
+	/** the phone is turned this far at TURN_TIME */
+	private static final float TURN = 20;
+	private static final long TURN_TIME = 1000 * MILLIS;
+	private static final long LENGTH = 2000 * MILLIS;
+
+	/**
+	 * What the accelerometer gives at SENSOR_DELAY_GAME, about 50 samples a second arriving up to 4ms
+	 * early or late, with half a degree or so of noise, and the phone turned quickly half way through
+	 */
+	private static long[] _times;
+	private static float[] _values;
+
+	static
+	{
+		Random random = new Random(2015);
+		int count = (int) (LENGTH / (20 * MILLIS));
+		_times = new long[count];
+		_values = new float[count];
+		for (int i = 0; i < count; i++)
+		{
+			_times[i] = i * 20 * MILLIS + (long) ((random.nextFloat() - 0.5f) * 8 * MILLIS);
+			// a turn takes about 60ms
+			float turned = Math.max(0, Math.min(1, (_times[i] - TURN_TIME) / (60f * MILLIS)));
+			_values[i] = turned * TURN + (float) random.nextGaussian() * 0.5f;
+		}
+	}
+
+	private static class Replay
+	{
+		/** ticks after the turn started until the tilt got half and 90% of the way */
+		long halfLatency = -1;
+		long settleLatency = -1;
+		/** how far the tilt moved from tick to tick, holding still before the turn */
+		float restingShake;
+	}
+
+	private static Replay replay (SampleFilter filter, long interpolationDelay)
+	{
+		SensorInput input = new SensorInput(64, filter, interpolationDelay);
+		Replay replay = new Replay();
+		int next = 0;
+		float last = 0;
+		float shake = 0;
+		int shakeTicks = 0;
+		for (long time = 0; time < LENGTH; time += TICK_NANOS)
+		{
+			while (next < _times.length && _times[next] <= time)
+			{
+				input.offer(_times[next], _values[next]);
+				next++;
+			}
+
+			float tilt = input.sample(time);
+			if (time >= 200 * MILLIS && time < TURN_TIME)
+			{
+				shake += Math.abs(tilt - last);
+				shakeTicks++;
+			}
+			if (time >= TURN_TIME && replay.halfLatency < 0 && tilt >= TURN * 0.5f)
+			{
+				replay.halfLatency = time - TURN_TIME;
+			}
+			if (time >= TURN_TIME && replay.settleLatency < 0 && tilt >= TURN * 0.9f)
+			{
+				replay.settleLatency = time - TURN_TIME;
+			}
+			last = tilt;
+		}
+		replay.restingShake = shake / shakeTicks;
+		return replay;
+	}
+
+	@Test
+	public void measuresLatency ()
+	{
+		Replay raw = replay(SampleFilter.NONE, 0);
+		Replay lowPass = replay(new LowPassFilter(2), TiltHelperAccel.INTERPOLATION_DELAY_NANOS);
+		Replay oneEuro = replay(new OneEuroFilter(1, 0.05f, 1), TiltHelperAccel.INTERPOLATION_DELAY_NANOS);
+
+		// the settings GameEngine uses follow a quick turn within a few frames
+		assertTrue(oneEuro.halfLatency >= 0 && oneEuro.halfLatency <= 100 * MILLIS);
+		assertTrue(oneEuro.settleLatency >= 0 && oneEuro.settleLatency <= 150 * MILLIS);
+		// and hold still far better than the raw samples
+		assertTrue(oneEuro.restingShake < raw.restingShake / 4);
+		// a plain low pass that holds as still lags further behind
+		assertTrue(lowPass.settleLatency > oneEuro.settleLatency);
+	}
+
+	@Test
+	public void interpolatesBetweenSamples ()
+	{
+		SensorInput input = new SensorInput(8, SampleFilter.NONE, 20 * MILLIS);
+		input.offer(100 * MILLIS, 0);
+		input.offer(120 * MILLIS, 10);
+
+		assertEquals(0, input.sample(120 * MILLIS), 0);
+		assertEquals(5, input.sample(130 * MILLIS), 0.001f);
+		assertEquals(10, input.sample(140 * MILLIS), 0);
+		// doesn't guess past the newest sample
+		assertEquals(10, input.sample(200 * MILLIS), 0);
+	}
+
+	@Test
+	public void startsAtZeroAndHoldsASingleSample ()
+	{
+		SensorInput input = new SensorInput(8, SampleFilter.NONE, 0);
+		assertEquals(0, input.sample(0), 0);
+		input.offer(10, 7);
+		assertEquals(7, input.sample(5), 0);
+		assertEquals(7, input.sample(50), 0);
+	}
+
+	@Test
+	public void clearForgetsSamplesFromBeforeAPause ()
+	{
+		SensorInput input = new SensorInput(4, new LowPassFilter(1), 0);
+		for (int i = 0; i < 10; i++)
+		{
+			input.offer(i * 20 * MILLIS, 30);
+		}
+		assertEquals(6, input.getDroppedCount());
+
+		input.clear();
+		assertEquals(0, input.sample(0), 0);
+		assertEquals(0, input.getSampleCount());
+
+		// the first sample after the pause passes straight through, nothing old is mixed in
+		input.offer(5000 * MILLIS, -10);
+		assertEquals(-10, input.sample(5000 * MILLIS), 0);
+	}
+
+	@Test
+	public void filtersAreSmoothAndRestart ()
+	{
+		LowPassFilter filter = new LowPassFilter(1);
+		assertEquals(10, filter.filter(10, 0), 0);
+		float value = filter.filter(0, 20 * MILLIS);
+		assertTrue(value > 0 && value < 10);
+
+		filter.reset();
+		assertEquals(3, filter.filter(3, 40 * MILLIS), 0);
+	}
+}
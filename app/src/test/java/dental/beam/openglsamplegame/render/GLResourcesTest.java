@@ -0,0 +1,119 @@
+package dental.beam.openglsamplegame.render;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import dental.beam.openglsamplegame.sprites.AtlasRegion;
+import dental.beam.openglsamplegame.sprites.SpriteSnapshot;
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class GLResourcesTest
+{
+	private static final float MATRIX[] = new float[16];
+
+	private static PixelTexture texture (int size)
+	{
+		return new PixelTexture(size, size, ByteBuffer.allocateDirect(size * size * 4));
+	}
+
+	/** a program and a page per texture, with spriteCount sprites spread over the pages */
+	private static int recreate (int textureCount, int spriteCount)
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		GLResources resources = new GLResources(gl);
+		SpriteProgram program = new SpriteProgram(resources, SpriteProgram.DEFAULT_MAX_QUADS_PER_DRAW);
+		program.create();
+
+		AtlasRegion regions[] = new AtlasRegion[spriteCount];
+		for (int i = 0; i < spriteCount; i++)
+		{
+			regions[i] = new AtlasRegion(0, 0, 0, 1, 1, 8, 8);
+			regions[i].textureHandle = resources.register("page/" + i % textureCount, GLResources.TYPE_TEXTURE, texture(8));
+		}
+		gl.reset();
+
+		resources.onContextCreated();
+
+		assertEquals(1, gl.getCount(RecordingGL.Call.LINK_PROGRAM));
+		assertEquals(textureCount, gl.getCount(RecordingGL.Call.TEX_IMAGE_2D));
+		return gl.getTotalCalls();
+	}
+
+	@Test
+	public void recreatingDependsOnResourcesNotSprites ()
+	{
+		int fewSprites = recreate(3, 10);
+		int manySprites = recreate(3, 10000);
+
+		assertEquals(fewSprites, manySprites);
+		assertNotEquals(fewSprites, recreate(4, 10));
+	}
+
+	@Test
+	public void sameKeySameHandle ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		GLResources resources = new GLResources(gl);
+
+		int first = resources.register("drawable/1", GLResources.TYPE_TEXTURE, texture(4));
+		int again = resources.register("drawable/1", GLResources.TYPE_TEXTURE, texture(4));
+		int other = resources.register("drawable/2", GLResources.TYPE_TEXTURE, texture(4));
+
+		assertEquals(first, again);
+		assertNotEquals(first, other);
+		assertEquals(first, resources.getHandle("drawable/1"));
+		assertEquals(GLResources.NO_HANDLE, resources.getHandle("drawable/3"));
+		assertEquals(2, gl.getCount(RecordingGL.Call.TEX_IMAGE_2D));
+		assertEquals(2, resources.getResourceCount());
+	}
+
+	@Test
+	public void handlesBindTheNewNamesAfterContextLoss ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		GLResources resources = new GLResources(gl);
+		SpriteProgram program = new SpriteProgram(resources, 64);
+		program.create();
+		AtlasRegion region = new AtlasRegion(0, 0, 0, 1, 1, 8, 8);
+		region.textureHandle = resources.register("page", GLResources.TYPE_TEXTURE, texture(8));
+		int handle = region.textureHandle;
+		int oldName = resources.getName(handle);
+
+		resources.onContextCreated();
+
+		// the sprite's handle hasn't changed but what it binds has
+		assertEquals(handle, region.textureHandle);
+		assertNotEquals(oldName, resources.getName(handle));
+
+		SpriteStore store = new SpriteStore(1);
+		SpriteSnapshot sprites = new SpriteSnapshot(1);
+		sprites.add(store, store.allocate());
+		RenderQueue queue = new RenderQueue(program, program.getMaxQuadsPerDraw(), 4);
+		gl.reset();
+		queue.begin();
+		queue.addSprites(RenderQueue.LAYER_WORLD, region, sprites, 1);
+		queue.execute(MATRIX);
+
+		assertEquals(1, gl.getCount(RecordingGL.Call.BIND_TEXTURE));
+		assertEquals(1, gl.getCount(RecordingGL.Call.DRAW_ELEMENTS));
+	}
+
+	@Test
+	public void growsPastItsFirstArrays ()
+	{
+		GLResources resources = new GLResources(new NoOpGL());
+		for (int i = 0; i < 100; i++)
+		{
+			resources.register("texture/" + i, GLResources.TYPE_TEXTURE, texture(1));
+		}
+
+		assertEquals(100, resources.getResourceCount());
+		assertEquals(100, resources.getHandle("texture/99"));
+		assertNotEquals(0, resources.getName(100));
+		assertEquals(100, resources.getCreateCount());
+	}
+}
@@ -0,0 +1,137 @@
+package dental.beam.openglsamplegame.render;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MipTextureTest
+{
+	@Rule
+	public TemporaryFolder _folder = new TemporaryFolder();
+
+	/** every pixel the same */
+	private static ByteBuffer fill (int width, int height, int r, int g, int b, int a)
+	{
+		ByteBuffer pixels = ByteBuffer.allocateDirect(width * height * 4);
+		for (int i = 0; i < width * height; i++)
+		{
+			pixels.put((byte) r).put((byte) g).put((byte) b).put((byte) a);
+		}
+		pixels.position(0);
+		return pixels;
+	}
+
+	@Test
+	public void levelCounts ()
+	{
+		assertEquals(11, MipTexture.fullLevelCount(1024, 1024));
+		assertEquals(9, MipTexture.fullLevelCount(256, 64));
+		// gles 2 can't mipmap these
+		assertEquals(1, MipTexture.fullLevelCount(408, 384));
+	}
+
+	@Test
+	public void encodedLevelsReadBack () throws IOException
+	{
+		int regions[] = { 0, 8, 16, 100, 90, 1, 120, 16, 50, 60 };
+		MipTexture texture = MipTexture.read(MipTexture.encode(64, 32, fill(64, 32, 200, 100, 50, 255), 7, regions));
+
+		assertEquals(64, texture.getWidth());
+		assertEquals(32, texture.getHeight());
+		assertEquals(7, texture.getLevelCount());
+		assertEquals(2, texture.getLevelWidth(5));
+		assertEquals(1, texture.getLevelHeight(5));
+		assertEquals(1, texture.getLevelWidth(6));
+		assertEquals(1, texture.getLevelHeight(6));
+		assertEquals(4, texture.getLevel(6).remaining());
+		assertEquals(200, texture.getLevel(6).get(0) & 0xff);
+		assertEquals(50, texture.getLevel(6).get(2) & 0xff);
+		assertEquals(regions.length, texture.getRegions().length);
+		assertEquals(120, texture.getRegions()[6]);
+
+		long bytes = 0;
+		for (int level = 0; level < 7; level++)
+		{
+			bytes += texture.getLevelWidth(level) * texture.getLevelHeight(level) * 4;
+		}
+		assertEquals(bytes, texture.getGpuBytes());
+	}
+
+	@Test
+	public void levelsAreAlignedAndDirect () throws IOException
+	{
+		ByteBuffer container = MipTexture.encode(8, 8, fill(8, 8, 1, 2, 3, 4), 4, new int[0]);
+		MipTexture texture = MipTexture.read(container);
+		for (int level = 0; level < texture.getLevelCount(); level++)
+		{
+			assertTrue(texture.getLevel(level).isDirect());
+		}
+	}
+
+	@Test
+	public void downsamplingWeightsColourByAlpha ()
+	{
+		// an opaque red pixel next to three transparent black ones
+		ByteBuffer source = ByteBuffer.allocate(2 * 2 * 4);
+		source.put(0, (byte) 255).put(3, (byte) 255);
+		ByteBuffer target = ByteBuffer.allocate(4);
+
+		MipTexture.downsample(source, 2, 2, target);
+
+		// still red, just a quarter as opaque, rather than a dark red
+		assertEquals(255, target.get(0) & 0xff);
+		assertEquals(0, target.get(1) & 0xff);
+		assertEquals(64, target.get(3) & 0xff);
+	}
+
+	@Test
+	public void mappedFromAFile () throws IOException
+	{
+		File file = _folder.newFile("world-0.mtex");
+		ByteBuffer container = MipTexture.encode(16, 16, fill(16, 16, 9, 9, 9, 9), 5, new int[] { 2, 0, 0, 4, 4 });
+		FileChannel channel = new FileOutputStream(file).getChannel();
+		channel.write(container);
+		channel.close();
+
+		MipTexture texture = MipTexture.map(file);
+
+		assertEquals(5, texture.getLevelCount());
+		assertEquals(2, texture.getRegions()[0]);
+		assertTrue(texture.getLevel(0).isDirect());
+	}
+
+	@Test
+	public void uploadsEveryLevelWithAMipmapFilter () throws IOException
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		MipTexture texture = MipTexture.read(MipTexture.encode(16, 16, fill(16, 16, 0, 0, 0, 0), 5, new int[0]));
+
+		texture.create(gl);
+
+		assertEquals(5, gl.getCount(RecordingGL.Call.TEX_IMAGE_2D));
+		assertEquals(texture.getGpuBytes(), gl.getTextureBytes());
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsOtherFiles () throws IOException
+	{
+		MipTexture.read(ByteBuffer.wrap("\u0089PNG\r\n\u001a\n and the rest of a png".getBytes("ISO-8859-1")));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTruncatedContainers () throws IOException
+	{
+		ByteBuffer container = MipTexture.encode(16, 16, fill(16, 16, 0, 0, 0, 0), 5, new int[0]);
+		container.limit(container.limit() - 100);
+		MipTexture.read(container);
+	}
+}
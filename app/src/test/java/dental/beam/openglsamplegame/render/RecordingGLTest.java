@@ -0,0 +1,120 @@
+package dental.beam.openglsamplegame.render;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import dental.beam.openglsamplegame.sprites.AtlasRegion;
+import dental.beam.openglsamplegame.sprites.QuadBatch;
+import dental.beam.openglsamplegame.sprites.SpriteSnapshot;
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class RecordingGLTest
+{
+	private static final float MATRIX[] = new float[16];
+
+	private static SpriteSnapshot sprites (int count)
+	{
+		SpriteStore store = new SpriteStore(count);
+		SpriteSnapshot snapshot = new SpriteSnapshot(count);
+		for (int i = 0; i < count; i++)
+		{
+			int slot = store.allocate();
+			store.posX[slot] = i;
+			snapshot.add(store, slot);
+		}
+		return snapshot;
+	}
+
+	private static AtlasRegion region (GLResources resources)
+	{
+		AtlasRegion region = new AtlasRegion(0, 0, 0, 1, 1, 1, 1);
+		region.textureHandle = resources.register("page", GLResources.TYPE_TEXTURE,
+			new PixelTexture(1, 1, ByteBuffer.allocateDirect(4)));
+		return region;
+	}
+
+	@Test
+	public void creatingTheSpriteProgramCompilesTwoShaders ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		SpriteProgram program = new SpriteProgram(new GLResources(gl), 64);
+		program.create();
+
+		assertEquals(2, gl.getCount(RecordingGL.Call.CREATE_SHADER));
+		assertEquals(2, gl.getCount(RecordingGL.Call.COMPILE_SHADER));
+		assertEquals(1, gl.getCount(RecordingGL.Call.LINK_PROGRAM));
+		assertNotEquals(0, program.getSpriteProgram());
+		assertEquals(0, gl.getTotalBytes());
+	}
+
+	@Test
+	public void aFrameOfOneTextureIsOneDraw ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		GLResources resources = new GLResources(gl);
+		SpriteProgram program = new SpriteProgram(resources, 512);
+		program.create();
+		AtlasRegion region = region(resources);
+		RenderQueue queue = new RenderQueue(program, program.getMaxQuadsPerDraw(), 16);
+		gl.reset();
+
+		queue.begin();
+		queue.addSprites(RenderQueue.LAYER_WORLD, region, sprites(100), 1);
+		queue.execute(MATRIX);
+
+		assertEquals(1, gl.getCount(RecordingGL.Call.USE_PROGRAM));
+		assertEquals(1, gl.getCount(RecordingGL.Call.BIND_TEXTURE));
+		assertEquals(2, gl.getCount(RecordingGL.Call.ENABLE_VERTEX_ATTRIB_ARRAY));
+		assertEquals(2, gl.getCount(RecordingGL.Call.DISABLE_VERTEX_ATTRIB_ARRAY));
+		assertEquals(2, gl.getCount(RecordingGL.Call.VERTEX_ATTRIB_POINTER));
+		assertEquals(1, gl.getCount(RecordingGL.Call.DRAW_ELEMENTS));
+		assertEquals(11, gl.getTotalCalls());
+
+		// 4 vertices of 3 position and 2 texture coordinate floats per sprite
+		assertEquals(100 * QuadBatch.VERTICES_PER_QUAD * 5 * 4, gl.getVertexBytes());
+		assertEquals(100 * QuadBatch.INDICES_PER_QUAD * 2, gl.getIndexBytes());
+		assertEquals(16 * 4, gl.getUniformBytes());
+	}
+
+	@Test
+	public void splittingABatchSendsTheSameBytes ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		GLResources resources = new GLResources(gl);
+		SpriteProgram program = new SpriteProgram(resources, 64);
+		program.create();
+		AtlasRegion region = region(resources);
+		RenderQueue queue = new RenderQueue(program, program.getMaxQuadsPerDraw(), 16);
+		gl.reset();
+
+		queue.begin();
+		queue.addSprites(RenderQueue.LAYER_WORLD, region, sprites(100), 1);
+		queue.execute(MATRIX);
+
+		assertEquals(2, gl.getCount(RecordingGL.Call.DRAW_ELEMENTS));
+		assertEquals(4, gl.getCount(RecordingGL.Call.VERTEX_ATTRIB_POINTER));
+		assertEquals(100 * QuadBatch.VERTICES_PER_QUAD * 5 * 4, gl.getVertexBytes());
+		assertEquals(100 * QuadBatch.INDICES_PER_QUAD * 2, gl.getIndexBytes());
+	}
+
+	@Test
+	public void textureUploadsCountTheirPixels ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		int handles[] = new int[2];
+		gl.glGenTextures(2, handles, 0);
+		assertNotEquals(handles[0], handles[1]);
+
+		gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_RGBA, 16, 8, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+			ByteBuffer.allocateDirect(16 * 8 * 4));
+		assertEquals(16 * 8 * 4, gl.getTextureBytes());
+
+		gl.reset();
+		assertEquals(0, gl.getTotalCalls());
+		assertEquals(0, gl.getTotalBytes());
+	}
+}
@@ -0,0 +1,236 @@
+package dental.beam.openglsamplegame.render;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import dental.beam.openglsamplegame.sprites.AtlasRegion;
+import dental.beam.openglsamplegame.sprites.QuadBatch;
+import dental.beam.openglsamplegame.sprites.SpriteSnapshot;
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RenderQueueTest
+{
+	private static final int PROGRAM = 3;
+	private static final float MATRIX[] = new float[16];
+
+	private static class RecordingBackend implements RenderQueue.Backend
+	{
+		List<String> _calls = new ArrayList<>();
+		/** x of the first vertex of every quad drawn, in draw order */
+		List<Float> _quadX = new ArrayList<>();
+
+		@Override
+		public int getSpriteProgram ()
+		{
+			return PROGRAM;
+		}
+
+		@Override
+		public void useProgram (int program, float[] mvpMatrix)
+		{
+			_calls.add("program " + program);
+		}
+
+		@Override
+		public void bindTexture (int textureHandle)
+		{
+			_calls.add("texture " + textureHandle);
+		}
+
+		@Override
+		public void setSpriteAttributesEnabled (boolean enabled)
+		{
+			_calls.add(enabled ? "enable" : "disable");
+		}
+
+		@Override
+		public void drawQuads (FloatBuffer vertices, int quadCount)
+		{
+			_calls.add("draw " + quadCount);
+			for (int i = 0; i < quadCount; i++)
+			{
+				// corner 0 is at x - scale, every test sprite has scale 1
+				_quadX.add(vertices.get(i * QuadBatch.FLOATS_PER_QUAD) + 1);
+			}
+		}
+	}
+
+	private static class RecordingItem implements RenderQueue.Item
+	{
+		final String _name;
+		final RecordingBackend _backend;
+
+		RecordingItem (String name, RecordingBackend backend)
+		{
+			_name = name;
+			_backend = backend;
+		}
+
+		@Override
+		public void draw (float[] mvpMatrix)
+		{
+			_backend._calls.add("item " + _name);
+		}
+	}
+
+	private static AtlasRegion region (int textureHandle)
+	{
+		AtlasRegion region = new AtlasRegion(0, 0, 0, 1, 1, 1, 1);
+		region.textureHandle = textureHandle;
+		return region;
+	}
+
+	/** sprites at x = 0, 1, 2... with the given depths */
+	private static SpriteSnapshot sprites (float... depths)
+	{
+		SpriteStore store = new SpriteStore(depths.length);
+		SpriteSnapshot snapshot = new SpriteSnapshot(depths.length);
+		for (int i = 0; i < depths.length; i++)
+		{
+			int slot = store.allocate();
+			store.posX[slot] = i;
+			store.posZ[slot] = depths[i];
+			snapshot.add(store, slot);
+		}
+		return snapshot;
+	}
+
+	@Test
+	public void sortsByLayerThenTextureThenDepth ()
+	{
+		RecordingBackend backend = new RecordingBackend();
+		RenderQueue queue = new RenderQueue(backend, 64, 4);
+
+		queue.begin();
+		queue.addItem(RenderQueue.LAYER_OVERLAY, 0, new RecordingItem("game over", backend));
+		queue.addItem(RenderQueue.LAYER_HUD, 0, new RecordingItem("count", backend));
+		queue.addSprites(RenderQueue.LAYER_WORLD, region(2), sprites(0.2f, 0.1f), 1);
+		queue.addSprites(RenderQueue.LAYER_WORLD, region(1), sprites(0.3f, -0.5f, 0), 1);
+		queue.execute(MATRIX);
+
+		assertEquals(Arrays.asList(
+			"program 3", "enable", "texture 1", "draw 3",
+			"texture 2", "draw 2",
+			"disable", "item count", "item game over"), backend._calls);
+		// depth order within each texture
+		assertEquals(Arrays.asList(1f, 2f, 0f, 1f, 0f), backend._quadX);
+
+		assertEquals(7, queue.getSortedCommands());
+		assertEquals(4, queue.getDrawCalls());
+		assertEquals(5, queue.getStateChanges());
+	}
+
+	@Test
+	public void interleavedTexturesAreBoundOncePerFrame ()
+	{
+		RecordingBackend backend = new RecordingBackend();
+		RenderQueue queue = new RenderQueue(backend, 64, 4);
+		AtlasRegion first = region(1);
+		AtlasRegion second = region(2);
+
+		// without sorting this would be 100 binds and draws
+		queue.begin();
+		for (int i = 0; i < 50; i++)
+		{
+			queue.addSprites(RenderQueue.LAYER_WORLD, first, sprites(0), 1);
+			queue.addSprites(RenderQueue.LAYER_WORLD, second, sprites(0), 1);
+		}
+		queue.execute(MATRIX);
+
+		assertEquals(Arrays.asList("program 3", "enable", "texture 1", "draw 50", "texture 2", "draw 50", "disable"),
+			backend._calls);
+		assertEquals(2, queue.getDrawCalls());
+		assertEquals(5, queue.getStateChanges());
+
+		// the next frame starts from scratch, nothing is carried over
+		backend._calls.clear();
+		queue.begin();
+		queue.addSprites(RenderQueue.LAYER_WORLD, first, sprites(0), 1);
+		queue.execute(MATRIX);
+		assertEquals(Arrays.asList("program 3", "enable", "texture 1", "draw 1", "disable"), backend._calls);
+		assertEquals(1, queue.getSortedCommands());
+	}
+
+	@Test
+	public void itemsResetTheStateTheQueueTracks ()
+	{
+		RecordingBackend backend = new RecordingBackend();
+		RenderQueue queue = new RenderQueue(backend, 64, 4);
+		AtlasRegion atlas = region(1);
+
+		queue.begin();
+		queue.addSprites(RenderQueue.LAYER_WORLD, atlas, sprites(0), 1);
+		queue.addItem(RenderQueue.LAYER_WORLD, 0, new RecordingItem("text", backend));
+		queue.addSprites(RenderQueue.LAYER_HUD, atlas, sprites(0), 1);
+		queue.execute(MATRIX);
+
+		assertEquals(Arrays.asList(
+			"program 3", "enable", "texture 1", "draw 1", "disable",
+			"item text",
+			"program 3", "enable", "texture 1", "draw 1", "disable"), backend._calls);
+	}
+
+	@Test
+	public void fullBatchesSplitIntoMoreDrawCalls ()
+	{
+		RecordingBackend backend = new RecordingBackend();
+		RenderQueue queue = new RenderQueue(backend, 8, 4);
+
+		queue.begin();
+		queue.addSprites(RenderQueue.LAYER_WORLD, region(1), sprites(new float[20]), 1);
+		queue.execute(MATRIX);
+
+		assertEquals(Arrays.asList("program 3", "enable", "texture 1", "draw 8", "draw 8", "draw 4", "disable"),
+			backend._calls);
+		assertEquals(3, queue.getDrawCalls());
+	}
+
+	@Test
+	public void radixSortMatchesAnUnsignedSortAndIsStable ()
+	{
+		Random random = new Random(3);
+		int count = 5000;
+		long keys[] = new long[count];
+		int values[] = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = RenderQueue.key(random.nextInt(3), random.nextInt(4), random.nextInt(6), (random.nextInt(9) - 4) / 4f);
+			values[i] = i;
+		}
+		long expected[] = keys.clone();
+		Arrays.sort(expected);
+
+		RenderQueue.sort(keys, values, new long[count], new int[count], count, new int[256]);
+
+		// keys never use the top bit, so signed order is unsigned order here
+		assertArrayEquals(expected, keys);
+		for (int i = 1; i < count; i++)
+		{
+			if (keys[i] == keys[i - 1])
+			{
+				assertTrue(values[i] > values[i - 1]);
+			}
+		}
+	}
+
+	@Test
+	public void depthKeysOrderNegativeNumbers ()
+	{
+		float depths[] = { -2, -1, -0.5f, 0, 0.25f, 1, 3 };
+		for (int i = 1; i < depths.length; i++)
+		{
+			long lower = RenderQueue.key(0, 0, 0, depths[i - 1]);
+			long higher = RenderQueue.key(0, 0, 0, depths[i]);
+			assertTrue(depths[i - 1] + " < " + depths[i], Long.compare(lower, higher) < 0);
+		}
+	}
+}
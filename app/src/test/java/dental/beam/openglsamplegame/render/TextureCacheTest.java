@@ -0,0 +1,143 @@
+package dental.beam.openglsamplegame.render;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TextureCacheTest
+{
+	/** a size by size texture with every byte set to fill */
+	private static PixelTexture texture (int size, int fill)
+	{
+		ByteBuffer pixels = ByteBuffer.allocateDirect(size * size * PixelTexture.BYTES_PER_PIXEL);
+		while (pixels.hasRemaining())
+		{
+			pixels.put((byte) fill);
+		}
+		return new PixelTexture(size, size, pixels);
+	}
+
+	@Test
+	public void samePixelsAreOneTexture ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		TextureCache cache = new TextureCache(new GLResources(gl), 1 << 20);
+
+		PixelTexture first = texture(8, 1);
+		PixelTexture copy = texture(8, 1);
+		PixelTexture other = texture(8, 2);
+		int firstHandle = cache.add(TextureCache.digestKey(first), first);
+		int copyHandle = cache.add(TextureCache.digestKey(copy), copy);
+		int otherHandle = cache.add(TextureCache.digestKey(other), other);
+
+		assertEquals(firstHandle, copyHandle);
+		assertNotEquals(firstHandle, otherHandle);
+		assertEquals(2, gl.getCount(RecordingGL.Call.TEX_IMAGE_2D));
+		// same pixels at a different size is a different image
+		assertNotEquals(TextureCache.digestKey(texture(4, 1)), TextureCache.digestKey(texture(8, 1)));
+	}
+
+	@Test
+	public void budgetCountsWidthTimesHeightTimesBytesPerPixel ()
+	{
+		TextureCache cache = new TextureCache(new GLResources(new NoOpGL()), 1 << 20);
+		cache.add("drawable/1", texture(16, 0));
+		cache.add("drawable/2", texture(32, 0));
+
+		assertEquals((16 * 16 + 32 * 32) * 4, cache.getBytes());
+	}
+
+	@Test
+	public void overBudgetEvictsLeastRecentlyUsedUnheldTextures ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		// room for three 16x16 textures
+		TextureCache cache = new TextureCache(new GLResources(gl), 3 * 16 * 16 * 4);
+		cache.add("a", texture(16, 0));
+		cache.add("b", texture(16, 0));
+		cache.add("c", texture(16, 0));
+		cache.release("a");
+		cache.release("b");
+		cache.release("c");
+
+		// a is used again, so b is the least recently used
+		cache.acquire("a");
+		cache.release("a");
+		cache.add("d", texture(16, 0));
+
+		assertFalse(cache.contains("b"));
+		assertTrue(cache.contains("a"));
+		assertTrue(cache.contains("c"));
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(1, gl.getCount(RecordingGL.Call.DELETE_TEXTURES));
+		assertEquals(3 * 16 * 16 * 4, cache.getBytes());
+	}
+
+	@Test
+	public void heldTexturesAreNeverEvicted ()
+	{
+		TextureCache cache = new TextureCache(new GLResources(new NoOpGL()), 16 * 16 * 4);
+		cache.add("a", texture(16, 0));
+		cache.add("b", texture(16, 0));
+
+		// both held, so over budget rather than deleting one out from under a sprite
+		assertTrue(cache.contains("a"));
+		assertTrue(cache.contains("b"));
+		assertFalse(cache.evict("a"));
+
+		cache.release("a");
+		assertFalse(cache.contains("a"));
+		assertEquals(16 * 16 * 4, cache.getBytes());
+	}
+
+	@Test
+	public void evictedTexturesAreMadeAgainWhenAdded ()
+	{
+		RecordingGL gl = new RecordingGL(new NoOpGL());
+		GLResources resources = new GLResources(gl);
+		TextureCache cache = new TextureCache(resources, 1 << 20);
+		int handle = cache.add("drawable/1", texture(8, 0));
+		cache.release(handle);
+
+		assertTrue(cache.evict("drawable/1"));
+		assertEquals(GLResources.NO_HANDLE, cache.acquire("drawable/1"));
+		assertEquals(0, resources.getResourceCount());
+
+		int again = cache.add("drawable/1", texture(8, 0));
+		assertNotEquals(handle, again);
+		assertEquals(2, gl.getCount(RecordingGL.Call.TEX_IMAGE_2D));
+
+		// evicted textures aren't recreated with a new context
+		gl.reset();
+		resources.onContextCreated();
+		assertEquals(1, gl.getCount(RecordingGL.Call.TEX_IMAGE_2D));
+	}
+
+	@Test
+	public void evictUnusedKeepsHeldTextures ()
+	{
+		TextureCache cache = new TextureCache(new GLResources(new NoOpGL()), 1 << 20);
+		cache.add("a", texture(4, 0));
+		cache.add("b", texture(4, 0));
+		cache.release("b");
+
+		cache.evictUnused();
+
+		assertEquals(1, cache.getTextureCount());
+		assertTrue(cache.contains("a"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void releasingTooOftenThrows ()
+	{
+		TextureCache cache = new TextureCache(new GLResources(new NoOpGL()), 1 << 20);
+		cache.add("a", texture(4, 0));
+		cache.release("a");
+		cache.release("a");
+	}
+}
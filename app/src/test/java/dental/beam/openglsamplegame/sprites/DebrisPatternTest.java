@@ -0,0 +1,137 @@
+package dental.beam.openglsamplegame.sprites;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import dental.beam.openglsamplegame.helpers.GameRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DebrisPatternTest
+{
+	private static final float RATIO = 1.7f;
+	private static final GameRandom RANDOM = new GameRandom(42);
+
+	@Test
+	public void piecesFollowTheTable ()
+	{
+		DebrisPattern pattern = new DebrisPattern(new float[] { 0.5f, 1f, 2f }, new int[] { -1, 0, 1 });
+		SpritePool<BrokenAsteroidSprite> pool = newPool(3);
+
+		pattern.shatter(newAsteroid(), RATIO, pool, RANDOM);
+
+		List<BrokenAsteroidSprite> pieces = pool.getLive();
+		assertEquals(3, pieces.size());
+		for (int i = 0; i < 3; i++)
+		{
+			BrokenAsteroidSprite piece = pieces.get(i);
+			assertEquals(0.05f, piece.getScaleX(), 1e-6f);
+			assertEquals(0.3f + 0.1f * (i == 0 ? 0.5f : i), piece.getY(), 1e-6f);
+			assertTrue(piece.getVectorY() <= -0.016f && piece.getVectorY() >= -0.02f);
+		}
+		assertTrue(pieces.get(0).getX() <= 0.2f && pieces.get(0).getVectorX() <= 0);
+		assertEquals(0.2f, pieces.get(1).getX(), 0);
+		assertEquals(0, pieces.get(1).getVectorX(), 0);
+		assertTrue(pieces.get(2).getX() >= 0.2f && pieces.get(2).getVectorX() >= 0);
+	}
+
+	@Test
+	public void aFullPoolGetsWhatFits ()
+	{
+		DebrisPattern pattern = new DebrisPattern(new float[] { 0.5f, 1f, 2f }, new int[] { -1, 0, 1 });
+		SpritePool<BrokenAsteroidSprite> pool = new SpritePool<>(2, new SpritePool.Factory<BrokenAsteroidSprite>()
+		{
+			@Override
+			public BrokenAsteroidSprite create ()
+			{
+				return new BrokenAsteroidSprite();
+			}
+		}, SpritePool.Growth.FIXED, 2);
+
+		pattern.shatter(newAsteroid(), RATIO, pool, RANDOM);
+
+		assertEquals(2, pool.getLiveCount());
+		assertEquals(2, pool.size());
+	}
+
+	@Test
+	public void breakingDoesNotAllocateAfterWarmUp ()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		long threadId = Thread.currentThread().getId();
+
+		SpritePool<BrokenAsteroidSprite> pool = newPool(100);
+		AsteroidSprite asteroid = newAsteroid();
+
+		// warm up so the allocation counter itself has settled
+		for (int i = 0; i < 20000; i++)
+		{
+			breakAndClear(pool, asteroid);
+		}
+		long overhead = threadBean.getThreadAllocatedBytes(threadId);
+		overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+		// and until the jit is done with it, a recompile in the middle of the measured run can put objects it
+		// had optimized away on the heap for a while
+		for (int round = 0; round < 50; round++)
+		{
+			if (breakAndCount(threadBean, threadId, pool, asteroid) <= overhead)
+			{
+				break;
+			}
+		}
+
+		long allocated = breakAndCount(threadBean, threadId, pool, asteroid) - overhead;
+
+		assertEquals("bytes allocated by 1000 breaks", 0, allocated);
+	}
+
+	/** @return bytes allocated by 1000 breaks, counter overhead included */
+	private static long breakAndCount (com.sun.management.ThreadMXBean threadBean, long threadId,
+		SpritePool<BrokenAsteroidSprite> pool, AsteroidSprite asteroid)
+	{
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 1000; i++)
+		{
+			breakAndClear(pool, asteroid);
+		}
+		return threadBean.getThreadAllocatedBytes(threadId) - before;
+	}
+
+	private static void breakAndClear (SpritePool<BrokenAsteroidSprite> pool, AsteroidSprite asteroid)
+	{
+		DebrisPattern.DEFAULT.shatter(asteroid, RATIO, pool, RANDOM);
+		pool.clear();
+	}
+
+	private static SpritePool<BrokenAsteroidSprite> newPool (int size)
+	{
+		return new SpritePool<>(size, new SpritePool.Factory<BrokenAsteroidSprite>()
+		{
+			@Override
+			public BrokenAsteroidSprite create ()
+			{
+				return new BrokenAsteroidSprite();
+			}
+		});
+	}
+
+	private static AsteroidSprite newAsteroid ()
+	{
+		AsteroidSprite asteroid = new AsteroidSprite();
+		asteroid.useOwnStore();
+		asteroid.setX(0.2f);
+		asteroid.setY(0.3f);
+		asteroid.setScale(0.2f, 0.1f);
+		asteroid._store.vectorY[asteroid._slot] = -0.02f;
+		return asteroid;
+	}
+}
@@ -0,0 +1,110 @@
+package dental.beam.openglsamplegame.sprites;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FontCacheTest
+{
+	/** a font is just its settings and which load it came from */
+	private static class CountingLoader implements FontCache.Loader<String>
+	{
+		int loads;
+		int measures;
+
+		@Override
+		public String load (String asset, int size, int padX, int padY)
+		{
+			loads++;
+			return asset + "@" + size + "#" + loads;
+		}
+
+		@Override
+		public float getCharWidth (String font, char c)
+		{
+			measures++;
+			return c;
+		}
+	}
+
+	@Test
+	public void sameSettingsShareAFont ()
+	{
+		CountingLoader loader = new CountingLoader();
+		FontCache<String> cache = new FontCache<>(loader);
+
+		FontCache.Font<String> counter = cache.acquire("OpenSans-Light.ttf", 40, 2, 2);
+		FontCache.Font<String> gameOver = cache.acquire("OpenSans-Light.ttf", 40, 2, 2);
+		FontCache.Font<String> bigger = cache.acquire("OpenSans-Light.ttf", 80, 2, 2);
+		FontCache.Font<String> padded = cache.acquire("OpenSans-Light.ttf", 40, 4, 4);
+
+		assertSame(counter, gameOver);
+		assertNotSame(counter, bigger);
+		assertNotSame(counter, padded);
+		assertEquals(3, loader.loads);
+		assertEquals(3, cache.getFontCount());
+	}
+
+	@Test
+	public void newContextLoadsEachFontOnceWithoutMeasuringAgain ()
+	{
+		CountingLoader loader = new CountingLoader();
+		FontCache<String> cache = new FontCache<>(loader);
+		List<FontCache.Font<String>> fonts = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			fonts.add(cache.acquire("OpenSans-Light.ttf", i % 2 == 0 ? 40 : 80, 2, 2));
+		}
+		int measures = loader.measures;
+		String before = fonts.get(0).get();
+
+		cache.onContextCreated();
+
+		assertEquals(4, cache.getLoadCount());
+		assertNotEquals(before, fonts.get(0).get());
+		assertSame(fonts.get(0).get(), fonts.get(2).get());
+		assertTrue(fonts.get(1).get().startsWith("OpenSans-Light.ttf@80"));
+		assertEquals(measures, loader.measures);
+		assertEquals('W', fonts.get(0).getCharWidth('W'), 0);
+	}
+
+	@Test
+	public void lastReleaseDropsTheFont ()
+	{
+		CountingLoader loader = new CountingLoader();
+		FontCache<String> cache = new FontCache<>(loader);
+		FontCache.Font<String> first = cache.acquire("OpenSans-Light.ttf", 40, 2, 2);
+		FontCache.Font<String> second = cache.acquire("OpenSans-Light.ttf", 40, 2, 2);
+
+		cache.release(first);
+		assertEquals(1, cache.getFontCount());
+
+		cache.release(second);
+		assertEquals(0, cache.getFontCount());
+		assertNull(second.get());
+
+		// nothing left to reload
+		cache.onContextCreated();
+		assertEquals(1, loader.loads);
+
+		cache.acquire("OpenSans-Light.ttf", 40, 2, 2);
+		assertEquals(2, loader.loads);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void releasingTooOftenThrows ()
+	{
+		FontCache<String> cache = new FontCache<>(new CountingLoader());
+		FontCache.Font<String> font = cache.acquire("OpenSans-Light.ttf", 40, 2, 2);
+		cache.release(font);
+		cache.release(font);
+	}
+}
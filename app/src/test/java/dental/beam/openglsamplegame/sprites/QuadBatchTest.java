@@ -0,0 +1,147 @@
+package dental.beam.openglsamplegame.sprites;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class QuadBatchTest
+{
+	private static final float EPSILON = 0.00001f;
+
+	private static class Flush
+	{
+		float _vertices[];
+		int _quadCount;
+		int _textureHandle;
+	}
+
+	private static class RecordingTarget implements QuadBatch.Target
+	{
+		List<Flush> _flushes = new ArrayList<>();
+
+		@Override
+		public void drawQuads (FloatBuffer vertices, int quadCount, int textureHandle)
+		{
+			Flush flush = new Flush();
+			flush._vertices = new float[vertices.remaining()];
+			vertices.get(flush._vertices);
+			flush._quadCount = quadCount;
+			flush._textureHandle = textureHandle;
+			_flushes.add(flush);
+		}
+	}
+
+	@Test
+	public void quadsAreTransformedLikeTheSpriteMatrix ()
+	{
+		RecordingTarget target = new RecordingTarget();
+		QuadBatch batch = new QuadBatch(16, target);
+
+		// scaled to 2 by 1, turned a quarter counterclockwise and moved to (10, 20)
+		batch.add(7, 10, 20, 0.5f, 90, 2, 1);
+		batch.flush();
+
+		assertEquals(1, target._flushes.size());
+		Flush flush = target._flushes.get(0);
+		assertEquals(1, flush._quadCount);
+		assertEquals(7, flush._textureHandle);
+		assertArrayEquals(new float[]
+		{
+			// x, y, z, u, v for the bottom left, bottom right, top right and top left corners of the square
+			11, 18, 0.5f, 0, 1,
+			11, 22, 0.5f, 1, 1,
+			9, 22, 0.5f, 1, 0,
+			9, 18, 0.5f, 0, 0
+		}, flush._vertices, EPSILON);
+	}
+
+	@Test
+	public void textureAreaMapsOntoTheCorners ()
+	{
+		RecordingTarget target = new RecordingTarget();
+		QuadBatch batch = new QuadBatch(16, target);
+
+		batch.add(1, 0, 0, 0, 0, 1, 1, 0.25f, 0.5f, 0.75f, 1);
+		batch.flush();
+
+		float vertices[] = target._flushes.get(0)._vertices;
+		assertArrayEquals(new float[]
+		{
+			-1, -1, 0, 0.25f, 1,
+			1, -1, 0, 0.75f, 1,
+			1, 1, 0, 0.75f, 0.5f,
+			-1, 1, 0, 0.25f, 0.5f
+		}, vertices, EPSILON);
+	}
+
+	@Test
+	public void flushesOncePerTextureRun ()
+	{
+		RecordingTarget target = new RecordingTarget();
+		QuadBatch batch = new QuadBatch(100, target);
+
+		for (int i = 0; i < 30; i++)
+		{
+			batch.add(1, i, 0, 0, 0, 1, 1);
+		}
+		for (int i = 0; i < 20; i++)
+		{
+			batch.add(2, i, 0, 0, 0, 1, 1);
+		}
+		batch.add(1, 0, 0, 0, 0, 1, 1);
+		batch.flush();
+		// nothing left, so nothing more to draw
+		batch.flush();
+
+		assertEquals(3, batch.getFlushCount());
+		assertEquals(51, batch.getTotalQuads());
+		assertEquals(30, target._flushes.get(0)._quadCount);
+		assertEquals(1, target._flushes.get(0)._textureHandle);
+		assertEquals(20, target._flushes.get(1)._quadCount);
+		assertEquals(2, target._flushes.get(1)._textureHandle);
+		assertEquals(1, target._flushes.get(2)._quadCount);
+		assertEquals(30 * QuadBatch.FLOATS_PER_QUAD, target._flushes.get(0)._vertices.length);
+	}
+
+	@Test
+	public void fullBatchFlushesOnItsOwn ()
+	{
+		RecordingTarget target = new RecordingTarget();
+		QuadBatch batch = new QuadBatch(8, target);
+
+		for (int i = 0; i < 20; i++)
+		{
+			batch.add(1, i, 0, 0, 0, 1, 1);
+		}
+		assertEquals(2, target._flushes.size());
+		assertEquals(4, batch.getPendingQuads());
+		batch.flush();
+
+		assertEquals(3, batch.getFlushCount());
+		assertEquals(8, target._flushes.get(0)._quadCount);
+		assertEquals(8, target._flushes.get(1)._quadCount);
+		assertEquals(4, target._flushes.get(2)._quadCount);
+		// the second batch starts over at the front of the buffer with the 9th sprite
+		assertEquals(8 - 1, target._flushes.get(1)._vertices[0], EPSILON);
+	}
+
+	@Test
+	public void indicesMakeTwoTrianglesPerQuad ()
+	{
+		ShortBuffer indices = QuadBatch.buildIndices(QuadBatch.MAX_QUADS);
+		assertEquals(QuadBatch.MAX_QUADS * QuadBatch.INDICES_PER_QUAD, indices.remaining());
+
+		short first[] = new short[12];
+		indices.get(first);
+		assertArrayEquals(new short[] { 0, 1, 2, 0, 2, 3, 4, 5, 6, 4, 6, 7 }, first);
+
+		// the last vertex still fits in an unsigned short
+		assertEquals(65535, indices.get(indices.limit() - 1) & 0xffff);
+	}
+}
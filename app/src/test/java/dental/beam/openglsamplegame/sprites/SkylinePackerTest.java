@@ -0,0 +1,92 @@
+package dental.beam.openglsamplegame.sprites;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SkylinePackerTest
+{
+	@Test
+	public void fillsTheBottomRowBeforeStackingUp ()
+	{
+		SkylinePacker packer = new SkylinePacker(100, 100);
+		int position[] = new int[2];
+
+		assertTrue(packer.pack(60, 40, position));
+		assertArrayEquals(new int[] { 0, 0 }, position);
+		assertTrue(packer.pack(40, 30, position));
+		assertArrayEquals(new int[] { 60, 0 }, position);
+		// lowest spot is on top of the shorter one
+		assertTrue(packer.pack(40, 10, position));
+		assertArrayEquals(new int[] { 60, 30 }, position);
+		// which evened out the skyline, so this goes straight across
+		assertTrue(packer.pack(100, 60, position));
+		assertArrayEquals(new int[] { 0, 40 }, position);
+
+		assertFalse(packer.pack(1, 1, position));
+		assertTrue(packer.getOccupancy() > 0.99f);
+	}
+
+	@Test
+	public void rejectsWhatCanNeverFit ()
+	{
+		SkylinePacker packer = new SkylinePacker(64, 64);
+		int position[] = new int[2];
+		assertFalse(packer.pack(65, 1, position));
+		assertFalse(packer.pack(1, 65, position));
+		assertFalse(packer.pack(0, 10, position));
+	}
+
+	@Test
+	public void packsRandomSpritesTightlyWithoutOverlap ()
+	{
+		Random random = new Random(7);
+		int size = 1024;
+		SkylinePacker packer = new SkylinePacker(size, size);
+
+		final int rects[][] = new int[300][];
+		for (int i = 0; i < rects.length; i++)
+		{
+			rects[i] = new int[] { 8 + random.nextInt(56), 8 + random.nextInt(56), -1, -1 };
+		}
+		Arrays.sort(rects, new Comparator<int[]>()
+		{
+			@Override
+			public int compare (int[] a, int[] b)
+			{
+				return b[1] - a[1];
+			}
+		});
+
+		int position[] = new int[2];
+		for (int rect[] : rects)
+		{
+			assertTrue(packer.pack(rect[0], rect[1], position));
+			rect[2] = position[0];
+			rect[3] = position[1];
+			assertTrue(rect[2] >= 0 && rect[2] + rect[0] <= size);
+			assertTrue(rect[3] >= 0 && rect[3] + rect[1] <= size);
+		}
+
+		for (int i = 0; i < rects.length; i++)
+		{
+			for (int j = i + 1; j < rects.length; j++)
+			{
+				assertFalse("overlap " + i + " " + j, overlaps(rects[i], rects[j]));
+			}
+		}
+
+		assertTrue("occupancy " + packer.getOccupancy(), packer.getOccupancy() > 0.85f);
+	}
+
+	private static boolean overlaps (int a[], int b[])
+	{
+		return a[2] < b[2] + b[0] && b[2] < a[2] + a[0] && a[3] < b[3] + b[1] && b[3] < a[3] + a[1];
+	}
+}
@@ -0,0 +1,283 @@
+package dental.beam.openglsamplegame.sprites;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import dental.beam.openglsamplegame.engine.SpawnSchedule;
+import dental.beam.openglsamplegame.helpers.GameRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SpritePoolTest
+{
+	private static final SpritePool.Factory<AsteroidSprite> FACTORY = new SpritePool.Factory<AsteroidSprite>()
+	{
+		@Override
+		public AsteroidSprite create ()
+		{
+			return new AsteroidSprite();
+		}
+	};
+
+	@Test
+	public void spritesOnlyGetAStoreFromThePool ()
+	{
+		assertNull(FACTORY.create().getStore());
+
+		SpritePool<AsteroidSprite> pool = new SpritePool<>(4, FACTORY);
+		AsteroidSprite asteroid = pool.spawn();
+		assertSame(pool.getStore(), asteroid.getStore());
+		assertEquals(1, asteroid.getScaleX(), 0);
+
+		AsteroidSprite icon = FACTORY.create();
+		icon.useOwnStore();
+		icon.setX(0.5f);
+		assertEquals(0.5f, icon.getX(), 0);
+		assertEquals(0, asteroid.getX(), 0);
+	}
+
+	@Test
+	public void killSwapsLastLiveSpriteIntoTheHole ()
+	{
+		SpritePool<AsteroidSprite> pool = new SpritePool<>(4, FACTORY);
+		AsteroidSprite a = pool.spawn();
+		AsteroidSprite b = pool.spawn();
+		AsteroidSprite c = pool.spawn();
+
+		pool.kill(a);
+		pool.kill(a);
+
+		assertEquals(2, pool.getLiveCount());
+		assertSame(c, pool.getLive(0));
+		assertSame(b, pool.getLive(1));
+		assertSame(a, pool.spawn());
+		assertEquals(4, pool.getSpawnCount());
+		assertEquals(1, pool.getKillCount());
+		assertEquals(3, pool.getHighWaterMark());
+	}
+
+	@Test
+	public void growthPolicies ()
+	{
+		SpritePool<AsteroidSprite> fixed = new SpritePool<>(2, FACTORY, SpritePool.Growth.FIXED, 0);
+		fixed.spawn();
+		fixed.spawn();
+		assertNull(fixed.spawn());
+		assertEquals(2, fixed.size());
+
+		SpritePool<AsteroidSprite> doubling = new SpritePool<>(2, FACTORY);
+		for (int i = 0; i < 5; i++)
+		{
+			doubling.spawn();
+		}
+		assertEquals(8, doubling.size());
+		assertEquals(2, doubling.getExpansionCount());
+
+		SpritePool<AsteroidSprite> capped = new SpritePool<>(2, FACTORY, SpritePool.Growth.CAPPED, 3);
+		capped.spawn();
+		capped.spawn();
+		capped.spawn();
+		assertNull(capped.spawn());
+		assertEquals(3, capped.size());
+
+		// slots line up with the shared store after growing
+		for (int i = 0; i < doubling.size(); i++)
+		{
+			assertEquals(i, doubling.getSprites().get(i).getSlot());
+			assertSame(doubling.getStore(), doubling.getSprites().get(i).getStore());
+		}
+	}
+
+	@Test
+	public void prewarmOnlyAddsWhatThePoolStillNeeds ()
+	{
+		final Queue<Runnable> handOvers = new ArrayDeque<>();
+		Executor later = new Executor()
+		{
+			@Override
+			public void execute (Runnable command)
+			{
+				handOvers.add(command);
+			}
+		};
+		Executor now = new Executor()
+		{
+			@Override
+			public void execute (Runnable command)
+			{
+				command.run();
+			}
+		};
+
+		// the pool runs out and doubles to 4 while 3 more sprites are on their way
+		SpritePool<AsteroidSprite> capped = new SpritePool<>(2, FACTORY, SpritePool.Growth.CAPPED, 5);
+		capped.prewarm(5, now, later);
+		for (int i = 0; i < 3; i++)
+		{
+			capped.spawn();
+		}
+		assertEquals(4, capped.size());
+		handOvers.poll().run();
+		assertEquals(5, capped.size());
+
+		SpritePool<AsteroidSprite> doubling = new SpritePool<>(2, FACTORY);
+		doubling.prewarm(3, now, later);
+		for (int i = 0; i < 3; i++)
+		{
+			doubling.spawn();
+		}
+		handOvers.poll().run();
+		assertEquals(4, doubling.size());
+		assertEquals(1, doubling.getPrewarmCount());
+
+		// and the slots still line up with the store
+		for (int i = 0; i < capped.size(); i++)
+		{
+			assertEquals(i, capped.getSprites().get(i).getSlot());
+		}
+		assertEquals(2, capped.size() - capped.getLiveCount());
+	}
+
+	@Test
+	public void prewarmKeepsUpWithRampingSpawnSchedule ()
+	{
+		SpawnSchedule schedule = new SpawnSchedule();
+		SpritePool<AsteroidSprite> pool = runWithPrewarm(schedule, 20000);
+
+		assertEquals(15, schedule.getFramesBetweenSpawns());
+		assertTrue(pool.getHighWaterMark() > 10);
+		assertTrue(pool.getPrewarmCount() > 0);
+		assertEquals("pool grew inside a frame", 0, pool.getExpansionCount());
+	}
+
+	@Test
+	public void prewarmKeepsUpWithSoakSpawnSchedule ()
+	{
+		// every frame, 25 at a time, far past where the game's schedule stops
+		SpawnSchedule schedule = new SpawnSchedule(8, 1, 25);
+		SpritePool<AsteroidSprite> pool = runWithPrewarm(schedule, 2000);
+
+		assertEquals(1, schedule.getFramesBetweenSpawns());
+		assertTrue(pool.getHighWaterMark() >= 200 * 25);
+		assertEquals("pool grew inside a frame", 0, pool.getExpansionCount());
+	}
+
+	@Test
+	public void integrateAndRetainMatchUpdatingOneAtATime ()
+	{
+		SpritePool<BrokenAsteroidSprite> oneAtATime = debris();
+		SpritePool<BrokenAsteroidSprite> integrated = debris();
+		int survivors[] = new int[oneAtATime.size()];
+
+		for (int frame = 0; frame < 400; frame++)
+		{
+			for (int i = 0; i < oneAtATime.getLiveCount(); i++)
+			{
+				BrokenAsteroidSprite piece = oneAtATime.getLive(i);
+				if (!piece.update())
+				{
+					oneAtATime.kill(piece);
+					i--;
+				}
+			}
+
+			int count = integrated.getStore().integrate(integrated.getLiveSlots(), 0, integrated.getLiveCount(),
+				BrokenAsteroidSprite.SCALE_DELTA, survivors);
+			integrated.retain(survivors, count);
+
+			assertEquals(oneAtATime.getLiveCount(), integrated.getLiveCount());
+			for (int i = 0; i < oneAtATime.getLiveCount(); i++)
+			{
+				int slot = oneAtATime.getLive(i).getSlot();
+				assertEquals(slot, integrated.getLive(i).getSlot());
+				assertEquals(slot, integrated.getLiveSlots()[i]);
+				assertEquals(oneAtATime.getStore().posX[slot], integrated.getStore().posX[slot], 0);
+				assertEquals(oneAtATime.getStore().posY[slot], integrated.getStore().posY[slot], 0);
+				assertEquals(oneAtATime.getStore().scaleX[slot], integrated.getStore().scaleX[slot], 0);
+				assertEquals(oneAtATime.getStore().rotation[slot], integrated.getStore().rotation[slot], 0);
+				assertEquals(oneAtATime.getStore().alive[slot], integrated.getStore().alive[slot]);
+			}
+		}
+		assertEquals("everything should be gone by now", 0, integrated.getLiveCount());
+	}
+
+	/** pieces that fall off the bottom or shrink away at all sorts of times, in two different worlds */
+	private static SpritePool<BrokenAsteroidSprite> debris ()
+	{
+		SpritePool<BrokenAsteroidSprite> pool = new SpritePool<>(500, new SpritePool.Factory<BrokenAsteroidSprite>()
+		{
+			@Override
+			public BrokenAsteroidSprite create ()
+			{
+				return new BrokenAsteroidSprite();
+			}
+		});
+		GameRandom random = new GameRandom(7);
+		for (int i = 0; i < 500; i++)
+		{
+			pool.spawn().init(i % 2 == 0 ? 1.7f : 1.4f, random.nextFloat(-1, 1), random.nextFloat(-1.7f, 1.7f),
+				random.nextFloat(-0.01f, 0.01f), random.nextFloat(-0.03f, 0), random.nextFloat(0.01f, 0.15f), random);
+		}
+		return pool;
+	}
+
+	/** asteroids that live 200 frames, spawned on the schedule with the pool prewarmed between frames */
+	private static SpritePool<AsteroidSprite> runWithPrewarm (SpawnSchedule schedule, int frames)
+	{
+		// builds right away, but the hand over only happens between frames like SimulationThread does between ticks
+		final Queue<Runnable> betweenFrames = new ArrayDeque<>();
+		Executor builder = new Executor()
+		{
+			@Override
+			public void execute (Runnable command)
+			{
+				command.run();
+			}
+		};
+		Executor owner = new Executor()
+		{
+			@Override
+			public void execute (Runnable command)
+			{
+				betweenFrames.add(command);
+			}
+		};
+
+		int lifetime = 200;
+		SpritePool<AsteroidSprite> pool = new SpritePool<>(1, FACTORY);
+		List<Integer> spawnFrames = new ArrayList<>();
+		List<AsteroidSprite> spawned = new ArrayList<>();
+
+		// like starting a game
+		pool.prewarm(schedule.expectedLive(lifetime, 1), builder, owner);
+		for (int frame = 0; frame < frames; frame++)
+		{
+			while (!betweenFrames.isEmpty())
+			{
+				betweenFrames.poll().run();
+			}
+
+			// the frame itself
+			while (!spawned.isEmpty() && spawnFrames.get(0) + lifetime <= frame)
+			{
+				pool.kill(spawned.remove(0));
+				spawnFrames.remove(0);
+			}
+			for (int i = schedule.tick(); i > 0; i--)
+			{
+				spawned.add(pool.spawn());
+				spawnFrames.add(frame);
+			}
+			pool.prewarm(schedule.expectedLive(lifetime, 1), builder, owner);
+		}
+		return pool;
+	}
+}
@@ -0,0 +1,126 @@
+package dental.beam.openglsamplegame.sprites;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TextLayoutTest
+{
+	/** digits are their value wide plus one, everything else is 10 */
+	private static final TextLayout.Metrics METRICS = new TextLayout.Metrics()
+	{
+		@Override
+		public float getCharWidth (char c)
+		{
+			return c >= '0' && c <= '9' ? c - '0' + 1 : 10;
+		}
+	};
+
+	@Test
+	public void formatsIntsLikeIntegerToString ()
+	{
+		TextLayout layout = new TextLayout(4, METRICS);
+		for (int value : new int[] { 0, 7, 10, 99, 100, 12345, -1, -908, Integer.MAX_VALUE, Integer.MIN_VALUE, 42 })
+		{
+			layout.setInt(value);
+			assertEquals(Integer.toString(value), layout.toString());
+		}
+	}
+
+	@Test
+	public void offsetsAndWidth ()
+	{
+		TextLayout layout = new TextLayout(8, METRICS);
+		layout.setText("2a0");
+
+		assertEquals(0, layout.getOffset(0), 0);
+		assertEquals(3, layout.getOffset(1), 0);
+		assertEquals(13, layout.getOffset(2), 0);
+		assertEquals(14, layout.getWidth(), 0);
+		assertEquals("a", layout.getGlyph(1));
+
+		// shorter, with nothing before the cut changed
+		assertTrue(layout.setText("2a"));
+		assertEquals(13, layout.getWidth(), 0);
+	}
+
+	@Test
+	public void onlyChangedCharactersAreMeasured ()
+	{
+		TextLayout layout = new TextLayout(8, METRICS);
+		layout.setInt(1230);
+		int measured = layout.getMeasureCount();
+
+		assertFalse(layout.setInt(1230));
+		assertEquals(measured, layout.getMeasureCount());
+
+		assertTrue(layout.setInt(1231));
+		assertEquals(measured + 1, layout.getMeasureCount());
+		assertEquals(2 + 3 + 4 + 2, layout.getWidth(), 0);
+
+		// a digit in the middle moves everything after it
+		layout.setText("1291");
+		assertEquals(measured + 2, layout.getMeasureCount());
+		assertEquals(2 + 3 + 10, layout.getOffset(3), 0);
+	}
+
+	@Test
+	public void growsPastItsCapacity ()
+	{
+		TextLayout layout = new TextLayout(1, METRICS);
+		layout.setText("Game Over");
+
+		assertEquals("Game Over", layout.toString());
+		assertEquals(90, layout.getWidth(), 0);
+	}
+
+	@Test
+	public void remeasureUsesTheNewWidths ()
+	{
+		final float scale[] = { 1 };
+		TextLayout layout = new TextLayout(4, new TextLayout.Metrics()
+		{
+			@Override
+			public float getCharWidth (char c)
+			{
+				return METRICS.getCharWidth(c) * scale[0];
+			}
+		});
+		layout.setInt(55);
+		scale[0] = 2;
+		layout.remeasure();
+
+		assertEquals(24, layout.getWidth(), 0);
+		assertEquals(12, layout.getOffset(1), 0);
+	}
+
+	@Test
+	public void countingDoesNotAllocate ()
+	{
+		TextLayout layout = new TextLayout(16, METRICS);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		// warm up so nothing is allocated by class loading or the jit
+		for (int count = 0; count < 100000; count++)
+		{
+			layout.setInt(count);
+			layout.setInt(count);
+		}
+
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int count = 0; count < 100000; count++)
+		{
+			layout.setInt(count);
+			layout.setInt(count);
+		}
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+		// allow for the call to measure it
+		assertTrue(allocated + " bytes", allocated < 1024);
+	}
+}
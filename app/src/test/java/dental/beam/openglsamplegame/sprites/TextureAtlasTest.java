@@ -0,0 +1,73 @@
+package dental.beam.openglsamplegame.sprites;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TextureAtlasTest
+{
+	private static final float EPSILON = 0.000001f;
+
+	@Test
+	public void regionsMapToTheirPixels ()
+	{
+		TextureAtlas atlas = new TextureAtlas(1024, 2);
+
+		// the game's drawables at xxxhdpi, tallest first
+		AtlasRegion chicken = atlas.add(1, 248, 400);
+		AtlasRegion asteroid = atlas.add(2, 408, 384);
+		AtlasRegion ship = atlas.add(3, 384, 384);
+		assertEquals(1, atlas.getPageCount());
+		assertSame(asteroid, atlas.getRegion(2));
+
+		assertEquals(0, chicken.x);
+		assertEquals(0, chicken.y);
+		assertEquals(0, chicken.u0, EPSILON);
+		assertEquals(0, chicken.v0, EPSILON);
+		assertEquals(248 / 1024f, chicken.u1, EPSILON);
+		assertEquals(400 / 1024f, chicken.v1, EPSILON);
+
+		// padding keeps neighbours apart
+		assertEquals(250, asteroid.x);
+		assertEquals(250 / 1024f, asteroid.u0, EPSILON);
+		assertEquals(658 / 1024f, asteroid.u1, EPSILON);
+		assertEquals(384 / 1024f, asteroid.v1, EPSILON);
+		assertEquals(408f / 384f, asteroid.getImageRatio(), EPSILON);
+
+		// no room left on the bottom row, the lowest spot is on top of the asteroid
+		assertEquals(250, ship.x);
+		assertEquals(384 + 2, ship.y);
+		assertEquals(ship.y / 1024f, ship.v0, EPSILON);
+		assertEquals((ship.y + 384) / 1024f, ship.v1, EPSILON);
+	}
+
+	@Test
+	public void fullPagesSpillOntoNewOnes ()
+	{
+		TextureAtlas atlas = new TextureAtlas(256, 0);
+		for (int i = 0; i < 5; i++)
+		{
+			atlas.add(i, 128, 128);
+		}
+
+		assertEquals(2, atlas.getPageCount());
+		assertEquals(1, atlas.getRegion(4).page);
+		assertEquals(0, atlas.getRegion(4).x);
+		assertEquals(0, atlas.getRegion(4).y);
+
+		atlas.setPageTexture(0, 11);
+		atlas.setPageTexture(1, 12);
+		assertEquals(11, atlas.getRegion(3).textureHandle);
+		assertEquals(12, atlas.getRegion(4).textureHandle);
+
+		// earlier pages are tried first, but the first one has no gap left
+		assertEquals(1, atlas.add(5, 16, 16).page);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void imagesBiggerThanAPageAreRejected ()
+	{
+		new TextureAtlas(256, 2).add(1, 255, 10);
+	}
+}
@@ -0,0 +1,101 @@
+package dental.beam.openglsamplegame.atlastool;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import dental.beam.openglsamplegame.helpers.AssetPack;
+
+/**
+ * Packs every file under a directory into one {@link AssetPack}
+ *
+ * Entries are named by their path under the directory with / between the parts, textures/world-0.mtex
+ * for example, and go in sorted by name so the same files always make the same pack.
+ */
+public class AssetPackTool
+{
+	public static void main (String args[]) throws IOException
+	{
+		if (args.length != 2)
+		{
+			System.err.println("usage: AssetPackTool <output pack> <directory>");
+			System.exit(1);
+		}
+
+		File output = new File(args[0]);
+		File directory = new File(args[1]);
+		int count = write(output, directory);
+		System.out.println("packed " + count + " files from " + directory + " into " + output);
+	}
+
+	/**
+	 * @return how many files were packed
+	 */
+	static int write (File output, File directory) throws IOException
+	{
+		List<String> names = new ArrayList<>();
+		list(directory, "", names);
+		Collections.sort(names);
+
+		AssetPack.Writer writer = new AssetPack.Writer();
+		for (String name : names)
+		{
+			writer.add(name, read(new File(directory, name)));
+		}
+
+		File parent = output.getAbsoluteFile().getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs())
+		{
+			throw new IOException("can't make " + parent);
+		}
+		FileChannel channel = new FileOutputStream(output).getChannel();
+		try
+		{
+			writer.write(channel);
+		}
+		finally
+		{
+			channel.close();
+		}
+		return names.size();
+	}
+
+	private static void list (File directory, String prefix, List<String> names) throws IOException
+	{
+		File files[] = directory.listFiles();
+		if (files == null)
+		{
+			throw new IOException("can't list " + directory);
+		}
+		for (File file : files)
+		{
+			if (file.isDirectory())
+			{
+				list(file, prefix + file.getName() + "/", names);
+			}
+			else
+			{
+				names.add(prefix + file.getName());
+			}
+		}
+	}
+
+	private static ByteBuffer read (File file) throws IOException
+	{
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try
+		{
+			return input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+}
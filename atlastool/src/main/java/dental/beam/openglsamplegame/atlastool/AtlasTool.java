@@ -0,0 +1,151 @@
+package dental.beam.openglsamplegame.atlastool;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import dental.beam.openglsamplegame.render.MipTexture;
+import dental.beam.openglsamplegame.sprites.AtlasRegion;
+import dental.beam.openglsamplegame.sprites.TextureAtlas;
+
+/**
+ * Lays pngs out on atlas pages the same way the game does and writes every page with its mip levels
+ *
+ * Each page goes in name-page.mtex, with the regions on it keyed by the png's position in the arguments,
+ * so the game has to list its drawables in the same order. Pixels are written with straight alpha, which
+ * is what the game's blending expects.
+ */
+public class AtlasTool
+{
+	public static void main (String args[]) throws IOException
+	{
+		if (args.length < 4)
+		{
+			System.err.println("usage: AtlasTool <output dir> <name> <page size> <png>...");
+			System.exit(1);
+		}
+
+		File output = new File(args[0]);
+		String name = args[1];
+		int pageSize = Integer.parseInt(args[2]);
+		List<BufferedImage> images = new ArrayList<>();
+		for (int i = 3; i < args.length; i++)
+		{
+			BufferedImage image = ImageIO.read(new File(args[i]));
+			if (image == null)
+			{
+				throw new IOException("can't read " + args[i]);
+			}
+			images.add(image);
+		}
+
+		int pages = write(output, name, pageSize, images);
+		System.out.println("wrote " + pages + " " + pageSize + " pages of " + name + " to " + output);
+	}
+
+	/**
+	 * @return how many pages were written
+	 */
+	static int write (File output, String name, int pageSize, List<BufferedImage> images) throws IOException
+	{
+		ByteBuffer pages[] = buildPages(pageSize, images);
+
+		if (!output.isDirectory() && !output.mkdirs())
+		{
+			throw new IOException("can't make " + output);
+		}
+
+		for (int page = 0; page < pages.length; page++)
+		{
+			FileChannel channel = new FileOutputStream(new File(output, name + "-" + page + ".mtex")).getChannel();
+			try
+			{
+				while (pages[page].hasRemaining())
+				{
+					channel.write(pages[page]);
+				}
+			}
+			finally
+			{
+				channel.close();
+			}
+		}
+
+		// a page left over from when the atlas was bigger would be read as part of it
+		new File(output, name + "-" + pages.length + ".mtex").delete();
+		return pages.length;
+	}
+
+	/**
+	 * Lay the images out and encode every page
+	 *
+	 * @return a {@link MipTexture} container for each page, position 0
+	 */
+	public static ByteBuffer[] buildPages (int pageSize, List<BufferedImage> images)
+	{
+		int count = images.size();
+		int keys[] = new int[count];
+		int widths[] = new int[count];
+		int heights[] = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = i;
+			widths[i] = images.get(i).getWidth();
+			heights[i] = images.get(i).getHeight();
+		}
+		TextureAtlas atlas = TextureAtlas.pack(pageSize, TextureAtlas.DEFAULT_PADDING, keys, widths, heights);
+
+		ByteBuffer pages[] = new ByteBuffer[atlas.getPageCount()];
+		for (int page = 0; page < pages.length; page++)
+		{
+			ByteBuffer pixels = ByteBuffer.allocateDirect(pageSize * pageSize * 4);
+			List<Integer> regions = new ArrayList<>();
+			for (int i = 0; i < count; i++)
+			{
+				AtlasRegion region = atlas.getRegion(i);
+				if (region.page == page)
+				{
+					draw(images.get(i), pixels, pageSize, region.x, region.y);
+					regions.add(i);
+					regions.add(region.x);
+					regions.add(region.y);
+					regions.add(region.width);
+					regions.add(region.height);
+				}
+			}
+
+			int regionInts[] = new int[regions.size()];
+			for (int i = 0; i < regionInts.length; i++)
+			{
+				regionInts[i] = regions.get(i);
+			}
+			pages[page] = MipTexture.encode(pageSize, pageSize, pixels,
+				MipTexture.fullLevelCount(pageSize, pageSize), regionInts);
+		}
+		return pages;
+	}
+
+	/** copy an image onto the page as rgba bytes */
+	private static void draw (BufferedImage image, ByteBuffer page, int pageSize, int left, int top)
+	{
+		for (int y = 0; y < image.getHeight(); y++)
+		{
+			for (int x = 0; x < image.getWidth(); x++)
+			{
+				int argb = image.getRGB(x, y);
+				int offset = ((top + y) * pageSize + left + x) * 4;
+				page.put(offset, (byte) (argb >> 16));
+				page.put(offset + 1, (byte) (argb >> 8));
+				page.put(offset + 2, (byte) argb);
+				page.put(offset + 3, (byte) (argb >>> 24));
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import dental.beam.openglsamplegame.atlastool.AtlasTool;
+import dental.beam.openglsamplegame.helpers.AssetPack;
+import dental.beam.openglsamplegame.render.MipTexture;
+
+/**
+ * Getting the world atlas ready to upload, the way a cold start does it
+ *
+ * decodeDrawables is the fallback without a pack, decoding every png then packing and downsampling the page.
+ * mapPack opens the asset pack and reads the page from the mapping, touching every 4k page of it so the
+ * bytes really are read, and mapVerifiedPack checks the crcs as well. Single shot, each op is one start.
+ * The files are in the os cache after the first op, so this is the cpu side of loading, not the disk.
+ *
+ * Uses the game's own drawables, run from the project or the benchmark directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 20, batchSize = 1)
+public class AssetLoadBenchmark
+{
+	private static final String DRAWABLES[] = { "asteroid", "chicken", "ship" };
+	private static final int PAGE_SIZE = 1024;
+	private static final int OS_PAGE = 4096;
+
+	private File _pngs[];
+	private File _pack;
+
+	@Setup
+	public void setup () throws IOException
+	{
+		File directory = new File("app/src/main/res/drawable-xxxhdpi");
+		if (!directory.isDirectory())
+		{
+			directory = new File("../app/src/main/res/drawable-xxxhdpi");
+		}
+		_pngs = new File[DRAWABLES.length];
+		for (int i = 0; i < DRAWABLES.length; i++)
+		{
+			_pngs[i] = new File(directory, DRAWABLES[i] + ".png");
+		}
+
+		_pack = File.createTempFile("game", ".pack");
+		AssetPack.Writer writer = new AssetPack.Writer();
+		ByteBuffer pages[] = AtlasTool.buildPages(PAGE_SIZE, decode());
+		for (int page = 0; page < pages.length; page++)
+		{
+			writer.add("textures/world-" + page + ".mtex", pages[page]);
+		}
+		FileChannel channel = new FileOutputStream(_pack).getChannel();
+		try
+		{
+			writer.write(channel);
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown ()
+	{
+		_pack.delete();
+	}
+
+	private List<BufferedImage> decode () throws IOException
+	{
+		List<BufferedImage> images = new ArrayList<>();
+		for (File png : _pngs)
+		{
+			BufferedImage image = ImageIO.read(png);
+			if (image == null)
+			{
+				throw new IOException("can't read " + png);
+			}
+			images.add(image);
+		}
+		return images;
+	}
+
+	@Benchmark
+	public long decodeDrawables () throws IOException
+	{
+		ByteBuffer pages[] = AtlasTool.buildPages(PAGE_SIZE, decode());
+		return touch(MipTexture.read(pages[0]));
+	}
+
+	@Benchmark
+	public long mapPack () throws IOException
+	{
+		return touch(MipTexture.read(AssetPack.map(_pack, false).get("textures/world-0.mtex")));
+	}
+
+	@Benchmark
+	public long mapVerifiedPack () throws IOException
+	{
+		return touch(MipTexture.read(AssetPack.map(_pack, true).get("textures/world-0.mtex")));
+	}
+
+	/** read a byte from every os page of every level, as an upload would */
+	private static long touch (MipTexture texture)
+	{
+		long sum = 0;
+		for (int level = 0; level < texture.getLevelCount(); level++)
+		{
+			ByteBuffer pixels = texture.getLevel(level);
+			for (int i = 0; i < pixels.limit(); i += OS_PAGE)
+			{
+				sum += pixels.get(i);
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,119 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import dental.beam.openglsamplegame.engine.CollisionGrid;
+import dental.beam.openglsamplegame.helpers.GameRandom;
+import dental.beam.openglsamplegame.sprites.AsteroidSprite;
+import dental.beam.openglsamplegame.sprites.ChickenSprite;
+
+/**
+ * Checking every asteroid against the chickens with {@link AsteroidSprite#collidesWith}, once against all
+ * of them and once against only the ones a {@link CollisionGrid} says are close
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CollisionBenchmark
+{
+	private static final float RATIO = 1.7f;
+
+	@Param({ "100", "1000", "10000" })
+	int _asteroidCount;
+
+	@Param({ "5", "50" })
+	int _chickenCount;
+
+	private AsteroidSprite _asteroids[];
+	private ChickenSprite _chickens[];
+
+	private CollisionGrid _grid;
+	private int _candidates[];
+
+	@Setup
+	public void setup ()
+	{
+		Random random = new Random(42);
+		GameRandom gameRandom = new GameRandom(42);
+
+		_asteroids = new AsteroidSprite[_asteroidCount];
+		for (int i = 0; i < _asteroidCount; i++)
+		{
+			_asteroids[i] = new AsteroidSprite();
+			_asteroids[i].useOwnStore();
+			_asteroids[i].initRandom(gameRandom);
+			_asteroids[i].setRatio(RATIO);
+			_asteroids[i].setY(random.nextFloat() * 2 * RATIO - RATIO);
+		}
+
+		_chickens = new ChickenSprite[_chickenCount];
+		for (int i = 0; i < _chickenCount; i++)
+		{
+			_chickens[i] = new ChickenSprite();
+			_chickens[i].useOwnStore();
+			_chickens[i].init(gameRandom);
+			_chickens[i].setRatio(RATIO);
+		}
+
+		_grid = new CollisionGrid(AsteroidSprite.MAX_SCALE, _chickenCount);
+		_grid.setBounds(-1, -RATIO, 1, RATIO);
+		_candidates = new int[_chickenCount];
+	}
+
+	@Benchmark
+	public int everyPair ()
+	{
+		int hits = 0;
+		for (AsteroidSprite asteroid : _asteroids)
+		{
+			for (ChickenSprite chicken : _chickens)
+			{
+				if (asteroid.collidesWith(chicken))
+				{
+					hits++;
+				}
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	public int grid ()
+	{
+		_grid.clear();
+		for (int i = 0; i < _chickenCount; i++)
+		{
+			ChickenSprite chicken = _chickens[i];
+			_grid.insert(i, chicken.getCollisionX(), chicken.getCollisionTargetY(), chicken.getCollisionRadius());
+		}
+		if (_candidates.length < _grid.getEntryCount())
+		{
+			// like GameSimulation, only ever grows the first time
+			_candidates = new int[_grid.getEntryCount() * 2];
+		}
+
+		int hits = 0;
+		for (AsteroidSprite asteroid : _asteroids)
+		{
+			int count = _grid.query(asteroid.getCollisionX(), asteroid.getCollisionY(), asteroid.getCollisionRadius(), _candidates);
+			for (int c = 0; c < count; c++)
+			{
+				if (asteroid.collidesWith(_chickens[_candidates[c]]))
+				{
+					hits++;
+				}
+			}
+		}
+		return hits;
+	}
+}
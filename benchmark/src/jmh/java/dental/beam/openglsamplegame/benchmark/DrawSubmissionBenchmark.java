@@ -0,0 +1,109 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import dental.beam.openglsamplegame.render.GLResources;
+import dental.beam.openglsamplegame.render.NoOpGL;
+import dental.beam.openglsamplegame.render.PixelTexture;
+import dental.beam.openglsamplegame.render.RenderQueue;
+import dental.beam.openglsamplegame.render.SpriteProgram;
+import dental.beam.openglsamplegame.sprites.AtlasRegion;
+import dental.beam.openglsamplegame.sprites.QuadBatch;
+import dental.beam.openglsamplegame.sprites.SpriteSnapshot;
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+
+/**
+ * The cpu side of drawing a frame, everything up to where the gl calls would go
+ *
+ * quadBatch is only building the transformed quads, renderQueue is a whole frame: sorting, state
+ * tracking and the calls into the sprite program, with a {@link NoOpGL} underneath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DrawSubmissionBenchmark
+{
+	private static final float RATIO = 1.7f;
+	private static final float MATRIX[] = new float[16];
+
+	@Param({ "100", "1000", "10000" })
+	int _spriteCount;
+
+	private SpriteSnapshot _sprites;
+	private AtlasRegion _region;
+
+	private QuadBatch _quadBatch;
+	private RenderQueue _renderQueue;
+
+	@Setup
+	public void setup ()
+	{
+		Random random = new Random(42);
+		SpriteStore store = new SpriteStore(_spriteCount);
+		_sprites = new SpriteSnapshot(_spriteCount);
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			int slot = store.allocate();
+			store.posX[slot] = random.nextFloat() * 2 - 1;
+			store.posY[slot] = random.nextFloat() * 2 * RATIO - RATIO;
+			store.posZ[slot] = random.nextFloat() * 0.2f;
+			store.rotation[slot] = random.nextFloat() * 360;
+			store.scaleX[slot] = store.scaleY[slot] = 0.04f + random.nextFloat() * 0.2f;
+			_sprites.add(store, slot);
+		}
+
+
+		_quadBatch = new QuadBatch(SpriteProgram.DEFAULT_MAX_QUADS_PER_DRAW, new QuadBatch.Target()
+		{
+			@Override
+			public void drawQuads (FloatBuffer vertices, int quadCount, int textureHandle)
+			{
+			}
+		});
+
+		GLResources resources = new GLResources(new NoOpGL());
+		SpriteProgram program = new SpriteProgram(resources, SpriteProgram.DEFAULT_MAX_QUADS_PER_DRAW);
+		program.create();
+
+		_region = new AtlasRegion(0, 0, 0, 408, 384, 1024, 1024);
+		_region.textureHandle = resources.register("atlas", GLResources.TYPE_TEXTURE,
+			new PixelTexture(1024, 1024, ByteBuffer.allocateDirect(1024 * 1024 * 4)));
+		_renderQueue = new RenderQueue(program, program.getMaxQuadsPerDraw(), _spriteCount);
+	}
+
+	@Benchmark
+	public int quadBatch ()
+	{
+		SpriteSnapshot sprites = _sprites;
+		AtlasRegion region = _region;
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			_quadBatch.add(region.textureHandle, sprites.drawX(i, 0.5f), sprites.drawY(i, 0.5f), sprites.z[i],
+				sprites.drawRotation(i, 0.5f), sprites.drawScaleX(i, 0.5f), sprites.drawScaleY(i, 0.5f),
+				region.u0, region.v0, region.u1, region.v1);
+		}
+		_quadBatch.flush();
+		return _quadBatch.getFlushCount();
+	}
+
+	@Benchmark
+	public int renderQueue ()
+	{
+		_renderQueue.begin();
+		_renderQueue.addSprites(RenderQueue.LAYER_WORLD, _region, _sprites, 0.5f);
+		_renderQueue.execute(MATRIX);
+		return _renderQueue.getDrawCalls();
+	}
+}
@@ -0,0 +1,81 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import dental.beam.openglsamplegame.engine.FrameProfiler;
+import dental.beam.openglsamplegame.engine.GameClock;
+import dental.beam.openglsamplegame.engine.GameSimulation;
+import dental.beam.openglsamplegame.engine.SpawnSchedule;
+import dental.beam.openglsamplegame.helpers.TiltSource;
+
+/**
+ * One tick of the game at about a fixed number of asteroids on screen
+ *
+ * Runs GameSimulation.tick itself, with a spawn schedule that keeps about that many asteroids falling, and
+ * the player standing in the middle so some of them break up. When the chickens are gone a new game starts
+ * over the asteroids still falling, so every tick does about the same amount of work.
+ * {@link SimulationHarness} runs the game for a long session.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EngineUpdateBenchmark
+{
+	private static final float RATIO = 1.7f;
+	private static final long TICK_NANOS = 1000000000L / GameSimulation.DEFAULT_TICKS_PER_SECOND;
+
+	private static final TiltSource STILL = new TiltSource()
+	{
+		@Override
+		public float getTilt (long timeNanos)
+		{
+			return 0;
+		}
+	};
+
+	@Param({ "100", "1000", "10000" })
+	int _asteroidCount;
+
+	private GameSimulation _simulation;
+	private int _tick;
+
+	@Setup
+	public void setup ()
+	{
+		_simulation = new GameSimulation(42, STILL, new FrameProfiler(GameClock.SYSTEM, 1));
+		_simulation.setWorldRatio(RATIO);
+		// an asteroid is on screen for about ASTEROID_LIFETIME ticks
+		int lifetime = SimulationHarness.ASTEROID_LIFETIME;
+		int framesBetweenSpawns = Math.max(1, lifetime / _asteroidCount);
+		int asteroidsPerSpawn = Math.max(1, _asteroidCount / lifetime);
+		_simulation.setSpawnSchedule(new SpawnSchedule(framesBetweenSpawns, framesBetweenSpawns, asteroidsPerSpawn));
+		_simulation.startGame();
+
+		// fill the screen before anything is timed
+		_tick = 0;
+		while (_tick < lifetime + 20)
+		{
+			update();
+		}
+	}
+
+	@Benchmark
+	public int update ()
+	{
+		if (!_simulation.isPlaying())
+		{
+			_simulation.startGame();
+		}
+		_simulation.tick(_tick++ * TICK_NANOS);
+		return _simulation.getLiveCount();
+	}
+}
@@ -0,0 +1,85 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import dental.beam.openglsamplegame.sprites.TextLayout;
+
+/**
+ * The cpu side of a frame of the asteroid counter, up to the calls into GLText
+ *
+ * toStringEveryFrame is how it used to work, a new String and measuring all of it every frame.
+ * unchangedHud is most frames with the layout, and counting is a frame where an asteroid was hit.
+ * The gc profiler is on, gc.alloc.rate.norm should be 0 for both layout ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HudTextBenchmark
+{
+	/** about what GLText gives for OpenSans at the HUD size */
+	private static final TextLayout.Metrics METRICS = new TextLayout.Metrics()
+	{
+		@Override
+		public float getCharWidth (char c)
+		{
+			return c == '1' ? 14 : 22;
+		}
+	};
+
+	private TextLayout _layout;
+	private int _count;
+
+	@Setup
+	public void setup ()
+	{
+		_layout = new TextLayout(16, METRICS);
+		_count = 1234;
+		_layout.setInt(_count);
+	}
+
+	@Benchmark
+	public float toStringEveryFrame ()
+	{
+		String text = Integer.toString(_count);
+		float width = 0;
+		for (int i = 0; i < text.length(); i++)
+		{
+			width += METRICS.getCharWidth(text.charAt(i));
+		}
+		return place(text.length(), width) + text.hashCode();
+	}
+
+	@Benchmark
+	public float unchangedHud ()
+	{
+		_layout.setInt(_count);
+		return place(_layout.getLength(), _layout.getWidth());
+	}
+
+	@Benchmark
+	public float counting ()
+	{
+		_layout.setInt(++_count);
+		return place(_layout.getLength(), _layout.getWidth());
+	}
+
+	/** where TextSprite would draw each glyph, right aligned */
+	private float place (int length, float width)
+	{
+		float x = 540 - width;
+		float sum = 0;
+		for (int i = 0; i < length; i++)
+		{
+			sum += x + _layout.getOffset(i);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,96 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import dental.beam.openglsamplegame.helpers.GameRandom;
+import dental.beam.openglsamplegame.sprites.BrokenAsteroidSprite;
+import dental.beam.openglsamplegame.sprites.SpritePool;
+
+/**
+ * A tick of debris, shrinking, spinning, falling and culling, with the pieces that are done replaced so the
+ * count stays put. Once through update and kill on each sprite, once through SpriteStore.integrate and
+ * SpritePool.retain. Both leave the pool in the same state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IntegrationBenchmark
+{
+	private static final float RATIO = 1.7f;
+
+	@Param({ "1000", "10000", "100000" })
+	int _spriteCount;
+
+	private SpritePool<BrokenAsteroidSprite> _pool;
+	private int _survivors[];
+	private GameRandom _random = new GameRandom(42);
+
+	@Setup
+	public void setup ()
+	{
+		_pool = new SpritePool<>(_spriteCount, new SpritePool.Factory<BrokenAsteroidSprite>()
+		{
+			@Override
+			public BrokenAsteroidSprite create ()
+			{
+				return new BrokenAsteroidSprite();
+			}
+		});
+		_survivors = new int[_spriteCount];
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			spawn().setY(_random.nextFloat(-RATIO, RATIO));
+		}
+	}
+
+	private BrokenAsteroidSprite spawn ()
+	{
+		BrokenAsteroidSprite piece = _pool.spawn();
+		piece.init(RATIO, _random.nextFloat(-1, 1), RATIO, _random.nextFloat(-0.01f, 0.01f),
+			_random.nextFloat(-0.02f, -0.005f), _random.nextFloat(0.02f, 0.12f), _random);
+		return piece;
+	}
+
+	private void refill ()
+	{
+		while (_pool.getLiveCount() < _spriteCount)
+		{
+			spawn();
+		}
+	}
+
+	@Benchmark
+	public int perObject ()
+	{
+		for (int i = 0; i < _pool.getLiveCount(); i++)
+		{
+			BrokenAsteroidSprite piece = _pool.getLive(i);
+			if (!piece.update())
+			{
+				_pool.kill(piece);
+				i--;
+			}
+		}
+		refill();
+		return _pool.getLiveCount();
+	}
+
+	@Benchmark
+	public int integrate ()
+	{
+		int count = _pool.getStore().integrate(_pool.getLiveSlots(), 0, _pool.getLiveCount(),
+			BrokenAsteroidSprite.SCALE_DELTA, _survivors);
+		_pool.retain(_survivors, count);
+		refill();
+		return _pool.getLiveCount();
+	}
+}
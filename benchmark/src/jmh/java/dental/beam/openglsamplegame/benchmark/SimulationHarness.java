@@ -0,0 +1,262 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import dental.beam.openglsamplegame.engine.FrameProfiler;
+import dental.beam.openglsamplegame.engine.GameClock;
+import dental.beam.openglsamplegame.engine.GameSimulation;
+import dental.beam.openglsamplegame.engine.SpawnSchedule;
+import dental.beam.openglsamplegame.helpers.TiltSource;
+
+/**
+ * Runs the whole game headless as fast as it goes and reports what a long session does to it
+ *
+ * <pre>
+ *   ./gradlew :benchmark:soak -PsoakArgs="ticks seed framesBetweenSpawns asteroidsPerSpawn"
+ * </pre>
+ * Tick times are made up, a tick apart at 60 a second, and the tilt sweeps side to side so the player
+ * keeps running into asteroids. When the last chicken dies a new game starts straight away over the
+ * asteroids still falling, so the load only goes up. The schedule starts at its fastest, every frame
+ * with 10 asteroids a spawn is about 3000 on screen, the game itself never gets past about 15.
+ *
+ * Reports ticks a second, the most sprites alive at once, how often a pool grew in the middle of a tick
+ * and how much the ticking thread allocated. The first tenth of the ticks warms the jit up and isn't
+ * timed, peak and expansions count the whole run.
+ *
+ * <pre>
+ *   ./gradlew :benchmark:soak -PsoakArgs="scaling maxThreads"
+ * </pre>
+ * runs the serial update then the parallel one on 1, 2, 4... threads up to maxThreads at 10k, 100k and 1M
+ * sprites. maxThreads defaults to the cores there are. Each run fills the screen first then times the ticks,
+ * speedups are against the parallel update on one thread, and every run has to end on the same state hash
+ * as the serial one.
+ */
+public class SimulationHarness
+{
+	private static final float RATIO = 1.7f;
+	private static final long TICK_NANOS = 1000000000L / GameSimulation.DEFAULT_TICKS_PER_SECOND;
+
+	/** a full sweep every 4 seconds, most of the way to the sides */
+	private static final TiltSource SWEEP = new TiltSource()
+	{
+		@Override
+		public float getTilt (long timeNanos)
+		{
+			return (float) (30 * Math.sin(2 * Math.PI * timeNanos / 4e9));
+		}
+	};
+
+	/** asteroids are on screen for about this long, between the slowest and fastest falling all the way */
+	static final int ASTEROID_LIFETIME = 140;
+
+	public static void main (String args[]) throws InterruptedException
+	{
+		if (args.length > 0 && args[0].equals("scaling"))
+		{
+			scaling(args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+			return;
+		}
+
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+		int framesBetweenSpawns = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+		int asteroidsPerSpawn = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+		ExecutorService builder = Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread (Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "prewarm");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		// hand overs run between ticks, like SimulationThread does
+		final Queue<Runnable> betweenTicks = new ArrayDeque<>();
+		Executor owner = new Executor()
+		{
+			@Override
+			public void execute (Runnable command)
+			{
+				synchronized (betweenTicks)
+				{
+					betweenTicks.add(command);
+				}
+			}
+		};
+
+		FrameProfiler profiler = new FrameProfiler(GameClock.SYSTEM, 1);
+		GameSimulation simulation = new GameSimulation(seed, SWEEP, profiler);
+		simulation.setWorldRatio(RATIO);
+		simulation.setPrewarmExecutors(builder, owner);
+		simulation.setSpawnSchedule(new SpawnSchedule(framesBetweenSpawns, framesBetweenSpawns, asteroidsPerSpawn));
+		simulation.startGame();
+
+		int warmup = ticks / 10;
+		int peakLive = 0;
+		int games = 1;
+		long startNanos = 0;
+		long startAllocated = 0;
+		long startGcCount = 0;
+		long startGcMillis = 0;
+
+		for (int tick = 0; tick < ticks; tick++)
+		{
+			if (tick == warmup)
+			{
+				profiler.reset();
+				startGcCount = gcCount();
+				startGcMillis = gcMillis();
+				startAllocated = allocatedBytes();
+				startNanos = System.nanoTime();
+			}
+
+			synchronized (betweenTicks)
+			{
+				while (!betweenTicks.isEmpty())
+				{
+					betweenTicks.poll().run();
+				}
+			}
+			if (simulation.getLiveChickenCount() == 0)
+			{
+				simulation.gameOver();
+				simulation.startGame();
+				games++;
+			}
+
+			simulation.tick(tick * TICK_NANOS);
+			peakLive = Math.max(peakLive, simulation.getLiveCount());
+		}
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+		long allocated = allocatedBytes() - startAllocated;
+		int timed = ticks - warmup;
+		builder.shutdown();
+
+		System.out.println(String.format(Locale.US, "%d ticks, seed %d, %d asteroids every %d frames, %d games",
+			ticks, seed, asteroidsPerSpawn, framesBetweenSpawns, games));
+		System.out.println(String.format(Locale.US, "%.0f ticks/s, %.1fus a tick", timed * 1e9 / elapsedNanos,
+			elapsedNanos / 1e3 / timed));
+		System.out.println(String.format(Locale.US, "peak live sprites %d, %d alive at the end",
+			peakLive, simulation.getLiveCount()));
+		System.out.println("pool expansions inside a tick " + simulation.getExpansionCount());
+		if (allocated >= 0)
+		{
+			System.out.println(String.format(Locale.US, "allocated %.1f bytes a tick, %.2f MB/s, %d gcs taking %dms",
+				(double) allocated / timed, allocated * 1e9 / elapsedNanos / (1024 * 1024),
+				gcCount() - startGcCount, gcMillis() - startGcMillis));
+		}
+		System.out.println(profiler);
+	}
+
+	private static void scaling (int maxThreads)
+	{
+		int spriteCounts[] = { 10000, 100000, 1000000 };
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, maxThreads - 1), new ThreadFactory()
+		{
+			@Override
+			public Thread newThread (Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "update");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		System.out.println("sprites threads ticks/s speedup");
+		for (int sprites : spriteCounts)
+		{
+			// the same amount of work whatever the count, about 20 million sprite updates
+			int ticks = Math.max(10, 20000000 / sprites);
+			double oneThreadTicksPerSecond = 0;
+			long serialHash = 0;
+			// 0 threads is the serial update
+			for (int threads = 0; threads <= maxThreads; threads = Math.max(1, threads * 2))
+			{
+				GameSimulation simulation = new GameSimulation(42, SWEEP, new FrameProfiler(GameClock.SYSTEM, 1));
+				simulation.setWorldRatio(RATIO);
+				if (threads > 0)
+				{
+					simulation.setParallelUpdate(executor, threads);
+				}
+				simulation.setSpawnSchedule(new SpawnSchedule(1, 1, Math.max(1, sprites / ASTEROID_LIFETIME)));
+				simulation.startGame();
+
+				// fill the screen, then time it
+				runTicks(simulation, 0, ASTEROID_LIFETIME + 20);
+				long startNanos = System.nanoTime();
+				runTicks(simulation, ASTEROID_LIFETIME + 20, ticks);
+				double ticksPerSecond = ticks * 1e9 / (System.nanoTime() - startNanos);
+
+				long hash = simulation.getStateHash();
+				if (threads == 0)
+				{
+					serialHash = hash;
+					System.out.println(String.format(Locale.US, "%7d  serial %7.1f", simulation.getLiveCount(), ticksPerSecond));
+					continue;
+				}
+				if (threads == 1)
+				{
+					oneThreadTicksPerSecond = ticksPerSecond;
+				}
+				System.out.println(String.format(Locale.US, "%7d %7d %7.1f %6.2fx%s", simulation.getLiveCount(), threads,
+					ticksPerSecond, ticksPerSecond / oneThreadTicksPerSecond, hash == serialHash ? "" : " NOT THE SAME GAME"));
+			}
+		}
+		executor.shutdown();
+	}
+
+	private static void runTicks (GameSimulation simulation, int firstTick, int count)
+	{
+		for (int tick = firstTick; tick < firstTick + count; tick++)
+		{
+			if (simulation.getLiveChickenCount() == 0)
+			{
+				simulation.gameOver();
+				simulation.startGame();
+			}
+			simulation.tick(tick * TICK_NANOS);
+		}
+	}
+
+	/** what this thread has allocated so far, -1 on a vm that doesn't count it */
+	private static long allocatedBytes ()
+	{
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean)
+		{
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private static long gcCount ()
+	{
+		long count = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+		{
+			count += Math.max(0, collector.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long gcMillis ()
+	{
+		long millis = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+		{
+			millis += Math.max(0, collector.getCollectionTime());
+		}
+		return millis;
+	}
+}
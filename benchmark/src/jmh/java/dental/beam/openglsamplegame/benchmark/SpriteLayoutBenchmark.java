@@ -0,0 +1,175 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import dental.beam.openglsamplegame.sprites.SpriteStore;
+
+/**
+ * Moving, rotating and culling a population of asteroids,
+ * once with the old float[]-per-attribute sprite objects and once with the packed SpriteStore
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpriteLayoutBenchmark
+{
+	private static final float RATIO = 1.7f;
+
+	@Param({ "1000", "10000", "100000" })
+	int _spriteCount;
+
+	private List<ObjectSprite> _objects;
+
+	private SpriteStore _store;
+	private int _slots[];
+	private int _survivors[];
+
+	/** the layout TextureSprite used to have, every attribute is its own little array */
+	static class ObjectSprite
+	{
+		float _currentPos[] = new float[3];
+		float _vector[] = new float[3];
+		float _currentScale[] = new float[] { 1.0f, 1.0f };
+		float _center[] = new float[2];
+		float _rotationZ;
+		float _rotationDelta;
+		boolean _alive = true;
+
+		boolean update ()
+		{
+			_rotationZ += _rotationDelta;
+
+			if (!_alive)
+			{
+				return false;
+			}
+
+			_currentPos[0] = _currentPos[0] + _vector[0];
+			_currentPos[1] = _currentPos[1] + _vector[1];
+
+			if (_currentPos[1] < -RATIO)
+			{
+				_alive = false;
+			}
+
+			return true;
+		}
+	}
+
+	@Setup
+	public void setup ()
+	{
+		Random random = new Random(42);
+
+		_objects = new ArrayList<>(_spriteCount);
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			_objects.add(new ObjectSprite());
+		}
+
+		// BrokenAsteroidSprite.init used to swap in freshly allocated arrays, so by the time a pool
+		// had been running for a while its sprites' arrays were scattered across the heap
+		List<ObjectSprite> shuffled = new ArrayList<>(_objects);
+		Collections.shuffle(shuffled, random);
+		List<float[]> garbage = new ArrayList<>();
+		for (ObjectSprite sprite : shuffled)
+		{
+			sprite._currentPos = new float[3];
+			garbage.add(new float[random.nextInt(16) + 1]);
+			sprite._vector = new float[3];
+			garbage.add(new float[random.nextInt(16) + 1]);
+		}
+
+		_store = new SpriteStore(_spriteCount);
+		_slots = new int[_spriteCount];
+		_survivors = new int[_spriteCount];
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			_slots[i] = _store.allocate();
+		}
+
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			float x = random.nextFloat() * 2 - 1;
+			float y = random.nextFloat() * 2 * RATIO - RATIO;
+			float vectorX = random.nextFloat() * 0.004f - 0.002f;
+			float vectorY = -0.02f - random.nextFloat() * 0.01f;
+			float rotationDelta = random.nextFloat() * 4 - 2;
+
+			ObjectSprite sprite = _objects.get(i);
+			sprite._currentPos[0] = x;
+			sprite._currentPos[1] = y;
+			sprite._vector[0] = vectorX;
+			sprite._vector[1] = vectorY;
+			sprite._rotationDelta = rotationDelta;
+
+			_store.posX[i] = x;
+			_store.posY[i] = y;
+			_store.vectorX[i] = vectorX;
+			_store.vectorY[i] = vectorY;
+			_store.rotationDelta[i] = rotationDelta;
+			_store.bottom[i] = -RATIO;
+		}
+	}
+
+	@Benchmark
+	public int objectPerSprite ()
+	{
+		int alive = 0;
+		List<ObjectSprite> objects = _objects;
+		int size = objects.size();
+		for (int i = 0; i < size; i++)
+		{
+			ObjectSprite sprite = objects.get(i);
+			sprite.update();
+			if (sprite._alive)
+			{
+				alive++;
+			}
+			else
+			{
+				// keep the population steady so every iteration does the same work
+				sprite._currentPos[1] = RATIO;
+				sprite._alive = true;
+			}
+		}
+		return alive;
+	}
+
+	@Benchmark
+	public int structureOfArrays ()
+	{
+		SpriteStore store = _store;
+		store.integrate(_slots, 0, _spriteCount, 0, _survivors);
+
+		int alive = 0;
+		boolean stillAlive[] = store.alive;
+		float posY[] = store.posY;
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			if (stillAlive[i])
+			{
+				alive++;
+			}
+			else
+			{
+				posY[i] = RATIO;
+				stillAlive[i] = true;
+			}
+		}
+		return alive;
+	}
+}
@@ -0,0 +1,104 @@
+package dental.beam.openglsamplegame.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import dental.beam.openglsamplegame.helpers.GameRandom;
+import dental.beam.openglsamplegame.sprites.AsteroidSprite;
+import dental.beam.openglsamplegame.sprites.BrokenAsteroidSprite;
+import dental.beam.openglsamplegame.sprites.DebrisPattern;
+import dental.beam.openglsamplegame.sprites.SpritePool;
+
+/**
+ * Spawning and killing sprites, on their own and the way breaking an asteroid does it
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpritePoolBenchmark
+{
+	private static final float RATIO = 1.7f;
+
+	@Param({ "100", "1000", "10000" })
+	int _spriteCount;
+
+	private SpritePool<AsteroidSprite> _pool;
+	/** positions in the live list to kill from, in an order that moves sprites around like a game does */
+	private int _killOrder[];
+
+	private SpritePool<BrokenAsteroidSprite> _brokenAsteroidPool;
+	private AsteroidSprite _asteroid;
+	private DebrisPattern _debrisPattern = DebrisPattern.DEFAULT;
+	private GameRandom _random = new GameRandom(42);
+
+	@Setup
+	public void setup ()
+	{
+		_pool = new SpritePool<>(_spriteCount, new SpritePool.Factory<AsteroidSprite>()
+		{
+			@Override
+			public AsteroidSprite create ()
+			{
+				return new AsteroidSprite();
+			}
+		});
+
+		Random random = new Random(42);
+		_killOrder = new int[_spriteCount];
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			// the live list shrinks by one with every kill
+			_killOrder[i] = random.nextInt(_spriteCount - i);
+		}
+
+		_brokenAsteroidPool = new SpritePool<>(_debrisPattern.getPieceCount(), new SpritePool.Factory<BrokenAsteroidSprite>()
+		{
+			@Override
+			public BrokenAsteroidSprite create ()
+			{
+				return new BrokenAsteroidSprite();
+			}
+		});
+		_asteroid = new AsteroidSprite();
+		_asteroid.useOwnStore();
+		_asteroid.initRandom(_random);
+		_asteroid.setRatio(RATIO);
+	}
+
+	/** fill the pool then empty it again */
+	@Benchmark
+	public int spawnKillChurn ()
+	{
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			_pool.spawn().initRandom(_random);
+		}
+		for (int i = 0; i < _spriteCount; i++)
+		{
+			_pool.kill(_pool.getLive(_killOrder[i]));
+		}
+		return _pool.getLiveCount();
+	}
+
+	/** one asteroid hitting the player, the pieces go straight back so the pool never grows */
+	@Benchmark
+	public int breakAsteroid ()
+	{
+		_debrisPattern.shatter(_asteroid, RATIO, _brokenAsteroidPool, _random);
+		int pieces = _brokenAsteroidPool.getLiveCount();
+		while (_brokenAsteroidPool.getLiveCount() > 0)
+		{
+			_brokenAsteroidPool.kill(_brokenAsteroidPool.getLive(0));
+		}
+		return pieces;
+	}
+}